@@ -0,0 +1,62 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, which reports the allocation rate
+ * and the allocated bytes per injection. Unless the thread count is given with
+ * the {@code -t} option, benchmarks are repeated with 1, 2, 4 ... threads up
+ * to the count of the available processors. Other JMH command line options
+ * are passed as is, e.g.
+ * 
+ * <pre>
+ * java -jar target/benchmarks.jar ImportBenchmark -p shape=NESTED,CONVERTED
+ * </pre>
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public final class BenchmarkRunner {
+
+	private BenchmarkRunner() {
+	}
+
+	public static void main(String[] args) throws CommandLineOptionException,
+			RunnerException {
+		final CommandLineOptions cli = new CommandLineOptions(args);
+		if (cli.getThreads().hasValue()) {
+			run(new OptionsBuilder().parent(cli));
+			return;
+		}
+		final int processors = Runtime.getRuntime().availableProcessors();
+		for (int threads = 1; threads < processors; threads <<= 1) {
+			run(new OptionsBuilder().parent(cli).threads(threads));
+		}
+		run(new OptionsBuilder().parent(cli).threads(processors));
+	}
+
+	private static void run(final ChainedOptionsBuilder options)
+			throws RunnerException {
+		new Runner(options.addProfiler(GCProfiler.class).build()).run();
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bushido.beans.Injector;
+import org.bushido.benchmarks.beans.Depth2;
+import org.bushido.benchmarks.beans.NestedView;
+import org.bushido.benchmarks.beans.Values;
+import org.dozer.Mapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Exports the {@link NestedView} properties two levels below the
+ * {@link Depth2} root with the direct calls, the Bushido exporter and the
+ * Dozer mapper. Every thread owns its beans.
+ * 
+ * @author Victor Gubin
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ExportBenchmark {
+
+	private NestedView src;
+	private Depth2 dest;
+	private Injector<NestedView, Depth2> exporter;
+	private Mapper mapper;
+
+	@Setup
+	public void setUp(final Mappers mappers) {
+		dest = Fixtures.nested();
+		src = new NestedView();
+		mappers.factory.createImporter(Depth2.class, NestedView.class).inject(
+				dest, src);
+		exporter = mappers.factory.createExporter(NestedView.class,
+				Depth2.class);
+		mapper = mappers.mapper;
+	}
+
+	@Benchmark
+	public Object direct() {
+		final Values values = dest.getInner().getValues();
+		values.setBooleanValue(src.isBooleanValue());
+		values.setByteValue(src.getByteValue());
+		values.setShortValue(src.getShortValue());
+		values.setCharValue(src.getCharValue());
+		values.setIntValue(src.getIntValue());
+		values.setLongValue(src.getLongValue());
+		values.setFloatValue(src.getFloatValue());
+		values.setDoubleValue(src.getDoubleValue());
+		return dest;
+	}
+
+	@Benchmark
+	public Object bushido() {
+		exporter.inject(src, dest);
+		return dest;
+	}
+
+	@Benchmark
+	public Object dozer() {
+		mapper.map(src, dest);
+		return dest;
+	}
+}
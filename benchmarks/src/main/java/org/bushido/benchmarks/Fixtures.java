@@ -0,0 +1,63 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import org.bushido.benchmarks.beans.Depth1;
+import org.bushido.benchmarks.beans.Depth2;
+import org.bushido.benchmarks.beans.Values;
+
+/**
+ * Creates the populated source beans
+ * 
+ * @author Victor Gubin
+ * 
+ */
+final class Fixtures {
+
+	private Fixtures() {
+	}
+
+	static Values values() {
+		final Values result = new Values();
+		result.setBooleanValue(true);
+		result.setByteValue(Byte.MAX_VALUE);
+		result.setShortValue(Short.MAX_VALUE);
+		result.setCharValue('A');
+		result.setIntValue(42);
+		result.setLongValue(42L);
+		result.setFloatValue(42.5F);
+		result.setDoubleValue(42.5D);
+		result.setName("Lorem ipsum");
+		result.setText("dolor sit amet");
+		result.setCode("42");
+		result.setBoxedInt(Integer.valueOf(42));
+		result.setBoxedLong(Long.valueOf(42L));
+		result.setBoxedDouble(Double.valueOf(42D));
+		result.setDate(new Date(0L));
+		result.setDecimal(BigDecimal.TEN);
+		return result;
+	}
+
+	static Depth2 nested() {
+		final Depth1 depth1 = new Depth1();
+		depth1.setValues(values());
+		final Depth2 result = new Depth2();
+		result.setInner(depth1);
+		return result;
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Injects the source bean of every {@link Shape} into the existing
+ * destination bean with the direct calls, the Bushido importer and the Dozer
+ * mapper. Every thread owns its beans.
+ * 
+ * @author Victor Gubin
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ImportBenchmark {
+
+	@Param
+	public Shape shape;
+
+	private Scenario<?, ?> scenario;
+
+	@Setup
+	public void setUp(final Mappers mappers) {
+		scenario = shape.create(mappers.factory, mappers.mapper);
+	}
+
+	@Benchmark
+	public Object direct() {
+		return scenario.direct();
+	}
+
+	@Benchmark
+	public Object bushido() {
+		return scenario.bushido();
+	}
+
+	@Benchmark
+	public Object dozer() {
+		return scenario.dozer();
+	}
+}
@@ -0,0 +1,46 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.benchmarks;
+
+import java.util.Collections;
+
+import org.bushido.beans.InjectorFactory;
+import org.dozer.DozerBeanMapper;
+import org.dozer.Mapper;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Injector factory and Dozer mapper shared by all benchmark threads, the same
+ * way an application shares them
+ * 
+ * @author Victor Gubin
+ * 
+ */
+@State(Scope.Benchmark)
+public class Mappers {
+
+	static final String DOZER_MAPPING = "dozer-benchmarks.xml";
+
+	InjectorFactory factory;
+	Mapper mapper;
+
+	@Setup
+	public void setUp() {
+		factory = InjectorFactory.newFactory();
+		mapper = new DozerBeanMapper(Collections.singletonList(DOZER_MAPPING));
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.benchmarks;
+
+import org.bushido.beans.Injector;
+import org.bushido.beans.InjectorFactory;
+import org.dozer.Mapper;
+
+/**
+ * Source and destination beans of the one benchmark {@link Shape} with the
+ * three ways to inject the source into the destination
+ * 
+ * @author Victor Gubin
+ * 
+ * @param <Src>
+ *            source bean type
+ * @param <Dest>
+ *            destination bean type
+ */
+abstract class Scenario<Src, Dest> {
+
+	protected final Src src;
+	protected final Dest dest;
+	private final Injector<Src, Dest> importer;
+	private final Mapper mapper;
+
+	Scenario(final InjectorFactory factory, final Mapper mapper,
+			final Src src, final Dest dest) {
+		this.src = src;
+		this.dest = dest;
+		this.mapper = mapper;
+		@SuppressWarnings("unchecked")
+		final Class<Src> srcClass = (Class<Src>) src.getClass();
+		@SuppressWarnings("unchecked")
+		final Class<Dest> destClass = (Class<Dest>) dest.getClass();
+		this.importer = factory.createImporter(srcClass, destClass);
+	}
+
+	/**
+	 * Hand written getter to setter calls, the baseline for the others
+	 * 
+	 * @return destination bean
+	 */
+	abstract Dest direct();
+
+	Dest bushido() {
+		importer.inject(src, dest);
+		return dest;
+	}
+
+	Dest dozer() {
+		mapper.map(src, dest);
+		return dest;
+	}
+}
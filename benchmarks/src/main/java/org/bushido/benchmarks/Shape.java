@@ -0,0 +1,163 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.benchmarks;
+
+import org.bushido.beans.InjectorFactory;
+import org.bushido.benchmarks.beans.ConvertedView;
+import org.bushido.benchmarks.beans.Depth2;
+import org.bushido.benchmarks.beans.MixedView;
+import org.bushido.benchmarks.beans.NestedView;
+import org.bushido.benchmarks.beans.ObjectView;
+import org.bushido.benchmarks.beans.PrimitiveView;
+import org.bushido.benchmarks.beans.Values;
+import org.dozer.Mapper;
+
+/**
+ * Benchmarked bean shapes. Shapes vary the nesting depth of the source
+ * properties, the count of the injected properties, primitive against object
+ * properties and the converted properties.
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public enum Shape {
+	/**
+	 * Eight primitive properties of the flat bean
+	 */
+	PRIMITIVE {
+		@Override
+		Scenario<?, ?> create(InjectorFactory factory, Mapper mapper) {
+			return new Scenario<Values, PrimitiveView>(factory, mapper,
+					Fixtures.values(), new PrimitiveView()) {
+				@Override
+				PrimitiveView direct() {
+					dest.setBooleanValue(src.isBooleanValue());
+					dest.setByteValue(src.getByteValue());
+					dest.setShortValue(src.getShortValue());
+					dest.setCharValue(src.getCharValue());
+					dest.setIntValue(src.getIntValue());
+					dest.setLongValue(src.getLongValue());
+					dest.setFloatValue(src.getFloatValue());
+					dest.setDoubleValue(src.getDoubleValue());
+					return dest;
+				}
+			};
+		}
+	},
+	/**
+	 * Eight object properties of the flat bean
+	 */
+	OBJECT {
+		@Override
+		Scenario<?, ?> create(InjectorFactory factory, Mapper mapper) {
+			return new Scenario<Values, ObjectView>(factory, mapper,
+					Fixtures.values(), new ObjectView()) {
+				@Override
+				ObjectView direct() {
+					dest.setName(src.getName());
+					dest.setText(src.getText());
+					dest.setCode(src.getCode());
+					dest.setBoxedInt(src.getBoxedInt());
+					dest.setBoxedLong(src.getBoxedLong());
+					dest.setBoxedDouble(src.getBoxedDouble());
+					dest.setDate(src.getDate());
+					dest.setDecimal(src.getDecimal());
+					return dest;
+				}
+			};
+		}
+	},
+	/**
+	 * Sixteen primitive and object properties of the flat bean
+	 */
+	MIXED {
+		@Override
+		Scenario<?, ?> create(InjectorFactory factory, Mapper mapper) {
+			return new Scenario<Values, MixedView>(factory, mapper,
+					Fixtures.values(), new MixedView()) {
+				@Override
+				MixedView direct() {
+					dest.setBooleanValue(src.isBooleanValue());
+					dest.setByteValue(src.getByteValue());
+					dest.setShortValue(src.getShortValue());
+					dest.setCharValue(src.getCharValue());
+					dest.setIntValue(src.getIntValue());
+					dest.setLongValue(src.getLongValue());
+					dest.setFloatValue(src.getFloatValue());
+					dest.setDoubleValue(src.getDoubleValue());
+					dest.setName(src.getName());
+					dest.setText(src.getText());
+					dest.setCode(src.getCode());
+					dest.setBoxedInt(src.getBoxedInt());
+					dest.setBoxedLong(src.getBoxedLong());
+					dest.setBoxedDouble(src.getBoxedDouble());
+					dest.setDate(src.getDate());
+					dest.setDecimal(src.getDecimal());
+					return dest;
+				}
+			};
+		}
+	},
+	/**
+	 * Eight primitive properties two levels below the source root
+	 */
+	NESTED {
+		@Override
+		Scenario<?, ?> create(InjectorFactory factory, Mapper mapper) {
+			return new Scenario<Depth2, NestedView>(factory, mapper,
+					Fixtures.nested(), new NestedView()) {
+				@Override
+				NestedView direct() {
+					final Values values = src.getInner().getValues();
+					dest.setBooleanValue(values.isBooleanValue());
+					dest.setByteValue(values.getByteValue());
+					dest.setShortValue(values.getShortValue());
+					dest.setCharValue(values.getCharValue());
+					dest.setIntValue(values.getIntValue());
+					dest.setLongValue(values.getLongValue());
+					dest.setFloatValue(values.getFloatValue());
+					dest.setDoubleValue(values.getDoubleValue());
+					return dest;
+				}
+			};
+		}
+	},
+	/**
+	 * Eight properties of the flat bean, each one converted
+	 */
+	CONVERTED {
+		@Override
+		Scenario<?, ?> create(InjectorFactory factory, Mapper mapper) {
+			return new Scenario<Values, ConvertedView>(factory, mapper,
+					Fixtures.values(), new ConvertedView()) {
+				@Override
+				ConvertedView direct() {
+					dest.setIntAsLong(src.getIntValue());
+					dest.setFloatAsDouble(src.getFloatValue());
+					dest.setLongAsDouble(src.getLongValue());
+					dest.setDoubleAsFloat((float) src.getDoubleValue());
+					dest.setParsedCode(Integer.valueOf(src.getCode()));
+					dest.setMillis(Long.valueOf(src.getDate().getTime()));
+					dest.setDecimalAsDouble(Double.valueOf(src.getDecimal()
+							.doubleValue()));
+					dest.setBoxedIntText(src.getBoxedInt().toString());
+					return dest;
+				}
+			};
+		}
+	};
+
+	abstract Scenario<?, ?> create(InjectorFactory factory, Mapper mapper);
+}
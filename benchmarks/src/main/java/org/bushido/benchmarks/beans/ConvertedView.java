@@ -0,0 +1,118 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.benchmarks.beans;
+
+import org.bushido.beans.mapping.Converter;
+import org.bushido.beans.mapping.ImportDestination;
+import org.bushido.beans.mapping.Path;
+
+/**
+ * Imports eight properties of {@link Values}, each one through a primitive or
+ * a custom converter
+ * 
+ * @author Victor Gubin
+ * 
+ */
+@ImportDestination
+public class ConvertedView {
+	private long intAsLong;
+	private double floatAsDouble;
+	private double longAsDouble;
+	private float doubleAsFloat;
+	private Integer parsedCode;
+	private Long millis;
+	private Double decimalAsDouble;
+	private String boxedIntText;
+
+	public long getIntAsLong() {
+		return intAsLong;
+	}
+
+	@Path("getIntValue")
+	@Converter(Converters.IntToLong.class)
+	public void setIntAsLong(long intAsLong) {
+		this.intAsLong = intAsLong;
+	}
+
+	public double getFloatAsDouble() {
+		return floatAsDouble;
+	}
+
+	@Path("getFloatValue")
+	@Converter(Converters.FloatToDouble.class)
+	public void setFloatAsDouble(double floatAsDouble) {
+		this.floatAsDouble = floatAsDouble;
+	}
+
+	public double getLongAsDouble() {
+		return longAsDouble;
+	}
+
+	@Path("getLongValue")
+	@Converter(Converters.LongToDouble.class)
+	public void setLongAsDouble(double longAsDouble) {
+		this.longAsDouble = longAsDouble;
+	}
+
+	public float getDoubleAsFloat() {
+		return doubleAsFloat;
+	}
+
+	@Path("getDoubleValue")
+	@Converter(Converters.DoubleToFloat.class)
+	public void setDoubleAsFloat(float doubleAsFloat) {
+		this.doubleAsFloat = doubleAsFloat;
+	}
+
+	public Integer getParsedCode() {
+		return parsedCode;
+	}
+
+	@Path("getCode")
+	@Converter(Converters.ParseInteger.class)
+	public void setParsedCode(Integer parsedCode) {
+		this.parsedCode = parsedCode;
+	}
+
+	public Long getMillis() {
+		return millis;
+	}
+
+	@Path("getDate")
+	@Converter(Converters.DateToMillis.class)
+	public void setMillis(Long millis) {
+		this.millis = millis;
+	}
+
+	public Double getDecimalAsDouble() {
+		return decimalAsDouble;
+	}
+
+	@Path("getDecimal")
+	@Converter(Converters.DecimalToDouble.class)
+	public void setDecimalAsDouble(Double decimalAsDouble) {
+		this.decimalAsDouble = decimalAsDouble;
+	}
+
+	public String getBoxedIntText() {
+		return boxedIntText;
+	}
+
+	@Path("getBoxedInt")
+	@Converter(Converters.IntegerToString.class)
+	public void setBoxedIntText(String boxedIntText) {
+		this.boxedIntText = boxedIntText;
+	}
+}
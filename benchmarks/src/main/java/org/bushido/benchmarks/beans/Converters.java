@@ -0,0 +1,95 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.benchmarks.beans;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import org.bushido.beans.convertor.CustomConverter;
+import org.bushido.beans.convertor.DoubleToFloatConverter;
+import org.bushido.beans.convertor.FloatToDoubleConverter;
+import org.bushido.beans.convertor.IntToLongConverter;
+import org.bushido.beans.convertor.LongToDoubleConverter;
+
+/**
+ * Converters used by the {@link ConvertedView}
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public final class Converters {
+
+	private Converters() {
+	}
+
+	public static class IntToLong implements IntToLongConverter {
+		@Override
+		public long convert(int src) {
+			return src;
+		}
+	}
+
+	public static class FloatToDouble implements FloatToDoubleConverter {
+		@Override
+		public double convert(float src) {
+			return src;
+		}
+	}
+
+	public static class LongToDouble implements LongToDoubleConverter {
+		@Override
+		public double convert(long src) {
+			return src;
+		}
+	}
+
+	public static class DoubleToFloat implements DoubleToFloatConverter {
+		@Override
+		public float convert(double src) {
+			return (float) src;
+		}
+	}
+
+	public static class ParseInteger implements
+			CustomConverter<String, Integer> {
+		@Override
+		public Integer convert(String src) {
+			return Integer.valueOf(src);
+		}
+	}
+
+	public static class DateToMillis implements CustomConverter<Date, Long> {
+		@Override
+		public Long convert(Date src) {
+			return Long.valueOf(src.getTime());
+		}
+	}
+
+	public static class DecimalToDouble implements
+			CustomConverter<BigDecimal, Double> {
+		@Override
+		public Double convert(BigDecimal src) {
+			return Double.valueOf(src.doubleValue());
+		}
+	}
+
+	public static class IntegerToString implements
+			CustomConverter<Integer, String> {
+		@Override
+		public String convert(Integer src) {
+			return src.toString();
+		}
+	}
+}
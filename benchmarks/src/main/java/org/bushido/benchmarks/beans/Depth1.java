@@ -0,0 +1,33 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.benchmarks.beans;
+
+/**
+ * Middle level of the nested source, holds the flat {@link Values}
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public class Depth1 {
+	private Values values;
+
+	public Values getValues() {
+		return values;
+	}
+
+	public void setValues(Values values) {
+		this.values = values;
+	}
+}
@@ -0,0 +1,33 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.benchmarks.beans;
+
+/**
+ * Root of the nested source, {@link Values} are two levels below
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public class Depth2 {
+	private Depth1 inner;
+
+	public Depth1 getInner() {
+		return inner;
+	}
+
+	public void setInner(Depth1 inner) {
+		this.inner = inner;
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.benchmarks.beans;
+
+import org.bushido.beans.mapping.ExportFlow;
+import org.bushido.beans.mapping.ExportSource;
+import org.bushido.beans.mapping.ImportDestination;
+import org.bushido.beans.mapping.Path;
+import org.bushido.beans.mapping.Setter;
+
+/**
+ * Imports the primitive properties of {@link Values} two levels below a
+ * {@link Depth2} root and exports them back
+ * 
+ * @author Victor Gubin
+ * 
+ */
+@ExportSource
+@ImportDestination
+public class NestedView {
+	private boolean booleanValue;
+	private byte byteValue;
+	private short shortValue;
+	private char charValue;
+	private int intValue;
+	private long longValue;
+	private float floatValue;
+	private double doubleValue;
+
+	@ExportFlow(path = @Path("getInner.getValues"), value = @Setter("setBooleanValue"))
+	public boolean isBooleanValue() {
+		return booleanValue;
+	}
+
+	@Path("getInner.getValues.isBooleanValue")
+	public void setBooleanValue(boolean booleanValue) {
+		this.booleanValue = booleanValue;
+	}
+
+	@ExportFlow(path = @Path("getInner.getValues"), value = @Setter("setByteValue"))
+	public byte getByteValue() {
+		return byteValue;
+	}
+
+	@Path("getInner.getValues.getByteValue")
+	public void setByteValue(byte byteValue) {
+		this.byteValue = byteValue;
+	}
+
+	@ExportFlow(path = @Path("getInner.getValues"), value = @Setter("setShortValue"))
+	public short getShortValue() {
+		return shortValue;
+	}
+
+	@Path("getInner.getValues.getShortValue")
+	public void setShortValue(short shortValue) {
+		this.shortValue = shortValue;
+	}
+
+	@ExportFlow(path = @Path("getInner.getValues"), value = @Setter("setCharValue"))
+	public char getCharValue() {
+		return charValue;
+	}
+
+	@Path("getInner.getValues.getCharValue")
+	public void setCharValue(char charValue) {
+		this.charValue = charValue;
+	}
+
+	@ExportFlow(path = @Path("getInner.getValues"), value = @Setter("setIntValue"))
+	public int getIntValue() {
+		return intValue;
+	}
+
+	@Path("getInner.getValues.getIntValue")
+	public void setIntValue(int intValue) {
+		this.intValue = intValue;
+	}
+
+	@ExportFlow(path = @Path("getInner.getValues"), value = @Setter("setLongValue"))
+	public long getLongValue() {
+		return longValue;
+	}
+
+	@Path("getInner.getValues.getLongValue")
+	public void setLongValue(long longValue) {
+		this.longValue = longValue;
+	}
+
+	@ExportFlow(path = @Path("getInner.getValues"), value = @Setter("setFloatValue"))
+	public float getFloatValue() {
+		return floatValue;
+	}
+
+	@Path("getInner.getValues.getFloatValue")
+	public void setFloatValue(float floatValue) {
+		this.floatValue = floatValue;
+	}
+
+	@ExportFlow(path = @Path("getInner.getValues"), value = @Setter("setDoubleValue"))
+	public double getDoubleValue() {
+		return doubleValue;
+	}
+
+	@Path("getInner.getValues.getDoubleValue")
+	public void setDoubleValue(double doubleValue) {
+		this.doubleValue = doubleValue;
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.benchmarks.beans;
+
+import org.bushido.beans.mapping.ImportDestination;
+
+/**
+ * Compliant destination for the eight primitive properties of {@link Values}
+ * 
+ * @author Victor Gubin
+ * 
+ */
+@ImportDestination(compliant = true)
+public class PrimitiveView {
+	private boolean booleanValue;
+	private byte byteValue;
+	private short shortValue;
+	private char charValue;
+	private int intValue;
+	private long longValue;
+	private float floatValue;
+	private double doubleValue;
+
+	public boolean isBooleanValue() {
+		return booleanValue;
+	}
+
+	public void setBooleanValue(boolean booleanValue) {
+		this.booleanValue = booleanValue;
+	}
+
+	public byte getByteValue() {
+		return byteValue;
+	}
+
+	public void setByteValue(byte byteValue) {
+		this.byteValue = byteValue;
+	}
+
+	public short getShortValue() {
+		return shortValue;
+	}
+
+	public void setShortValue(short shortValue) {
+		this.shortValue = shortValue;
+	}
+
+	public char getCharValue() {
+		return charValue;
+	}
+
+	public void setCharValue(char charValue) {
+		this.charValue = charValue;
+	}
+
+	public int getIntValue() {
+		return intValue;
+	}
+
+	public void setIntValue(int intValue) {
+		this.intValue = intValue;
+	}
+
+	public long getLongValue() {
+		return longValue;
+	}
+
+	public void setLongValue(long longValue) {
+		this.longValue = longValue;
+	}
+
+	public float getFloatValue() {
+		return floatValue;
+	}
+
+	public void setFloatValue(float floatValue) {
+		this.floatValue = floatValue;
+	}
+
+	public double getDoubleValue() {
+		return doubleValue;
+	}
+
+	public void setDoubleValue(double doubleValue) {
+		this.doubleValue = doubleValue;
+	}
+}
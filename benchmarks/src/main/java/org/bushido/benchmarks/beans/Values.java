@@ -0,0 +1,171 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.benchmarks.beans;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Flat source record with eight primitive and eight object properties
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public class Values {
+	private boolean booleanValue;
+	private byte byteValue;
+	private short shortValue;
+	private char charValue;
+	private int intValue;
+	private long longValue;
+	private float floatValue;
+	private double doubleValue;
+	private String name;
+	private String text;
+	private String code;
+	private Integer boxedInt;
+	private Long boxedLong;
+	private Double boxedDouble;
+	private Date date;
+	private BigDecimal decimal;
+
+	public boolean isBooleanValue() {
+		return booleanValue;
+	}
+
+	public void setBooleanValue(boolean booleanValue) {
+		this.booleanValue = booleanValue;
+	}
+
+	public byte getByteValue() {
+		return byteValue;
+	}
+
+	public void setByteValue(byte byteValue) {
+		this.byteValue = byteValue;
+	}
+
+	public short getShortValue() {
+		return shortValue;
+	}
+
+	public void setShortValue(short shortValue) {
+		this.shortValue = shortValue;
+	}
+
+	public char getCharValue() {
+		return charValue;
+	}
+
+	public void setCharValue(char charValue) {
+		this.charValue = charValue;
+	}
+
+	public int getIntValue() {
+		return intValue;
+	}
+
+	public void setIntValue(int intValue) {
+		this.intValue = intValue;
+	}
+
+	public long getLongValue() {
+		return longValue;
+	}
+
+	public void setLongValue(long longValue) {
+		this.longValue = longValue;
+	}
+
+	public float getFloatValue() {
+		return floatValue;
+	}
+
+	public void setFloatValue(float floatValue) {
+		this.floatValue = floatValue;
+	}
+
+	public double getDoubleValue() {
+		return doubleValue;
+	}
+
+	public void setDoubleValue(double doubleValue) {
+		this.doubleValue = doubleValue;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public void setText(String text) {
+		this.text = text;
+	}
+
+	public String getCode() {
+		return code;
+	}
+
+	public void setCode(String code) {
+		this.code = code;
+	}
+
+	public Integer getBoxedInt() {
+		return boxedInt;
+	}
+
+	public void setBoxedInt(Integer boxedInt) {
+		this.boxedInt = boxedInt;
+	}
+
+	public Long getBoxedLong() {
+		return boxedLong;
+	}
+
+	public void setBoxedLong(Long boxedLong) {
+		this.boxedLong = boxedLong;
+	}
+
+	public Double getBoxedDouble() {
+		return boxedDouble;
+	}
+
+	public void setBoxedDouble(Double boxedDouble) {
+		this.boxedDouble = boxedDouble;
+	}
+
+	public Date getDate() {
+		return date;
+	}
+
+	public void setDate(Date date) {
+		this.date = date;
+	}
+
+	public BigDecimal getDecimal() {
+		return decimal;
+	}
+
+	public void setDecimal(BigDecimal decimal) {
+		this.decimal = decimal;
+	}
+}
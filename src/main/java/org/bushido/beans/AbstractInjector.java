@@ -0,0 +1,284 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import net.sf.cglib.reflect.FastClass;
+
+import org.bushido.beans.convertor.CustomConverter;
+import org.bushido.beans.convertor.PrimitiveConverter;
+import org.bushido.beans.convertor.PrimitiveConverters;
+import org.bushido.beans.convertor.TypeConverter;
+import org.bushido.beans.mapping.CallPair;
+import org.bushido.beans.mapping.scanner.FastClasses;
+
+/**
+ * Base {@link BulkInjector} implementation, implements bulk operations on top
+ * of the {@link #inject(Object, Object)}
+ * 
+ * @author Victor Gubin
+ * 
+ * @param <Src>
+ *            source bean type
+ * @param <Dest>
+ *            destination bean type
+ */
+public abstract class AbstractInjector<Src, Dest> implements
+		BulkInjector<Src, Dest> {
+
+	/**
+	 * Minimal count of the beans injected by a single fork-join task
+	 */
+	private static final int MIN_CHUNK = 512;
+
+	/**
+	 * Destination class bound by the {@link InjectorFactory}
+	 */
+	private volatile Class<?> destination;
+
+	/**
+	 * Generated constructor caller of the destination class, created on the
+	 * first {@link #newDestination()} call
+	 */
+	private volatile FastClass factory;
+
+	protected AbstractInjector() {
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.bushido.beans.BulkInjector#map(Src)
+	 */
+	@Override
+	public Dest map(final Src src) {
+		final Dest result = newDestination();
+		inject(src, result);
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.bushido.beans.BulkInjector#map(Src, org.bushido.beans.BeanPool)
+	 */
+	@Override
+	public Dest map(final Src src, final BeanPool<Dest> pool) {
+		Dest result = pool.acquire();
+		if (null == result) {
+			result = newDestination();
+		}
+		inject(src, result);
+		return result;
+	}
+
+	/**
+	 * Creates new destination bean, generated injectors override it with the
+	 * direct constructor call
+	 * 
+	 * @return new destination bean
+	 * @throws UnsupportedOperationException
+	 *             when destination class is unknown or has no public default
+	 *             constructor
+	 */
+	@SuppressWarnings("unchecked")
+	protected Dest newDestination() {
+		FastClass result = factory;
+		if (null == result) {
+			final Class<?> type = destination;
+			if (null == type || type.isInterface()
+					|| Modifier.isAbstract(type.getModifiers())) {
+				throw new UnsupportedOperationException(
+						"Can't instantiate destination " + type);
+			}
+			try {
+				type.getConstructor();
+			} catch (NoSuchMethodException e) {
+				throw new UnsupportedOperationException(type.getName()
+						+ " has no public default constructor", e);
+			}
+			result = FastClasses.of(type);
+			factory = result;
+		}
+		try {
+			return (Dest) result.newInstance();
+		} catch (InvocationTargetException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Binds the destination class instantiated by {@link #newDestination()}
+	 */
+	final void bindDestination(final Class<?> type) {
+		this.destination = type;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.bushido.beans.BulkInjector#injectAll(java.util.List,
+	 * java.util.List)
+	 */
+	@Override
+	public void injectAll(final List<? extends Src> src,
+			final List<? extends Dest> dest) {
+		checkSize(src.size(), dest.size());
+		if (src instanceof RandomAccess && dest instanceof RandomAccess) {
+			injectRange(src, dest, 0, src.size());
+		} else {
+			injectAll((Iterable<? extends Src>) src,
+					(Iterable<? extends Dest>) dest);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.bushido.beans.BulkInjector#injectAll(java.lang.Iterable,
+	 * java.lang.Iterable)
+	 */
+	@Override
+	public void injectAll(final Iterable<? extends Src> src,
+			final Iterable<? extends Dest> dest) {
+		if (src instanceof Collection && dest instanceof Collection) {
+			checkSize(((Collection<?>) src).size(),
+					((Collection<?>) dest).size());
+		}
+		final Iterator<? extends Src> srcIt = src.iterator();
+		final Iterator<? extends Dest> destIt = dest.iterator();
+		while (srcIt.hasNext() && destIt.hasNext()) {
+			inject(srcIt.next(), destIt.next());
+		}
+		if (srcIt.hasNext() || destIt.hasNext()) {
+			throw new IllegalArgumentException(
+					"Source and destination sizes are different");
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.bushido.beans.BulkInjector#injectAll(java.util.List,
+	 * java.util.List, java.util.concurrent.ForkJoinPool)
+	 */
+	@Override
+	public void injectAll(final List<? extends Src> src,
+			final List<? extends Dest> dest, final ForkJoinPool pool) {
+		final int size = src.size();
+		checkSize(size, dest.size());
+		final int chunk = Math.max(MIN_CHUNK,
+				size / (pool.getParallelism() * 4));
+		if (size <= chunk) {
+			injectAll(src, dest);
+			return;
+		}
+		final List<? extends Src> srcList = src instanceof RandomAccess ? src
+				: new ArrayList<Src>(src);
+		final List<? extends Dest> destList = dest instanceof RandomAccess ? dest
+				: new ArrayList<Dest>(dest);
+		pool.invoke(new InjectTask(srcList, destList, 0, size, chunk));
+	}
+
+	/**
+	 * Resolves converters of the call pairs, primitive converters are wrapped
+	 * to be called with the boxed values
+	 */
+	@SuppressWarnings("unchecked")
+	static CustomConverter<Object, Object>[] boxedConverters(
+			final CallPair[] pairs) {
+		final CustomConverter<Object, Object>[] result = new CustomConverter[pairs.length];
+		for (int i = 0; i < pairs.length; i++) {
+			final TypeConverter converter = pairs[i].getConverter();
+			if (null == converter && null != pairs[i].getElements()) {
+				throw new IllegalStateException(
+						"Elements mapping is resolved by the InjectorFactory only");
+			}
+			result[i] = boxed(converter);
+		}
+		return result;
+	}
+
+	/**
+	 * Wraps primitive converter to be called with the boxed values
+	 */
+	@SuppressWarnings("unchecked")
+	static CustomConverter<Object, Object> boxed(final TypeConverter converter) {
+		if (converter instanceof PrimitiveConverter) {
+			return PrimitiveConverters.boxed((PrimitiveConverter) converter);
+		}
+		return (CustomConverter<Object, Object>) converter;
+	}
+
+	private void injectRange(final List<? extends Src> src,
+			final List<? extends Dest> dest, final int from, final int to) {
+		for (int i = from; i < to; i++) {
+			inject(src.get(i), dest.get(i));
+		}
+	}
+
+	private static void checkSize(final int src, final int dest) {
+		if (src != dest) {
+			throw new IllegalArgumentException("Source size " + src
+					+ " is different from destination size " + dest);
+		}
+	}
+
+	/**
+	 * Splits the range of beans until it's smaller then a chunk, and inject
+	 * the chunk in the current worker
+	 */
+	private final class InjectTask extends RecursiveAction {
+
+		private static final long serialVersionUID = -3178592165326371418L;
+
+		private final List<? extends Src> src;
+		private final List<? extends Dest> dest;
+		private final int from;
+		private final int to;
+		private final int chunk;
+
+		InjectTask(final List<? extends Src> src,
+				final List<? extends Dest> dest, final int from, final int to,
+				final int chunk) {
+			this.src = src;
+			this.dest = dest;
+			this.from = from;
+			this.to = to;
+			this.chunk = chunk;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= chunk) {
+				injectRange(src, dest, from, to);
+			} else {
+				final int middle = (from + to) >>> 1;
+				invokeAll(new InjectTask(src, dest, from, middle, chunk),
+						new InjectTask(src, dest, middle, to, chunk));
+			}
+		}
+	}
+
+}
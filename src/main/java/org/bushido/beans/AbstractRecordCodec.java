@@ -0,0 +1,373 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans;
+
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Base {@link RecordCodec} implementation, handles the record header and
+ * provides the variable length values coding to the generated codecs. Record
+ * values are written and read with the absolute buffer operations, so a
+ * failed write doesn't move the buffer position.
+ * 
+ * @author Victor Gubin
+ * 
+ * @param <T>
+ *            bean type
+ */
+public abstract class AbstractRecordCodec<T> implements RecordCodec<T> {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * Header offset of the record length
+	 */
+	private static final int LENGTH = 4;
+
+	/**
+	 * Length of the {@code null} variable value
+	 */
+	private static final int NULL = -1;
+
+	private final int schema;
+	private final int fixedSize;
+
+	/**
+	 * Property types by the slot
+	 */
+	private final Class<?>[] types;
+
+	/**
+	 * Constants of the enumeration properties by the slot
+	 */
+	private final Object[][] enums;
+
+	/**
+	 * @param schema
+	 *            layout schema hash
+	 * @param fixedSize
+	 *            header and fixed section size
+	 * @param types
+	 *            property types by the slot
+	 */
+	protected AbstractRecordCodec(final int schema, final int fixedSize,
+			final Class<?>[] types) {
+		this.schema = schema;
+		this.fixedSize = fixedSize;
+		this.types = types;
+		this.enums = new Object[types.length][];
+		for (int i = 0; i < types.length; i++) {
+			enums[i] = types[i].getEnumConstants();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.bushido.beans.RecordCodec#getSchema()
+	 */
+	@Override
+	public int getSchema() {
+		return schema;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.bushido.beans.RecordCodec#getFixedSize()
+	 */
+	@Override
+	public int getFixedSize() {
+		return fixedSize;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.bushido.beans.RecordCodec#write(T, java.nio.ByteBuffer)
+	 */
+	@Override
+	public int write(final T bean, final ByteBuffer buffer) {
+		final int base = buffer.position();
+		if (buffer.limit() - base < fixedSize) {
+			throw new BufferOverflowException();
+		}
+		final int length = encode(bean, buffer, base) - base;
+		buffer.putInt(base, schema);
+		buffer.putInt(base + LENGTH, length);
+		((Buffer) buffer).position(base + length);
+		return length;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.bushido.beans.RecordCodec#read(java.nio.ByteBuffer)
+	 */
+	@Override
+	public T read(final ByteBuffer buffer) {
+		final T result = newBean();
+		read(buffer, result);
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.bushido.beans.RecordCodec#read(java.nio.ByteBuffer, T)
+	 */
+	@Override
+	public void read(final ByteBuffer buffer, final T bean) {
+		final int base = buffer.position();
+		final int recorded = buffer.getInt(base);
+		if (recorded != schema) {
+			throw new IllegalArgumentException("Record schema " + recorded
+					+ " is different from the codec schema " + schema);
+		}
+		final int length = buffer.getInt(base + LENGTH);
+		decode(buffer, base, bean);
+		((Buffer) buffer).position(base + length);
+	}
+
+	/**
+	 * Writes the fixed section and the trailing section of the record
+	 * 
+	 * @param bean
+	 *            bean to write
+	 * @param buffer
+	 *            buffer to write to
+	 * @param base
+	 *            record start index
+	 * @return index after the record end
+	 */
+	protected abstract int encode(T bean, ByteBuffer buffer, int base);
+
+	/**
+	 * Sets the record values to the bean
+	 * 
+	 * @param buffer
+	 *            buffer to read from
+	 * @param base
+	 *            record start index
+	 * @param bean
+	 *            bean to set values
+	 */
+	protected abstract void decode(ByteBuffer buffer, int base, T bean);
+
+	/**
+	 * Creates new bean instance for {@link #read(ByteBuffer)}
+	 * 
+	 * @return new bean
+	 */
+	protected T newBean() {
+		throw new UnsupportedOperationException(
+				"Bean has no public default constructor");
+	}
+
+	/**
+	 * Returns enumeration constant of the slot
+	 */
+	protected final Object getEnum(final int slot, final int ordinal) {
+		return ordinal == NULL ? null : enums[slot][ordinal];
+	}
+
+	/**
+	 * Writes enumeration ordinal, {@code -1} for {@code null}
+	 */
+	protected static void putEnum(final ByteBuffer buffer, final int index,
+			final Enum<?> value) {
+		buffer.putInt(index, null == value ? NULL : value.ordinal());
+	}
+
+	protected static void putBoolean(final ByteBuffer buffer,
+			final int index, final boolean value) {
+		buffer.put(index, value ? (byte) 1 : (byte) 0);
+	}
+
+	protected static boolean getBoolean(final ByteBuffer buffer,
+			final int index) {
+		return buffer.get(index) != 0;
+	}
+
+	/**
+	 * Writes the presence flag followed by the wrapped primitive value
+	 */
+	protected static void putBoxed(final ByteBuffer buffer, final int index,
+			final Object value) {
+		putBoolean(buffer, index, null != value);
+		final int at = index + 1;
+		if (value instanceof Integer) {
+			buffer.putInt(at, ((Integer) value).intValue());
+		} else if (value instanceof Long) {
+			buffer.putLong(at, ((Long) value).longValue());
+		} else if (value instanceof Double) {
+			buffer.putDouble(at, ((Double) value).doubleValue());
+		} else if (value instanceof Float) {
+			buffer.putFloat(at, ((Float) value).floatValue());
+		} else if (value instanceof Boolean) {
+			putBoolean(buffer, at, ((Boolean) value).booleanValue());
+		} else if (value instanceof Short) {
+			buffer.putShort(at, ((Short) value).shortValue());
+		} else if (value instanceof Character) {
+			buffer.putChar(at, ((Character) value).charValue());
+		} else if (value instanceof Byte) {
+			buffer.put(at, ((Byte) value).byteValue());
+		}
+	}
+
+	/**
+	 * Reads the wrapped primitive value of the slot
+	 */
+	protected final Object getBoxed(final ByteBuffer buffer, final int index,
+			final int slot) {
+		if (!getBoolean(buffer, index)) {
+			return null;
+		}
+		final Class<?> wrapper = types[slot];
+		final int at = index + 1;
+		if (wrapper == Integer.class) {
+			return Integer.valueOf(buffer.getInt(at));
+		} else if (wrapper == Long.class) {
+			return Long.valueOf(buffer.getLong(at));
+		} else if (wrapper == Double.class) {
+			return Double.valueOf(buffer.getDouble(at));
+		} else if (wrapper == Float.class) {
+			return Float.valueOf(buffer.getFloat(at));
+		} else if (wrapper == Boolean.class) {
+			return Boolean.valueOf(getBoolean(buffer, at));
+		} else if (wrapper == Short.class) {
+			return Short.valueOf(buffer.getShort(at));
+		} else if (wrapper == Character.class) {
+			return Character.valueOf(buffer.getChar(at));
+		}
+		return Byte.valueOf(buffer.get(at));
+	}
+
+	/**
+	 * Writes UTF-8 characters of the string at the {@code cursor} of the
+	 * trailing section, and the value offset and length to the slot
+	 * 
+	 * @return cursor after the written value
+	 */
+	protected static int putString(final ByteBuffer buffer, final int base,
+			final int slot, final int cursor, final String value) {
+		if (null == value) {
+			return putNull(buffer, base, slot, cursor);
+		}
+		final int limit = buffer.limit();
+		int at = cursor;
+		for (int i = 0; i < value.length(); i++) {
+			final int c = value.codePointAt(i);
+			if (c < 0x80) {
+				checkLimit(at + 1, limit);
+				buffer.put(at++, (byte) c);
+			} else if (c < 0x800) {
+				checkLimit(at + 2, limit);
+				buffer.put(at++, (byte) (0xC0 | (c >> 6)));
+				buffer.put(at++, (byte) (0x80 | (c & 0x3F)));
+			} else if (c < 0x10000) {
+				checkLimit(at + 3, limit);
+				buffer.put(at++, (byte) (0xE0 | (c >> 12)));
+				buffer.put(at++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+				buffer.put(at++, (byte) (0x80 | (c & 0x3F)));
+			} else {
+				checkLimit(at + 4, limit);
+				buffer.put(at++, (byte) (0xF0 | (c >> 18)));
+				buffer.put(at++, (byte) (0x80 | ((c >> 12) & 0x3F)));
+				buffer.put(at++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+				buffer.put(at++, (byte) (0x80 | (c & 0x3F)));
+				// low surrogate
+				i++;
+			}
+		}
+		buffer.putInt(base + slot, cursor - base);
+		buffer.putInt(base + slot + LENGTH, at - cursor);
+		return at;
+	}
+
+	protected static String getString(final ByteBuffer buffer,
+			final int base, final int slot) {
+		final int length = buffer.getInt(base + slot + LENGTH);
+		if (length == NULL) {
+			return null;
+		}
+		final int offset = base + buffer.getInt(base + slot);
+		if (buffer.hasArray()) {
+			return new String(buffer.array(), buffer.arrayOffset() + offset,
+					length, UTF8);
+		}
+		return new String(bytes(buffer, offset, length), UTF8);
+	}
+
+	/**
+	 * Writes the bytes at the {@code cursor} of the trailing section, and the
+	 * value offset and length to the slot
+	 * 
+	 * @return cursor after the written value
+	 */
+	protected static int putBytes(final ByteBuffer buffer, final int base,
+			final int slot, final int cursor, final byte[] value) {
+		if (null == value) {
+			return putNull(buffer, base, slot, cursor);
+		}
+		checkLimit(cursor + value.length, buffer.limit());
+		for (int i = 0; i < value.length; i++) {
+			buffer.put(cursor + i, value[i]);
+		}
+		buffer.putInt(base + slot, cursor - base);
+		buffer.putInt(base + slot + LENGTH, value.length);
+		return cursor + value.length;
+	}
+
+	protected static byte[] getBytes(final ByteBuffer buffer, final int base,
+			final int slot) {
+		final int length = buffer.getInt(base + slot + LENGTH);
+		if (length == NULL) {
+			return null;
+		}
+		return bytes(buffer, base + buffer.getInt(base + slot), length);
+	}
+
+	private static int putNull(final ByteBuffer buffer, final int base,
+			final int slot, final int cursor) {
+		buffer.putInt(base + slot, 0);
+		buffer.putInt(base + slot + LENGTH, NULL);
+		return cursor;
+	}
+
+	private static byte[] bytes(final ByteBuffer buffer, final int offset,
+			final int length) {
+		final byte[] result = new byte[length];
+		if (buffer.hasArray()) {
+			System.arraycopy(buffer.array(), buffer.arrayOffset() + offset,
+					result, 0, length);
+		} else {
+			for (int i = 0; i < length; i++) {
+				result[i] = buffer.get(offset + i);
+			}
+		}
+		return result;
+	}
+
+	private static void checkLimit(final int end, final int limit) {
+		if (end > limit) {
+			throw new BufferOverflowException();
+		}
+	}
+
+}
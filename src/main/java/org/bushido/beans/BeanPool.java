@@ -0,0 +1,80 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Bounded pool of the released destination beans, reused by the
+ * {@link BulkInjector#map(Object, BeanPool)}. Pooled beans keep the values of
+ * the unmapped properties, so pool should be used only for the beans fully
+ * overwritten by the injection. Pool is thread safe and never blocks.
+ * 
+ * @author Victor Gubin
+ * 
+ * @param <T>
+ *            bean type
+ */
+public final class BeanPool<T> {
+
+	private final BlockingQueue<T> beans;
+
+	/**
+	 * Constructs new empty {@code BeanPool}
+	 * 
+	 * @param capacity
+	 *            maximal count of the pooled beans
+	 * @throws IllegalArgumentException
+	 *             if {@code capacity} is less than 1
+	 */
+	public BeanPool(final int capacity) {
+		this.beans = new ArrayBlockingQueue<T>(capacity);
+	}
+
+	/**
+	 * Takes the released bean from the pool
+	 * 
+	 * @return pooled bean or {@code null} if pool is empty
+	 */
+	public T acquire() {
+		return beans.poll();
+	}
+
+	/**
+	 * Returns the bean to the pool, the bean should not be used by the
+	 * caller after the release
+	 * 
+	 * @param bean
+	 *            bean to release
+	 * @return {@code false} when pool is full and the bean is dropped
+	 */
+	public boolean release(final T bean) {
+		if (null == bean) {
+			throw new NullPointerException("Bean can't be null");
+		}
+		return beans.offer(bean);
+	}
+
+	/**
+	 * Returns count of the pooled beans
+	 * 
+	 * @return pooled beans count
+	 */
+	public int size() {
+		return beans.size();
+	}
+
+}
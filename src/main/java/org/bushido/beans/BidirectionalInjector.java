@@ -0,0 +1,59 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans;
+
+/**
+ * Pair of the injectors moving data between two beans both ways, created by
+ * the {@link InjectorFactory#createBidirectional(Class, Class)} from the
+ * single mapping scan
+ * 
+ * @author Victor Gubin
+ * 
+ * @param <A>
+ *            import source and export destination bean type
+ * @param <B>
+ *            import destination and export source bean type, the bean
+ *            declaring the mapping
+ */
+public final class BidirectionalInjector<A, B> {
+
+	private final BulkInjector<A, B> importer;
+	private final BulkInjector<B, A> exporter;
+
+	BidirectionalInjector(final BulkInjector<A, B> importer,
+			final BulkInjector<B, A> exporter) {
+		this.importer = importer;
+		this.exporter = exporter;
+	}
+
+	/**
+	 * Returns injector of the {@code A} bean data into the {@code B} bean
+	 * 
+	 * @return importer
+	 */
+	public BulkInjector<A, B> getImporter() {
+		return importer;
+	}
+
+	/**
+	 * Returns injector of the {@code B} bean data back into the {@code A}
+	 * bean
+	 * 
+	 * @return exporter
+	 */
+	public BulkInjector<B, A> getExporter() {
+		return exporter;
+	}
+}
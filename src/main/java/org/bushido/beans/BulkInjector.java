@@ -0,0 +1,112 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * {@link Injector} creating the destination beans and injecting sequences of
+ * beans. Injectors created by {@link InjectorFactory} implement it on top of
+ * the {@link #inject(Object, Object)}, see {@link AbstractInjector}.
+ * 
+ * @author Victor Gubin
+ * 
+ * @param <Src>
+ *            source bean type
+ * @param <Dest>
+ *            destination bean type
+ */
+public interface BulkInjector<Src, Dest> extends Injector<Src, Dest> {
+
+	/**
+	 * Creates new {@code Dest} bean with it's default constructor and inject
+	 * data obtained from {@code src} bean to it
+	 * 
+	 * @param src
+	 *            source bean
+	 * @return new destination bean
+	 * @throws UnsupportedOperationException
+	 *             when destination class has no public default constructor
+	 */
+	public abstract Dest map(Src src);
+
+	/**
+	 * Inject data obtained from {@code src} bean to the bean taken from the
+	 * {@code pool}, new {@code Dest} bean is created when pool is empty.
+	 * Caller should release the bean to the {@code pool} when it is not used
+	 * anymore.
+	 * 
+	 * @param src
+	 *            source bean
+	 * @param pool
+	 *            pool of the released destination beans
+	 * @return pooled or new destination bean
+	 * @throws UnsupportedOperationException
+	 *             when pool is empty and destination class has no public
+	 *             default constructor
+	 */
+	public abstract Dest map(Src src, BeanPool<Dest> pool);
+
+	/**
+	 * Inject data obtained from each {@code src} bean to the {@code dest} bean
+	 * with the same index
+	 * 
+	 * @param src
+	 *            source beans
+	 * @param dest
+	 *            destination beans, must have the same size as {@code src}
+	 * @throws IllegalArgumentException
+	 *             when lists have different sizes
+	 */
+	public abstract void injectAll(List<? extends Src> src,
+			List<? extends Dest> dest);
+
+	/**
+	 * Inject data obtained from each {@code src} bean to the {@code dest} bean
+	 * returned by the destination iterator at the same step. Sizes are checked
+	 * before injection when both sequences are collections, otherwise the
+	 * beans of the shorter sequence are injected before the size mismatch is
+	 * detected.
+	 * 
+	 * @param src
+	 *            source beans
+	 * @param dest
+	 *            destination beans, must have the same size as {@code src}
+	 * @throws IllegalArgumentException
+	 *             when sequences have different sizes
+	 */
+	public abstract void injectAll(Iterable<? extends Src> src,
+			Iterable<? extends Dest> dest);
+
+	/**
+	 * Inject data obtained from each {@code src} bean to the {@code dest} bean
+	 * with the same index in parallel. Lists are split into chunks injected
+	 * by the {@code pool} workers, small lists are injected in the caller
+	 * thread.
+	 * 
+	 * @param src
+	 *            source beans
+	 * @param dest
+	 *            destination beans, must have the same size as {@code src}
+	 * @param pool
+	 *            fork-join pool to inject chunks with
+	 * @throws IllegalArgumentException
+	 *             when lists have different sizes
+	 */
+	public abstract void injectAll(List<? extends Src> src,
+			List<? extends Dest> dest, ForkJoinPool pool);
+
+}
\ No newline at end of file
@@ -0,0 +1,92 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans;
+
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+
+/**
+ * Identifies the injector by source bean class, destination bean class and
+ * injection direction
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public final class ClassPair {
+	private final Class<?> source;
+	private final Class<?> destination;
+	private final Direction direction;
+
+	/**
+	 * Constructs new {@code ClassPair}
+	 * 
+	 * @param source
+	 *            source bean class
+	 * @param destination
+	 *            destination bean class
+	 * @param direction
+	 *            injection direction
+	 */
+	public ClassPair(final Class<?> source, final Class<?> destination,
+			final Direction direction) {
+		if (null == source || null == destination || null == direction) {
+			throw new IllegalArgumentException(
+					"source, destination and direction are required");
+		}
+		this.source = source;
+		this.destination = destination;
+		this.direction = direction;
+	}
+
+	public Class<?> getSource() {
+		return source;
+	}
+
+	public Class<?> getDestination() {
+		return destination;
+	}
+
+	public Direction getDirection() {
+		return direction;
+	}
+
+	@Override
+	public int hashCode() {
+		return new HashCodeBuilder().append(source).append(destination)
+				.append(direction).toHashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		boolean result = this == obj;
+		if (!result) {
+			result = (null != obj) && (obj instanceof ClassPair);
+			if (result) {
+				final ClassPair oth = (ClassPair) obj;
+				result = new EqualsBuilder().append(this.source, oth.source)
+						.append(this.destination, oth.destination)
+						.append(this.direction, oth.direction).isEquals();
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return source.getName() + " -> " + destination.getName() + " ("
+				+ direction + ")";
+	}
+
+}
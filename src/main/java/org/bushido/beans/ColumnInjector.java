@@ -0,0 +1,83 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans;
+
+import java.util.List;
+
+/**
+ * Implementor moves values of a batch of beans to and from {@link Columns},
+ * one array per mapped property. Columns hold the values passed to the
+ * destination setters, so gathering the source beans and scattering the
+ * columns to the destination beans is the same as injecting each pair of
+ * beans, without the intermediate beans.<br>
+ * 
+ * Column injector is driven by the same mapping as the {@link Injector}, and
+ * is created with {@link InjectorFactory#createColumnImporter(Class, Class)}
+ * or {@link InjectorFactory#createColumnExporter(Class, Class)}. Injector is
+ * immutable and can be shared between threads.
+ * 
+ * @author Victor Gubin
+ * 
+ * @param <Src>
+ *            source bean type
+ * @param <Dest>
+ *            destination bean type
+ */
+public interface ColumnInjector<Src, Dest> {
+
+	/**
+	 * Creates empty columns of the mapped properties
+	 * 
+	 * @param size
+	 *            rows count
+	 * @return new columns
+	 */
+	public abstract Columns newColumns(int size);
+
+	/**
+	 * Obtains the values of the {@code src} beans into the new columns
+	 * 
+	 * @param src
+	 *            source beans
+	 * @return columns, row {@code i} holds values of the {@code i}-th bean
+	 */
+	public abstract Columns gather(List<? extends Src> src);
+
+	/**
+	 * Obtains the values of the {@code src} beans into the {@code columns}
+	 * 
+	 * @param src
+	 *            source beans
+	 * @param columns
+	 *            columns to store values into, created by this injector
+	 * @throws IllegalArgumentException
+	 *             when columns size is different from the beans count
+	 */
+	public abstract void gather(List<? extends Src> src, Columns columns);
+
+	/**
+	 * Injects row values of the {@code columns} to the {@code dest} bean
+	 * with the same index. Values skipped by the gather are not injected.
+	 * 
+	 * @param columns
+	 *            columns created by this injector
+	 * @param dest
+	 *            destination beans
+	 * @throws IllegalArgumentException
+	 *             when columns size is different from the beans count
+	 */
+	public abstract void scatter(Columns columns, List<? extends Dest> dest);
+
+}
@@ -0,0 +1,354 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans;
+
+import java.beans.Introspector;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import net.sf.cglib.reflect.FastMethod;
+
+import org.bushido.beans.convertor.CustomConverter;
+import org.bushido.beans.mapping.Accessor;
+import org.bushido.beans.mapping.CallPair;
+import org.bushido.beans.mapping.IllegalMappingException;
+import org.bushido.beans.mapping.Mapping;
+
+/**
+ * Reflection based {@link ColumnInjector}. Import columns are named after the
+ * destination setters, export columns after the source getters, and have the
+ * type of the value passed to the destination setter. Nested instances are
+ * resolved with the {@link NestedSlots} once per bean, as the {@link Importer}
+ * and {@link Exporter} do.
+ * 
+ * @author Victor Gubin
+ * 
+ * @param <Src>
+ *            source bean type
+ * @param <Dest>
+ *            destination bean type
+ */
+final class ColumnMapper<Src, Dest> implements ColumnInjector<Src, Dest> {
+
+	private final CallPair[] pairs;
+
+	private final CustomConverter<Object, Object>[] converters;
+
+	private final NestedSlots slots;
+
+	/**
+	 * Whether the nested path belongs to the destination bean
+	 */
+	private final boolean export;
+
+	private final String[] names;
+
+	private final Class<?>[] types;
+
+	/**
+	 * Element kinds of the column arrays
+	 */
+	private final Kind[] kinds;
+
+	ColumnMapper(final Mapping mapping, final Direction direction) {
+		if (!mapping.getFieldMapping().isEmpty()) {
+			throw new IllegalMappingException(
+					"Columns of the field access mapping are not supported");
+		}
+		this.pairs = mapping.getMapping().toArray(
+				new CallPair[mapping.getMapping().size()]);
+		if (pairs.length == 0) {
+			throw new IllegalMappingException("No mapping for classes");
+		}
+		this.converters = AbstractInjector.boxedConverters(pairs);
+		this.slots = new NestedSlots(mapping);
+		this.export = direction == Direction.EXPORT;
+		this.names = new String[pairs.length];
+		this.types = new Class<?>[pairs.length];
+		this.kinds = new Kind[pairs.length];
+		final Set<String> unique = new HashSet<String>();
+		for (int i = 0; i < pairs.length; i++) {
+			final Accessor<FastMethod>[] callstack = pairs[i].getCallstack();
+			for (Accessor<FastMethod> it : callstack) {
+				if (it.isWildcard()) {
+					throw new IllegalMappingException(
+							"Wildcard path can't be mapped to a column "
+									+ pairs[i].getMethod().getJavaMethod());
+				}
+			}
+			final Method setter = export ? callstack[callstack.length - 1]
+					.getMethod().getJavaMethod() : pairs[i].getMethod()
+					.getJavaMethod();
+			names[i] = propertyName(pairs[i].getMethod().getName());
+			types[i] = setter.getParameterTypes()[0];
+			kinds[i] = Kind.of(types[i]);
+			if (!unique.add(names[i])) {
+				throw new IllegalMappingException("Column " + names[i]
+						+ " is mapped twice");
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.bushido.beans.ColumnInjector#newColumns(int)
+	 */
+	@Override
+	public Columns newColumns(final int size) {
+		return new Columns(names, types, size);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.bushido.beans.ColumnInjector#gather(java.util.List)
+	 */
+	@Override
+	public Columns gather(final List<? extends Src> src) {
+		final Columns result = newColumns(src.size());
+		gather(src, result);
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.bushido.beans.ColumnInjector#gather(java.util.List,
+	 * org.bushido.beans.Columns)
+	 */
+	@Override
+	public void gather(final List<? extends Src> src, final Columns columns) {
+		checkSize(columns, src.size());
+		int row = 0;
+		try {
+			for (Src it : src) {
+				final Object nested[] = export ? null : slots.newStorage();
+				for (int step = 0; step < pairs.length; step++) {
+					final int i = slots.pairAt(step);
+					Object value = export ? pairs[i].getMethod().invoke(it,
+							null) : obtain(it, i, nested);
+					final boolean missing = value == NestedSlots.MISSING;
+					columns.setMissing(i, row, missing);
+					if (missing) {
+						continue;
+					}
+					if (null != converters[i]) {
+						value = converters[i].convert(value);
+					}
+					if (null == value && types[i].isPrimitive()) {
+						throw new IllegalStateException("Null value of the "
+								+ types[i] + " column " + names[i]);
+					}
+					store(columns.column(i), kinds[i], row, value);
+				}
+				row++;
+			}
+		} catch (InvocationTargetException exc) {
+			throw new IllegalStateException(exc);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.bushido.beans.ColumnInjector#scatter(org.bushido.beans.Columns,
+	 * java.util.List)
+	 */
+	@Override
+	public void scatter(final Columns columns, final List<? extends Dest> dest) {
+		checkSize(columns, dest.size());
+		final Object params[] = new Object[1];
+		int row = 0;
+		try {
+			for (Dest it : dest) {
+				final Object nested[] = export ? slots.newStorage() : null;
+				for (int step = 0; step < pairs.length; step++) {
+					final int i = slots.pairAt(step);
+					if (columns.isMissing(i, row)) {
+						continue;
+					}
+					params[0] = load(columns.column(i), kinds[i], row);
+					if (export) {
+						final Object instance = slots.resolve(it,
+								slots.slotOf(i), nested);
+						if (instance == NestedSlots.MISSING) {
+							continue;
+						}
+						final Accessor<FastMethod>[] callstack = pairs[i]
+								.getCallstack();
+						callstack[callstack.length - 1].getMethod().invoke(
+								instance, params);
+					} else {
+						pairs[i].getMethod().invoke(it, params);
+					}
+				}
+				row++;
+			}
+		} catch (InvocationTargetException exc) {
+			throw new IllegalStateException(exc);
+		}
+	}
+
+	/**
+	 * Obtains the nested source value of the import pair
+	 */
+	private Object obtain(final Src src, final int pair, final Object[] nested)
+			throws InvocationTargetException {
+		final Object instance = slots.resolve(src, slots.slotOf(pair),
+				nested);
+		if (instance == NestedSlots.MISSING) {
+			return instance;
+		}
+		final Accessor<FastMethod>[] callstack = pairs[pair].getCallstack();
+		final Accessor<FastMethod> getter = callstack[callstack.length - 1];
+		final Object result = getter.getMethod().invoke(instance, null);
+		return getter.getIndex() >= 0 ? NestedSlots.solveIndex(result,
+				getter.getIndex()) : result;
+	}
+
+	/**
+	 * Stores the value into the column array without the reflective array
+	 * access. Primitive value of a narrower type, i.e. {@code int} getter
+	 * value of the {@code long} column, is widened by the
+	 * {@link Array#set(Object, int, Object)}.
+	 */
+	private static void store(final Object column, final Kind kind,
+			final int row, final Object value) {
+		switch (kind) {
+		case BOOLEAN:
+			if (value instanceof Boolean) {
+				((boolean[]) column)[row] = ((Boolean) value).booleanValue();
+				return;
+			}
+			break;
+		case BYTE:
+			if (value instanceof Byte) {
+				((byte[]) column)[row] = ((Byte) value).byteValue();
+				return;
+			}
+			break;
+		case CHAR:
+			if (value instanceof Character) {
+				((char[]) column)[row] = ((Character) value).charValue();
+				return;
+			}
+			break;
+		case SHORT:
+			if (value instanceof Short) {
+				((short[]) column)[row] = ((Short) value).shortValue();
+				return;
+			}
+			break;
+		case INT:
+			if (value instanceof Integer) {
+				((int[]) column)[row] = ((Integer) value).intValue();
+				return;
+			}
+			break;
+		case LONG:
+			if (value instanceof Long) {
+				((long[]) column)[row] = ((Long) value).longValue();
+				return;
+			}
+			break;
+		case FLOAT:
+			if (value instanceof Float) {
+				((float[]) column)[row] = ((Float) value).floatValue();
+				return;
+			}
+			break;
+		case DOUBLE:
+			if (value instanceof Double) {
+				((double[]) column)[row] = ((Double) value).doubleValue();
+				return;
+			}
+			break;
+		default:
+			((Object[]) column)[row] = value;
+			return;
+		}
+		Array.set(column, row, value);
+	}
+
+	/**
+	 * Loads the value of the column array without the reflective array access
+	 */
+	private static Object load(final Object column, final Kind kind,
+			final int row) {
+		switch (kind) {
+		case BOOLEAN:
+			return Boolean.valueOf(((boolean[]) column)[row]);
+		case BYTE:
+			return Byte.valueOf(((byte[]) column)[row]);
+		case CHAR:
+			return Character.valueOf(((char[]) column)[row]);
+		case SHORT:
+			return Short.valueOf(((short[]) column)[row]);
+		case INT:
+			return Integer.valueOf(((int[]) column)[row]);
+		case LONG:
+			return Long.valueOf(((long[]) column)[row]);
+		case FLOAT:
+			return Float.valueOf(((float[]) column)[row]);
+		case DOUBLE:
+			return Double.valueOf(((double[]) column)[row]);
+		default:
+			return ((Object[]) column)[row];
+		}
+	}
+
+	private void checkSize(final Columns columns, final int size) {
+		if (columns.getSize() != size) {
+			throw new IllegalArgumentException("Columns size "
+					+ columns.getSize() + " is different from beans count "
+					+ size);
+		}
+		if (!columns.hasNames(names)) {
+			throw new IllegalArgumentException(
+					"Columns are created by another injector");
+		}
+	}
+
+	private static String propertyName(final String method) {
+		if (method.length() > 3
+				&& (method.startsWith("get") || method.startsWith("set"))) {
+			return Introspector.decapitalize(method.substring(3));
+		} else if (method.length() > 2 && method.startsWith("is")) {
+			return Introspector.decapitalize(method.substring(2));
+		}
+		return method;
+	}
+
+	/**
+	 * Element kind of the column array
+	 */
+	private enum Kind {
+		BOOLEAN, BYTE, CHAR, SHORT, INT, LONG, FLOAT, DOUBLE, OBJECT;
+
+		static Kind of(final Class<?> type) {
+			if (!type.isPrimitive()) {
+				return OBJECT;
+			}
+			return valueOf(type.getName().toUpperCase(Locale.ENGLISH));
+		}
+	}
+
+}
@@ -0,0 +1,178 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batch of beans values stored by columns, one array per mapped property.
+ * Columns of the primitive properties are primitive arrays, i.e.
+ * {@code long[]} for the {@code long} property, so they can be passed to the
+ * analytics code or copied to the buffers as is.<br>
+ * 
+ * Column arrays are returned by reference, values written to them are
+ * injected by the next {@link ColumnInjector#scatter(Columns, List)} call.
+ * Columns are not thread safe.
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public final class Columns {
+
+	private final String[] names;
+	private final Class<?>[] types;
+	private final Object[] arrays;
+	private final Map<String, Integer> index;
+	private final int size;
+
+	/**
+	 * Rows skipped by the source, per column, {@code null} when all rows
+	 * are present
+	 */
+	private final BitSet[] missing;
+
+	Columns(final String[] names, final Class<?>[] types, final int size) {
+		this.names = names;
+		this.types = types;
+		this.size = size;
+		this.arrays = new Object[names.length];
+		this.missing = new BitSet[names.length];
+		this.index = new HashMap<String, Integer>();
+		for (int i = 0; i < names.length; i++) {
+			arrays[i] = Array.newInstance(types[i], size);
+			index.put(names[i], Integer.valueOf(i));
+		}
+	}
+
+	/**
+	 * Returns count of the beans (rows) in the batch
+	 * 
+	 * @return rows count
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns names of the mapped properties, in the mapping order
+	 * 
+	 * @return column names
+	 */
+	public List<String> getNames() {
+		return Collections.unmodifiableList(Arrays.asList(names));
+	}
+
+	/**
+	 * Returns type of the column values
+	 * 
+	 * @param name
+	 *            column name
+	 * @return column element type
+	 * @throws IllegalArgumentException
+	 *             when there is no such column
+	 */
+	public Class<?> getType(final String name) {
+		return types[indexOf(name)];
+	}
+
+	/**
+	 * Returns column array
+	 * 
+	 * @param name
+	 *            column name
+	 * @return column array, primitive array for the primitive property
+	 * @throws IllegalArgumentException
+	 *             when there is no such column
+	 */
+	public Object get(final String name) {
+		return arrays[indexOf(name)];
+	}
+
+	/**
+	 * Returns typed column array, i.e. {@code get("price", double[].class)}
+	 * 
+	 * @param name
+	 *            column name
+	 * @param arrayType
+	 *            column array type
+	 * @return column array
+	 * @throws IllegalArgumentException
+	 *             when there is no such column, or it has another type
+	 */
+	public <T> T get(final String name, final Class<T> arrayType) {
+		final Object result = get(name);
+		if (!arrayType.isInstance(result)) {
+			throw new IllegalArgumentException("Column " + name + " is "
+					+ result.getClass().getSimpleName() + " not "
+					+ arrayType.getSimpleName());
+		}
+		return arrayType.cast(result);
+	}
+
+	/**
+	 * Checks whether the row value was skipped, because of the {@code null}
+	 * nested source instance. Skipped values are not injected by the scatter.
+	 * 
+	 * @param name
+	 *            column name
+	 * @param row
+	 *            row number
+	 * @return whether value is missing
+	 */
+	public boolean isMissing(final String name, final int row) {
+		return isMissing(indexOf(name), row);
+	}
+
+	/**
+	 * Checks whether columns are created with the {@code names}
+	 */
+	boolean hasNames(final String[] names) {
+		return this.names == names;
+	}
+
+	Object column(final int column) {
+		return arrays[column];
+	}
+
+	boolean isMissing(final int column, final int row) {
+		return null != missing[column] && missing[column].get(row);
+	}
+
+	void setMissing(final int column, final int row, final boolean value) {
+		if (value) {
+			if (null == missing[column]) {
+				missing[column] = new BitSet(size);
+			}
+			missing[column].set(row);
+		} else if (null != missing[column]) {
+			missing[column].clear(row);
+		}
+	}
+
+	private int indexOf(final String name) {
+		final Integer result = index.get(name);
+		if (null == result) {
+			throw new IllegalArgumentException("No column " + name);
+		}
+		return result.intValue();
+	}
+
+}
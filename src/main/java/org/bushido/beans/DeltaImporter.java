@@ -0,0 +1,61 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans;
+
+import java.util.Arrays;
+
+/**
+ * Reflection based {@link DeltaInjector}, keeps the snapshot of source values
+ * and delegates injection of changes to the shared {@link Importer}
+ * 
+ * @author Victor Gubin
+ * 
+ * @param <Src>
+ *            source bean type
+ * @param <Dest>
+ *            destination bean type
+ */
+final class DeltaImporter<Src, Dest> implements DeltaInjector<Src, Dest> {
+
+	private final Importer<Src, Dest> importer;
+
+	private final Object[] snapshot;
+
+	DeltaImporter(final Importer<Src, Dest> importer) {
+		this.importer = importer;
+		this.snapshot = importer.newSnapshot();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.bushido.beans.DeltaInjector#injectChanges(Src, Dest)
+	 */
+	@Override
+	public long injectChanges(final Src src, final Dest dest) {
+		return importer.injectChanges(src, dest, snapshot);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.bushido.beans.DeltaInjector#reset()
+	 */
+	@Override
+	public void reset() {
+		Arrays.fill(snapshot, Importer.UNSET);
+	}
+
+}
@@ -0,0 +1,61 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans;
+
+/**
+ * Implementor keeps the snapshot of the last injected values, and calls
+ * destination setters only for the values changed since the previous
+ * injection. Values are compared with {@link Object#equals(Object)}, so
+ * mutable values (i.e. arrays or lists) changed in place are not detected.<br>
+ * 
+ * Delta injector tracks a single destination bean and is not thread safe,
+ * create an injector per destination with
+ * {@link InjectorFactory#createDeltaImporter(Class, Class)}.
+ * 
+ * @author Victor Gubin
+ * 
+ * @param <Src>
+ *            source bean type
+ * @param <Dest>
+ *            destination bean type
+ */
+public interface DeltaInjector<Src, Dest> {
+
+	/**
+	 * Maximal count of the mapped properties, tracked by a delta injector
+	 */
+	public static final int MAX_PROPERTIES = Long.SIZE;
+
+	/**
+	 * Inject values of the {@code src} bean changed since the previous
+	 * injection to the {@code dest} bean. All the values are injected by the
+	 * first call.
+	 * 
+	 * @param src
+	 *            source bean
+	 * @param dest
+	 *            destination bean
+	 * @return bitmask of the injected properties, bit {@code i} is set when
+	 *         {@code i}-th mapped property was changed
+	 */
+	public abstract long injectChanges(Src src, Dest dest);
+
+	/**
+	 * Drops the snapshot of injected values, so the next injection sets all
+	 * the values
+	 */
+	public abstract void reset();
+
+}
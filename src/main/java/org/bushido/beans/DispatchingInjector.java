@@ -0,0 +1,142 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.bushido.beans.mapping.IllegalMappingException;
+
+/**
+ * Injects the source beans of different runtime classes, each one with the
+ * injector of it's own class. Injector of a class is obtained from the
+ * {@link InjectorFactory} on the first injection of a bean of that class, so
+ * subclasses and DTO variants get the mapping of all their properties. A
+ * subclass of the base class which can't be mapped itself is injected with
+ * the base class injector.<br>
+ * 
+ * Injectors are selected through a small inline cache of the first
+ * {@link #CACHE_SIZE} injected classes, compared by identity, and a
+ * concurrent map for the rest of the classes. Cache is replaced as a whole,
+ * so the dispatcher can be shared between threads. Obtained injectors are
+ * kept for the dispatcher lifetime, so it doesn't see the converters,
+ * metrics or accessor backend changes of the factory made afterwards.
+ * 
+ * @author Victor Gubin
+ * 
+ * @param <Src>
+ *            base source bean type
+ * @param <Dest>
+ *            destination bean type
+ */
+final class DispatchingInjector<Src, Dest> extends AbstractInjector<Src, Dest> {
+
+	/**
+	 * Count of the classes dispatched through the inline cache, beans of the
+	 * other classes are dispatched through the map
+	 */
+	static final int CACHE_SIZE = 4;
+
+	private static final Entry[] EMPTY = new Entry[0];
+
+	private final InjectorFactory factory;
+	private final Class<Src> base;
+	private final Class<Dest> destination;
+	private final Direction direction;
+
+	private final ConcurrentMap<Class<?>, Injector<Object, Object>> injectors;
+
+	/**
+	 * Inline cache, classes in the order of the first injection
+	 */
+	private volatile Entry[] cache;
+
+	DispatchingInjector(final InjectorFactory factory, final Class<Src> base,
+			final Class<Dest> dest, final Direction direction) {
+		this.factory = factory;
+		this.base = base;
+		this.destination = dest;
+		this.direction = direction;
+		this.injectors = new ConcurrentHashMap<Class<?>, Injector<Object, Object>>();
+		this.cache = EMPTY;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.bushido.beans.Injector#inject(Src, Dest)
+	 */
+	@Override
+	public void inject(final Src src, final Dest dest) {
+		final Class<?> type = src.getClass();
+		final Entry[] entries = cache;
+		for (int i = 0; i < entries.length; i++) {
+			if (entries[i].type == type) {
+				entries[i].injector.inject(src, dest);
+				return;
+			}
+		}
+		Injector<Object, Object> injector = injectors.get(type);
+		if (null == injector) {
+			injector = resolve(type);
+		}
+		injector.inject(src, dest);
+	}
+
+	/**
+	 * Obtains the injector of the class and caches it
+	 */
+	private synchronized Injector<Object, Object> resolve(final Class<?> type) {
+		Injector<Object, Object> result = injectors.get(type);
+		if (null != result) {
+			return result;
+		}
+		try {
+			result = factory.obtain(new ClassPair(type, destination, direction));
+		} catch (IllegalMappingException e) {
+			if (type == base || !base.isAssignableFrom(type)) {
+				throw e;
+			}
+			result = injectors.get(base);
+			if (null == result) {
+				result = factory.obtain(new ClassPair(base, destination, direction));
+				injectors.put(base, result);
+			}
+		}
+		injectors.put(type, result);
+		final Entry[] entries = cache;
+		if (entries.length < CACHE_SIZE) {
+			final Entry[] extended = new Entry[entries.length + 1];
+			System.arraycopy(entries, 0, extended, 0, entries.length);
+			extended[entries.length] = new Entry(type, result);
+			cache = extended;
+		}
+		return result;
+	}
+
+	/**
+	 * Inline cache entry
+	 */
+	private static final class Entry {
+		private final Class<?> type;
+		private final Injector<Object, Object> injector;
+
+		Entry(final Class<?> type, final Injector<Object, Object> injector) {
+			this.type = type;
+			this.injector = injector;
+		}
+	}
+
+}
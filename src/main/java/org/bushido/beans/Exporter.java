@@ -14,24 +14,19 @@
  */
 package org.bushido.beans;
 
-import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 import net.sf.cglib.reflect.FastMethod;
 
 import org.bushido.beans.convertor.CustomConverter;
 import org.bushido.beans.mapping.Accessor;
 import org.bushido.beans.mapping.CallPair;
-import org.bushido.beans.mapping.IllegalMappingException;
 import org.bushido.beans.mapping.Mapping;
 
 /**
- * Exports (injects) data obtained from the source bean to the destination bean
+ * Exports (injects) data obtained from the source bean to the destination bean.
+ * Exporter is immutable and can be shared between threads, nested destination
+ * instances are resolved once per {@link #inject(Object, Object)} call.
  * 
  * @author Victor Gubin
  * 
@@ -40,46 +35,19 @@ import org.bushido.beans.mapping.Mapping;
  * @param <Dest>
  *            destination bean type
  */
-final class Exporter<Src, Dest> implements Injector<Src, Dest> {
+final class Exporter<Src, Dest> extends AbstractInjector<Src, Dest> {
 
-	private final Mapping mapping;
+	private final CallPair[] pairs;
 
-	private final Map<Method, Object> cache;
+	private final CustomConverter<Object, Object>[] converters;
 
-	Exporter(final Mapping mapping) {
-		this.mapping = mapping;
-		this.cache = new HashMap<Method, Object>();
-	}
-
-	private final void invokeSequence(final Dest dest,
-			final Accessor<FastMethod>[] sequence, final Object[] value)
-			throws InvocationTargetException {
-		final Accessor<FastMethod> setter = sequence[sequence.length - 1];
-		Object instance = cache.get(setter.getMethod().getJavaMethod());
-		if (null == instance) {
-			instance = dest;
-			for (int i = 0; i < sequence.length - 1; i++) {
-				FastMethod method = sequence[i].getMethod();
-				instance = method.invoke(instance, null);
-				if (sequence[i].getIndex() >= 0) {
-					instance = solveIndex(instance, sequence[i].getIndex());
-				}
-			}
-			cache.put(setter.getMethod().getJavaMethod(), instance);
-		}
-		setter.getMethod().invoke(instance, value);
-	}
+	private final NestedSlots slots;
 
-	@SuppressWarnings("unchecked")
-	private Object solveIndex(final Object vector, int index) {
-		if (vector.getClass().isArray()) {
-			return Array.get(vector, index);
-		} else if (vector instanceof List<?>) {
-			return ((List<Object>) vector).get(index);
-		} else {
-			throw new IllegalMappingException(
-					"Resulting value can be only array or List type");
-		}
+	Exporter(final Mapping mapping) {
+		this.pairs = mapping.getMapping().toArray(
+				new CallPair[mapping.getMapping().size()]);
+		this.converters = boxedConverters(pairs);
+		this.slots = new NestedSlots(mapping);
 	}
 
 	/*
@@ -89,23 +57,27 @@ final class Exporter<Src, Dest> implements Injector<Src, Dest> {
 	 */
 	@Override
 	public void inject(final Src src, final Dest dest) {
-		final Collection<CallPair> mapping = this.mapping.getMapping();
-		final Map<Method, CustomConverter<?, ?>> converters = this.mapping
-				.getConverterMapping();
-		if (mapping.isEmpty()) {
+		if (pairs.length == 0) {
 			throw new IllegalStateException("No mapping for classes found");
 		}
 		final Object params[] = new Object[1];
+		final Object nested[] = slots.newStorage();
 		try {
-			for (CallPair it : mapping) {
-				params[0] = it.getMethod().invoke(src, null);
-				@SuppressWarnings("unchecked")
-				final CustomConverter<Object, Object> converter = (CustomConverter<Object, Object>) converters
-						.get(it.getMethod().getJavaMethod());
-				if (null != converter) {
-					params[0] = converter.convert(params[0]);
+			for (int step = 0; step < pairs.length; step++) {
+				final int i = slots.pairAt(step);
+				final Object instance = slots.resolve(dest, slots.slotOf(i),
+						nested);
+				if (instance == NestedSlots.MISSING) {
+					continue;
+				}
+				params[0] = pairs[i].getMethod().invoke(src, null);
+				if (null != converters[i]) {
+					params[0] = converters[i].convert(params[0]);
 				}
-				invokeSequence(dest, it.getCallstack(), params);
+				final Accessor<FastMethod>[] callstack = pairs[i]
+						.getCallstack();
+				callstack[callstack.length - 1].getMethod().invoke(instance,
+						params);
 			}
 		} catch (InvocationTargetException exc) {
 			throw new IllegalStateException(exc);
@@ -0,0 +1,83 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans;
+
+import java.lang.reflect.Field;
+
+import org.bushido.beans.convertor.CustomConverter;
+import org.bushido.beans.mapping.FieldPair;
+import org.bushido.beans.mapping.Mapping;
+
+/**
+ * Reflection based injector of the {@link org.bushido.beans.mapping.Access#FIELD}
+ * mapping, used when the mapped fields can't be accessed by a generated
+ * injector, i.e. private fields. Injector is immutable and can be shared
+ * between threads.
+ * 
+ * @author Victor Gubin
+ * 
+ * @param <Src>
+ *            source bean type
+ * @param <Dest>
+ *            destination bean type
+ */
+final class FieldInjector<Src, Dest> extends AbstractInjector<Src, Dest> {
+
+	private final Field[] sources;
+
+	private final Field[] destinations;
+
+	private final CustomConverter<Object, Object>[] converters;
+
+	@SuppressWarnings("unchecked")
+	FieldInjector(final Mapping mapping) {
+		final int size = mapping.getFieldMapping().size();
+		this.sources = new Field[size];
+		this.destinations = new Field[size];
+		this.converters = new CustomConverter[size];
+		int i = 0;
+		for (FieldPair it : mapping.getFieldMapping()) {
+			sources[i] = it.getSource();
+			sources[i].setAccessible(true);
+			destinations[i] = it.getDestination();
+			destinations[i].setAccessible(true);
+			converters[i] = boxed(it.getConverter());
+			i++;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.bushido.beans.Injector#inject(Src, Dest)
+	 */
+	@Override
+	public void inject(final Src src, final Dest dest) {
+		if (sources.length == 0) {
+			throw new IllegalStateException("No mapping for classes");
+		}
+		try {
+			for (int i = 0; i < sources.length; i++) {
+				Object value = sources[i].get(src);
+				if (null != converters[i]) {
+					value = converters[i].convert(value);
+				}
+				destinations[i].set(dest, value);
+			}
+		} catch (IllegalAccessException exc) {
+			throw new IllegalStateException(exc);
+		}
+	}
+}
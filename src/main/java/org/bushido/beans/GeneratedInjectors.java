@@ -0,0 +1,83 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans;
+
+import net.sf.cglib.core.ReflectUtils;
+
+/**
+ * Naming convention and loading of the injectors generated at compile time by
+ * the {@link org.bushido.beans.processor.InjectorProcessor}. Generated injector
+ * is placed into the package of the annotated class, i.e. destination class
+ * for import and source class for export.
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public final class GeneratedInjectors {
+
+	private static final String IMPORTER = "$$Importer$$";
+	private static final String EXPORTER = "$$Exporter$$";
+
+	private GeneratedInjectors() {
+	}
+
+	/**
+	 * Returns binary name of the generated injector class
+	 * 
+	 * @param annotated
+	 *            binary name of the annotated class
+	 * @param other
+	 *            binary name of the paired class
+	 * @param direction
+	 *            injection direction
+	 * @return generated injector class name
+	 */
+	public static String className(final String annotated, final String other,
+			final Direction direction) {
+		return annotated + (direction == Direction.IMPORT ? IMPORTER : EXPORTER)
+				+ other.replace('.', '_').replace('$', '_');
+	}
+
+	/**
+	 * Loads and instantiates generated injector of the class pair
+	 * 
+	 * @param pair
+	 *            source and destination classes, and injection direction
+	 * @return generated injector or {@code null} if it was not generated
+	 */
+	static BulkInjector<?, ?> load(final ClassPair pair) {
+		final boolean imports = pair.getDirection() == Direction.IMPORT;
+		final Class<?> annotated = imports ? pair.getDestination() : pair
+				.getSource();
+		final Class<?> other = imports ? pair.getSource() : pair
+				.getDestination();
+		final ClassLoader loader = annotated.getClassLoader();
+		if (null == loader) {
+			return null;
+		}
+		final Class<?> clazz;
+		try {
+			clazz = Class.forName(
+					className(annotated.getName(), other.getName(),
+							pair.getDirection()), true, loader);
+		} catch (ClassNotFoundException e) {
+			return null;
+		}
+		if (!BulkInjector.class.isAssignableFrom(clazz)) {
+			return null;
+		}
+		return (BulkInjector<?, ?>) ReflectUtils.newInstance(clazz);
+	}
+}
@@ -14,13 +14,8 @@
  */
 package org.bushido.beans;
 
-import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Arrays;
 
 import net.sf.cglib.reflect.FastMethod;
 
@@ -31,7 +26,9 @@ import org.bushido.beans.mapping.IllegalMappingException;
 import org.bushido.beans.mapping.Mapping;
 
 /**
- * Imports (injects) data obtained from the source bean to the destination bean
+ * Imports (injects) data obtained from the source bean to the destination bean.
+ * Importer is immutable and can be shared between threads, nested source
+ * instances are resolved once per {@link #inject(Object, Object)} call.
  * 
  * @author Victor Gubin
  * 
@@ -40,51 +37,42 @@ import org.bushido.beans.mapping.Mapping;
  * @param <Dest>
  *            destination bean type
  */
-final class Importer<Src, Dest> implements Injector<Src, Dest> {
+final class Importer<Src, Dest> extends AbstractInjector<Src, Dest> {
 
-	private final Mapping mapping;
+	/**
+	 * Snapshot value of the never injected property
+	 */
+	static final Object UNSET = new Object();
+
+	private final CallPair[] pairs;
 
-	private final Map<Method, Object> cache;
+	private final CustomConverter<Object, Object>[] converters;
+
+	private final NestedSlots slots;
 
 	Importer(final Mapping mapping) {
-		this.mapping = mapping;
-		this.cache = new HashMap<Method, Object>();
+		this.pairs = mapping.getMapping().toArray(
+				new CallPair[mapping.getMapping().size()]);
+		this.converters = boxedConverters(pairs);
+		this.slots = new NestedSlots(mapping);
 	}
 
-	private final Object invokeSequence(final Src src,
-			final Accessor<FastMethod>[] sequence)
+	/**
+	 * Obtains the source value, returns {@link NestedSlots#MISSING} when
+	 * nested instance is {@code null} and pair skips {@code null}s
+	 */
+	private final Object invokeSequence(final Src src, final CallPair pair,
+			final Object[] nested, final int slot)
 			throws InvocationTargetException {
-		FastMethod lastGetter = sequence[sequence.length - 1].getMethod();
-		Object instance = cache.get(lastGetter.getJavaMethod());
-		if (null == instance) {
-			instance = src;
-			for (int i = 0; i < sequence.length - 1; i++) {
-				FastMethod method = sequence[i].getMethod();
-				instance = method.invoke(instance, null);
-				if (sequence[i].getIndex() >= 0) {
-					instance = solveIndex(instance, sequence[i].getIndex());
-				}
-			}
-			cache.put(lastGetter.getJavaMethod(), instance);
-		}
-		Object result = lastGetter.invoke(instance, null);
-		if (sequence[sequence.length - 1].getIndex() >= 0) {
-			result = solveIndex(result,
-					sequence[sequence.length - 1].getIndex());
-		}
-		return result;
-	}
-
-	@SuppressWarnings("unchecked")
-	private Object solveIndex(final Object vector, int index) {
-		if (vector.getClass().isArray()) {
-			return Array.get(vector, index);
-		} else if (vector instanceof List<?>) {
-			return ((List<Object>) vector).get(index);
-		} else {
-			throw new IllegalMappingException(
-					"Resulting value can be only array or List type");
+		final Accessor<FastMethod>[] sequence = pair.getCallstack();
+		final Object instance = slots.resolve(src, slot, nested);
+		if (instance == NestedSlots.MISSING) {
+			return instance;
 		}
+		final Accessor<FastMethod> getter = sequence[sequence.length - 1];
+		final Object result = getter.getMethod().invoke(instance, null);
+		return getter.getIndex() >= 0 ? NestedSlots.solveIndex(result,
+				getter.getIndex()) : result;
 	}
 
 	/*
@@ -94,26 +82,78 @@ final class Importer<Src, Dest> implements Injector<Src, Dest> {
 	 */
 	@Override
 	public void inject(final Src src, final Dest dest) {
-		final Collection<CallPair> mapping = this.mapping.getMapping();
-		final Map<Method, CustomConverter<?, ?>> conveteres = this.mapping
-				.getConverterMapping();
-		if (mapping.isEmpty()) {
+		if (pairs.length == 0) {
+			throw new IllegalStateException("No mapping for classes");
+		}
+		final Object params[] = new Object[1];
+		final Object nested[] = slots.newStorage();
+		try {
+			for (int step = 0; step < pairs.length; step++) {
+				final int i = slots.pairAt(step);
+				params[0] = this.invokeSequence(src, pairs[i], nested,
+						slots.slotOf(i));
+				if (params[0] == NestedSlots.MISSING) {
+					continue;
+				}
+				if (null != converters[i]) {
+					params[0] = converters[i].convert(params[0]);
+				}
+				pairs[i].getMethod().invoke(dest, params);
+			}
+		} catch (InvocationTargetException exc) {
+			throw new IllegalStateException(exc);
+		}
+	}
+
+	/**
+	 * Creates the empty snapshot for the
+	 * {@link #injectChanges(Object, Object, Object[])}
+	 */
+	Object[] newSnapshot() {
+		if (pairs.length > DeltaInjector.MAX_PROPERTIES) {
+			throw new IllegalMappingException("Delta injection supports up to "
+					+ DeltaInjector.MAX_PROPERTIES + " mapped properties");
+		}
+		final Object[] result = new Object[pairs.length];
+		Arrays.fill(result, UNSET);
+		return result;
+	}
+
+	/**
+	 * Inject source values, which are not equal to the ones stored in the
+	 * {@code snapshot}, and store them in the {@code snapshot}. Unchanged
+	 * values are neither converted nor injected.
+	 * 
+	 * @return bitmask of the injected pairs
+	 */
+	long injectChanges(final Src src, final Dest dest, final Object[] snapshot) {
+		if (pairs.length == 0) {
 			throw new IllegalStateException("No mapping for classes");
 		}
+		long changed = 0L;
 		final Object params[] = new Object[1];
+		final Object nested[] = slots.newStorage();
 		try {
-			for (CallPair it : mapping) {
-				params[0] = this.invokeSequence(src, it.getCallstack());
-				@SuppressWarnings("unchecked")
-				final CustomConverter<Object, Object> converter = (CustomConverter<Object, Object>) conveteres
-						.get(it.getMethod().getJavaMethod());
-				if (null != converter) {
-					params[0] = converter.convert(params[0]);
+			for (int step = 0; step < pairs.length; step++) {
+				final int i = slots.pairAt(step);
+				final Object value = this.invokeSequence(src, pairs[i],
+						nested, slots.slotOf(i));
+				if (value == NestedSlots.MISSING || equal(snapshot[i], value)) {
+					continue;
 				}
-				it.getMethod().invoke(dest, params);
+				params[0] = null == converters[i] ? value : converters[i]
+						.convert(value);
+				pairs[i].getMethod().invoke(dest, params);
+				snapshot[i] = value;
+				changed |= 1L << i;
 			}
 		} catch (InvocationTargetException exc) {
 			throw new IllegalStateException(exc);
 		}
+		return changed;
+	}
+
+	private static boolean equal(final Object last, final Object value) {
+		return last == value || (null != value && value.equals(last));
 	}
 }
@@ -16,7 +16,8 @@ package org.bushido.beans;
 
 /**
  * Implementor inject (import of export) data from {@code Src} bean to the
- * {@code Dest} bean
+ * {@code Dest} bean. Injectors created by {@link InjectorFactory} are
+ * immutable and can be shared between threads.
  * 
  * @author Victor_Gubin
  * 
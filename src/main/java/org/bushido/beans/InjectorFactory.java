@@ -14,18 +14,103 @@
  */
 package org.bushido.beans;
 
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import org.bushido.beans.convertor.ConverterRegistry;
+import org.bushido.beans.convertor.CustomConverter;
+import org.bushido.beans.convertor.ElementsConverter;
+import org.bushido.beans.convertor.PrimitiveConverter;
+import org.bushido.beans.convertor.TypeConverter;
+import org.bushido.beans.mapping.CallPair;
+import org.bushido.beans.mapping.ElementsMapping;
+import org.bushido.beans.mapping.ExportSource;
+import org.bushido.beans.mapping.FieldPair;
+import org.bushido.beans.mapping.IllegalMappingException;
+import org.bushido.beans.mapping.ImportDestination;
 import org.bushido.beans.mapping.Mapping;
+import org.bushido.beans.mapping.scanner.AccessorBackend;
+import org.bushido.beans.mapping.scanner.FastClasses;
+import org.bushido.beans.mapping.scanner.MappingInverter;
+import org.bushido.beans.mapping.scanner.MappingPlans;
 import org.bushido.beans.mapping.scanner.MappingScanerFactory;
+import org.bushido.beans.metrics.InjectorMetrics;
+import org.bushido.beans.metrics.MeteredConverter;
 import org.bushido.beans.mapping.scanner.MappingScanner;
 
 /**
- * Creates injector instances for importing/exporting data from bean to bean
+ * Creates injector instances for importing/exporting data from bean to bean.
+ * Injectors are generated classes which call the mapped getters and setters
+ * directly, the reflection based {@link Importer} and {@link Exporter} are used
+ * only when mapping can't be compiled into a class. Injectors generated at
+ * compile time by the {@code InjectorProcessor} are used when present, so no
+ * scanning and class generation is done for them at runtime.<br>
+ * 
+ * Compiled injectors are kept in the process wide registry, so each
+ * {@link ClassPair} is scanned and compiled only once and all the factories
+ * return the same injector instance for it.<br>
+ * 
+ * Default converters are registered once for a source and destination types
+ * pair and are applied by all the mappings converting such types, unless
+ * mapped method declares it's own converter. Default converters are not
+ * applied by the compile time generated injectors.<br>
+ * 
+ * Injectors are measured and exposed with JMX when metrics are enabled with
+ * {@link #setMetricsEnabled(boolean)}.<br>
+ * 
+ * Scanned mappings can be saved with {@link #savePlans(File)} and loaded on
+ * the next start with {@link #loadPlans(File)}, so the mappings of the
+ * unchanged classes are restored without scanning.
  * 
  * @author Victor Gubin
  * 
  */
 public final class InjectorFactory {
 
+	private static final ConcurrentMap<ClassPair, BulkInjector<?, ?>> INJECTORS = new ConcurrentHashMap<ClassPair, BulkInjector<?, ?>>();
+
+	/**
+	 * Reflection importers shared by the delta injectors
+	 */
+	private static final ConcurrentMap<ClassPair, Importer<?, ?>> DELTAS = new ConcurrentHashMap<ClassPair, Importer<?, ?>>();
+
+	/**
+	 * Column injectors by class pair
+	 */
+	private static final ConcurrentMap<ClassPair, ColumnInjector<?, ?>> COLUMNS = new ConcurrentHashMap<ClassPair, ColumnInjector<?, ?>>();
+
+	/**
+	 * Record codecs by bean class
+	 */
+	private static final ConcurrentMap<Class<?>, RecordCodec<?>> CODECS = new ConcurrentHashMap<Class<?>, RecordCodec<?>>();
+
+	/**
+	 * Class pairs of the directions derived by the
+	 * {@link #createBidirectional(Class, Class)}, by the declared pair they
+	 * are inverted from. Derived mappings are kept when injectors are
+	 * dropped, so they are compiled again on the next request.
+	 */
+	private static final ConcurrentMap<ClassPair, ClassPair> DERIVED = new ConcurrentHashMap<ClassPair, ClassPair>();
+
+	private static final ConverterRegistry CONVERTERS = new ConverterRegistry();
+
+	private static final MappingPlans PLANS = new MappingPlans(CONVERTERS);
+
+	private static volatile boolean metrics = false;
+
 	/**
 	 * Create new {@code InjectorFactory}
 	 * 
@@ -39,7 +124,7 @@ public final class InjectorFactory {
 	}
 
 	/**
-	 * Creates {@link Injector} instance for import (inject) data into
+	 * Creates {@link BulkInjector} instance for import (inject) data into
 	 * {@code src} bean to the {@code dest} bean
 	 * 
 	 * @param src
@@ -48,17 +133,13 @@ public final class InjectorFactory {
 	 *            destination bean class
 	 * @return new importer
 	 */
-	public <Source, Desination> Injector<Source, Desination> createImporter(
+	public <Source, Desination> BulkInjector<Source, Desination> createImporter(
 			final Class<Source> src, final Class<Desination> dest) {
-		final MappingScanner scanner = MappingScanerFactory
-				.createImportScanner();
-		final Mapping mapping = scanner.scan(src, dest);
-		Compiler.compileClass(Importer.class);
-		return new Importer<Source, Desination>(mapping);
+		return obtain(new ClassPair(src, dest, Direction.IMPORT));
 	}
 
 	/**
-	 * Creates {@link Injector} instance for export (inject) data into
+	 * Creates {@link BulkInjector} instance for export (inject) data into
 	 * {@code src} bean to the {@code dest} bean
 	 * 
 	 * @param src
@@ -67,12 +148,598 @@ public final class InjectorFactory {
 	 *            destination bean class
 	 * @return new importer
 	 */
-	public <Source, Desination> Injector<Source, Desination> createExporter(
+	public <Source, Desination> BulkInjector<Source, Desination> createExporter(
+			final Class<Source> src, final Class<Desination> dest) {
+		return obtain(new ClassPair(src, dest, Direction.EXPORT));
+	}
+
+	/**
+	 * Creates injectors moving data between the {@code a} and {@code b}
+	 * beans both ways. Mapping declared by the {@code b} bean, either
+	 * {@link ImportDestination} or {@link ExportSource}, is scanned once and
+	 * the opposite direction is derived from it, so the {@code b} bean
+	 * declares only one direction. Injectors are kept in the registry, so
+	 * {@link #createImporter(Class, Class)} and
+	 * {@link #createExporter(Class, Class)} return the same instances. The
+	 * derived direction stays known to the factory, so it is derived again
+	 * after the injectors are dropped by a converter, metrics or accessor
+	 * backend change.
+	 * 
+	 * @param a
+	 *            import source and export destination bean class
+	 * @param b
+	 *            import destination and export source bean class
+	 * @return importer and exporter pair
+	 * @throws IllegalMappingException
+	 *             when {@code b} declares no mapping, or it can't be inverted
+	 *             (see {@link MappingInverter})
+	 */
+	public <A, B> BidirectionalInjector<A, B> createBidirectional(
+			final Class<A> a, final Class<B> b) {
+		final ClassPair importPair = new ClassPair(a, b, Direction.IMPORT);
+		final ClassPair exportPair = new ClassPair(b, a, Direction.EXPORT);
+		final ClassPair derived;
+		if (null != b.getAnnotation(ImportDestination.class)) {
+			derived = exportPair;
+			DERIVED.putIfAbsent(exportPair, importPair);
+		} else if (null != b.getAnnotation(ExportSource.class)) {
+			derived = importPair;
+			DERIVED.putIfAbsent(importPair, exportPair);
+		} else {
+			throw new IllegalMappingException("No mapping declared by "
+					+ b.getName());
+		}
+		try {
+			final BulkInjector<A, B> importer = obtain(importPair);
+			final BulkInjector<B, A> exporter = obtain(exportPair);
+			return new BidirectionalInjector<A, B>(importer, exporter);
+		} catch (IllegalMappingException e) {
+			DERIVED.remove(derived);
+			throw e;
+		}
+	}
+
+	/**
+	 * Creates {@link BulkInjector} instance for import data from the source
+	 * beans of the {@code base} class, it's subclasses or any other classes
+	 * mapped to the {@code dest} bean. Each source bean is injected with the
+	 * injector of it's runtime class, created on the first injection of the
+	 * class and selected with an inline cache on the next ones. Dispatcher
+	 * keeps the injectors it has obtained, so converters registered and
+	 * metrics or accessor backend set later apply only to the dispatchers
+	 * created after the change.
+	 * 
+	 * @param base
+	 *            base source bean class
+	 * @param dest
+	 *            destination bean class
+	 * @return new dispatching importer
+	 */
+	public <Source, Desination> BulkInjector<Source, Desination> createDispatchingImporter(
+			final Class<Source> base, final Class<Desination> dest) {
+		return dispatching(base, dest, Direction.IMPORT);
+	}
+
+	/**
+	 * Creates {@link BulkInjector} instance for export data from the source
+	 * beans of the {@code base} class, it's subclasses or any other classes
+	 * exported to the {@code dest} bean. Each source bean is injected with the
+	 * injector of it's runtime class, created on the first injection of the
+	 * class and selected with an inline cache on the next ones. Dispatcher
+	 * keeps the injectors it has obtained, so converters registered and
+	 * metrics or accessor backend set later apply only to the dispatchers
+	 * created after the change.
+	 * 
+	 * @param base
+	 *            base source bean class
+	 * @param dest
+	 *            destination bean class
+	 * @return new dispatching exporter
+	 */
+	public <Source, Desination> BulkInjector<Source, Desination> createDispatchingExporter(
+			final Class<Source> base, final Class<Desination> dest) {
+		return dispatching(base, dest, Direction.EXPORT);
+	}
+
+	/**
+	 * Creates new {@link DeltaInjector} instance for import data changes from
+	 * the {@code src} bean to the single {@code dest} bean. Mapping is scanned
+	 * once per class pair, but each call returns a new injector with it's own
+	 * snapshot of injected values.
+	 * 
+	 * @param src
+	 *            source bean class
+	 * @param dest
+	 *            destination bean class
+	 * @return new delta importer
+	 * @throws IllegalMappingException
+	 *             when no or more than {@link DeltaInjector#MAX_PROPERTIES}
+	 *             properties are mapped, or {@code dest} is mapped with the
+	 *             field access
+	 */
+	@SuppressWarnings("unchecked")
+	public <Source, Desination> DeltaInjector<Source, Desination> createDeltaImporter(
+			final Class<Source> src, final Class<Desination> dest) {
+		final ClassPair pair = new ClassPair(src, dest, Direction.IMPORT);
+		Importer<?, ?> importer = DELTAS.get(pair);
+		if (null == importer) {
+			final Mapping mapping = mappingOf(pair);
+			if (!mapping.getFieldMapping().isEmpty()) {
+				throw new IllegalMappingException(
+						"Delta injection doesn't support field access of "
+								+ pair);
+			}
+			if (mapping.getMapping().isEmpty()) {
+				throw new IllegalMappingException("No properties mapped for "
+						+ pair);
+			}
+			importer = new Importer<Object, Object>(mapping);
+			final Importer<?, ?> existing = DELTAS.putIfAbsent(pair, importer);
+			if (null != existing) {
+				importer = existing;
+			}
+		}
+		return new DeltaImporter<Source, Desination>(
+				(Importer<Source, Desination>) importer);
+	}
+
+	/**
+	 * Creates {@link ColumnInjector} instance for import data of a batch of
+	 * the {@code src} beans to the columns, and from the columns to a batch of
+	 * the {@code dest} beans
+	 * 
+	 * @param src
+	 *            source bean class
+	 * @param dest
+	 *            destination bean class
+	 * @return column importer
+	 * @throws IllegalMappingException
+	 *             when mapping uses field access or wildcard paths
+	 */
+	public <Source, Desination> ColumnInjector<Source, Desination> createColumnImporter(
+			final Class<Source> src, final Class<Desination> dest) {
+		return column(new ClassPair(src, dest, Direction.IMPORT));
+	}
+
+	/**
+	 * Creates {@link ColumnInjector} instance for export data of a batch of
+	 * the {@code src} beans to the columns, and from the columns to a batch of
+	 * the {@code dest} beans
+	 * 
+	 * @param src
+	 *            source bean class
+	 * @param dest
+	 *            destination bean class
+	 * @return column exporter
+	 * @throws IllegalMappingException
+	 *             when mapping uses field access or wildcard paths
+	 */
+	public <Source, Desination> ColumnInjector<Source, Desination> createColumnExporter(
 			final Class<Source> src, final Class<Desination> dest) {
-		final MappingScanner scanner = MappingScanerFactory
-				.createExportScanner();
-		final Mapping mapping = scanner.scan(src, dest);
-		Compiler.compileClass(Exporter.class);
-		return new Exporter<Source, Desination>(mapping);
+		return column(new ClassPair(src, dest, Direction.EXPORT));
+	}
+
+	/**
+	 * Creates {@link RecordCodec} instance writing the {@code type} beans to
+	 * the binary records and reading them back. Record layout is derived from
+	 * the mapping of the bean on itself, so the bean declares
+	 * {@link ImportDestination} and all the mapped properties are the getter
+	 * and setter pairs of the bean.
+	 * 
+	 * @param type
+	 *            bean class
+	 * @return record codec
+	 * @throws IllegalMappingException
+	 *             when a mapped property is nested, converted or has a type
+	 *             other than primitive, primitive wrapper, enumeration,
+	 *             {@code String} or {@code byte[]}
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> RecordCodec<T> createCodec(final Class<T> type) {
+		RecordCodec<?> result = CODECS.get(type);
+		if (null == result) {
+			final RecordLayout layout = new RecordLayout(type, scan(new ClassPair(
+					type, type, Direction.IMPORT)));
+			result = RecordCodecGenerator.generate(layout);
+			final RecordCodec<?> existing = CODECS.putIfAbsent(type, result);
+			if (null != existing) {
+				result = existing;
+			}
+		}
+		return (RecordCodec<T>) result;
+	}
+
+	/**
+	 * Scans and compiles injectors for all the {@code pairs} in advance, so
+	 * the first request for the injector don't pay for the mapping scanning
+	 * 
+	 * @param pairs
+	 *            class pairs to compile injectors for
+	 */
+	public void prewarm(final Collection<ClassPair> pairs) {
+		for (ClassPair it : pairs) {
+			obtain(it);
+		}
+	}
+
+	/**
+	 * Scans and compiles injectors for all the {@code pairs} in parallel, with
+	 * a new pool of the available processors size. Fast classes of the beans
+	 * shared by several pairs are generated once.
+	 * 
+	 * @param pairs
+	 *            class pairs to create injectors for
+	 * @return injectors by class pair, in the {@code pairs} order
+	 * @throws IllegalMappingException
+	 *             when any of the pairs can't be mapped
+	 * @see #createAll(Collection, ForkJoinPool)
+	 */
+	public Map<ClassPair, BulkInjector<?, ?>> createAll(
+			final Collection<ClassPair> pairs) {
+		final ForkJoinPool pool = new ForkJoinPool();
+		try {
+			return createAll(pairs, pool);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Scans and compiles injectors for all the {@code pairs} in parallel by
+	 * the {@code pool} workers. Injectors are kept in the registry, so pairs
+	 * compiled before are not compiled again.
+	 * 
+	 * @param pairs
+	 *            class pairs to create injectors for
+	 * @param pool
+	 *            fork-join pool to scan and compile pairs with
+	 * @return injectors by class pair, in the {@code pairs} order
+	 * @throws IllegalMappingException
+	 *             when any of the pairs can't be mapped
+	 */
+	public Map<ClassPair, BulkInjector<?, ?>> createAll(
+			final Collection<ClassPair> pairs, final ForkJoinPool pool) {
+		final List<CreateTask> tasks = new ArrayList<CreateTask>(pairs.size());
+		for (ClassPair it : new LinkedHashSet<ClassPair>(pairs)) {
+			tasks.add(new CreateTask(it));
+		}
+		pool.invoke(new RecursiveAction() {
+			private static final long serialVersionUID = -4610546378213645071L;
+
+			@Override
+			protected void compute() {
+				invokeAll(tasks);
+			}
+		});
+		final Map<ClassPair, BulkInjector<?, ?>> result = new LinkedHashMap<ClassPair, BulkInjector<?, ?>>();
+		for (CreateTask it : tasks) {
+			result.put(it.pair, it.getRawResult());
+		}
+		return result;
+	}
+
+	/**
+	 * Registers default converter for the {@code src} to {@code dest} types
+	 * conversion. Injectors compiled before are dropped from the registry, so
+	 * the next created injectors use the new converter.
+	 * 
+	 * @param src
+	 *            source value type
+	 * @param dest
+	 *            destination value type
+	 * @param converter
+	 *            converter instance shared by all the injectors
+	 */
+	public <S, D> void register(final Class<S> src, final Class<D> dest,
+			final CustomConverter<? super S, ? extends D> converter) {
+		CONVERTERS.register(src, dest, converter);
+		dropInjectors();
+	}
+
+	/**
+	 * Registers default primitive converter for the {@code src} to
+	 * {@code dest} types conversion. Injectors compiled before are dropped
+	 * from the registry, so the next created injectors use the new converter.
+	 * 
+	 * @param src
+	 *            source value type
+	 * @param dest
+	 *            destination value type
+	 * @param converter
+	 *            primitive converter instance shared by all the injectors
+	 */
+	public void register(final Class<?> src, final Class<?> dest,
+			final PrimitiveConverter converter) {
+		CONVERTERS.register(src, dest, converter);
+		dropInjectors();
+	}
+
+	/**
+	 * Enables or disables runtime metrics of the injectors. Metered injectors
+	 * measure {@code inject} calls and conversions, and register their
+	 * {@link org.bushido.beans.metrics.InjectorMetricsMXBean} in the platform
+	 * MBean server. Injectors compiled before are dropped from the registry,
+	 * so the next created injectors are metered. Disabled metrics have no
+	 * overhead, injectors are not wrapped.
+	 * 
+	 * @param enabled
+	 *            whether next created injectors are metered
+	 */
+	public void setMetricsEnabled(final boolean enabled) {
+		metrics = enabled;
+		dropInjectors();
+	}
+
+	/**
+	 * Restores the initial state of the factory: registered converters,
+	 * loaded plans and derived directions are removed, metrics are disabled
+	 * and the configured accessor backend is set. Used by the tests changing
+	 * the process wide settings.
+	 */
+	static void reset() {
+		CONVERTERS.clear();
+		PLANS.clear();
+		DERIVED.clear();
+		metrics = false;
+		FastClasses.setBackend(AccessorBackend.configured());
+		dropInjectors();
+	}
+
+	/**
+	 * Drops compiled injectors from the registries and unregisters the
+	 * metrics of the metered ones
+	 */
+	private static void dropInjectors() {
+		for (Map.Entry<ClassPair, BulkInjector<?, ?>> it : INJECTORS.entrySet()) {
+			final BulkInjector<?, ?> injector = it.getValue();
+			if (INJECTORS.remove(it.getKey(), injector)
+					&& injector instanceof MeteredInjector) {
+				((MeteredInjector<?, ?>) injector).getMetrics().unregister();
+			}
+		}
+		DELTAS.clear();
+		COLUMNS.clear();
+	}
+
+	/**
+	 * Sets the backend of the accessors called by the reflection based
+	 * injectors, column injectors and converters. Injectors created before
+	 * are dropped from the registry, so the next created injectors use the
+	 * new backend.
+	 * 
+	 * @param backend
+	 *            accessor backend
+	 */
+	public void setAccessorBackend(final AccessorBackend backend) {
+		FastClasses.setBackend(backend);
+		dropInjectors();
+	}
+
+	private <Source, Desination> BulkInjector<Source, Desination> dispatching(
+			final Class<Source> base, final Class<Desination> dest,
+			final Direction direction) {
+		final DispatchingInjector<Source, Desination> result = new DispatchingInjector<Source, Desination>(
+				this, base, dest, direction);
+		result.bindDestination(dest);
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <Source, Desination> ColumnInjector<Source, Desination> column(
+			final ClassPair pair) {
+		ColumnInjector<?, ?> result = COLUMNS.get(pair);
+		if (null == result) {
+			result = new ColumnMapper<Object, Object>(mappingOf(pair),
+					pair.getDirection());
+			final ColumnInjector<?, ?> existing = COLUMNS.putIfAbsent(pair,
+					result);
+			if (null != existing) {
+				result = existing;
+			}
+		}
+		return (ColumnInjector<Source, Desination>) result;
+	}
+
+	/**
+	 * Loads mapping plans saved with {@link #savePlans(File)}, so injectors of
+	 * the planned class pairs are created without scanning, unless classes
+	 * were changed since plans were saved
+	 * 
+	 * @param file
+	 *            plans file
+	 * @throws IOException
+	 *             when file can't be read
+	 */
+	public void loadPlans(final File file) throws IOException {
+		PLANS.load(file);
+	}
+
+	/**
+	 * Saves plans of all the mappings scanned or loaded before
+	 * 
+	 * @param file
+	 *            plans file
+	 * @throws IOException
+	 *             when file can't be written
+	 */
+	public void savePlans(final File file) throws IOException {
+		PLANS.save(file);
+	}
+
+	@SuppressWarnings("unchecked")
+	<Source, Desination> BulkInjector<Source, Desination> obtain(
+			final ClassPair pair) {
+		BulkInjector<?, ?> result = INJECTORS.get(pair);
+		if (null == result) {
+			result = compile(pair);
+			final BulkInjector<?, ?> existing = INJECTORS.putIfAbsent(pair,
+					result);
+			if (null != existing) {
+				result = existing;
+			} else if (result instanceof MeteredInjector) {
+				((MeteredInjector<?, ?>) result).getMetrics().register();
+			}
+		}
+		return (BulkInjector<Source, Desination>) result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private BulkInjector<?, ?> compile(final ClassPair pair) {
+		final InjectorMetrics meter = metrics ? new InjectorMetrics(
+				pair.getSource(), pair.getDestination(), pair.getDirection()
+						.name()) : null;
+		BulkInjector<?, ?> result = instantiate(pair, meter);
+		if (result instanceof AbstractInjector) {
+			((AbstractInjector<?, ?>) result).bindDestination(pair
+					.getDestination());
+		}
+		if (null != meter) {
+			final AbstractInjector<?, ?> metered = new MeteredInjector<Object, Object>(
+					(Injector<Object, Object>) result, meter);
+			metered.bindDestination(pair.getDestination());
+			result = metered;
+		}
+		return result;
+	}
+
+	private BulkInjector<?, ?> instantiate(final ClassPair pair,
+			final InjectorMetrics meter) {
+		final BulkInjector<?, ?> generated = GeneratedInjectors.load(pair);
+		if (null != generated) {
+			return generated;
+		}
+		final Mapping resolved = mappingOf(pair);
+		final Mapping mapping = null == meter ? resolved : metered(resolved,
+				meter);
+		final BulkInjector<?, ?> result = InjectorGenerator
+				.generate(pair, mapping);
+		if (null != result) {
+			return result;
+		}
+		if (!mapping.getFieldMapping().isEmpty()) {
+			return new FieldInjector<Object, Object>(mapping);
+		}
+		if (pair.getDirection() == Direction.IMPORT) {
+			return new Importer<Object, Object>(mapping);
+		}
+		return new Exporter<Object, Object>(mapping);
+	}
+
+	/**
+	 * Returns mapping of the pair, inverted from the declared direction when
+	 * the pair is derived by the {@link #createBidirectional(Class, Class)}
+	 */
+	private Mapping mappingOf(final ClassPair pair) {
+		final ClassPair declared = DERIVED.get(pair);
+		if (null == declared) {
+			return scan(pair);
+		}
+		final MappingInverter inverter = new MappingInverter(CONVERTERS);
+		final Class<?> src = declared.getSource();
+		final Class<?> dest = declared.getDestination();
+		if (declared.getDirection() == Direction.IMPORT) {
+			return inverter.invertImport(scan(declared), src, dest, dest
+					.getAnnotation(ImportDestination.class).nulls());
+		}
+		return inverter.invertExport(scan(declared), src, dest, src
+				.getAnnotation(ExportSource.class).nulls());
+	}
+
+	private Mapping scan(final ClassPair pair) {
+		final String key = pair.toString();
+		Mapping result = PLANS.restore(key, pair.getSource(),
+				pair.getDestination());
+		if (null == result) {
+			final MappingScanner scanner = pair.getDirection() == Direction.IMPORT ? MappingScanerFactory
+					.createImportScanner(CONVERTERS) : MappingScanerFactory
+					.createExportScanner(CONVERTERS);
+			result = scanner.scan(pair.getSource(), pair.getDestination());
+			PLANS.record(key, pair.getSource(), pair.getDestination(),
+					pair.getDirection() == Direction.EXPORT, result);
+		}
+		return resolveElements(pair.getDirection(), result);
+	}
+
+	/**
+	 * Wraps the mapping converters with the converters measuring conversion
+	 * time
+	 */
+	private static Mapping metered(final Mapping mapping,
+			final InjectorMetrics meter) {
+		final List<CallPair> pairs = new ArrayList<CallPair>(mapping
+				.getMapping().size());
+		final Map<Method, TypeConverter> converters = new HashMap<Method, TypeConverter>();
+		for (CallPair it : mapping.getMapping()) {
+			final TypeConverter converter = metered(it.getConverter(), meter);
+			pairs.add(new CallPair(it.getMethod(), it.getCallstack(),
+					converter, it.getElements(), it.getNulls()));
+			if (null != converter) {
+				converters.put(it.getMethod().getJavaMethod(), converter);
+			}
+		}
+		final List<FieldPair> fields = new ArrayList<FieldPair>(mapping
+				.getFieldMapping().size());
+		for (FieldPair it : mapping.getFieldMapping()) {
+			fields.add(new FieldPair(it.getSource(), it.getDestination(),
+					metered(it.getConverter(), meter)));
+		}
+		return new Mapping(pairs, converters, fields);
+	}
+
+	private static TypeConverter metered(final TypeConverter converter,
+			final InjectorMetrics meter) {
+		if (null == converter) {
+			return null;
+		}
+		return new MeteredConverter(AbstractInjector.boxed(converter),
+				meter.converter(converter.getClass().getName()));
+	}
+
+	/**
+	 * Obtains injector of a single pair in the fork-join worker
+	 */
+	private final class CreateTask extends RecursiveTask<BulkInjector<?, ?>> {
+
+		private static final long serialVersionUID = 7283496119852067340L;
+
+		private final ClassPair pair;
+
+		CreateTask(final ClassPair pair) {
+			this.pair = pair;
+		}
+
+		@Override
+		protected BulkInjector<?, ?> compute() {
+			return obtain(pair);
+		}
+	}
+
+	/**
+	 * Resolves nested injectors of the element by element mappings, so
+	 * injection don't resolve them for each element
+	 */
+	private Mapping resolveElements(final Direction direction,
+			final Mapping mapping) {
+		boolean resolved = false;
+		final List<CallPair> pairs = new ArrayList<CallPair>(mapping
+				.getMapping().size());
+		final Map<Method, TypeConverter> converters = new HashMap<Method, TypeConverter>(
+				mapping.getConverterMapping());
+		for (CallPair it : mapping.getMapping()) {
+			final ElementsMapping elements = it.getElements();
+			if (null == elements || null != it.getConverter()) {
+				pairs.add(it);
+				continue;
+			}
+			final ElementsConverter converter = elements.isCopy() ? new ElementsConverter(
+					elements) : new ElementsConverter(elements, this,
+					direction, FastClasses.of(elements.getDestination()));
+			pairs.add(new CallPair(it.getMethod(), it.getCallstack(),
+					converter, elements, it.getNulls()));
+			converters.put(it.getMethod().getJavaMethod(), converter);
+			resolved = true;
+		}
+		return resolved ? new Mapping(pairs, converters, new ArrayList<FieldPair>(
+				mapping.getFieldMapping())) : mapping;
 	}
 }
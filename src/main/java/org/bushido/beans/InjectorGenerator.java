@@ -0,0 +1,688 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bushido.beans;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import net.sf.cglib.core.AbstractClassGenerator;
+import net.sf.cglib.core.Block;
+import net.sf.cglib.core.ClassEmitter;
+import net.sf.cglib.core.CodeEmitter;
+import net.sf.cglib.core.Constants;
+import net.sf.cglib.core.EmitUtils;
+import net.sf.cglib.core.Local;
+import net.sf.cglib.core.ReflectUtils;
+import net.sf.cglib.core.Signature;
+import net.sf.cglib.core.TypeUtils;
+import net.sf.cglib.reflect.FastMethod;
+
+import org.apache.commons.lang.ClassUtils;
+
+import org.bushido.beans.convertor.CustomConverter;
+import org.bushido.beans.convertor.PrimitiveConverter;
+import org.bushido.beans.convertor.PrimitiveConverters;
+import org.bushido.beans.convertor.TypeConverter;
+import org.bushido.beans.mapping.Accessor;
+import org.bushido.beans.mapping.CallPair;
+import org.bushido.beans.mapping.ExecutionPlan;
+import org.bushido.beans.mapping.FieldPair;
+import org.bushido.beans.mapping.Mapping;
+import org.bushido.beans.mapping.NullHandling;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.Type;
+
+/**
+ * Generates a concrete {@link Injector} class for the scanned {@link Mapping}.
+ * Generated {@code inject} method calls the getters and setters directly, so
+ * primitive values are copied without boxing and without the
+ * {@code FastMethod} arguments array.<br>
+ *
+ * Generated class is defined in the package of the non public bean class (if
+ * any), so package visible beans can be used as well. When the mapping refers
+ * classes which can not be reached from a single package the generator is not
+ * applicable and {@link Importer} or {@link Exporter} should be used instead.
+ *
+ * @author Victor Gubin
+ *
+ */
+final class InjectorGenerator extends AbstractClassGenerator {
+
+	private static final Source SOURCE = new Source(Injector.class.getName());
+
+	private static final Type ABSTRACT_INJECTOR = Type
+			.getType(AbstractInjector.class);
+	private static final Type CUSTOM_CONVERTER = Type
+			.getType(CustomConverter.class);
+	private static final Type CONVERTERS = Type
+			.getType(TypeConverter[].class);
+	private static final Type LIST = Type.getType(List.class);
+	private static final Type ILLEGAL_STATE = Type
+			.getType(IllegalStateException.class);
+
+	private static final String CONVERTERS_FIELD = "converters";
+
+	private static final Signature CSTRUCT_CONVERTERS = TypeUtils
+			.parseConstructor(new Type[] { CONVERTERS });
+	private static final Signature INJECT = new Signature("inject",
+			Type.VOID_TYPE, new Type[] { Constants.TYPE_OBJECT,
+					Constants.TYPE_OBJECT });
+	private static final Signature CONVERT = new Signature("convert",
+			Constants.TYPE_OBJECT, new Type[] { Constants.TYPE_OBJECT });
+	private static final Signature NEW_DESTINATION = new Signature(
+			"newDestination", Type.getType(Object.class), new Type[0]);
+	private static final Signature LIST_GET = TypeUtils
+			.parseSignature("Object get(int)");
+
+	private final Class<?> src;
+	private final Class<?> dest;
+	private final boolean export;
+	private final CallPair[] pairs;
+	private final FieldPair[] fields;
+	/**
+	 * Converters of the call pairs followed by converters of the field pairs
+	 */
+	private final TypeConverter[] converters;
+	private final Class<?> host;
+
+	private final ExecutionPlan plan;
+	/**
+	 * Nodes of the execution plan skipping {@code null} instances
+	 */
+	private final boolean[] skips;
+	private final Local[] nodeLocals;
+	private final Class<?>[] nodeTypes;
+
+	private InjectorGenerator(final Class<?> src, final Class<?> dest,
+			final boolean export, final Mapping mapping, final Class<?> host) {
+		super(SOURCE);
+		this.src = src;
+		this.dest = dest;
+		this.export = export;
+		this.pairs = mapping.getMapping().toArray(
+				new CallPair[mapping.getMapping().size()]);
+		this.plan = mapping.getPlan();
+		this.skips = new boolean[plan.getNodeCount()];
+		for (int i = 0; i < pairs.length; i++) {
+			if (pairs[i].getNulls() != NullHandling.FAIL) {
+				for (int node = plan.getNode(i); node != ExecutionPlan.ROOT; node = plan
+						.getParent(node)) {
+					skips[node] = true;
+				}
+			}
+		}
+		this.nodeLocals = new Local[plan.getNodeCount()];
+		this.nodeTypes = new Class<?>[plan.getNodeCount()];
+		this.fields = mapping.getFieldMapping().toArray(
+				new FieldPair[mapping.getFieldMapping().size()]);
+		this.converters = new TypeConverter[pairs.length + fields.length];
+		for (int i = 0; i < pairs.length; i++) {
+			this.converters[i] = pairs[i].getConverter();
+		}
+		for (int i = 0; i < fields.length; i++) {
+			this.converters[pairs.length + i] = fields[i].getConverter();
+		}
+		this.host = host;
+		setNamePrefix(host.getName());
+		setUseCache(false);
+	}
+
+	/**
+	 * Generates injector class for the scanned {@code mapping} and creates
+	 * it's instance
+	 * 
+	 * @param pair
+	 *            source and destination classes, and injection direction
+	 * @param mapping
+	 *            scanned mapping
+	 * @return generated injector or {@code null} when mapping can't be
+	 *         compiled into a class
+	 */
+	static BulkInjector<?, ?> generate(final ClassPair pair,
+			final Mapping mapping) {
+		if (mapping.getMapping().isEmpty()
+				&& mapping.getFieldMapping().isEmpty()) {
+			return null;
+		}
+		final Class<?> src = pair.getSource();
+		final Class<?> dest = pair.getDestination();
+		final boolean export = pair.getDirection() == Direction.EXPORT;
+		final Class<?> host = findHost(src, dest, export, mapping);
+		if (null == host) {
+			return null;
+		}
+		final InjectorGenerator generator = new InjectorGenerator(src, dest,
+				export, mapping, host);
+		final Class<?> type = (Class<?>) generator.create(pair.toString());
+		return (BulkInjector<?, ?>) ReflectUtils.newInstance(type,
+				new Class[] { TypeConverter[].class },
+				new Object[] { generator.converters });
+	}
+
+	/**
+	 * Finds the class the generated injector will share the package and the
+	 * class loader with. Returns {@code null} when no such class exists.
+	 */
+	private static Class<?> findHost(final Class<?> src, final Class<?> dest,
+			final boolean export, final Mapping mapping) {
+		final Set<Class<?>> referenced = new LinkedHashSet<Class<?>>();
+		referenced.add(src);
+		referenced.add(dest);
+		for (CallPair it : mapping.getMapping()) {
+			final Method method = it.getMethod().getJavaMethod();
+			if (export) {
+				referenced.add(method.getReturnType());
+				collectReferenced(referenced, dest, it.getCallstack());
+			} else {
+				referenced.add(method.getParameterTypes()[0]);
+				collectReferenced(referenced, src, it.getCallstack());
+			}
+		}
+		for (FieldPair it : mapping.getFieldMapping()) {
+			referenced.add(it.getSource().getDeclaringClass());
+			referenced.add(it.getSource().getType());
+			referenced.add(it.getDestination().getDeclaringClass());
+			referenced.add(it.getDestination().getType());
+		}
+		Class<?> host = export ? src : dest;
+		for (Class<?> it : referenced) {
+			if (!isPublic(it)) {
+				host = it;
+				while (host.isArray()) {
+					host = host.getComponentType();
+				}
+				break;
+			}
+		}
+		final ClassLoader loader = host.getClassLoader();
+		if (null == loader || host.getName().startsWith("java.")) {
+			return null;
+		}
+		final String hostPackage = packageOf(host);
+		referenced.add(AbstractInjector.class);
+		referenced.add(TypeConverter.class);
+		for (Class<?> it : referenced) {
+			if (!isAccessible(it, hostPackage, loader)) {
+				return null;
+			}
+		}
+		for (FieldPair it : mapping.getFieldMapping()) {
+			if (!isAccessible(it.getSource(), hostPackage, loader)
+					|| !isAccessible(it.getDestination(), hostPackage, loader)) {
+				return null;
+			}
+		}
+		return host;
+	}
+
+	private static void collectReferenced(final Set<Class<?>> referenced,
+			final Class<?> root, final Accessor<FastMethod>[] callstack) {
+		Class<?> receiver = root;
+		for (Accessor<FastMethod> it : callstack) {
+			final Method method = it.getMethod().getJavaMethod();
+			referenced.add(ownerOf(method, receiver));
+			if (null != it.getSetter()) {
+				referenced.add(it.getSetter().getJavaMethod()
+						.getDeclaringClass());
+			}
+			receiver = valueType(method.getReturnType(), it.getIndex());
+			for (Class<?> param : method.getParameterTypes()) {
+				referenced.add(param);
+			}
+		}
+		referenced.add(receiver);
+	}
+
+	private static boolean isPublic(final Class<?> clazz) {
+		Class<?> type = clazz;
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+		// protected nested class compiled into a public class file
+		return type.isPrimitive()
+				|| (type.getModifiers() & (Modifier.PUBLIC | Modifier.PROTECTED)) != 0;
+	}
+
+	private static boolean isAccessible(final Class<?> clazz,
+			final String hostPackage, final ClassLoader loader) {
+		Class<?> type = clazz;
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+		if (type.isPrimitive()) {
+			return true;
+		}
+		if (!isPublic(type)
+				&& (type.getClassLoader() != loader || !hostPackage
+						.equals(packageOf(type)))) {
+			return false;
+		}
+		try {
+			return Class.forName(type.getName(), false, loader) == type;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Checks whether field can be accessed directly from the host package,
+	 * private fields are never accessible
+	 */
+	private static boolean isAccessible(final Field field,
+			final String hostPackage, final ClassLoader loader) {
+		final int modifiers = field.getModifiers();
+		if (Modifier.isPrivate(modifiers)) {
+			return false;
+		}
+		final Class<?> declaring = field.getDeclaringClass();
+		return Modifier.isPublic(modifiers)
+				|| (declaring.getClassLoader() == loader && hostPackage
+						.equals(packageOf(declaring)));
+	}
+
+	private static String packageOf(final Class<?> clazz) {
+		final String name = clazz.getName();
+		final int dot = name.lastIndexOf('.');
+		return dot < 0 ? "" : name.substring(0, dot);
+	}
+
+	/**
+	 * Class to be used as the owner of the method invocation instruction
+	 */
+	private static Class<?> ownerOf(final Method method, final Class<?> receiver) {
+		final Class<?> declaring = method.getDeclaringClass();
+		return declaring.isAssignableFrom(receiver) && !isPublic(declaring) ? receiver
+				: declaring;
+	}
+
+	/**
+	 * Static type of the value obtained with the accessor
+	 */
+	private static Class<?> valueType(final Class<?> returnType,
+			final int index) {
+		if (index < 0) {
+			return returnType;
+		}
+		return returnType.isArray() ? returnType.getComponentType()
+				: Object.class;
+	}
+
+	@Override
+	protected ClassLoader getDefaultClassLoader() {
+		return host.getClassLoader();
+	}
+
+	@Override
+	protected Object firstInstance(@SuppressWarnings("rawtypes") Class type)
+			throws Exception {
+		return type;
+	}
+
+	@Override
+	protected Object nextInstance(Object instance) throws Exception {
+		return instance;
+	}
+
+	@Override
+	public void generateClass(final ClassVisitor v) throws Exception {
+		final ClassEmitter ce = new ClassEmitter(v);
+		ce.begin_class(Constants.V1_2, Constants.ACC_PUBLIC
+				| Constants.ACC_FINAL, getClassName(), ABSTRACT_INJECTOR, null,
+				Constants.SOURCE_FILE);
+		ce.declare_field(Constants.ACC_PRIVATE | Constants.ACC_FINAL,
+				CONVERTERS_FIELD, CONVERTERS, null);
+		generateConstructor(ce);
+		generateInject(ce);
+		if (isConstructible(dest)) {
+			generateNewDestination(ce);
+		}
+		ce.end_class();
+	}
+
+	private static boolean isConstructible(final Class<?> type) {
+		if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+			return false;
+		}
+		try {
+			type.getConstructor();
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * {@code return new Dest();}
+	 */
+	private void generateNewDestination(final ClassEmitter ce) {
+		final Type type = Type.getType(dest);
+		final CodeEmitter e = ce.begin_method(Constants.ACC_PROTECTED,
+				NEW_DESTINATION, null);
+		e.new_instance(type);
+		e.dup();
+		e.invoke_constructor(type);
+		e.return_value();
+		e.end_method();
+	}
+
+	private void generateConstructor(final ClassEmitter ce) {
+		final CodeEmitter e = ce.begin_method(Constants.ACC_PUBLIC,
+				CSTRUCT_CONVERTERS, null);
+		e.load_this();
+		e.super_invoke_constructor();
+		e.load_this();
+		e.load_arg(0);
+		e.putfield(CONVERTERS_FIELD);
+		e.return_value();
+		e.end_method();
+	}
+
+	private void generateInject(final ClassEmitter ce) {
+		final CodeEmitter e = ce.begin_method(Constants.ACC_PUBLIC, INJECT,
+				null);
+		final Block handler = e.begin_block();
+		if (pairs.length > 0) {
+			emitNode(e, ExecutionPlan.ROOT);
+		}
+		for (int i = 0; i < fields.length; i++) {
+			emitField(e, i);
+		}
+		e.return_value();
+		handler.end();
+		EmitUtils.wrap_undeclared_throwable(e, handler, null, ILLEGAL_STATE);
+		e.end_method();
+	}
+
+	/**
+	 * Emits the execution plan node: obtains the node instance from the
+	 * parent node local once, invokes the node pairs and then the child nodes.
+	 * When pairs skip {@code null}s, the whole subtree of the {@code null}
+	 * node is skipped.
+	 */
+	private void emitNode(final CodeEmitter e, final int node) {
+		Label missing = null;
+		if (node != ExecutionPlan.ROOT) {
+			final Class<?> parent = loadNode(e, plan.getParent(node));
+			nodeTypes[node] = emitAccess(e, parent, plan.getAccessor(node));
+			nodeLocals[node] = e.make_local(Type.getType(nodeTypes[node]));
+			e.store_local(nodeLocals[node]);
+			if (skips[node]) {
+				missing = e.make_label();
+				e.load_local(nodeLocals[node]);
+				e.ifnull(missing);
+			}
+		}
+		for (int pair : plan.getLeaves(node)) {
+			if (export) {
+				emitExport(e, pair);
+			} else {
+				emitImport(e, pair);
+			}
+		}
+		for (int child : plan.getChildren(node)) {
+			emitNode(e, child);
+		}
+		if (null != missing) {
+			e.mark(missing);
+		}
+	}
+
+	/**
+	 * Loads the node instance
+	 * 
+	 * @return static type of the instance
+	 */
+	private Class<?> loadNode(final CodeEmitter e, final int node) {
+		if (node == ExecutionPlan.ROOT) {
+			return export ? loadArgument(e, 1, dest) : loadArgument(e, 0, src);
+		}
+		e.load_local(nodeLocals[node]);
+		return nodeTypes[node];
+	}
+
+	/**
+	 * {@code dest.setter(node.getter())}
+	 */
+	private void emitImport(final CodeEmitter e, final int pair) {
+		final Accessor<FastMethod>[] callstack = pairs[pair].getCallstack();
+		final Method setter = pairs[pair].getMethod().getJavaMethod();
+		loadArgument(e, 1, dest);
+		loadConverter(e, pair);
+		final Class<?> receiver = loadNode(e, plan.getNode(pair));
+		final Class<?> value = convert(e, pair,
+				emitAccess(e, receiver, callstack[callstack.length - 1]));
+		coerce(e, value, setter.getParameterTypes()[0]);
+		invokeSetter(e, ownerOf(setter, dest), setter);
+	}
+
+	/**
+	 * {@code node.setter(src.getter())}
+	 */
+	private void emitExport(final CodeEmitter e, final int pair) {
+		final Accessor<FastMethod>[] callstack = pairs[pair].getCallstack();
+		final Method setter = callstack[callstack.length - 1].getMethod()
+				.getJavaMethod();
+		final Class<?> receiver = loadNode(e, plan.getNode(pair));
+		final Class<?> owner = ownerOf(setter, receiver);
+		if (!owner.isAssignableFrom(receiver)) {
+			e.checkcast(Type.getType(owner));
+		}
+		loadConverter(e, pair);
+		final Class<?> value = convert(e, pair, emitAccess(e,
+				loadArgument(e, 0, src), new Accessor<FastMethod>(
+						pairs[pair].getMethod(), Accessor.NO_INDEX)));
+		coerce(e, value, setter.getParameterTypes()[0]);
+		invokeSetter(e, owner, setter);
+	}
+
+	/**
+	 * {@code dest.field = src.field}
+	 */
+	private void emitField(final CodeEmitter e, final int pair) {
+		final Field source = fields[pair].getSource();
+		final Field destination = fields[pair].getDestination();
+		final int converter = pairs.length + pair;
+		loadArgument(e, 1, dest);
+		loadConverter(e, converter);
+		loadArgument(e, 0, src);
+		e.getfield(Type.getType(source.getDeclaringClass()), source.getName(),
+				Type.getType(source.getType()));
+		final Class<?> value = convert(e, converter, source.getType());
+		coerce(e, value, destination.getType());
+		e.putfield(Type.getType(destination.getDeclaringClass()),
+				destination.getName(), Type.getType(destination.getType()));
+	}
+
+	/**
+	 * Loads the converter to be applied to the value loaded next, if any
+	 */
+	private void loadConverter(final CodeEmitter e, final int index) {
+		if (null == converters[index]) {
+			return;
+		}
+		e.load_this();
+		e.getfield(CONVERTERS_FIELD);
+		e.push(index);
+		e.aaload();
+		if (converters[index] instanceof PrimitiveConverter) {
+			e.checkcast(Type.getType(PrimitiveConverters.convertMethod(
+					converters[index].getClass()).getDeclaringClass()));
+		} else {
+			e.checkcast(CUSTOM_CONVERTER);
+		}
+	}
+
+	/**
+	 * Applies converter loaded by the {@link #loadConverter} to the stack top
+	 * value of {@code value} static type
+	 * 
+	 * @return static type of the result
+	 */
+	private Class<?> convert(final CodeEmitter e, final int index,
+			final Class<?> value) {
+		if (null == converters[index]) {
+			return value;
+		}
+		if (converters[index] instanceof PrimitiveConverter) {
+			// boxing free call, i.e. IntToLongConverter.convert(int)
+			final Method convert = PrimitiveConverters
+					.convertMethod(converters[index].getClass());
+			coerce(e, value, convert.getParameterTypes()[0]);
+			e.invoke_interface(Type.getType(convert.getDeclaringClass()),
+					ReflectUtils.getSignature(convert));
+			return convert.getReturnType();
+		}
+		coerce(e, value, Object.class);
+		e.invoke_interface(CUSTOM_CONVERTER, CONVERT);
+		return Object.class;
+	}
+
+	/**
+	 * Emits the accessor invocation on the stack top receiver of the
+	 * {@code receiver} static type, the result is on the stack top
+	 *
+	 * @return static type of the result
+	 */
+	private Class<?> emitAccess(final CodeEmitter e, final Class<?> receiver,
+			final Accessor<FastMethod> accessor) {
+		final Method method = accessor.getMethod().getJavaMethod();
+		final Class<?> owner = ownerOf(method, receiver);
+		if (!owner.isAssignableFrom(receiver)) {
+			e.checkcast(Type.getType(owner));
+		}
+		if (null != accessor.getSetter()) {
+			emitInstantiating(e, owner, method, accessor.getSetter()
+					.getJavaMethod());
+		} else {
+			invoke(e, owner, method);
+		}
+		Class<?> result = method.getReturnType();
+		final int index = accessor.getIndex();
+		if (index >= 0) {
+			if (result.isArray()) {
+				e.push(index);
+				result = result.getComponentType();
+				e.array_load(Type.getType(result));
+			} else {
+				if (!List.class.isAssignableFrom(result)) {
+					e.checkcast(LIST);
+				}
+				e.push(index);
+				e.invoke_interface(LIST, LIST_GET);
+				result = Object.class;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * {@code parent.getter() == null ? parent.setter(new Value()) :
+	 * parent.getter()}, the parent is on the stack top
+	 */
+	private void emitInstantiating(final CodeEmitter e, final Class<?> owner,
+			final Method getter, final Method setter) {
+		final Type type = Type.getType(getter.getReturnType());
+		final Label present = e.make_label();
+		e.dup();
+		invoke(e, owner, getter);
+		e.dup();
+		e.ifnonnull(present);
+		e.pop();
+		e.dup();
+		final Class<?> setterOwner = ownerOf(setter, owner);
+		if (!setterOwner.isAssignableFrom(owner)) {
+			e.checkcast(Type.getType(setterOwner));
+		}
+		e.new_instance(type);
+		e.dup();
+		e.invoke_constructor(type);
+		e.dup_x1();
+		invokeSetter(e, setterOwner, setter);
+		e.mark(present);
+		e.swap();
+		e.pop();
+	}
+
+	private Class<?> loadArgument(final CodeEmitter e, final int arg,
+			final Class<?> type) {
+		e.load_arg(arg);
+		e.checkcast(Type.getType(type));
+		return type;
+	}
+
+	private void invoke(final CodeEmitter e, final Class<?> owner,
+			final Method method) {
+		final Signature signature = ReflectUtils.getSignature(method);
+		if (owner.isInterface()) {
+			e.invoke_interface(Type.getType(owner), signature);
+		} else {
+			e.invoke_virtual(Type.getType(owner), signature);
+		}
+	}
+
+	/**
+	 * Invokes the setter and drops the value returned by a fluent setter, so
+	 * the stack height is the same on all the paths of the skipped nodes
+	 */
+	private void invokeSetter(final CodeEmitter e, final Class<?> owner,
+			final Method setter) {
+		invoke(e, owner, setter);
+		switch (Type.getType(setter.getReturnType()).getSize()) {
+		case 2:
+			e.pop2();
+			break;
+		case 1:
+			e.pop();
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Casts stack top value of {@code from} static type to the {@code to}
+	 * type, the same way as reflection invocation do
+	 */
+	static void coerce(final CodeEmitter e, final Class<?> from,
+			final Class<?> to) {
+		if (from == to) {
+			return;
+		}
+		final Type toType = Type.getType(to);
+		if (from.isPrimitive() && to.isPrimitive()) {
+			if (from != Boolean.TYPE && to != Boolean.TYPE) {
+				e.cast_numeric(Type.getType(from), toType);
+			} else {
+				e.box(Type.getType(from));
+				e.unbox(toType);
+			}
+		} else if (from.isPrimitive()) {
+			e.box(Type.getType(from));
+			if (!to.isAssignableFrom(ClassUtils.primitiveToWrapper(from))) {
+				e.checkcast(toType);
+			}
+		} else if (to.isPrimitive()) {
+			e.unbox(toType);
+		} else if (!to.isAssignableFrom(from)) {
+			e.checkcast(toType);
+		}
+	}
+
+}
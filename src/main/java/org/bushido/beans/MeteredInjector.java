@@ -0,0 +1,75 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans;
+
+import org.bushido.beans.metrics.InjectorMetrics;
+
+/**
+ * Measures {@code inject} calls of the wrapped injector, created by the
+ * {@link InjectorFactory} only when metrics are enabled
+ * 
+ * @author Victor Gubin
+ * 
+ * @param <Src>
+ *            source bean type
+ * @param <Dest>
+ *            destination bean type
+ */
+final class MeteredInjector<Src, Dest> extends AbstractInjector<Src, Dest> {
+
+	private final Injector<Src, Dest> injector;
+
+	private final InjectorMetrics metrics;
+
+	MeteredInjector(final Injector<Src, Dest> injector,
+			final InjectorMetrics metrics) {
+		this.injector = injector;
+		this.metrics = metrics;
+	}
+
+	InjectorMetrics getMetrics() {
+		return metrics;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.bushido.beans.Injector#inject(Src, Dest)
+	 */
+	@Override
+	public void inject(final Src src, final Dest dest) {
+		final long start = System.nanoTime();
+		try {
+			injector.inject(src, dest);
+		} catch (RuntimeException e) {
+			metrics.failed();
+			throw e;
+		} catch (Error e) {
+			metrics.failed();
+			throw e;
+		}
+		metrics.injections().record(System.nanoTime() - start);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected Dest newDestination() {
+		if (injector instanceof AbstractInjector) {
+			return ((AbstractInjector<Src, Dest>) injector).newDestination();
+		}
+		return super.newDestination();
+	}
+
+}
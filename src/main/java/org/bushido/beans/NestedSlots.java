@@ -0,0 +1,179 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bushido.beans;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+
+import net.sf.cglib.reflect.FastClass;
+import net.sf.cglib.reflect.FastMethod;
+
+import org.bushido.beans.mapping.Accessor;
+import org.bushido.beans.mapping.CallPair;
+import org.bushido.beans.mapping.ExecutionPlan;
+import org.bushido.beans.mapping.IllegalMappingException;
+import org.bushido.beans.mapping.Mapping;
+import org.bushido.beans.mapping.NullHandling;
+import org.bushido.beans.mapping.scanner.FastClasses;
+
+/**
+ * Resolves the nested instances of the mapping {@link ExecutionPlan}. Each
+ * plan node is a slot, resolved from the parent slot once per {@code inject}
+ * call and kept in a plain array, so call pairs sharing a path prefix obtain
+ * each intermediate instance exactly once.
+ *
+ * @author Victor Gubin
+ *
+ */
+final class NestedSlots {
+
+	/**
+	 * Slot of the call pair without nesting path
+	 */
+	static final int NO_SLOT = ExecutionPlan.ROOT;
+
+	/**
+	 * Slot value of the nested instance resolved to {@code null}, when rest
+	 * of the path is skipped
+	 */
+	static final Object MISSING = new Object();
+
+	private final int[] slots;
+	private final int[] order;
+	private final int[] parents;
+	private final Accessor<FastMethod>[] accessors;
+	private final boolean[] skips;
+
+	/**
+	 * Factories of the missing intermediate instances, per slot
+	 */
+	private final FastClass[] factories;
+
+	@SuppressWarnings("unchecked")
+	NestedSlots(final Mapping mapping) {
+		final ExecutionPlan plan = mapping.getPlan();
+		final int count = plan.getNodeCount();
+		this.order = plan.getOrder();
+		this.slots = new int[order.length];
+		this.parents = new int[count];
+		this.accessors = new Accessor[count];
+		this.skips = new boolean[count];
+		this.factories = new FastClass[count];
+		for (int i = 0; i < count; i++) {
+			parents[i] = plan.getParent(i);
+			accessors[i] = plan.getAccessor(i);
+			if (null != accessors[i].getSetter()) {
+				factories[i] = FastClasses.of(accessors[i].getMethod()
+						.getReturnType());
+			}
+		}
+		int pair = 0;
+		for (CallPair it : mapping.getMapping()) {
+			slots[pair] = plan.getNode(pair);
+			if (it.getNulls() != NullHandling.FAIL) {
+				for (int slot = slots[pair]; slot != NO_SLOT; slot = parents[slot]) {
+					skips[slot] = true;
+				}
+			}
+			pair++;
+		}
+	}
+
+	/**
+	 * Returns nested instance slot of the call pair
+	 *
+	 * @param pair
+	 *            call pair index
+	 * @return slot number or {@link #NO_SLOT}
+	 */
+	int slotOf(final int pair) {
+		return slots[pair];
+	}
+
+	/**
+	 * Returns call pair to be invoked at the step of the injection
+	 *
+	 * @param step
+	 *            injection step
+	 * @return call pair index
+	 */
+	int pairAt(final int step) {
+		return order[step];
+	}
+
+	/**
+	 * Creates new empty nested instances storage for a single {@code inject}
+	 * call
+	 *
+	 * @return nested instances storage
+	 */
+	Object[] newStorage() {
+		return new Object[accessors.length];
+	}
+
+	/**
+	 * Resolves the slot instance and all the unresolved parent slots
+	 *
+	 * @param root
+	 *            injected bean
+	 * @param slot
+	 *            slot number or {@link #NO_SLOT}
+	 * @param storage
+	 *            nested instances storage of the {@code inject} call
+	 * @return nested instance, or {@link #MISSING} when the path is skipped
+	 */
+	Object resolve(final Object root, final int slot, final Object[] storage)
+			throws InvocationTargetException {
+		if (slot == NO_SLOT) {
+			return root;
+		}
+		Object result = storage[slot];
+		if (null != result) {
+			return result;
+		}
+		final Object parent = resolve(root, parents[slot], storage);
+		if (parent == MISSING) {
+			result = MISSING;
+		} else {
+			result = accessors[slot].getMethod().invoke(parent, null);
+			if (null == result && null != factories[slot]) {
+				result = factories[slot].newInstance();
+				accessors[slot].getSetter().invoke(parent,
+						new Object[] { result });
+			}
+			if (null != result && accessors[slot].getIndex() >= 0) {
+				result = solveIndex(result, accessors[slot].getIndex());
+			}
+			if (null == result && skips[slot]) {
+				result = MISSING;
+			}
+		}
+		storage[slot] = result;
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	static Object solveIndex(final Object vector, final int index) {
+		if (vector.getClass().isArray()) {
+			return Array.get(vector, index);
+		} else if (vector instanceof List<?>) {
+			return ((List<Object>) vector).get(index);
+		} else {
+			throw new IllegalMappingException(
+					"Resulting value can be only array or List type");
+		}
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Implementor writes beans to the {@link ByteBuffer} as the fixed layout
+ * binary records and reads them back. Record layout is derived from the bean
+ * mapping, so only the mapped properties are stored.<br>
+ * 
+ * Record starts with the layout schema hash and the record length, followed
+ * by the fixed size section with a slot per property, primitive values are
+ * stored in place. Variable length values, i.e. {@code String} and
+ * {@code byte[]}, are stored in the trailing section and their slots hold
+ * offset and length of the value. Records are written with the buffer byte
+ * order, so any heap, direct or memory mapped buffer can be used.<br>
+ * 
+ * Codec is immutable and can be shared between threads, create it with
+ * {@link InjectorFactory#createCodec(Class)}.
+ * 
+ * @author Victor Gubin
+ * 
+ * @param <T>
+ *            bean type
+ */
+public interface RecordCodec<T> {
+
+	/**
+	 * Returns hash of the record layout, records written with a different
+	 * layout are rejected
+	 * 
+	 * @return layout schema hash
+	 */
+	public abstract int getSchema();
+
+	/**
+	 * Returns size of the record header and the fixed section, which is the
+	 * minimal record size
+	 * 
+	 * @return fixed record size in bytes
+	 */
+	public abstract int getFixedSize();
+
+	/**
+	 * Writes {@code bean} record at the buffer position and advances the
+	 * position
+	 * 
+	 * @param bean
+	 *            bean to write
+	 * @param buffer
+	 *            buffer to write to
+	 * @return record length in bytes
+	 * @throws java.nio.BufferOverflowException
+	 *             when record doesn't fit the remaining buffer, buffer
+	 *             position is not changed
+	 */
+	public abstract int write(T bean, ByteBuffer buffer);
+
+	/**
+	 * Reads record at the buffer position into the new bean and advances the
+	 * position
+	 * 
+	 * @param buffer
+	 *            buffer to read from
+	 * @return new bean
+	 * @throws IllegalArgumentException
+	 *             when record is written with another layout
+	 */
+	public abstract T read(ByteBuffer buffer);
+
+	/**
+	 * Reads record at the buffer position into the {@code bean} and advances
+	 * the position
+	 * 
+	 * @param buffer
+	 *            buffer to read from
+	 * @param bean
+	 *            bean to set record values
+	 * @throws IllegalArgumentException
+	 *             when record is written with another layout
+	 */
+	public abstract void read(ByteBuffer buffer, T bean);
+
+}
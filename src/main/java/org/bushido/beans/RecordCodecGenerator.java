@@ -0,0 +1,400 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import net.sf.cglib.core.AbstractClassGenerator;
+import net.sf.cglib.core.ClassEmitter;
+import net.sf.cglib.core.CodeEmitter;
+import net.sf.cglib.core.Constants;
+import net.sf.cglib.core.Local;
+import net.sf.cglib.core.ReflectUtils;
+import net.sf.cglib.core.Signature;
+import net.sf.cglib.core.TypeUtils;
+
+import org.bushido.beans.RecordLayout.Kind;
+import org.bushido.beans.RecordLayout.Property;
+import org.bushido.beans.mapping.IllegalMappingException;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Type;
+
+/**
+ * Generates a {@link RecordCodec} class for the {@link RecordLayout}.
+ * Generated {@code encode} and {@code decode} methods call the bean getters
+ * and setters directly and put primitive values to the slots with the
+ * absolute {@link ByteBuffer} operations, so primitive properties are stored
+ * without boxing. Generated class is defined in the package of the bean, so
+ * package visible beans can be used as well.
+ * 
+ * @author Victor Gubin
+ * 
+ */
+final class RecordCodecGenerator extends AbstractClassGenerator {
+
+	private static final Source SOURCE = new Source(
+			RecordCodec.class.getName());
+
+	private static final Type ABSTRACT_CODEC = Type
+			.getType(AbstractRecordCodec.class);
+	private static final Type BUFFER = Type.getType(ByteBuffer.class);
+	private static final Type TYPES = Type.getType(Class[].class);
+
+	private static final Signature CSTRUCT_LAYOUT = TypeUtils
+			.parseConstructor(new Type[] { Type.INT_TYPE, Type.INT_TYPE, TYPES });
+	private static final Signature ENCODE = new Signature("encode",
+			Type.INT_TYPE, new Type[] { Constants.TYPE_OBJECT, BUFFER,
+					Type.INT_TYPE });
+	private static final Signature DECODE = new Signature("decode",
+			Type.VOID_TYPE, new Type[] { BUFFER, Type.INT_TYPE,
+					Constants.TYPE_OBJECT });
+	private static final Signature NEW_BEAN = new Signature("newBean",
+			Constants.TYPE_OBJECT, new Type[0]);
+	private static final Signature GET_INT = new Signature("getInt",
+			Type.INT_TYPE, new Type[] { Type.INT_TYPE });
+	private static final Signature PUT_BOOLEAN = new Signature("putBoolean",
+			Type.VOID_TYPE, new Type[] { BUFFER, Type.INT_TYPE,
+					Type.BOOLEAN_TYPE });
+	private static final Signature GET_BOOLEAN = new Signature("getBoolean",
+			Type.BOOLEAN_TYPE, new Type[] { BUFFER, Type.INT_TYPE });
+	private static final Signature PUT_BOXED = new Signature("putBoxed",
+			Type.VOID_TYPE, new Type[] { BUFFER, Type.INT_TYPE,
+					Constants.TYPE_OBJECT });
+	private static final Signature GET_BOXED = new Signature("getBoxed",
+			Constants.TYPE_OBJECT, new Type[] { BUFFER, Type.INT_TYPE,
+					Type.INT_TYPE });
+	private static final Signature PUT_ENUM = new Signature("putEnum",
+			Type.VOID_TYPE, new Type[] { BUFFER, Type.INT_TYPE,
+					Type.getType(Enum.class) });
+	private static final Signature GET_ENUM = new Signature("getEnum",
+			Constants.TYPE_OBJECT, new Type[] { Type.INT_TYPE, Type.INT_TYPE });
+	private static final Signature PUT_STRING = new Signature("putString",
+			Type.INT_TYPE, new Type[] { BUFFER, Type.INT_TYPE, Type.INT_TYPE,
+					Type.INT_TYPE, Constants.TYPE_STRING });
+	private static final Signature GET_STRING = new Signature("getString",
+			Constants.TYPE_STRING, new Type[] { BUFFER, Type.INT_TYPE,
+					Type.INT_TYPE });
+	private static final Signature PUT_BYTES = new Signature("putBytes",
+			Type.INT_TYPE, new Type[] { BUFFER, Type.INT_TYPE, Type.INT_TYPE,
+					Type.INT_TYPE, Type.getType(byte[].class) });
+	private static final Signature GET_BYTES = new Signature("getBytes",
+			Type.getType(byte[].class), new Type[] { BUFFER, Type.INT_TYPE,
+					Type.INT_TYPE });
+
+	private static final int BEAN = 0;
+	private static final int ENCODE_BUFFER = 1;
+	private static final int ENCODE_BASE = 2;
+	private static final int DECODE_BUFFER = 0;
+	private static final int DECODE_BASE = 1;
+	private static final int DECODE_BEAN = 2;
+
+	private final RecordLayout layout;
+	private final Class<?> bean;
+	private final Type beanType;
+
+	private RecordCodecGenerator(final RecordLayout layout) {
+		super(SOURCE);
+		this.layout = layout;
+		this.bean = layout.getType();
+		this.beanType = Type.getType(bean);
+		setNamePrefix(bean.getName());
+	}
+
+	/**
+	 * Generates codec class of the layout and creates it's instance
+	 * 
+	 * @param layout
+	 *            record layout
+	 * @return record codec
+	 * @throws IllegalMappingException
+	 *             when the bean or property types can't be accessed from the
+	 *             bean package
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> RecordCodec<T> generate(final RecordLayout layout) {
+		final Class<?> bean = layout.getType();
+		final ClassLoader loader = bean.getClassLoader();
+		if (null == loader || !isAccessible(AbstractRecordCodec.class, bean)) {
+			throw new IllegalMappingException(
+					"Record codec can't be defined for " + bean.getName());
+		}
+		final List<Property> properties = layout.getProperties();
+		final Class<?>[] types = new Class<?>[properties.size()];
+		for (int i = 0; i < types.length; i++) {
+			types[i] = properties.get(i).getType();
+			if (!isAccessible(types[i], bean)) {
+				throw new IllegalMappingException(types[i].getName()
+						+ " is not accessible from " + bean.getName());
+			}
+		}
+		final Class<?> type = (Class<?>) new RecordCodecGenerator(layout)
+				.create(bean.getName());
+		return (RecordCodec<T>) ReflectUtils.newInstance(type, new Class[] {
+				Integer.TYPE, Integer.TYPE, Class[].class }, new Object[] {
+				Integer.valueOf(layout.getSchema()),
+				Integer.valueOf(layout.getFixedSize()), types });
+	}
+
+	private static boolean isAccessible(final Class<?> type,
+			final Class<?> bean) {
+		if (type.isPrimitive() || type.isArray()) {
+			return true;
+		}
+		if (!Modifier.isPublic(type.getModifiers())
+				&& (type.getClassLoader() != bean.getClassLoader() || null == type
+						.getPackage() || type.getPackage() != bean.getPackage())) {
+			return false;
+		}
+		try {
+			return Class.forName(type.getName(), false, bean.getClassLoader()) == type;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	@Override
+	protected ClassLoader getDefaultClassLoader() {
+		return bean.getClassLoader();
+	}
+
+	@Override
+	protected Object firstInstance(@SuppressWarnings("rawtypes") Class type)
+			throws Exception {
+		return type;
+	}
+
+	@Override
+	protected Object nextInstance(Object instance) throws Exception {
+		return instance;
+	}
+
+	@Override
+	public void generateClass(final ClassVisitor v) throws Exception {
+		final ClassEmitter ce = new ClassEmitter(v);
+		ce.begin_class(Constants.V1_2, Constants.ACC_PUBLIC
+				| Constants.ACC_FINAL, getClassName(), ABSTRACT_CODEC, null,
+				Constants.SOURCE_FILE);
+		generateConstructor(ce);
+		generateEncode(ce);
+		generateDecode(ce);
+		if (isConstructible(bean)) {
+			generateNewBean(ce);
+		}
+		ce.end_class();
+	}
+
+	private static boolean isConstructible(final Class<?> type) {
+		if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+			return false;
+		}
+		try {
+			type.getConstructor();
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	private void generateConstructor(final ClassEmitter ce) {
+		final CodeEmitter e = ce.begin_method(Constants.ACC_PUBLIC,
+				CSTRUCT_LAYOUT, null);
+		e.load_this();
+		e.load_args();
+		e.super_invoke_constructor(CSTRUCT_LAYOUT);
+		e.return_value();
+		e.end_method();
+	}
+
+	/**
+	 * {@code return new Bean();}
+	 */
+	private void generateNewBean(final ClassEmitter ce) {
+		final CodeEmitter e = ce.begin_method(Constants.ACC_PROTECTED,
+				NEW_BEAN, null);
+		e.new_instance(beanType);
+		e.dup();
+		e.invoke_constructor(beanType);
+		e.return_value();
+		e.end_method();
+	}
+
+	/**
+	 * Puts each property to it's slot, variable length values are appended
+	 * at the {@code cursor}, which starts after the fixed section
+	 */
+	private void generateEncode(final ClassEmitter ce) {
+		final CodeEmitter e = ce.begin_method(Constants.ACC_PROTECTED, ENCODE,
+				null);
+		final Local target = e.make_local(beanType);
+		e.load_arg(BEAN);
+		e.checkcast(beanType);
+		e.store_local(target);
+		final Local cursor = e.make_local(Type.INT_TYPE);
+		e.load_arg(ENCODE_BASE);
+		e.push(layout.getFixedSize());
+		e.math(CodeEmitter.ADD, Type.INT_TYPE);
+		e.store_local(cursor);
+		for (Property it : layout.getProperties()) {
+			final Kind kind = it.getKind();
+			if (kind == Kind.STRING || kind == Kind.BYTES) {
+				e.load_arg(ENCODE_BUFFER);
+				e.load_arg(ENCODE_BASE);
+				e.push(it.getOffset());
+				e.load_local(cursor);
+				e.load_local(target);
+				invoke(e, it.getGetter());
+				e.invoke_static(ABSTRACT_CODEC,
+						kind == Kind.STRING ? PUT_STRING : PUT_BYTES);
+				e.store_local(cursor);
+				continue;
+			}
+			e.load_arg(ENCODE_BUFFER);
+			loadIndex(e, ENCODE_BASE, it);
+			e.load_local(target);
+			invoke(e, it.getGetter());
+			switch (kind) {
+			case BOOLEAN:
+				e.invoke_static(ABSTRACT_CODEC, PUT_BOOLEAN);
+				break;
+			case BOXED:
+				e.invoke_static(ABSTRACT_CODEC, PUT_BOXED);
+				break;
+			case ENUM:
+				e.invoke_static(ABSTRACT_CODEC, PUT_ENUM);
+				break;
+			default:
+				final Type value = Type.getType(it.getType());
+				e.invoke_virtual(BUFFER, new Signature(bufferMethod("put",
+						kind), BUFFER, new Type[] { Type.INT_TYPE, value }));
+				e.pop();
+				break;
+			}
+		}
+		e.load_local(cursor);
+		e.return_value();
+		e.end_method();
+	}
+
+	/**
+	 * Sets each property from it's slot
+	 */
+	private void generateDecode(final ClassEmitter ce) {
+		final CodeEmitter e = ce.begin_method(Constants.ACC_PROTECTED, DECODE,
+				null);
+		final Local target = e.make_local(beanType);
+		e.load_arg(DECODE_BEAN);
+		e.checkcast(beanType);
+		e.store_local(target);
+		final List<Property> properties = layout.getProperties();
+		for (int slot = 0; slot < properties.size(); slot++) {
+			final Property it = properties.get(slot);
+			final Type value = Type.getType(it.getType());
+			e.load_local(target);
+			switch (it.getKind()) {
+			case STRING:
+			case BYTES:
+				e.load_arg(DECODE_BUFFER);
+				e.load_arg(DECODE_BASE);
+				e.push(it.getOffset());
+				e.invoke_static(ABSTRACT_CODEC,
+						it.getKind() == Kind.STRING ? GET_STRING : GET_BYTES);
+				break;
+			case BOOLEAN:
+				e.load_arg(DECODE_BUFFER);
+				loadIndex(e, DECODE_BASE, it);
+				e.invoke_static(ABSTRACT_CODEC, GET_BOOLEAN);
+				break;
+			case BOXED:
+				e.load_this();
+				e.load_arg(DECODE_BUFFER);
+				loadIndex(e, DECODE_BASE, it);
+				e.push(slot);
+				e.invoke_virtual(ABSTRACT_CODEC, GET_BOXED);
+				e.checkcast(value);
+				break;
+			case ENUM:
+				e.load_this();
+				e.push(slot);
+				e.load_arg(DECODE_BUFFER);
+				loadIndex(e, DECODE_BASE, it);
+				e.invoke_virtual(BUFFER, GET_INT);
+				e.invoke_virtual(ABSTRACT_CODEC, GET_ENUM);
+				e.checkcast(value);
+				break;
+			default:
+				e.load_arg(DECODE_BUFFER);
+				loadIndex(e, DECODE_BASE, it);
+				e.invoke_virtual(BUFFER, new Signature(bufferMethod("get",
+						it.getKind()), value, new Type[] { Type.INT_TYPE }));
+				break;
+			}
+			invoke(e, it.getSetter());
+			final Class<?> returned = it.getSetter().getReturnType();
+			if (returned == Long.TYPE || returned == Double.TYPE) {
+				e.pop2();
+			} else if (returned != Void.TYPE) {
+				e.pop();
+			}
+		}
+		e.return_value();
+		e.end_method();
+	}
+
+	/**
+	 * {@code base + offset}
+	 */
+	private static void loadIndex(final CodeEmitter e, final int base,
+			final Property property) {
+		e.load_arg(base);
+		e.push(property.getOffset());
+		e.math(CodeEmitter.ADD, Type.INT_TYPE);
+	}
+
+	/**
+	 * Name of the absolute {@link ByteBuffer} operation of the primitive kind,
+	 * i.e. {@code putLong} or {@code get} for bytes
+	 */
+	private static String bufferMethod(final String operation, final Kind kind) {
+		switch (kind) {
+		case BYTE:
+			return operation;
+		case CHAR:
+			return operation + "Char";
+		case SHORT:
+			return operation + "Short";
+		case INT:
+			return operation + "Int";
+		case FLOAT:
+			return operation + "Float";
+		case LONG:
+			return operation + "Long";
+		default:
+			return operation + "Double";
+		}
+	}
+
+	private void invoke(final CodeEmitter e, final Method method) {
+		final Signature signature = ReflectUtils.getSignature(method);
+		if (bean.isInterface()) {
+			e.invoke_interface(beanType, signature);
+		} else {
+			e.invoke_virtual(beanType, signature);
+		}
+	}
+
+}
@@ -0,0 +1,245 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.cglib.reflect.FastMethod;
+
+import org.apache.commons.lang.ClassUtils;
+
+import org.bushido.beans.mapping.Accessor;
+import org.bushido.beans.mapping.CallPair;
+import org.bushido.beans.mapping.IllegalMappingException;
+import org.bushido.beans.mapping.Mapping;
+
+/**
+ * Binary record layout of the {@link RecordCodec}, derived from the bean
+ * mapping on itself. Each mapped property is a getter and setter pair of the
+ * same type, which gets a slot of the fixed section. Slots are ordered by
+ * size descending and then by property name, so the layout doesn't depend on
+ * the methods order of the class. Slots are not aligned: slot of a primitive
+ * wrapper holds the presence flag byte followed by the value, so the slots
+ * after it are read and written at unaligned offsets.
+ * 
+ * @author Victor Gubin
+ * 
+ */
+final class RecordLayout {
+
+	/**
+	 * Size of the record header, schema hash and record length
+	 */
+	static final int HEADER = 8;
+
+	/**
+	 * Property value kinds
+	 */
+	static enum Kind {
+		BOOLEAN(1), BYTE(1), CHAR(2), SHORT(2), INT(4), FLOAT(4), LONG(8),
+		DOUBLE(8),
+		/**
+		 * Primitive wrapper, presence flag followed by the value
+		 */
+		BOXED(0),
+		/**
+		 * Enumeration ordinal, {@code -1} for {@code null}
+		 */
+		ENUM(4),
+		/**
+		 * UTF-8 characters in the trailing section
+		 */
+		STRING(8),
+		/**
+		 * Bytes in the trailing section
+		 */
+		BYTES(8);
+
+		private final int size;
+
+		private Kind(final int size) {
+			this.size = size;
+		}
+	}
+
+	private static final Map<Class<?>, Kind> KINDS = new HashMap<Class<?>, Kind>();
+	static {
+		KINDS.put(Boolean.TYPE, Kind.BOOLEAN);
+		KINDS.put(Byte.TYPE, Kind.BYTE);
+		KINDS.put(Character.TYPE, Kind.CHAR);
+		KINDS.put(Short.TYPE, Kind.SHORT);
+		KINDS.put(Integer.TYPE, Kind.INT);
+		KINDS.put(Float.TYPE, Kind.FLOAT);
+		KINDS.put(Long.TYPE, Kind.LONG);
+		KINDS.put(Double.TYPE, Kind.DOUBLE);
+		KINDS.put(String.class, Kind.STRING);
+		KINDS.put(byte[].class, Kind.BYTES);
+	}
+
+	private final Class<?> type;
+	private final List<Property> properties;
+	private final int fixedSize;
+	private final int schema;
+
+	/**
+	 * @param type
+	 *            bean class
+	 * @param mapping
+	 *            mapping of the bean on itself
+	 * @throws IllegalMappingException
+	 *             when a mapped property is nested, converted or has the
+	 *             type which can't be stored
+	 */
+	RecordLayout(final Class<?> type, final Mapping mapping) {
+		if (!mapping.getFieldMapping().isEmpty()) {
+			throw new IllegalMappingException(
+					"Records of the field access mapping are not supported");
+		}
+		if (mapping.getMapping().isEmpty()) {
+			throw new IllegalMappingException("No mapped properties of "
+					+ type.getName());
+		}
+		this.type = type;
+		this.properties = new ArrayList<Property>(mapping.getMapping().size());
+		for (CallPair it : mapping.getMapping()) {
+			properties.add(property(it));
+		}
+		Collections.sort(properties, new Comparator<Property>() {
+			@Override
+			public int compare(final Property o1, final Property o2) {
+				final int result = o2.size - o1.size;
+				return result != 0 ? result : o1.name.compareTo(o2.name);
+			}
+		});
+		final StringBuilder signature = new StringBuilder();
+		int offset = HEADER;
+		for (Property it : properties) {
+			it.offset = offset;
+			offset += it.size;
+			signature.append(it.name).append(':')
+					.append(it.getType().getName()).append(';');
+		}
+		this.fixedSize = offset;
+		this.schema = signature.toString().hashCode();
+	}
+
+	private static Property property(final CallPair pair) {
+		final Method setter = pair.getMethod().getJavaMethod();
+		final Accessor<FastMethod>[] callstack = pair.getCallstack();
+		if (callstack.length != 1 || callstack[0].getIndex() != Accessor.NO_INDEX) {
+			throw new IllegalMappingException(
+					"Nested property can't be stored in a record " + setter);
+		}
+		final Method getter = callstack[0].getMethod().getJavaMethod();
+		final Class<?> type = setter.getParameterTypes()[0];
+		if (null != pair.getConverter() || getter.getReturnType() != type) {
+			throw new IllegalMappingException(
+					"Converted property can't be stored in a record " + setter);
+		}
+		final Class<?> primitive = ClassUtils.wrapperToPrimitive(type);
+		Kind kind = KINDS.get(type);
+		if (null == kind) {
+			if (KINDS.containsKey(primitive)) {
+				kind = Kind.BOXED;
+			} else if (type.isEnum()) {
+				kind = Kind.ENUM;
+			} else {
+				throw new IllegalMappingException(type.getName()
+						+ " property can't be stored in a record " + setter);
+			}
+		}
+		final int size = kind == Kind.BOXED ? 1 + KINDS.get(primitive).size
+				: kind.size;
+		return new Property(propertyName(setter.getName()), kind, size,
+				getter, setter);
+	}
+
+	private static String propertyName(final String setter) {
+		return setter.startsWith("set") ? setter.substring(3) : setter;
+	}
+
+	Class<?> getType() {
+		return type;
+	}
+
+	/**
+	 * Returns properties in the slots order
+	 */
+	List<Property> getProperties() {
+		return properties;
+	}
+
+	int getFixedSize() {
+		return fixedSize;
+	}
+
+	int getSchema() {
+		return schema;
+	}
+
+	/**
+	 * Mapped property slot
+	 */
+	static final class Property {
+		private final String name;
+		private final Kind kind;
+		private final int size;
+		private final Method getter;
+		private final Method setter;
+		private int offset;
+
+		Property(final String name, final Kind kind, final int size,
+				final Method getter, final Method setter) {
+			this.name = name;
+			this.kind = kind;
+			this.size = size;
+			this.getter = getter;
+			this.setter = setter;
+		}
+
+		String getName() {
+			return name;
+		}
+
+		Kind getKind() {
+			return kind;
+		}
+
+		Class<?> getType() {
+			return setter.getParameterTypes()[0];
+		}
+
+		Method getGetter() {
+			return getter;
+		}
+
+		Method getSetter() {
+			return setter;
+		}
+
+		/**
+		 * Returns slot offset from the record start
+		 */
+		int getOffset() {
+			return offset;
+		}
+	}
+}
@@ -0,0 +1,173 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.convertor;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+import org.apache.commons.lang.ClassUtils;
+
+/**
+ * Utility methods for the ordered chains of the {@link CustomConverter}s,
+ * where the result of each converter is the source of the next one
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public final class ConverterChain {
+
+	private ConverterChain() {
+	}
+
+	/**
+	 * Returns the {@code convert} method declared by the custom converter
+	 * class, i.e. the method with the actual source and result types, not the
+	 * erased bridge method
+	 * 
+	 * @param converter
+	 *            custom converter implementation class
+	 * @return {@code convert} method
+	 * @throws IllegalArgumentException
+	 *             when class is not a custom converter
+	 */
+	public static Method convertMethod(final Class<?> converter) {
+		if (!CustomConverter.class.isAssignableFrom(converter)) {
+			throw new IllegalArgumentException(converter.getName()
+					+ " is not a CustomConverter");
+		}
+		Method result = null;
+		for (Method it : converter.getMethods()) {
+			if (it.getName().equals("convert")
+					&& it.getParameterTypes().length == 1 && !it.isBridge()
+					&& !Modifier.isAbstract(it.getModifiers())) {
+				// prefer the most specific source type
+				if (null == result
+						|| result.getParameterTypes()[0].isAssignableFrom(it
+								.getParameterTypes()[0])) {
+					result = it;
+				}
+			}
+		}
+		if (null == result) {
+			throw new IllegalArgumentException(converter.getName()
+					+ " has no convert method");
+		}
+		return result;
+	}
+
+	/**
+	 * Fuses the chain into the single converter. Fused converter is a
+	 * generated class calling {@code convert} methods of the concrete
+	 * converter classes directly, with no interface dispatch and no casts
+	 * between the steps. Chain of the converters not visible to the generated
+	 * class is applied by the loop instead.
+	 * 
+	 * @param chain
+	 *            converters in the order of application
+	 * @return fused converter
+	 * @throws IllegalArgumentException
+	 *             when chain is empty, or result type of a converter can't be
+	 *             converted by the next one
+	 */
+	public static CustomConverter<Object, Object> fuse(
+			final List<? extends CustomConverter<?, ?>> chain) {
+		if (chain.isEmpty()) {
+			throw new IllegalArgumentException("Converters chain is empty");
+		}
+		final CustomConverter<?, ?>[] converters = chain
+				.toArray(new CustomConverter<?, ?>[chain.size()]);
+		final Method[] methods = new Method[converters.length];
+		for (int i = 0; i < converters.length; i++) {
+			methods[i] = convertMethod(converters[i].getClass());
+			if (i > 0
+					&& !methods[i].getParameterTypes()[0]
+							.isAssignableFrom(methods[i - 1].getReturnType())) {
+				throw new IllegalArgumentException(converters[i - 1]
+						.getClass().getName()
+						+ " result "
+						+ methods[i - 1].getReturnType().getName()
+						+ " can't be converted by "
+						+ converters[i].getClass().getName());
+			}
+		}
+		final CustomConverter<Object, Object> fused = FusedConverterGenerator
+				.generate(converters, methods);
+		return null == fused ? new LoopConverter(converters) : fused;
+	}
+
+	/**
+	 * Fuses the chain into the single converter, checking that the first
+	 * converter accepts the {@code source} type values and result of the last
+	 * converter is assignable to the {@code result} type. Primitive types and
+	 * their wrappers are treated as the same type.
+	 * 
+	 * @param chain
+	 *            converters in the order of application
+	 * @param source
+	 *            type of the converted values
+	 * @param result
+	 *            type of the chain result
+	 * @return fused converter
+	 * @throws IllegalArgumentException
+	 *             when chain is empty, or types of the converters don't match
+	 *             each other or the {@code source} and {@code result} types
+	 */
+	public static CustomConverter<Object, Object> fuse(
+			final List<? extends CustomConverter<?, ?>> chain,
+			final Class<?> source, final Class<?> result) {
+		if (chain.isEmpty()) {
+			throw new IllegalArgumentException("Converters chain is empty");
+		}
+		final CustomConverter<?, ?> first = chain.get(0);
+		final CustomConverter<?, ?> last = chain.get(chain.size() - 1);
+		final Class<?> accepted = convertMethod(first.getClass())
+				.getParameterTypes()[0];
+		if (!ClassUtils.primitiveToWrapper(accepted).isAssignableFrom(
+				ClassUtils.primitiveToWrapper(source))) {
+			throw new IllegalArgumentException(first.getClass().getName()
+					+ " can't convert " + source.getName());
+		}
+		final Class<?> returned = convertMethod(last.getClass())
+				.getReturnType();
+		if (!ClassUtils.primitiveToWrapper(result).isAssignableFrom(
+				ClassUtils.primitiveToWrapper(returned))) {
+			throw new IllegalArgumentException(last.getClass().getName()
+					+ " result " + returned.getName()
+					+ " is not assignable to " + result.getName());
+		}
+		return fuse(chain);
+	}
+
+	private static final class LoopConverter implements
+			CustomConverter<Object, Object> {
+
+		private final CustomConverter<?, ?>[] chain;
+
+		LoopConverter(final CustomConverter<?, ?>[] chain) {
+			this.chain = chain;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Object convert(final Object src) {
+			Object result = src;
+			for (CustomConverter<?, ?> it : chain) {
+				result = ((CustomConverter<Object, ?>) it).convert(result);
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.convertor;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang.ClassUtils;
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+
+/**
+ * Keeps shared converter instances. Converter declared with the
+ * {@link org.bushido.beans.mapping.Converter} annotation is instantiated once
+ * per class, and default converters are registered once per source and
+ * destination types pair and used for all the mappings with such types.<br>
+ * 
+ * Registry is thread safe, registered converters are shared between injectors
+ * and threads so they should be thread safe as well.
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public final class ConverterRegistry {
+
+	private final ConcurrentMap<Class<?>, TypeConverter> instances;
+	private final ConcurrentMap<TypePair, TypeConverter> defaults;
+
+	/**
+	 * Constructs new empty {@code ConverterRegistry}
+	 */
+	public ConverterRegistry() {
+		this.instances = new ConcurrentHashMap<Class<?>, TypeConverter>();
+		this.defaults = new ConcurrentHashMap<TypePair, TypeConverter>();
+	}
+
+	/**
+	 * Registers default converter for the {@code src} to {@code dest} types
+	 * conversion. Primitive types and their wrappers are treated as the same
+	 * types.
+	 * 
+	 * @param src
+	 *            source value type
+	 * @param dest
+	 *            destination value type
+	 * @param converter
+	 *            converter instance
+	 */
+	public <S, D> void register(final Class<S> src, final Class<D> dest,
+			final CustomConverter<? super S, ? extends D> converter) {
+		registerConverter(src, dest, converter);
+	}
+
+	/**
+	 * Registers default primitive converter for the {@code src} to
+	 * {@code dest} types conversion
+	 * 
+	 * @param src
+	 *            source value type
+	 * @param dest
+	 *            destination value type
+	 * @param converter
+	 *            primitive converter instance
+	 * @throws IllegalArgumentException
+	 *             if converter implements no or several primitive converter
+	 *             interfaces
+	 */
+	public void register(final Class<?> src, final Class<?> dest,
+			final PrimitiveConverter converter) {
+		if (null != converter) {
+			PrimitiveConverters.convertMethod(converter.getClass());
+		}
+		registerConverter(src, dest, converter);
+	}
+
+	private void registerConverter(final Class<?> src, final Class<?> dest,
+			final TypeConverter converter) {
+		if (null == src || null == dest || null == converter) {
+			throw new IllegalArgumentException(
+					"source type, destination type and converter are required");
+		}
+		defaults.put(new TypePair(src, dest), converter);
+	}
+
+	/**
+	 * Finds default converter for the {@code src} to {@code dest} types
+	 * conversion
+	 * 
+	 * @param src
+	 *            source value type
+	 * @param dest
+	 *            destination value type
+	 * @return registered converter or {@code null} if there is no such
+	 */
+	public TypeConverter find(final Class<?> src, final Class<?> dest) {
+		return defaults.get(new TypePair(src, dest));
+	}
+
+	/**
+	 * Removes all the registered default converters and shared converter
+	 * instances
+	 */
+	public void clear() {
+		defaults.clear();
+		instances.clear();
+	}
+
+	/**
+	 * Returns shared instance of the {@code converter} class, instance is
+	 * created with the default constructor on the first request
+	 * 
+	 * @param converter
+	 *            converter class
+	 * @return shared converter instance
+	 * @throws InstantiationException
+	 *             if converter can't be instantiated
+	 * @throws IllegalAccessException
+	 *             if converter or it's default constructor is not public
+	 */
+	public TypeConverter instanceOf(final Class<? extends TypeConverter> converter)
+			throws InstantiationException, IllegalAccessException {
+		TypeConverter result = instances.get(converter);
+		if (null == result) {
+			result = converter.newInstance();
+			final TypeConverter existing = instances.putIfAbsent(converter,
+					result);
+			if (null != existing) {
+				result = existing;
+			}
+		}
+		return result;
+	}
+
+	private static final class TypePair {
+		private final Class<?> src;
+		private final Class<?> dest;
+
+		TypePair(final Class<?> src, final Class<?> dest) {
+			this.src = ClassUtils.primitiveToWrapper(src);
+			this.dest = ClassUtils.primitiveToWrapper(dest);
+		}
+
+		@Override
+		public int hashCode() {
+			return new HashCodeBuilder().append(src).append(dest)
+					.toHashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			boolean result = this == obj;
+			if (!result) {
+				result = (null != obj) && (obj instanceof TypePair);
+				if (result) {
+					final TypePair oth = (TypePair) obj;
+					result = new EqualsBuilder().append(this.src, oth.src)
+							.append(this.dest, oth.dest).isEquals();
+				}
+			}
+			return result;
+		}
+	}
+}
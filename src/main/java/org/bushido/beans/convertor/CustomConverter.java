@@ -25,7 +25,7 @@ package org.bushido.beans.convertor;
  * @param <DestType>
  *            destination type
  */
-public interface CustomConverter<SrcType, DestType> {
+public interface CustomConverter<SrcType, DestType> extends TypeConverter {
 	/**
 	 * Convert (cast) {@code dest} from {@code SrcType} to the {@code DestType}
 	 * 
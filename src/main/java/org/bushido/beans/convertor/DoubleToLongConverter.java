@@ -0,0 +1,32 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.convertor;
+
+/**
+ * Converts {@code double} value into {@code long} value without boxing
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public interface DoubleToLongConverter extends PrimitiveConverter {
+	/**
+	 * Convert {@code src} to the {@code long} value
+	 * 
+	 * @param src
+	 *            source value
+	 * @return converted value
+	 */
+	public long convert(final double src);
+}
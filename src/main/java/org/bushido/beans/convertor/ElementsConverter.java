@@ -0,0 +1,175 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.convertor;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import net.sf.cglib.reflect.FastClass;
+
+import org.bushido.beans.Direction;
+import org.bushido.beans.Injector;
+import org.bushido.beans.InjectorFactory;
+import org.bushido.beans.mapping.ElementsMapping;
+
+/**
+ * Converts {@code List} or array to the new {@code List} or array, injecting
+ * each source element into the new destination element with the nested
+ * injector. Destination {@code List} is pre-sized, arrays of the same
+ * primitive type are copied in bulk. Nested injector is obtained from the
+ * factory on the first conversion, so the elements of a tree DTO can be
+ * mapped to the DTO itself.
+ * 
+ * @see org.bushido.beans.mapping.Elements
+ * @author Victor Gubin
+ * 
+ */
+public final class ElementsConverter implements
+		CustomConverter<Object, Object> {
+
+	private final Class<?> source;
+	private final Class<?> element;
+	private final boolean array;
+	private final InjectorFactory factory;
+	private final Direction direction;
+	private final FastClass elementClass;
+
+	/**
+	 * Nested elements injector, obtained on the first conversion
+	 */
+	private volatile Injector<Object, Object> injector;
+
+	/**
+	 * Constructs new {@code ElementsConverter} copying the elements as is
+	 * 
+	 * @param elements
+	 *            elements mapping
+	 */
+	public ElementsConverter(final ElementsMapping elements) {
+		this(elements, null, null, null);
+	}
+
+	/**
+	 * Constructs new {@code ElementsConverter} injecting the elements
+	 * 
+	 * @param elements
+	 *            elements mapping
+	 * @param factory
+	 *            factory of the nested elements injector
+	 * @param direction
+	 *            direction of the nested elements injector
+	 * @param elementClass
+	 *            accessors of the destination element class, creating the
+	 *            destination elements
+	 */
+	public ElementsConverter(final ElementsMapping elements,
+			final InjectorFactory factory, final Direction direction,
+			final FastClass elementClass) {
+		this.source = elements.getSource();
+		this.element = elements.getDestination();
+		this.array = elements.getContainer().isArray();
+		this.factory = factory;
+		this.direction = direction;
+		this.elementClass = elementClass;
+	}
+
+	@Override
+	public Object convert(final Object src) {
+		if (null == src) {
+			return null;
+		}
+		if (src.getClass().isArray()) {
+			final int length = Array.getLength(src);
+			if (array && null == factory
+					&& src.getClass().getComponentType() == element) {
+				final Object result = Array.newInstance(element, length);
+				System.arraycopy(src, 0, result, 0, length);
+				return result;
+			}
+			final Object result = newContainer(length);
+			if (src instanceof Object[]) {
+				final Object[] values = (Object[]) src;
+				for (int i = 0; i < length; i++) {
+					put(result, i, values[i]);
+				}
+			} else {
+				for (int i = 0; i < length; i++) {
+					put(result, i, Array.get(src, i));
+				}
+			}
+			return result;
+		}
+		final List<?> values = (List<?>) src;
+		final Object result = newContainer(values.size());
+		if (values instanceof RandomAccess) {
+			for (int i = 0; i < values.size(); i++) {
+				put(result, i, values.get(i));
+			}
+		} else {
+			int i = 0;
+			for (Object it : values) {
+				put(result, i++, it);
+			}
+		}
+		return result;
+	}
+
+	private Object newContainer(final int size) {
+		return array ? Array.newInstance(element, size)
+				: new ArrayList<Object>(size);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void put(final Object container, final int index,
+			final Object value) {
+		final Object result = element(value);
+		if (!array) {
+			((List<Object>) container).add(result);
+		} else if (container instanceof Object[]) {
+			((Object[]) container)[index] = result;
+		} else {
+			Array.set(container, index, result);
+		}
+	}
+
+	private Object element(final Object value) {
+		if (null == factory || null == value) {
+			return value;
+		}
+		try {
+			final Object result = elementClass.newInstance();
+			injector().inject(value, result);
+			return result;
+		} catch (InvocationTargetException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private Injector<Object, Object> injector() {
+		Injector<Object, Object> result = injector;
+		if (null == result) {
+			final Class<Object> src = (Class<Object>) source;
+			final Class<Object> dest = (Class<Object>) element;
+			result = direction == Direction.IMPORT ? factory.createImporter(
+					src, dest) : factory.createExporter(src, dest);
+			injector = result;
+		}
+		return result;
+	}
+}
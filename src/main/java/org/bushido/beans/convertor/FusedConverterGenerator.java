@@ -0,0 +1,217 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.convertor;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.cglib.core.AbstractClassGenerator;
+import net.sf.cglib.core.ClassEmitter;
+import net.sf.cglib.core.CodeEmitter;
+import net.sf.cglib.core.Constants;
+import net.sf.cglib.core.ReflectUtils;
+import net.sf.cglib.core.Signature;
+import net.sf.cglib.core.TypeUtils;
+
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Type;
+
+/**
+ * Generates a {@link CustomConverter} class applying the converters chain with
+ * the nested direct calls, i.e.
+ * {@code c2.convert(c1.convert(c0.convert((S) src)))} where each converter
+ * field has the converter class type. Generated classes are cached by the
+ * chain classes.
+ * 
+ * @author Victor Gubin
+ * 
+ */
+final class FusedConverterGenerator extends AbstractClassGenerator {
+
+	private static final Source SOURCE = new Source(
+			ConverterChain.class.getName());
+
+	private static final Type CHAIN = Type.getType(CustomConverter[].class);
+	private static final Signature CSTRUCT_CHAIN = TypeUtils
+			.parseConstructor(new Type[] { CHAIN });
+	private static final Signature CONVERT = new Signature("convert",
+			Constants.TYPE_OBJECT, new Type[] { Constants.TYPE_OBJECT });
+
+	private final Class<?>[] classes;
+	private final Method[] methods;
+	private final ClassLoader loader;
+
+	private FusedConverterGenerator(final Class<?>[] classes,
+			final Method[] methods, final ClassLoader loader) {
+		super(SOURCE);
+		this.classes = classes;
+		this.methods = methods;
+		this.loader = loader;
+		setNamePrefix(classes[0].getName());
+	}
+
+	/**
+	 * Generates fused converter class and creates it's instance
+	 * 
+	 * @param chain
+	 *            converters in the order of application
+	 * @param methods
+	 *            {@code convert} methods of the converters
+	 * @return fused converter or {@code null} when converters are not
+	 *         accessible from a single class loader
+	 */
+	@SuppressWarnings("unchecked")
+	static CustomConverter<Object, Object> generate(
+			final CustomConverter<?, ?>[] chain, final Method[] methods) {
+		final Class<?>[] classes = new Class<?>[chain.length];
+		for (int i = 0; i < chain.length; i++) {
+			classes[i] = chain[i].getClass();
+			if (!Modifier.isPublic(classes[i].getModifiers())
+					|| !Modifier.isPublic(methods[i].getDeclaringClass()
+							.getModifiers())
+					|| !isPublic(methods[i].getParameterTypes()[0])) {
+				return null;
+			}
+		}
+		final ClassLoader loader = findLoader(classes);
+		if (null == loader) {
+			return null;
+		}
+		final List<String> key = new ArrayList<String>(classes.length);
+		for (Class<?> it : classes) {
+			key.add(it.getName());
+		}
+		final Class<?> type = (Class<?>) new FusedConverterGenerator(classes,
+				methods, loader).create(key);
+		return (CustomConverter<Object, Object>) ReflectUtils.newInstance(
+				type, new Class[] { CustomConverter[].class },
+				new Object[] { chain });
+	}
+
+	private static boolean isPublic(final Class<?> clazz) {
+		Class<?> type = clazz;
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+		return type.isPrimitive() || Modifier.isPublic(type.getModifiers());
+	}
+
+	/**
+	 * Finds the loader of the chain class which sees all the chain classes
+	 */
+	private static ClassLoader findLoader(final Class<?>[] classes) {
+		for (Class<?> candidate : classes) {
+			final ClassLoader loader = candidate.getClassLoader();
+			if (null == loader) {
+				continue;
+			}
+			boolean visible = isVisible(CustomConverter.class, loader);
+			for (int i = 0; visible && i < classes.length; i++) {
+				visible = isVisible(classes[i], loader);
+			}
+			if (visible) {
+				return loader;
+			}
+		}
+		return null;
+	}
+
+	private static boolean isVisible(final Class<?> clazz,
+			final ClassLoader loader) {
+		try {
+			return Class.forName(clazz.getName(), false, loader) == clazz;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	@Override
+	protected ClassLoader getDefaultClassLoader() {
+		return loader;
+	}
+
+	@Override
+	protected Object firstInstance(@SuppressWarnings("rawtypes") Class type)
+			throws Exception {
+		return type;
+	}
+
+	@Override
+	protected Object nextInstance(Object instance) throws Exception {
+		return instance;
+	}
+
+	@Override
+	public void generateClass(final ClassVisitor v) throws Exception {
+		final ClassEmitter ce = new ClassEmitter(v);
+		ce.begin_class(Constants.V1_2, Constants.ACC_PUBLIC
+				| Constants.ACC_FINAL, getClassName(), Constants.TYPE_OBJECT,
+				new Type[] { Type.getType(CustomConverter.class) },
+				Constants.SOURCE_FILE);
+		for (int i = 0; i < classes.length; i++) {
+			ce.declare_field(Constants.ACC_PRIVATE | Constants.ACC_FINAL,
+					field(i), Type.getType(classes[i]), null);
+		}
+		generateConstructor(ce);
+		generateConvert(ce);
+		ce.end_class();
+	}
+
+	private static String field(final int index) {
+		return "converter" + index;
+	}
+
+	private void generateConstructor(final ClassEmitter ce) {
+		final CodeEmitter e = ce.begin_method(Constants.ACC_PUBLIC,
+				CSTRUCT_CHAIN, null);
+		e.load_this();
+		e.super_invoke_constructor();
+		for (int i = 0; i < classes.length; i++) {
+			e.load_this();
+			e.load_arg(0);
+			e.push(i);
+			e.aaload();
+			e.checkcast(Type.getType(classes[i]));
+			e.putfield(field(i));
+		}
+		e.return_value();
+		e.end_method();
+	}
+
+	/**
+	 * {@code return c2.convert(c1.convert(c0.convert((S) src)));}
+	 */
+	private void generateConvert(final ClassEmitter ce) {
+		final CodeEmitter e = ce.begin_method(Constants.ACC_PUBLIC, CONVERT,
+				null);
+		for (int i = classes.length - 1; i >= 0; i--) {
+			e.load_this();
+			e.getfield(field(i));
+		}
+		e.load_arg(0);
+		final Class<?> source = methods[0].getParameterTypes()[0];
+		if (source != Object.class) {
+			e.checkcast(Type.getType(source));
+		}
+		for (int i = 0; i < classes.length; i++) {
+			e.invoke_virtual(Type.getType(classes[i]),
+					ReflectUtils.getSignature(methods[i]));
+		}
+		e.return_value();
+		e.end_method();
+	}
+}
@@ -0,0 +1,29 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.convertor;
+
+/**
+ * Marker interface for the converters between primitive types. Generated
+ * injectors call such converters without boxing of the source and the
+ * converted values.<br>
+ * 
+ * Every primitive converter interface declares a single {@code convert}
+ * method, for example {@link IntToLongConverter#convert(int)}
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public interface PrimitiveConverter extends TypeConverter {
+}
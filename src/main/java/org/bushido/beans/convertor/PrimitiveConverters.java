@@ -0,0 +1,134 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.convertor;
+
+import java.lang.reflect.Method;
+
+/**
+ * Utility methods for the {@link PrimitiveConverter} implementations
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public final class PrimitiveConverters {
+
+	private static final Class<?>[] INTERFACES = {
+			IntToLongConverter.class,
+			IntToFloatConverter.class,
+			IntToDoubleConverter.class,
+			LongToIntConverter.class,
+			LongToFloatConverter.class,
+			LongToDoubleConverter.class,
+			FloatToIntConverter.class,
+			FloatToLongConverter.class,
+			FloatToDoubleConverter.class,
+			DoubleToIntConverter.class,
+			DoubleToLongConverter.class,
+			DoubleToFloatConverter.class };
+
+	private PrimitiveConverters() {
+	}
+
+	/**
+	 * Returns the {@code convert} method of the primitive converter interface
+	 * implemented by {@code converter} class
+	 * 
+	 * @param converter
+	 *            primitive converter implementation class
+	 * @return primitive {@code convert} method
+	 * @throws IllegalArgumentException
+	 *             when class implements none or several primitive converter
+	 *             interfaces
+	 */
+	public static Method convertMethod(final Class<?> converter) {
+		return INTERFACES[kindOf(converter)].getMethods()[0];
+	}
+
+	/**
+	 * Wraps primitive converter with the {@link CustomConverter}, used when
+	 * converter is called with the boxed values
+	 * 
+	 * @param converter
+	 *            primitive converter
+	 * @return boxing custom converter
+	 */
+	public static CustomConverter<Object, Object> boxed(
+			final PrimitiveConverter converter) {
+		return new BoxedConverter(converter, kindOf(converter.getClass()));
+	}
+
+	private static int kindOf(final Class<?> converter) {
+		int result = -1;
+		for (int i = 0; i < INTERFACES.length; i++) {
+			if (INTERFACES[i].isAssignableFrom(converter)) {
+				if (result >= 0) {
+					throw new IllegalArgumentException(converter.getName()
+							+ " implements several primitive converters");
+				}
+				result = i;
+			}
+		}
+		if (result < 0) {
+			throw new IllegalArgumentException(converter.getName()
+					+ " implements no primitive converter");
+		}
+		return result;
+	}
+
+	private static final class BoxedConverter implements
+			CustomConverter<Object, Object> {
+
+		private final PrimitiveConverter converter;
+		private final int kind;
+
+		BoxedConverter(final PrimitiveConverter converter, final int kind) {
+			this.converter = converter;
+			this.kind = kind;
+		}
+
+		@Override
+		public Object convert(final Object src) {
+			switch (kind) {
+			case 0:
+				return ((IntToLongConverter) converter).convert(((Number) src).intValue());
+			case 1:
+				return ((IntToFloatConverter) converter).convert(((Number) src).intValue());
+			case 2:
+				return ((IntToDoubleConverter) converter).convert(((Number) src).intValue());
+			case 3:
+				return ((LongToIntConverter) converter).convert(((Number) src).longValue());
+			case 4:
+				return ((LongToFloatConverter) converter).convert(((Number) src).longValue());
+			case 5:
+				return ((LongToDoubleConverter) converter).convert(((Number) src).longValue());
+			case 6:
+				return ((FloatToIntConverter) converter).convert(((Number) src).floatValue());
+			case 7:
+				return ((FloatToLongConverter) converter).convert(((Number) src).floatValue());
+			case 8:
+				return ((FloatToDoubleConverter) converter).convert(((Number) src).floatValue());
+			case 9:
+				return ((DoubleToIntConverter) converter).convert(((Number) src).doubleValue());
+			case 10:
+				return ((DoubleToLongConverter) converter).convert(((Number) src).doubleValue());
+			case 11:
+				return ((DoubleToFloatConverter) converter).convert(((Number) src).doubleValue());
+			default:
+				throw new IllegalStateException("Unknown converter kind "
+						+ kind);
+			}
+		}
+	}
+}
@@ -0,0 +1,312 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.convertor;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.RandomAccess;
+
+import net.sf.cglib.reflect.FastMethod;
+
+import org.bushido.beans.mapping.Accessor;
+import org.bushido.beans.mapping.Aggregation;
+import org.bushido.beans.mapping.IllegalMappingException;
+
+/**
+ * Streams over all the values matched by the wildcard index path. Converter
+ * obtains the {@code List}, array or {@code Iterable} of the first wildcard
+ * segment and invokes the rest of the path for each it's element, expanding
+ * nested wildcard segments the same way. Matched values are put directly into
+ * the destination collection or array, or aggregated, so no intermediate
+ * collections are created.<br>
+ * 
+ * {@code null} nested instances match nothing.
+ * 
+ * @see org.bushido.beans.mapping.Aggregate
+ * @author Victor Gubin
+ * 
+ */
+public final class WildcardConverter implements
+		CustomConverter<Object, Object> {
+
+	private final Accessor<FastMethod>[] path;
+	private final Aggregation aggregation;
+	private final Class<?> target;
+
+	/**
+	 * Constructs new {@code WildcardConverter}
+	 * 
+	 * @param path
+	 *            accessors invoked for each element of the wildcard segment
+	 * @param aggregation
+	 *            aggregate function or {@code null} to collect the values
+	 * @param target
+	 *            destination value type, {@code List}, {@code Set} or array
+	 *            when values are collected and numeric type when aggregated
+	 * @throws IllegalMappingException
+	 *             if target can't hold the result
+	 */
+	public WildcardConverter(final Accessor<FastMethod>[] path,
+			final Aggregation aggregation, final Class<?> target) {
+		this.path = path;
+		this.aggregation = aggregation;
+		this.target = target;
+		if (null == aggregation) {
+			if (!target.isArray()
+					&& !target.isAssignableFrom(ArrayList.class)
+					&& !target.isAssignableFrom(LinkedHashSet.class)) {
+				throw new IllegalMappingException(target.getName()
+						+ " can't hold wildcard path values");
+			}
+		} else if (!Aggregator.isSupported(target)) {
+			throw new IllegalMappingException(target.getName()
+					+ " can't hold " + aggregation + " result");
+		}
+	}
+
+	@Override
+	public Object convert(final Object src) {
+		final Sink sink = newSink();
+		try {
+			expand(src, 0, sink);
+		} catch (InvocationTargetException e) {
+			throw new IllegalStateException(e);
+		}
+		return sink.result();
+	}
+
+	private Sink newSink() {
+		if (null != aggregation) {
+			return new Aggregator(aggregation, target);
+		}
+		if (target.isArray()) {
+			return new ArraySink(target.getComponentType());
+		}
+		if (target.isAssignableFrom(ArrayList.class)) {
+			return new CollectionSink(new ArrayList<Object>());
+		}
+		return new CollectionSink(new LinkedHashSet<Object>());
+	}
+
+	private void expand(final Object values, final int from, final Sink sink)
+			throws InvocationTargetException {
+		if (null == values) {
+			return;
+		}
+		if (values instanceof Object[]) {
+			for (Object it : (Object[]) values) {
+				walk(it, from, sink);
+			}
+		} else if (values.getClass().isArray()) {
+			final int length = Array.getLength(values);
+			for (int i = 0; i < length; i++) {
+				walk(Array.get(values, i), from, sink);
+			}
+		} else if (values instanceof RandomAccess && values instanceof List) {
+			final List<?> list = (List<?>) values;
+			for (int i = 0; i < list.size(); i++) {
+				walk(list.get(i), from, sink);
+			}
+		} else {
+			for (Object it : (Iterable<?>) values) {
+				walk(it, from, sink);
+			}
+		}
+	}
+
+	private void walk(final Object value, final int from, final Sink sink)
+			throws InvocationTargetException {
+		Object current = value;
+		for (int i = from; i < path.length; i++) {
+			if (null == current) {
+				return;
+			}
+			current = path[i].getMethod().invoke(current, null);
+			final int index = path[i].getIndex();
+			if (index == Accessor.ALL) {
+				expand(current, i + 1, sink);
+				return;
+			}
+			if (index >= 0 && null != current) {
+				current = current.getClass().isArray() ? Array.get(current,
+						index) : ((List<?>) current).get(index);
+			}
+		}
+		sink.accept(current);
+	}
+
+	private interface Sink {
+		void accept(Object value);
+
+		Object result();
+	}
+
+	private static final class CollectionSink implements Sink {
+		private final Collection<Object> values;
+
+		CollectionSink(final Collection<Object> values) {
+			this.values = values;
+		}
+
+		@Override
+		public void accept(final Object value) {
+			values.add(value);
+		}
+
+		@Override
+		public Object result() {
+			return values;
+		}
+	}
+
+	private static final class ArraySink implements Sink {
+		private final Class<?> component;
+		private Object values;
+		private int size;
+
+		ArraySink(final Class<?> component) {
+			this.component = component;
+			this.values = Array.newInstance(component, 16);
+		}
+
+		@Override
+		public void accept(final Object value) {
+			final int capacity = Array.getLength(values);
+			if (size == capacity) {
+				final Object grown = Array.newInstance(component,
+						capacity << 1);
+				System.arraycopy(values, 0, grown, 0, size);
+				values = grown;
+			}
+			Array.set(values, size++, value);
+		}
+
+		@Override
+		public Object result() {
+			if (size == Array.getLength(values)) {
+				return values;
+			}
+			final Object result = Array.newInstance(component, size);
+			System.arraycopy(values, 0, result, 0, size);
+			return result;
+		}
+	}
+
+	private static final class Aggregator implements Sink {
+		private static final List<Class<?>> INTEGRAL = Arrays
+				.<Class<?>> asList(Byte.class, Short.class, Integer.class,
+						Long.class);
+		private static final List<Class<?>> SUPPORTED = Arrays
+				.<Class<?>> asList(Byte.class, Short.class, Integer.class,
+						Long.class, Float.class, Double.class, Number.class,
+						Object.class, Byte.TYPE, Short.TYPE, Integer.TYPE,
+						Long.TYPE, Float.TYPE, Double.TYPE);
+
+		private final Aggregation aggregation;
+		private final Class<?> target;
+		private boolean integral = true;
+		private long count;
+		private long longValue;
+		private double doubleValue;
+
+		Aggregator(final Aggregation aggregation, final Class<?> target) {
+			this.aggregation = aggregation;
+			this.target = target;
+		}
+
+		static boolean isSupported(final Class<?> target) {
+			return SUPPORTED.contains(target);
+		}
+
+		@Override
+		public void accept(final Object value) {
+			if (null == value) {
+				return;
+			}
+			if (aggregation == Aggregation.COUNT) {
+				count++;
+				return;
+			}
+			final Number number = (Number) value;
+			final boolean first = count++ == 0;
+			integral = integral && INTEGRAL.contains(number.getClass());
+			final long l = number.longValue();
+			final double d = number.doubleValue();
+			switch (aggregation) {
+			case SUM:
+			case AVERAGE:
+				longValue += l;
+				doubleValue += d;
+				break;
+			case MIN:
+				longValue = first ? l : Math.min(longValue, l);
+				doubleValue = first ? d : Math.min(doubleValue, d);
+				break;
+			case MAX:
+				longValue = first ? l : Math.max(longValue, l);
+				doubleValue = first ? d : Math.max(doubleValue, d);
+				break;
+			default:
+				break;
+			}
+		}
+
+		@Override
+		public Object result() {
+			switch (aggregation) {
+			case COUNT:
+				return cast(Long.valueOf(count));
+			case SUM:
+				return integral ? cast(Long.valueOf(longValue))
+						: cast(Double.valueOf(doubleValue));
+			case AVERAGE:
+				return count == 0 ? empty() : cast(Double.valueOf(doubleValue
+						/ count));
+			default:
+				if (count == 0) {
+					return empty();
+				}
+				return integral ? cast(Long.valueOf(longValue))
+						: cast(Double.valueOf(doubleValue));
+			}
+		}
+
+		private Object empty() {
+			return target.isPrimitive() ? cast(Long.valueOf(0L)) : null;
+		}
+
+		private Object cast(final Number value) {
+			if (target == Integer.TYPE || target == Integer.class) {
+				return Integer.valueOf(value.intValue());
+			} else if (target == Long.TYPE || target == Long.class) {
+				return Long.valueOf(value.longValue());
+			} else if (target == Double.TYPE || target == Double.class) {
+				return Double.valueOf(value.doubleValue());
+			} else if (target == Float.TYPE || target == Float.class) {
+				return Float.valueOf(value.floatValue());
+			} else if (target == Short.TYPE || target == Short.class) {
+				return Short.valueOf(value.shortValue());
+			} else if (target == Byte.TYPE || target == Byte.class) {
+				return Byte.valueOf(value.byteValue());
+			}
+			return value;
+		}
+	}
+}
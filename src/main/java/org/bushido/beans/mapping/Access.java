@@ -0,0 +1,37 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.mapping;
+
+/**
+ * Defines how mapped bean values are accessed
+ * 
+ * @see ImportDestination#access()
+ * @see ExportSource#access()
+ * @author Victor Gubin
+ * 
+ */
+public enum Access {
+	/**
+	 * Values are obtained with public getters and injected with public
+	 * setters
+	 */
+	PROPERTY,
+	/**
+	 * Values are copied between the instance fields of the same name, any
+	 * visibility. Fields marked with {@link Transient} and final destination
+	 * fields are not mapped.
+	 */
+	FIELD
+}
@@ -18,12 +18,33 @@ import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 
 public class Accessor<TMetod> {
+
+	/**
+	 * Index of the accessor without index
+	 */
+	public static final int NO_INDEX = -1;
+
+	/**
+	 * Index of the wildcard segment, addressing all the elements
+	 */
+	public static final int ALL = -2;
+
 	private final TMetod method;
 	private final int index;
+	private final TMetod setter;
 
 	public Accessor(TMetod method, int index) {
+		this(method, index, null);
+	}
+
+	/**
+	 * Constructs accessor of the intermediate instance, which is created and
+	 * set with the {@code setter} when getter returns {@code null}
+	 */
+	public Accessor(TMetod method, int index, TMetod setter) {
 		this.method = method;
 		this.index = index;
+		this.setter = setter;
 	}
 
 	public TMetod getMethod() {
@@ -34,6 +55,25 @@ public class Accessor<TMetod> {
 		return index;
 	}
 
+	/**
+	 * Returns setter of the intermediate instance
+	 * 
+	 * @return setter or {@code null} if missing instance is not created
+	 */
+	public TMetod getSetter() {
+		return setter;
+	}
+
+	/**
+	 * Checks whether accessor addresses all the elements, i.e.
+	 * {@code getOrders[*]}
+	 * 
+	 * @return whether accessor is the wildcard segment
+	 */
+	public boolean isWildcard() {
+		return index == ALL;
+	}
+
 	@Override
 	public int hashCode() {
 		return new HashCodeBuilder().append(method).append(index).toHashCode();
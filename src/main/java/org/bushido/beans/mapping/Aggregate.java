@@ -0,0 +1,43 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.mapping;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks that values matched by the wildcard index path, i.e.
+ * {@code getOrders[*].getLines[*].getAmount}, are aggregated into a single
+ * value instead of collecting them into the {@code List} or array.<br>
+ * 
+ * Empty match results in {@code null}, or zero for the primitive setter
+ * parameter.
+ * 
+ * @see Path
+ * @author Victor Gubin
+ * 
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Aggregate {
+	/**
+	 * Aggregate function
+	 * 
+	 * @return aggregate function
+	 */
+	Aggregation value();
+}
@@ -0,0 +1,46 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.mapping;
+
+/**
+ * Aggregate function applied to the numeric values matched by the wildcard
+ * index path
+ * 
+ * @see Aggregate
+ * @author Victor Gubin
+ * 
+ */
+public enum Aggregation {
+	/**
+	 * Sum of the values, zero when nothing matches
+	 */
+	SUM,
+	/**
+	 * Minimal value
+	 */
+	MIN,
+	/**
+	 * Maximal value
+	 */
+	MAX,
+	/**
+	 * Number of the not {@code null} values
+	 */
+	COUNT,
+	/**
+	 * Arithmetic mean of the values
+	 */
+	AVERAGE
+}
@@ -18,14 +18,37 @@ import net.sf.cglib.reflect.FastMethod;
 
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.bushido.beans.convertor.TypeConverter;
 
 public final class CallPair {
 	private final FastMethod method;
 	private final Accessor<FastMethod>[] callstack;
+	private final TypeConverter converter;
+	private final ElementsMapping elements;
+	private final NullHandling nulls;
 
 	public CallPair(FastMethod method, Accessor<FastMethod>[] callstack) {
+		this(method, callstack, null);
+	}
+
+	public CallPair(FastMethod method, Accessor<FastMethod>[] callstack,
+			TypeConverter converter) {
+		this(method, callstack, converter, null);
+	}
+
+	public CallPair(FastMethod method, Accessor<FastMethod>[] callstack,
+			TypeConverter converter, ElementsMapping elements) {
+		this(method, callstack, converter, elements, NullHandling.FAIL);
+	}
+
+	public CallPair(FastMethod method, Accessor<FastMethod>[] callstack,
+			TypeConverter converter, ElementsMapping elements,
+			NullHandling nulls) {
 		this.method = method;
 		this.callstack = callstack;
+		this.converter = converter;
+		this.elements = elements;
+		this.nulls = nulls;
 	}
 
 	public FastMethod getMethod() {
@@ -36,9 +59,38 @@ public final class CallPair {
 		return callstack;
 	}
 
+	/**
+	 * Returns converter resolved for this call pair on scanning
+	 * 
+	 * @return value converter or {@code null} if value is not converted
+	 */
+	public TypeConverter getConverter() {
+		return converter;
+	}
+
+	/**
+	 * Returns element by element mapping of the {@code List} or array value
+	 * 
+	 * @return elements mapping or {@code null} if value is not mapped element
+	 *         by element
+	 */
+	public ElementsMapping getElements() {
+		return elements;
+	}
+
+	/**
+	 * Returns handling of the {@code null} intermediate instances
+	 * 
+	 * @return null handling mode
+	 */
+	public NullHandling getNulls() {
+		return nulls;
+	}
+
 	@Override
 	public int hashCode() {
 		return new HashCodeBuilder().append(method).append(callstack)
+				.append(converter).append(elements).append(nulls)
 				.toHashCode();
 	}
 
@@ -50,7 +102,10 @@ public final class CallPair {
 			if (result) {
 				final CallPair oth = (CallPair) obj;
 				result = new EqualsBuilder().append(this.method, oth.method)
-						.append(this.callstack, oth.callstack).isEquals();
+						.append(this.callstack, oth.callstack)
+						.append(this.converter, oth.converter)
+						.append(this.elements, oth.elements)
+						.append(this.nulls, oth.nulls).isEquals();
 			}
 		}
 		return result;
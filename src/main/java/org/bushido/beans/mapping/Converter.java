@@ -19,7 +19,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
-import org.bushido.beans.convertor.CustomConverter;
+import org.bushido.beans.convertor.TypeConverter;
 
 /**
  * Marks that importer or exporter should use custom converter when inject data
@@ -31,9 +31,17 @@ import org.bushido.beans.convertor.CustomConverter;
 @Target(ElementType.METHOD)
 public @interface Converter {
 	/**
-	 * Class of custom converter implementation
+	 * Class of custom converter implementation, either
+	 * {@link org.bushido.beans.convertor.CustomConverter} or one of
+	 * {@link org.bushido.beans.convertor.PrimitiveConverter} interfaces. Several
+	 * {@link org.bushido.beans.convertor.CustomConverter} classes declare the
+	 * chain, where the result of each converter is the source of the next one,
+	 * i.e. {@code @Converter({ Trim.class, ToDecimal.class, ToLong.class })}.
+	 * Chain is checked and fused into the single
+	 * converter when mapping is scanned.
 	 * 
-	 * @return custom converter implementation class
+	 * @return custom converter implementation class, or the chain of custom
+	 *         converter classes in the order of application
 	 */
-	Class<? extends CustomConverter<?, ?>> value();
+	Class<? extends TypeConverter>[] value();
 }
@@ -0,0 +1,44 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.mapping;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks that the {@code List} or array value is mapped element by element to
+ * the new {@code List} or array of the {@link #value()} type elements.<br>
+ * 
+ * Each source element is injected into the new destination element with the
+ * nested injector of the elements classes pair, in the same direction as the
+ * annotated mapping. When destination element type is assignable from the
+ * source element type elements are copied as is, i.e. primitive arrays are
+ * copied in bulk.
+ * 
+ * @author Victor Gubin
+ * 
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Elements {
+	/**
+	 * Type of the destination {@code List} or array elements
+	 * 
+	 * @return destination element type
+	 */
+	Class<?> value();
+}
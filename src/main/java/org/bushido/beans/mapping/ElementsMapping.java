@@ -0,0 +1,93 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.mapping;
+
+import org.apache.commons.lang.ClassUtils;
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+
+/**
+ * Describes element by element mapping of the {@code List} or array value
+ * 
+ * @see Elements
+ * @author Victor Gubin
+ * 
+ */
+public final class ElementsMapping {
+
+	private final Class<?> source;
+	private final Class<?> destination;
+	private final Class<?> container;
+
+	/**
+	 * Constructs new {@code ElementsMapping}
+	 * 
+	 * @param source
+	 *            source element type
+	 * @param destination
+	 *            destination element type
+	 * @param container
+	 *            destination {@code List} or array type
+	 */
+	public ElementsMapping(final Class<?> source, final Class<?> destination,
+			final Class<?> container) {
+		this.source = source;
+		this.destination = destination;
+		this.container = container;
+	}
+
+	public Class<?> getSource() {
+		return source;
+	}
+
+	public Class<?> getDestination() {
+		return destination;
+	}
+
+	public Class<?> getContainer() {
+		return container;
+	}
+
+	/**
+	 * Checks whether elements are copied as is, without nested injector
+	 * 
+	 * @return whether elements are copied
+	 */
+	public boolean isCopy() {
+		return ClassUtils.primitiveToWrapper(destination).isAssignableFrom(
+				ClassUtils.primitiveToWrapper(source));
+	}
+
+	@Override
+	public int hashCode() {
+		return new HashCodeBuilder().append(source).append(destination)
+				.append(container).toHashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		boolean result = this == obj;
+		if (!result) {
+			result = (null != obj) && (obj instanceof ElementsMapping);
+			if (result) {
+				final ElementsMapping oth = (ElementsMapping) obj;
+				result = new EqualsBuilder().append(this.source, oth.source)
+						.append(this.destination, oth.destination)
+						.append(this.container, oth.container).isEquals();
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,213 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.mapping;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.cglib.reflect.FastMethod;
+
+/**
+ * Trie of the call pairs nesting paths (all the accessors but the last one).
+ * Each node is a distinct intermediate instance, obtained from it's parent
+ * node instance with a single accessor, so call pairs sharing a path prefix
+ * share the nodes of the prefix. Injector resolves each node once per
+ * {@code inject} call, and calls the pairs in the trie order: pairs of the
+ * node first, then pairs of the child nodes.<br>
+ * 
+ * Nodes are numbered in the depth first order, so parent node number is
+ * always less than the child one.
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public final class ExecutionPlan {
+
+	/**
+	 * Node number of the injected bean itself
+	 */
+	public static final int ROOT = -1;
+
+	private static final int[] EMPTY = new int[0];
+
+	private final Accessor<FastMethod>[] accessors;
+	private final int[] parents;
+	private final int[][] children;
+	private final int[][] leaves;
+	private final int[] nodes;
+	private final int[] order;
+
+	@SuppressWarnings("unchecked")
+	ExecutionPlan(final List<CallPair> pairs) {
+		final Builder root = new Builder(null);
+		int pair = 0;
+		for (CallPair it : pairs) {
+			final Accessor<FastMethod>[] callstack = it.getCallstack();
+			Builder node = root;
+			for (int i = 0; i < callstack.length - 1; i++) {
+				node = node.child(callstack[i]);
+			}
+			node.leaves.add(pair++);
+		}
+		final List<Builder> flat = new ArrayList<Builder>();
+		root.flatten(flat);
+		final int size = flat.size() - 1;
+		this.accessors = new Accessor[size];
+		this.parents = new int[size];
+		this.children = new int[size + 1][];
+		this.leaves = new int[size + 1][];
+		this.nodes = new int[pairs.size()];
+		this.order = new int[pairs.size()];
+		int step = 0;
+		for (Builder it : flat) {
+			if (it != root) {
+				accessors[it.number] = it.accessor;
+				parents[it.number] = it.parent.number;
+			}
+			final int[] nested = new int[it.children.size()];
+			int i = 0;
+			for (Builder child : it.children.values()) {
+				nested[i++] = child.number;
+			}
+			children[it.number + 1] = nested;
+			final int[] own = toArray(it.leaves);
+			leaves[it.number + 1] = own;
+			for (int leaf : own) {
+				nodes[leaf] = it.number;
+				order[step++] = leaf;
+			}
+		}
+	}
+
+	private static int[] toArray(final List<Integer> values) {
+		if (values.isEmpty()) {
+			return EMPTY;
+		}
+		final int[] result = new int[values.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = values.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns count of the intermediate instances
+	 * 
+	 * @return count of the nodes
+	 */
+	public int getNodeCount() {
+		return accessors.length;
+	}
+
+	/**
+	 * Returns accessor obtaining node instance from the parent node instance
+	 * 
+	 * @param node
+	 *            node number
+	 * @return node accessor
+	 */
+	public Accessor<FastMethod> getAccessor(final int node) {
+		return accessors[node];
+	}
+
+	/**
+	 * Returns parent of the node
+	 * 
+	 * @param node
+	 *            node number
+	 * @return parent node number or {@link #ROOT}
+	 */
+	public int getParent(final int node) {
+		return parents[node];
+	}
+
+	/**
+	 * Returns child nodes of the node
+	 * 
+	 * @param node
+	 *            node number or {@link #ROOT}
+	 * @return child nodes numbers
+	 */
+	public int[] getChildren(final int node) {
+		return children[node + 1].clone();
+	}
+
+	/**
+	 * Returns call pairs invoked on the node instance
+	 * 
+	 * @param node
+	 *            node number or {@link #ROOT}
+	 * @return call pairs indexes
+	 */
+	public int[] getLeaves(final int node) {
+		return leaves[node + 1].clone();
+	}
+
+	/**
+	 * Returns the node call pair is invoked on
+	 * 
+	 * @param pair
+	 *            call pair index
+	 * @return node number or {@link #ROOT} for the pair without nesting path
+	 */
+	public int getNode(final int pair) {
+		return nodes[pair];
+	}
+
+	/**
+	 * Returns call pairs indexes in the trie order
+	 * 
+	 * @return call pairs order
+	 */
+	public int[] getOrder() {
+		return order.clone();
+	}
+
+	private static final class Builder {
+		private final Accessor<FastMethod> accessor;
+		private final Builder parent;
+		private final Map<Accessor<FastMethod>, Builder> children = new LinkedHashMap<Accessor<FastMethod>, Builder>();
+		private final List<Integer> leaves = new ArrayList<Integer>();
+		private int number = ROOT;
+
+		Builder(final Builder parent) {
+			this(null, parent);
+		}
+
+		Builder(final Accessor<FastMethod> accessor, final Builder parent) {
+			this.accessor = accessor;
+			this.parent = parent;
+		}
+
+		Builder child(final Accessor<FastMethod> key) {
+			Builder result = children.get(key);
+			if (null == result) {
+				result = new Builder(key, this);
+				children.put(key, result);
+			}
+			return result;
+		}
+
+		void flatten(final List<Builder> result) {
+			number = result.size() - 1;
+			result.add(this);
+			for (Builder it : children.values()) {
+				it.flatten(result);
+			}
+		}
+	}
+}
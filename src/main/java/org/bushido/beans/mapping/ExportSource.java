@@ -35,4 +35,33 @@ public @interface ExportSource {
 	 * @return whether signatures are compliant
 	 */
 	boolean compliant() default false;
+
+	/**
+	 * Defines how {@code null} intermediate instances of the nested paths are
+	 * handled
+	 * 
+	 * @return null handling mode
+	 */
+	NullHandling nulls() default NullHandling.FAIL;
+
+	/**
+	 * Defines whether values are exported with getters or directly from the
+	 * source fields. {@link Access#FIELD} maps source fields to the
+	 * destination fields of the same name, {@link ExportFlow} and
+	 * {@code compliant} are not used.
+	 * 
+	 * @return value access
+	 */
+	Access access() default Access.PROPERTY;
+
+	/**
+	 * Destination classes to generate injectors for at compile time. When
+	 * {@code InjectorProcessor} is on the compiler processor path, it generates
+	 * an injector class for each destination class, and
+	 * {@link org.bushido.beans.InjectorFactory} uses it instead of scanning
+	 * the mapping at runtime.
+	 * 
+	 * @return destination classes of the compile time injectors
+	 */
+	Class<?>[] destinations() default {};
 }
@@ -0,0 +1,79 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.mapping;
+
+import java.lang.reflect.Field;
+
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.bushido.beans.convertor.TypeConverter;
+
+/**
+ * Source and destination fields of the field access mapping
+ * 
+ * @see Access#FIELD
+ * @author Victor Gubin
+ * 
+ */
+public final class FieldPair {
+	private final Field source;
+	private final Field destination;
+	private final TypeConverter converter;
+
+	public FieldPair(final Field source, final Field destination,
+			final TypeConverter converter) {
+		this.source = source;
+		this.destination = destination;
+		this.converter = converter;
+	}
+
+	public Field getSource() {
+		return source;
+	}
+
+	public Field getDestination() {
+		return destination;
+	}
+
+	/**
+	 * Returns converter of the source value
+	 * 
+	 * @return converter or {@code null} if value is copied as is
+	 */
+	public TypeConverter getConverter() {
+		return converter;
+	}
+
+	@Override
+	public int hashCode() {
+		return new HashCodeBuilder().append(source).append(destination)
+				.append(converter).toHashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		boolean result = this == obj;
+		if (!result) {
+			result = (null != obj) && (obj instanceof FieldPair);
+			if (result) {
+				final FieldPair oth = (FieldPair) obj;
+				result = new EqualsBuilder().append(this.source, oth.source)
+						.append(this.destination, oth.destination)
+						.append(this.converter, oth.converter).isEquals();
+			}
+		}
+		return result;
+	}
+}
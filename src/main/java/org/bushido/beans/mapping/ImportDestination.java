@@ -45,4 +45,33 @@ public @interface ImportDestination {
 	 * @return whether signatures are compliant
 	 */
 	boolean compliant() default false;
+
+	/**
+	 * Defines how {@code null} intermediate instances of the nested paths are
+	 * handled
+	 * 
+	 * @return null handling mode
+	 */
+	NullHandling nulls() default NullHandling.FAIL;
+
+	/**
+	 * Defines whether values are injected with setters or directly into the
+	 * destination fields. {@link Access#FIELD} maps destination fields to the
+	 * source fields of the same name, {@link Path} and {@code compliant} are
+	 * not used.
+	 * 
+	 * @return value access
+	 */
+	Access access() default Access.PROPERTY;
+
+	/**
+	 * Source classes to generate injectors for at compile time. When
+	 * {@code InjectorProcessor} is on the compiler processor path, it generates
+	 * an injector class for each source class, and
+	 * {@link org.bushido.beans.InjectorFactory} uses it instead of scanning
+	 * the mapping at runtime.
+	 * 
+	 * @return source classes of the compile time injectors
+	 */
+	Class<?>[] sources() default {};
 }
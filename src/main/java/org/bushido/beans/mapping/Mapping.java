@@ -20,7 +20,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
-import org.bushido.beans.convertor.CustomConverter;
+import org.bushido.beans.convertor.TypeConverter;
 
 /**
  * Contains cgi based reflection mapping
@@ -32,12 +32,24 @@ public class Mapping {
 
 	private final List<CallPair> mapping;
 
-	private final Map<Method, CustomConverter<?, ?>> converterMapping;
+	private final Map<Method, TypeConverter> converterMapping;
+
+	private final List<FieldPair> fieldMapping;
+
+	private final ExecutionPlan plan;
+
+	public Mapping(final List<CallPair> mapping,
+			final Map<Method, TypeConverter> converterMapping) {
+		this(mapping, converterMapping, Collections.<FieldPair> emptyList());
+	}
 
 	public Mapping(final List<CallPair> mapping,
-			final Map<Method, CustomConverter<?, ?>> converterMapping) {
+			final Map<Method, TypeConverter> converterMapping,
+			final List<FieldPair> fieldMapping) {
 		this.mapping = mapping;
 		this.converterMapping = converterMapping;
+		this.fieldMapping = fieldMapping;
+		this.plan = new ExecutionPlan(mapping);
 	}
 
 	/**
@@ -54,8 +66,27 @@ public class Mapping {
 	 * 
 	 * @return
 	 */
-	public Map<Method, CustomConverter<?, ?>> getConverterMapping() {
+	public Map<Method, TypeConverter> getConverterMapping() {
 		return Collections.unmodifiableMap(this.converterMapping);
 	}
 
+	/**
+	 * Returns execution plan of the method mapping, resolving each shared
+	 * nested instance once
+	 * 
+	 * @return execution plan
+	 */
+	public ExecutionPlan getPlan() {
+		return plan;
+	}
+
+	/**
+	 * Returns unmodifiable field mapping of the {@link Access#FIELD} access
+	 * 
+	 * @return field mapping
+	 */
+	public Collection<FieldPair> getFieldMapping() {
+		return Collections.unmodifiableList(this.fieldMapping);
+	}
+
 }
@@ -0,0 +1,42 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.mapping;
+
+/**
+ * Defines how injector handles {@code null} intermediate instance of the
+ * nested path. Handling is resolved once per path when mapping is scanned.
+ * 
+ * @see ImportDestination#nulls()
+ * @see ExportSource#nulls()
+ * @author Victor Gubin
+ * 
+ */
+public enum NullHandling {
+	/**
+	 * Injection fails with the exception
+	 */
+	FAIL,
+	/**
+	 * Rest of the path is skipped and destination setter is not called
+	 */
+	SKIP,
+	/**
+	 * Missing destination intermediate is created with it's public default
+	 * constructor and set with the setter matching the getter, i.e.
+	 * {@code setAddress} for {@code getAddress}. Used by export only, import
+	 * treats it as {@link #SKIP}
+	 */
+	INSTANTIATE
+}
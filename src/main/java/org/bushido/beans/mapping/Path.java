@@ -36,7 +36,13 @@ public @interface Path {
 	 * The sample for simple getter path looks like @{code getHost}.<br>
 	 * 
 	 * For a complex nesting type hierarchy path looks like @{code
-	 * getService.getHostPort.getHost}
+	 * getService.getHostPort.getHost}<br>
+	 * 
+	 * Array or {@code List} element is addressed with the index, i.e. @{code
+	 * getHosts[0].getHost}, and all the elements with the wildcard index, i.e.
+	 * @{code getHosts[*].getHost}. Values matched by the wildcard path are
+	 * collected into the {@code List}, {@code Set} or array setter parameter
+	 * or aggregated with {@link Aggregate}.
 	 * 
 	 * @return path to obtain source data
 	 */
@@ -22,13 +22,14 @@ import java.lang.annotation.Target;
 
 /**
  * Marks setter/getter method is transient, and would not be used when mapping
- * a compliant source and destinations classes
+ * a compliant source and destinations classes. Marked field is not used by the
+ * {@link Access#FIELD} mapping.
  * 
  * @see ImportDestination#compliant()
  * @author Victor Gubin
  * 
  */
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.METHOD)
+@Target({ ElementType.METHOD, ElementType.FIELD })
 public @interface Transient {
 }
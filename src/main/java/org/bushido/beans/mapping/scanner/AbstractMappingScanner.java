@@ -14,32 +14,59 @@
  */
 package org.bushido.beans.mapping.scanner;
 
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import net.sf.cglib.reflect.FastClass;
 import net.sf.cglib.reflect.FastMethod;
 
+import org.apache.commons.lang.ClassUtils;
+
+import org.bushido.beans.convertor.ConverterChain;
+import org.bushido.beans.convertor.ConverterRegistry;
 import org.bushido.beans.convertor.CustomConverter;
+import org.bushido.beans.convertor.PrimitiveConverter;
+import org.bushido.beans.convertor.PrimitiveConverters;
+import org.bushido.beans.convertor.TypeConverter;
 import org.bushido.beans.mapping.Accessor;
 import org.bushido.beans.mapping.CallPair;
 import org.bushido.beans.mapping.Converter;
+import org.bushido.beans.mapping.Elements;
+import org.bushido.beans.mapping.ElementsMapping;
+import org.bushido.beans.mapping.FieldPair;
 import org.bushido.beans.mapping.IllegalMappingException;
+import org.bushido.beans.mapping.Mapping;
+import org.bushido.beans.mapping.NullHandling;
+import org.bushido.beans.mapping.Transient;
 
 abstract class AbstractMappingScanner implements MappingScanner {
 
+	/**
+	 * Numeric primitives in the widening conversion order
+	 */
+	private static final List<Class<?>> WIDENING = Arrays.<Class<?>> asList(
+			Byte.TYPE, Short.TYPE, Integer.TYPE, Long.TYPE, Float.TYPE,
+			Double.TYPE);
+
 	private final List<CallPair> methodMapping;
-	private final Map<Method, CustomConverter<?, ?>> convetersMapping;
+	private final Map<Method, TypeConverter> convetersMapping;
+	private final ConverterRegistry registry;
+	private NullHandling nulls = NullHandling.FAIL;
 
-	public AbstractMappingScanner() {
+	public AbstractMappingScanner(final ConverterRegistry registry) {
 		this.methodMapping = new LinkedList<CallPair>();
-		this.convetersMapping = new HashMap<Method, CustomConverter<?, ?>>();
+		this.convetersMapping = new HashMap<Method, TypeConverter>();
+		this.registry = registry;
 	}
 
 	protected void validateSetter(final Method setter) {
@@ -49,10 +76,35 @@ abstract class AbstractMappingScanner implements MappingScanner {
 		}
 	}
 
+	/**
+	 * Sets handling of the {@code null} intermediates for the scanned call
+	 * pairs
+	 */
+	protected void setNulls(final NullHandling nulls) {
+		this.nulls = nulls;
+	}
+
+	protected NullHandling getNulls() {
+		return nulls;
+	}
+
 	protected boolean checkVoidReturnType(final Method method) {
 		return method.getReturnType().equals(Void.TYPE);
 	}
 
+	/**
+	 * Returns type of the value obtained with the accessor, i.e. method return
+	 * type or element type for the indexed accessor
+	 */
+	protected Class<?> valueType(final Accessor<Method> accessor) {
+		final Class<?> returnType = accessor.getMethod().getReturnType();
+		if (accessor.getIndex() < 0) {
+			return returnType;
+		}
+		return returnType.isArray() ? returnType.getComponentType()
+				: Object.class;
+	}
+
 	protected Accessor<FastMethod>[] fastCallStack(FastClass root,
 			final Accessor<Method>[] callstack) {
 		@SuppressWarnings("unchecked")
@@ -61,10 +113,11 @@ abstract class AbstractMappingScanner implements MappingScanner {
 		for (int i = 0; i < callstack.length - 1; i++) {
 			final FastMethod fastMethod = clazz.getMethod(callstack[i]
 					.getMethod());
+			final Method setter = callstack[i].getSetter();
 			result[i] = new Accessor<FastMethod>(fastMethod,
-					callstack[i].getIndex());
-			clazz = FastClass.create(fastMethod.getReturnType());
-			Compiler.compileClass(clazz.getClass());
+					callstack[i].getIndex(), null == setter ? null
+							: clazz.getMethod(setter));
+			clazz = FastClasses.of(PathParser.valueClass(callstack[i]));
 		}
 		final FastMethod fastMethod = clazz
 				.getMethod(callstack[callstack.length - 1].getMethod());
@@ -74,39 +127,301 @@ abstract class AbstractMappingScanner implements MappingScanner {
 
 	}
 
-	protected final CustomConverter<?, ?> scanConvertors(final Method it) {
-		final Converter convertor = it.getAnnotation(Converter.class);
-		if (convertor != null) {
-			if (null == convertor.value()) {
-				throw new IllegalMappingException(
-						"null is illegal convertor type");
+	/**
+	 * Adds call pair of the mapped method, resolving it's converter or
+	 * element by element mapping
+	 * 
+	 * @param it
+	 *            mapped method
+	 * @param method
+	 *            call pair method
+	 * @param callstack
+	 *            call pair call stack
+	 * @param source
+	 *            accessor obtaining the source value
+	 * @param destType
+	 *            type of the setter parameter
+	 */
+	protected final void addCallPair(final Method it, final FastMethod method,
+			final Accessor<FastMethod>[] callstack,
+			final Accessor<Method> source, final Class<?> destType) {
+		final ElementsMapping elements = scanElements(it, source, destType);
+		final TypeConverter converter = null == elements ? resolveConverter(
+				it, valueType(source), destType) : null;
+		methodMapping.add(new CallPair(method, callstack, converter, elements,
+				nulls));
+	}
+
+	/**
+	 * Scans the field access mapping, fields of the {@code annotated} class
+	 * are mapped to the fields of the same name of the other class
+	 * 
+	 * @param annotated
+	 *            class declaring the field access
+	 * @param src
+	 *            source class
+	 * @param dest
+	 *            destination class
+	 * @return field mapping
+	 */
+	protected final Mapping scanFields(final Class<?> annotated,
+			final Class<?> src, final Class<?> dest) {
+		final List<FieldPair> result = new ArrayList<FieldPair>();
+		final ClassIntrospection srcFields = ClassIntrospection.of(src);
+		final ClassIntrospection destFields = ClassIntrospection.of(dest);
+		for (Field it : ClassIntrospection.of(annotated).getFields()) {
+			if (it.isAnnotationPresent(Transient.class)) {
+				continue;
 			}
-			final Set<Class<?>> interfaces = new HashSet<Class<?>>(
-					Arrays.asList(convertor.value().getInterfaces()));
-			if (!interfaces.contains(CustomConverter.class)) {
-				throw new IllegalMappingException(convertor.value().getName()
-						+ " should implement TypeConvertor");
+			final Field source = srcFields.getField(it.getName());
+			final Field destination = destFields.getField(it.getName());
+			// just skip if field is not mapped or can't be written
+			if (null == source || null == destination
+					|| source.isAnnotationPresent(Transient.class)
+					|| destination.isAnnotationPresent(Transient.class)
+					|| Modifier.isFinal(destination.getModifiers())) {
+				continue;
+			}
+			final Class<?> sourceType = source.getType();
+			final Class<?> destType = destination.getType();
+			TypeConverter converter = null;
+			if (!isAssignable(sourceType, destType)) {
+				converter = registry.find(sourceType, destType);
+				if (null == converter) {
+					throw new IllegalMappingException("Field "
+							+ source.getName() + " of " + sourceType.getName()
+							+ " can't be assigned to " + destType.getName());
+				}
+			}
+			result.add(new FieldPair(source, destination, converter));
+		}
+		return new Mapping(new ArrayList<CallPair>(),
+				new HashMap<Method, TypeConverter>(), result);
+	}
+
+	/**
+	 * Checks whether value can be assigned with identity, reference,
+	 * boxing or primitive widening conversion, like
+	 * {@link Field#set(Object, Object)} does
+	 */
+	static boolean isAssignable(final Class<?> from, final Class<?> to) {
+		if (to.isAssignableFrom(from)) {
+			return true;
+		}
+		if (from.isPrimitive() && to.isPrimitive()) {
+			final int index = WIDENING.indexOf(to);
+			return from == Character.TYPE ? index >= WIDENING
+					.indexOf(Integer.TYPE) : WIDENING.indexOf(from) >= 0
+					&& index > WIDENING.indexOf(from);
+		}
+		if (from.isPrimitive()) {
+			return to.isAssignableFrom(ClassUtils.primitiveToWrapper(from));
+		}
+		final Class<?> unboxed = ClassUtils.wrapperToPrimitive(from);
+		return to.isPrimitive() && null != unboxed
+				&& isAssignable(unboxed, to);
+	}
+
+	/**
+	 * Checks whether type can hold the element by element mapping result
+	 */
+	protected static boolean isContainer(final Class<?> type) {
+		return type.isArray() || type.isAssignableFrom(ArrayList.class);
+	}
+
+	private ElementsMapping scanElements(final Method it,
+			final Accessor<Method> source, final Class<?> container) {
+		final Elements elements = it.getAnnotation(Elements.class);
+		if (null == elements) {
+			return null;
+		}
+		if (it.isAnnotationPresent(Converter.class)) {
+			throw new IllegalMappingException(it.getName()
+					+ " can't have both Elements and Converter");
+		}
+		final Class<?> sourceType = source.getMethod().getReturnType();
+		Class<?> element = null;
+		if (source.getIndex() < 0) {
+			if (sourceType.isArray()) {
+				element = sourceType.getComponentType();
+			} else if (List.class.isAssignableFrom(sourceType)) {
+				element = listElement(source.getMethod().getGenericReturnType());
+			}
+		}
+		if (null == element) {
+			throw new IllegalMappingException(source.getMethod().getName()
+					+ " should return List with known element type or array");
+		}
+		if (!isContainer(container)) {
+			throw new IllegalMappingException(it.getName()
+					+ " should accept List or array");
+		}
+		final ElementsMapping result = new ElementsMapping(element,
+				elements.value(), container);
+		if (container.isArray()
+				&& !new ElementsMapping(elements.value(),
+						container.getComponentType(), container).isCopy()) {
+			throw new IllegalMappingException(container.getSimpleName()
+					+ " can't hold " + elements.value().getName());
+		}
+		return result;
+	}
+
+	private static Class<?> listElement(final Type type) {
+		if (type instanceof ParameterizedType) {
+			Type argument = ((ParameterizedType) type)
+					.getActualTypeArguments()[0];
+			if (argument instanceof WildcardType) {
+				argument = ((WildcardType) argument).getUpperBounds()[0];
 			}
-			try {
-				return convertor.value().newInstance();
-			} catch (InstantiationException e) {
-				throw new IllegalMappingException(
-						"Conveter must have public visibility and default public constructor",
-						e);
-			} catch (IllegalAccessException e) {
-				throw new IllegalMappingException(
-						"Conveter must have  public visibility and default public constructor",
-						e);
+			if (argument instanceof Class) {
+				return (Class<?>) argument;
 			}
 		}
 		return null;
 	}
 
+	/**
+	 * Resolves converter of the mapped value. Converter declared with the
+	 * {@link Converter} annotation is used when present, otherwise default
+	 * converter registered for the source and destination types pair is used.
+	 * Resolved converter is stored into the converters mapping of the
+	 * {@code it} method.
+	 * 
+	 * @param it
+	 *            mapped method
+	 * @param sourceType
+	 *            type of the value to be converted
+	 * @param destType
+	 *            type of the setter parameter
+	 * @return converter instance or {@code null} if value is not converted
+	 */
+	protected final TypeConverter resolveConverter(final Method it,
+			final Class<?> sourceType, final Class<?> destType) {
+		TypeConverter result = scanConvertors(it, sourceType, destType);
+		if (null == result && sourceType != destType) {
+			result = registry.find(sourceType, destType);
+		}
+		if (null != result) {
+			convetersMapping.put(it, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Checks whether default converter is registered for the types pair
+	 */
+	protected final boolean isConvertible(final Class<?> sourceType,
+			final Class<?> destType) {
+		return null != registry.find(sourceType, destType);
+	}
+
+	/**
+	 * Obtains shared instance of the converter declared with the
+	 * {@link Converter} annotation. Chain of the converters is fused into a
+	 * single converter with the {@link ConverterChain}.
+	 * 
+	 * @param it
+	 *            annotated method
+	 * @param sourceType
+	 *            type of the value to be converted
+	 * @param destType
+	 *            type of the setter parameter
+	 * @return converter instance or {@code null} if method has no converter
+	 */
+	protected final TypeConverter scanConvertors(final Method it,
+			final Class<?> sourceType, final Class<?> destType) {
+		final Converter convertor = it.getAnnotation(Converter.class);
+		if (convertor == null) {
+			return null;
+		}
+		final Class<? extends TypeConverter>[] chain = convertor.value();
+		if (chain.length == 0) {
+			throw new IllegalMappingException("Empty converters chain of "
+					+ it.getName());
+		}
+		if (chain.length == 1) {
+			return scanConverter(chain[0], sourceType, destType);
+		}
+		final List<CustomConverter<?, ?>> converters = new ArrayList<CustomConverter<?, ?>>(
+				chain.length);
+		for (Class<? extends TypeConverter> converter : chain) {
+			if (!CustomConverter.class.isAssignableFrom(converter)) {
+				throw new IllegalMappingException(converter.getName()
+						+ " should implement CustomConverter to be chained");
+			}
+			converters.add((CustomConverter<?, ?>) instanceOf(converter));
+		}
+		try {
+			return ConverterChain.fuse(converters, sourceType, destType);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalMappingException(e.getMessage(), e);
+		}
+	}
+
+	private TypeConverter scanConverter(
+			final Class<? extends TypeConverter> converter,
+			final Class<?> sourceType, final Class<?> destType) {
+		if (null == converter) {
+			throw new IllegalMappingException("null is illegal convertor type");
+		}
+		if (PrimitiveConverter.class.isAssignableFrom(converter)) {
+			validatePrimitiveConverter(converter, sourceType, destType);
+		} else if (!CustomConverter.class.isAssignableFrom(converter)) {
+			throw new IllegalMappingException(converter.getName()
+					+ " should implement CustomConverter or PrimitiveConverter");
+		}
+		return instanceOf(converter);
+	}
+
+	private TypeConverter instanceOf(
+			final Class<? extends TypeConverter> converter) {
+		try {
+			return registry.instanceOf(converter);
+		} catch (InstantiationException e) {
+			throw new IllegalMappingException(
+					"Conveter must have public visibility and default public constructor",
+					e);
+		} catch (IllegalAccessException e) {
+			throw new IllegalMappingException(
+					"Conveter must have  public visibility and default public constructor",
+					e);
+		}
+	}
+
 	protected final List<CallPair> getMethodMapping() {
 		return methodMapping;
 	}
 
-	protected final Map<Method, CustomConverter<?, ?>> getConvetersMapping() {
+	/**
+	 * Checks that primitive converter is applied to the numeric values, which
+	 * are not {@code char}s, and it's result is assignable to the setter
+	 * parameter without narrowing
+	 */
+	private void validatePrimitiveConverter(final Class<?> converter,
+			final Class<?> sourceType, final Class<?> destType) {
+		final Method convert;
+		try {
+			convert = PrimitiveConverters.convertMethod(converter);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalMappingException(e.getMessage(), e);
+		}
+		final boolean numeric = sourceType.isPrimitive() ? sourceType != Boolean.TYPE
+				&& sourceType != Character.TYPE && sourceType != Void.TYPE
+				: Number.class.isAssignableFrom(sourceType)
+						|| sourceType == Object.class;
+		if (!numeric) {
+			throw new IllegalMappingException(converter.getName()
+					+ " can't convert " + sourceType.getName());
+		}
+		if (!isAssignable(convert.getReturnType(), destType)) {
+			throw new IllegalMappingException(converter.getName()
+					+ " result " + convert.getReturnType().getName()
+					+ " is not assignable to " + destType.getName());
+		}
+	}
+
+	protected final Map<Method, TypeConverter> getConvetersMapping() {
 		return convetersMapping;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.mapping.scanner;
+
+import net.sf.cglib.reflect.FastClass;
+
+/**
+ * Implementation of the {@link FastClass} accessors used by the scanned
+ * mappings. Generated injectors call the mapped methods directly with any
+ * backend, the backend is used by the reflection based injectors and
+ * converters.<br>
+ * 
+ * Default backend is set with the {@value #PROPERTY} system property, i.e.
+ * {@code -Dorg.bushido.beans.accessors=METHOD_HANDLE}, and is
+ * {@link #CGLIB} unless specified.
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public enum AccessorBackend {
+
+	/**
+	 * cglib generated fast class, dispatching calls by the method index
+	 */
+	CGLIB {
+		@Override
+		FastClass create(final Class<?> type) {
+			return FastClass.create(type);
+		}
+	},
+
+	/**
+	 * Method handle bound for each called method. Handles are looked up by
+	 * the method index behind the same {@code FastClass.invoke} entry with
+	 * the arguments array, so they are not constants for the JIT and calls
+	 * are not inlined. Measured slower than {@link #CGLIB} on HotSpot, see
+	 * the {@code AccessorBenchmark}.
+	 */
+	METHOD_HANDLE {
+		@Override
+		FastClass create(final Class<?> type) {
+			return new MethodHandleClass(type);
+		}
+	};
+
+	/**
+	 * System property of the default backend name
+	 */
+	public static final String PROPERTY = "org.bushido.beans.accessors";
+
+	/**
+	 * Creates accessors of the class
+	 */
+	abstract FastClass create(Class<?> type);
+
+	/**
+	 * Returns backend set with the {@link #PROPERTY} system property, unknown
+	 * backend name falls back to the {@link #CGLIB}
+	 * 
+	 * @return default backend
+	 */
+	public static AccessorBackend configured() {
+		final String name = System.getProperty(PROPERTY);
+		if (null == name) {
+			return CGLIB;
+		}
+		try {
+			return valueOf(name.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			return CGLIB;
+		}
+	}
+
+}
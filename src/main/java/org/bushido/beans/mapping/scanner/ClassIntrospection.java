@@ -0,0 +1,211 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.mapping.scanner;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the class public methods and instance fields used by the mapping
+ * scanners. Getters, setters and fields are indexed by name once per class, so
+ * resolving an accessor don't need to walk all the class members.<br>
+ * 
+ * Introspections are stored with the class itself and shared between
+ * threads, instances are immutable. Cache doesn't retain the classes, so the
+ * class loaders of the mapped beans can be unloaded.
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public final class ClassIntrospection {
+
+	private static final ClassValue<ClassIntrospection> CACHE = new ClassValue<ClassIntrospection>() {
+		@Override
+		protected ClassIntrospection computeValue(final Class<?> type) {
+			return new ClassIntrospection(type);
+		}
+	};
+
+	private final Method[] methods;
+	private final Map<String, Method> getters;
+	private final Map<String, List<Method>> setters;
+	private final Map<String, Field> fields;
+
+	private ClassIntrospection(final Class<?> clazz) {
+		this.fields = new LinkedHashMap<String, Field>();
+		for (Class<?> it = clazz; null != it && it != Object.class; it = it
+				.getSuperclass()) {
+			for (Field field : it.getDeclaredFields()) {
+				// subclass field hides the super class one
+				if (!Modifier.isStatic(field.getModifiers())
+						&& !field.isSynthetic()
+						&& !fields.containsKey(field.getName())) {
+					fields.put(field.getName(), field);
+				}
+			}
+		}
+		this.methods = clazz.getMethods();
+		this.getters = new HashMap<String, Method>();
+		this.setters = new HashMap<String, List<Method>>();
+		for (Method it : methods) {
+			final String name = it.getName();
+			switch (it.getParameterTypes().length) {
+			case 0:
+				final Method getter = getters.get(name);
+				// prefer covariant return type over the bridge method
+				if (null == getter
+						|| getter.getReturnType().isAssignableFrom(
+								it.getReturnType())) {
+					getters.put(name, it);
+				}
+				break;
+			case 1:
+				List<Method> named = setters.get(name);
+				if (null == named) {
+					named = new ArrayList<Method>(1);
+					setters.put(name, named);
+				}
+				named.add(it);
+				break;
+			default:
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Returns cached introspection of the class
+	 * 
+	 * @param clazz
+	 *            class to introspect
+	 * @return class introspection
+	 */
+	public static ClassIntrospection of(final Class<?> clazz) {
+		return CACHE.get(clazz);
+	}
+
+	/**
+	 * Returns all the public methods of the class, like
+	 * {@link Class#getMethods()} does
+	 * 
+	 * @return public methods
+	 */
+	public Method[] getMethods() {
+		return methods.clone();
+	}
+
+	/**
+	 * Returns public method without parameters
+	 * 
+	 * @param name
+	 *            method name
+	 * @return method or {@code null} if there is no such
+	 */
+	public Method getGetter(final String name) {
+		return getters.get(name);
+	}
+
+	/**
+	 * Returns public single parameter methods with the name
+	 * 
+	 * @param name
+	 *            method name
+	 * @return setters, or empty list if there is no such
+	 */
+	public List<Method> getSetters(final String name) {
+		final List<Method> result = setters.get(name);
+		return null == result ? Collections.<Method> emptyList() : Collections
+				.unmodifiableList(result);
+	}
+
+	/**
+	 * Returns public single parameter method accepting exactly the
+	 * {@code type}
+	 * 
+	 * @param name
+	 *            method name
+	 * @param type
+	 *            parameter type
+	 * @return setter or {@code null} if there is no such
+	 */
+	public Method getSetter(final String name, final Class<?> type) {
+		for (Method it : getSetters(name)) {
+			if (it.getParameterTypes()[0] == type) {
+				return it;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns non void getter of the property, i.e. {@code getName} or
+	 * {@code isName} method for the {@code Name} property
+	 * 
+	 * @param property
+	 *            capitalized property name
+	 * @return getter or {@code null} if there is no such
+	 */
+	public Method getPropertyGetter(final String property) {
+		Method result = getters.get("get" + property);
+		if (null == result || result.getReturnType() == Void.TYPE) {
+			result = getters.get("is" + property);
+		}
+		if (null != result && result.getReturnType() == Void.TYPE) {
+			result = null;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns setter of the property, i.e. {@code setName} method for the
+	 * {@code Name} property
+	 * 
+	 * @param property
+	 *            capitalized property name
+	 * @return setter or {@code null} if there is no such
+	 */
+	public Method getPropertySetter(final String property) {
+		final List<Method> result = setters.get("set" + property);
+		return null == result ? null : result.get(0);
+	}
+
+	/**
+	 * Returns instance fields of the class and it's super classes, of any
+	 * visibility. Hidden super class fields are not returned.
+	 * 
+	 * @return instance fields
+	 */
+	public Field[] getFields() {
+		return fields.values().toArray(new Field[fields.size()]);
+	}
+
+	/**
+	 * Returns instance field of the class or it's super classes
+	 * 
+	 * @param name
+	 *            field name
+	 * @return field or {@code null} if there is no such
+	 */
+	public Field getField(final String name) {
+		return fields.get(name);
+	}
+}
@@ -15,6 +15,7 @@
 package org.bushido.beans.mapping.scanner;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
@@ -23,14 +24,16 @@ import java.util.List;
 import net.sf.cglib.reflect.FastClass;
 import net.sf.cglib.reflect.FastMethod;
 
-import org.bushido.beans.convertor.CustomConverter;
+import org.bushido.beans.convertor.ConverterRegistry;
+import org.bushido.beans.mapping.Access;
 import org.bushido.beans.mapping.Accessor;
-import org.bushido.beans.mapping.CallPair;
 import org.bushido.beans.mapping.Converter;
+import org.bushido.beans.mapping.Elements;
 import org.bushido.beans.mapping.ExportFlow;
 import org.bushido.beans.mapping.ExportSource;
 import org.bushido.beans.mapping.IllegalMappingException;
 import org.bushido.beans.mapping.Mapping;
+import org.bushido.beans.mapping.NullHandling;
 import org.bushido.beans.mapping.Path;
 import org.bushido.beans.mapping.Setter;
 import org.bushido.beans.mapping.Transient;
@@ -38,7 +41,11 @@ import org.bushido.beans.mapping.Transient;
 class ExportMappingScanner extends AbstractMappingScanner {
 
 	public ExportMappingScanner() {
-		super();
+		this(new ConverterRegistry());
+	}
+
+	public ExportMappingScanner(final ConverterRegistry registry) {
+		super(registry);
 	}
 
 	@Override
@@ -50,10 +57,13 @@ class ExportMappingScanner extends AbstractMappingScanner {
 							+ " to destination bean" + dest.getName());
 		}
 		final ExportSource source = src.getAnnotation(ExportSource.class);
-		final FastClass fastDest = FastClass.create(dest);
-		final FastClass fastSrc = FastClass.create(src);
-		Compiler.compileClass(fastSrc.getClass());
-		final Method srcMethods[] = src.getMethods();
+		if (source.access() == Access.FIELD) {
+			return scanFields(src, src, dest);
+		}
+		setNulls(source.nulls());
+		final FastClass fastDest = FastClasses.of(dest);
+		final FastClass fastSrc = FastClasses.of(src);
+		final Method srcMethods[] = ClassIntrospection.of(src).getMethods();
 		for (Method it : srcMethods) {
 			if (it.getDeclaringClass() == Object.class) {
 				continue;
@@ -65,8 +75,10 @@ class ExportMappingScanner extends AbstractMappingScanner {
 				final Setter setter = flow.value();
 				Class<?> conveter = null;
 				if (it.isAnnotationPresent(Converter.class)) {
-					Converter conv = it.getAnnotation(Converter.class);
-					conveter = conv.value();
+					final Converter conv = it.getAnnotation(Converter.class);
+					// the last converter of the chain produces the value
+					conveter = conv.value().length == 0 ? null
+							: conv.value()[conv.value().length - 1];
 				}
 				final FastMethod fastGetter = fastSrc.getMethod(it);
 
@@ -79,11 +91,9 @@ class ExportMappingScanner extends AbstractMappingScanner {
 
 				final Accessor<FastMethod>[] fastCallStack = fastCallStack(
 						fastDest, callStackArr);
-				getMethodMapping().add(new CallPair(fastGetter, fastCallStack));
-				final CustomConverter<?, ?> conv = scanConvertors(it);
-				if (null != conv) {
-					getConvetersMapping().put(it, conv);
-				}
+				addCallPair(it, fastGetter, fastCallStack,
+						new Accessor<Method>(it, -1),
+						parameterType(callStackArr));
 			} else if (source.compliant()) {
 				// ignore Transient setters
 				if (null != it.getAnnotation(Transient.class)) {
@@ -98,13 +108,9 @@ class ExportMappingScanner extends AbstractMappingScanner {
 				final Accessor<FastMethod>[] callStack = new Accessor[1];
 				callStack[0] = new Accessor<FastMethod>(
 						fastDest.getMethod(setter), -1);
-				this.getMethodMapping()
-						.add(new CallPair(fastGetter, callStack));
-				// check for the converter
-				final CustomConverter<?, ?> conv = scanConvertors(it);
-				if (null != conv) {
-					getConvetersMapping().put(it, conv);
-				}
+				this.addCallPair(it, fastGetter, callStack,
+						new Accessor<Method>(it, -1),
+						setter.getParameterTypes()[0]);
 			}
 		}
 		return new Mapping(getMethodMapping(), getConvetersMapping());
@@ -113,11 +119,18 @@ class ExportMappingScanner extends AbstractMappingScanner {
 	private List<Accessor<Method>> findCallStack(Class<?> dest, Method it,
 			final Path path, final Setter setter, Class<?> conveter) {
 		List<Accessor<Method>> callStack = null;
+		final boolean elements = it.isAnnotationPresent(Elements.class);
 		if (path.value().length() > 0) {
 			callStack = findObtainCallStack(it, dest, path.value());
-			final Method lastSetter = getLastSetter(it, callStack,
+			final Method lastSetter = elements ? getContainerSetter(callStack
+					.get(callStack.size() - 1).getMethod().getReturnType(),
+					setter.value()) : getLastSetter(it, callStack,
 					setter.value());
 			callStack.add(new Accessor<Method>(lastSetter, -1));
+		} else if (elements) {
+			callStack = new LinkedList<Accessor<Method>>();
+			callStack.add(new Accessor<Method>(getContainerSetter(dest,
+					setter.value()), -1));
 		} else {
 			callStack = getSimpleSetter(dest, it, setter.value(), conveter);
 		}
@@ -133,11 +146,9 @@ class ExportMappingScanner extends AbstractMappingScanner {
 		if (null == converter) {
 			returnType = getter.getReturnType();
 		} else {
-			for (Method method : converter.getMethods()) {
-				if (method.getDeclaringClass() == Object.class) {
-					continue;
-				}
-				if (method.getName().equals("convert")) {
+			for (Method method : ClassIntrospection.of(converter).getSetters(
+					"convert")) {
+				if (!method.isBridge()) {
 					returnType = method.getReturnType();
 					break;
 				}
@@ -147,24 +158,22 @@ class ExportMappingScanner extends AbstractMappingScanner {
 			throw new IllegalMappingException(getter.getName()
 					+ " should return a value");
 		}
-		try {
-			result[0] = new Accessor<Method>(dest.getMethod(name, returnType),
-					-1);
-		} catch (final SecurityException e) {
-			throw new IllegalMappingException("Can't access to the getter", e);
-		} catch (final NoSuchMethodException e) {
-			// handle auto boxing
-			final Method[] methods = dest.getMethods();
-			for (Method it : methods) {
-				if (it.getName().equals(name)
-						&& (it.getParameterTypes().length == 1)
-						&& it.getParameterTypes()[0].isPrimitive()) {
+		final ClassIntrospection introspection = ClassIntrospection.of(dest);
+		final Method exact = introspection.getSetter(name, returnType);
+		if (null != exact) {
+			result[0] = new Accessor<Method>(exact, -1);
+		} else {
+			// handle auto boxing and default converters
+			for (Method it : introspection.getSetters(name)) {
+				if (it.getParameterTypes()[0].isPrimitive()
+						|| (null == converter && isConvertible(returnType,
+								it.getParameterTypes()[0]))) {
 					result[0] = new Accessor<Method>(it, -1);
 				}
 			}
 			if (null == result[0]) {
 				throw new IllegalMappingException(
-						"Can't obtain setter, no such method", e);
+						"Can't obtain setter, no such method " + name);
 			}
 		}
 		return new LinkedList<Accessor<Method>>(Arrays.asList(result));
@@ -179,15 +188,72 @@ class ExportMappingScanner extends AbstractMappingScanner {
 			throw new IllegalMappingException(getter.getName()
 					+ " should return a value");
 		}
-		Method result;
+		Method result = ClassIntrospection.of(nestingClass).getSetter(name,
+				resultType);
+		if (null == result) {
+			result = findConvertibleSetter(nestingClass, name, resultType);
+			if (null == result) {
+				throw new IllegalMappingException("Can't obtain getter " + name);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Resolves setter and checks constructor of the intermediate instance
+	 * created when it's getter returns {@code null}
+	 */
+	static Accessor<Method> instantiable(final Accessor<Method> accessor) {
+		final Method getter = accessor.getMethod();
+		final Class<?> type = getter.getReturnType();
+		if (accessor.getIndex() != Accessor.NO_INDEX
+				|| !getter.getName().startsWith("get")) {
+			throw new IllegalMappingException("Can't instantiate "
+					+ getter.getName() + " value");
+		}
+		if (type.isInterface() || type.isArray() || type.isPrimitive()
+				|| Modifier.isAbstract(type.getModifiers())) {
+			throw new IllegalMappingException(type.getName()
+					+ " can't be instantiated");
+		}
 		try {
-			result = nestingClass.getMethod(name, resultType);
-		} catch (SecurityException e) {
-			throw new IllegalMappingException("Can't access to the getter", e);
+			type.getConstructor();
 		} catch (NoSuchMethodException e) {
-			throw new IllegalMappingException("Can't obtain getter", e);
+			throw new IllegalMappingException(type.getName()
+					+ " should have public default constructor", e);
 		}
-		return result;
+		final Method setter = ClassIntrospection.of(
+				getter.getDeclaringClass()).getSetter(
+				"set" + getter.getName().substring(3), type);
+		if (null == setter) {
+			throw new IllegalMappingException("No setter for the "
+					+ getter.getName() + " value");
+		}
+		return new Accessor<Method>(getter, Accessor.NO_INDEX, setter);
+	}
+
+	private Method getContainerSetter(final Class<?> owner, final String name) {
+		for (Method it : ClassIntrospection.of(owner).getSetters(name)) {
+			if (isContainer(it.getParameterTypes()[0])) {
+				return it;
+			}
+		}
+		throw new IllegalMappingException("Can't obtain setter " + name
+				+ " accepting List or array");
+	}
+
+	private Method findConvertibleSetter(final Class<?> owner,
+			final String name, final Class<?> valueType) {
+		for (Method it : ClassIntrospection.of(owner).getSetters(name)) {
+			if (isConvertible(valueType, it.getParameterTypes()[0])) {
+				return it;
+			}
+		}
+		return null;
+	}
+
+	private static Class<?> parameterType(final Accessor<Method>[] callstack) {
+		return callstack[callstack.length - 1].getMethod().getParameterTypes()[0];
 	}
 
 	private List<Accessor<Method>> findObtainCallStack(final Method getter,
@@ -200,6 +266,13 @@ class ExportMappingScanner extends AbstractMappingScanner {
 		try {
 			Accessor<Method>[] obtainPath = PathParser.parseMethodsPath(dest,
 					path);
+			for (Accessor<Method> it : obtainPath) {
+				if (it.isWildcard()) {
+					throw new IllegalMappingException(
+							"Wildcard index can't be used in export path "
+									+ path);
+				}
+			}
 			result = new ArrayList<Accessor<Method>>(Arrays.asList(obtainPath));
 		} catch (SecurityException e) {
 			new IllegalStateException(e);
@@ -211,6 +284,11 @@ class ExportMappingScanner extends AbstractMappingScanner {
 			throw new IllegalMappingException(finalGetter.getName()
 					+ " must not be void function");
 		}
+		if (getNulls() == NullHandling.INSTANTIATE) {
+			for (int i = 0; i < result.size(); i++) {
+				result.set(i, instantiable(result.get(i)));
+			}
+		}
 		return result;
 	}
 
@@ -223,19 +301,7 @@ class ExportMappingScanner extends AbstractMappingScanner {
 		} else {
 			return null;
 		}
-		final String setSignature = "set" + signature;
-		Method setter = null;
-		for (Method method : dest.getMethods()) {
-			if (method.getDeclaringClass() == Object.class) {
-				continue;
-			}
-			final String mName = method.getName();
-			if (mName.equals(setSignature)) {
-				setter = method;
-				break;
-			}
-		}
-		return setter;
+		return ClassIntrospection.of(dest).getPropertySetter(signature);
 	}
 
 }
@@ -0,0 +1,87 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.mapping.scanner;
+
+import net.sf.cglib.reflect.FastClass;
+
+/**
+ * Process wide cache of the {@link FastClass} instances. Scanners, injectors
+ * and converters obtain fast classes here, so the fast class of a bean shared
+ * by several mappings is created once, even when the mappings are scanned by
+ * the parallel threads. Fast classes are created by the current
+ * {@link AccessorBackend} and stored with the class itself, so cache doesn't
+ * retain the classes and their class loaders.
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public final class FastClasses {
+
+	private static volatile Cache cache = new Cache(
+			AccessorBackend.configured());
+
+	private FastClasses() {
+	}
+
+	/**
+	 * Returns backend creating the fast classes
+	 * 
+	 * @return accessor backend
+	 */
+	public static AccessorBackend getBackend() {
+		return cache.backend;
+	}
+
+	/**
+	 * Sets backend creating the fast classes, cached fast classes are
+	 * dropped. Mappings scanned before keep the accessors of the previous
+	 * backend.
+	 * 
+	 * @param backend
+	 *            accessor backend
+	 */
+	public static void setBackend(final AccessorBackend backend) {
+		cache = new Cache(backend);
+	}
+
+	/**
+	 * Returns cached fast class of the {@code type}
+	 * 
+	 * @param type
+	 *            class to create fast class for
+	 * @return fast class
+	 */
+	public static FastClass of(final Class<?> type) {
+		return cache.get(type);
+	}
+
+	/**
+	 * Fast classes created by the single backend
+	 */
+	private static final class Cache extends ClassValue<FastClass> {
+
+		private final AccessorBackend backend;
+
+		Cache(final AccessorBackend backend) {
+			this.backend = backend;
+		}
+
+		@Override
+		protected FastClass computeValue(final Class<?> type) {
+			return backend.create(type);
+		}
+	}
+
+}
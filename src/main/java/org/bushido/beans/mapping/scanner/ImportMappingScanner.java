@@ -15,23 +15,37 @@
 package org.bushido.beans.mapping.scanner;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
 
 import net.sf.cglib.reflect.FastClass;
 import net.sf.cglib.reflect.FastMethod;
 
-import org.bushido.beans.convertor.CustomConverter;
+import org.apache.commons.lang.ClassUtils;
+
+import org.bushido.beans.convertor.ConverterRegistry;
+import org.bushido.beans.convertor.WildcardConverter;
+import org.bushido.beans.mapping.Access;
 import org.bushido.beans.mapping.Accessor;
+import org.bushido.beans.mapping.Aggregate;
+import org.bushido.beans.mapping.Aggregation;
 import org.bushido.beans.mapping.CallPair;
+import org.bushido.beans.mapping.Converter;
+import org.bushido.beans.mapping.Elements;
 import org.bushido.beans.mapping.IllegalMappingException;
 import org.bushido.beans.mapping.ImportDestination;
 import org.bushido.beans.mapping.Mapping;
+import org.bushido.beans.mapping.NullHandling;
 import org.bushido.beans.mapping.Path;
 import org.bushido.beans.mapping.Transient;
 
 final class ImportMappingScanner extends AbstractMappingScanner {
 
 	public ImportMappingScanner() {
-		super();
+		this(new ConverterRegistry());
+	}
+
+	public ImportMappingScanner(final ConverterRegistry registry) {
+		super(registry);
 	}
 
 	/*
@@ -51,10 +65,14 @@ final class ImportMappingScanner extends AbstractMappingScanner {
 					"No mapping fond from source bean" + src.getName()
 							+ " to destination bean" + dest.getName());
 		}
-		final FastClass fastDest = FastClass.create(dest);
-		Compiler.compileClass(fastDest.getClass());
-		final FastClass fastSrc = FastClass.create(src);
-		final Method destMethods[] = dest.getMethods();
+		if (destination.access() == Access.FIELD) {
+			return scanFields(dest, src, dest);
+		}
+		setNulls(destination.nulls() == NullHandling.INSTANTIATE ? NullHandling.SKIP
+				: destination.nulls());
+		final FastClass fastDest = FastClasses.of(dest);
+		final FastClass fastSrc = FastClasses.of(src);
+		final Method destMethods[] = ClassIntrospection.of(dest).getMethods();
 		for (Method it : destMethods) {
 			// do not scan Object methods
 			if (it.getDeclaringClass() == Object.class) {
@@ -70,12 +88,15 @@ final class ImportMappingScanner extends AbstractMappingScanner {
 				final FastMethod setter = fastDest.getMethod(it);
 				final Accessor<FastMethod> fastCallStack[] = fastCallStack(
 						fastSrc, callstack);
-				this.getMethodMapping()
-						.add(new CallPair(setter, fastCallStack));
-				final CustomConverter<?, ?> convertor = this.scanConvertors(it);
-				if (null != convertor) {
-					this.getConvetersMapping().put(it, convertor);
+				final int wildcard = firstWildcard(callstack);
+				if (wildcard >= 0) {
+					addWildcardPair(it, setter, callstack, fastCallStack,
+							wildcard);
+					continue;
 				}
+				this.addCallPair(it, setter, fastCallStack,
+						callstack[callstack.length - 1],
+						it.getParameterTypes()[0]);
 				// auto resolve names if complaint method signatures
 			} else if (this.complaintSetter(destination, it)) {
 				// ignore Transient setters
@@ -90,18 +111,78 @@ final class ImportMappingScanner extends AbstractMappingScanner {
 				final FastMethod setter = fastDest.getMethod(it);
 				final Accessor<FastMethod>[] callstack = new Accessor[] { new Accessor<FastMethod>(
 						fastSrc.getMethod(getter), -1) };
-				final CallPair pair = new CallPair(setter, callstack);
-				this.getMethodMapping().add(pair);
-				// check for the converter
-				final CustomConverter<?, ?> convertor = this.scanConvertors(it);
-				if (null != convertor) {
-					this.getConvetersMapping().put(it, convertor);
-				}
+				this.addCallPair(it, setter, callstack, new Accessor<Method>(
+						getter, -1), it.getParameterTypes()[0]);
 			}
 		}
 		return new Mapping(this.getMethodMapping(), this.getConvetersMapping());
 	}
 
+	private static int firstWildcard(final Accessor<Method>[] callstack) {
+		for (int i = 0; i < callstack.length; i++) {
+			if (callstack[i].isWildcard()) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Adds call pair obtaining the first wildcard segment value, the rest of
+	 * the path is streamed by the {@link WildcardConverter}
+	 */
+	@SuppressWarnings("unchecked")
+	private void addWildcardPair(final Method it, final FastMethod setter,
+			final Accessor<Method>[] path,
+			final Accessor<FastMethod>[] callstack, final int wildcard) {
+		if (it.isAnnotationPresent(Converter.class)
+				|| it.isAnnotationPresent(Elements.class)) {
+			throw new IllegalMappingException(it.getName()
+					+ " wildcard path can't have Converter or Elements");
+		}
+		final Aggregate aggregate = it.getAnnotation(Aggregate.class);
+		validateWildcardLeaf(it, path[path.length - 1], aggregate);
+		final Accessor<FastMethod>[] prefix = Arrays.copyOf(callstack,
+				wildcard + 1);
+		prefix[wildcard] = new Accessor<FastMethod>(
+				callstack[wildcard].getMethod(), Accessor.NO_INDEX);
+		final Accessor<FastMethod>[] rest = Arrays.copyOfRange(callstack,
+				wildcard + 1, callstack.length);
+		final WildcardConverter converter = new WildcardConverter(rest,
+				null == aggregate ? null : aggregate.value(),
+				it.getParameterTypes()[0]);
+		this.getConvetersMapping().put(it, converter);
+		this.getMethodMapping().add(
+				new CallPair(setter, prefix, converter, null, getNulls()));
+	}
+
+	/**
+	 * Checks that values matched by the wildcard path are numeric when
+	 * aggregated, or can be stored into the destination array
+	 */
+	private static void validateWildcardLeaf(final Method it,
+			final Accessor<Method> last, final Aggregate aggregate) {
+		final Class<?> leaf = PathParser.valueClass(last);
+		if (null == leaf || leaf == Object.class) {
+			// resolved by the values
+			return;
+		}
+		final Class<?> target = it.getParameterTypes()[0];
+		if (null != aggregate) {
+			final Class<?> boxed = ClassUtils.primitiveToWrapper(leaf);
+			if (aggregate.value() != Aggregation.COUNT
+					&& !Number.class.isAssignableFrom(boxed)) {
+				throw new IllegalMappingException(it.getName() + " can't "
+						+ aggregate.value() + " " + leaf.getName()
+						+ " values");
+			}
+		} else if (target.isArray()
+				&& !isAssignable(leaf, target.getComponentType())) {
+			throw new IllegalMappingException(it.getName() + " can't store "
+					+ leaf.getName() + " values into " + target.getName());
+		}
+	}
+
 	private boolean complaintSetter(final ImportDestination destination,
 			final Method method) {
 		return destination.compliant() && method.getName().startsWith("set")
@@ -132,21 +213,8 @@ final class ImportMappingScanner extends AbstractMappingScanner {
 	}
 
 	private Method findComplaintGetter(final Method setter, final Class<?> src) {
-		final String signature = setter.getName().substring(3);
-		final String regSignature = "get" + signature;
-		final String boolSignature = "is" + signature;
-		Method getter = null;
-		for (Method method : src.getMethods()) {
-			final String mName = method.getName();
-			if (mName.equals(regSignature) || mName.equals(boolSignature)) {
-				getter = method;
-				break;
-			}
-		}
-		if (null != getter && this.checkVoidReturnType(getter)) {
-			getter = null;
-		}
-		return getter;
+		return ClassIntrospection.of(src).getPropertyGetter(
+				setter.getName().substring(3));
 	}
 
 }
@@ -0,0 +1,287 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.mapping.scanner;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.cglib.reflect.FastClass;
+import net.sf.cglib.reflect.FastMethod;
+
+import org.bushido.beans.convertor.ConverterRegistry;
+import org.bushido.beans.convertor.TypeConverter;
+import org.bushido.beans.convertor.WildcardConverter;
+import org.bushido.beans.mapping.Accessor;
+import org.bushido.beans.mapping.CallPair;
+import org.bushido.beans.mapping.FieldPair;
+import org.bushido.beans.mapping.IllegalMappingException;
+import org.bushido.beans.mapping.Mapping;
+import org.bushido.beans.mapping.NullHandling;
+
+/**
+ * Derives the mapping of the opposite direction from the scanned one, so the
+ * round trip between two beans is scanned once. Mapped setter of the import
+ * call pair is replaced with the getter of the same property, and the last
+ * getter of it's call stack with the setter of the same property, export call
+ * pairs are inverted the other way round. Field pairs swap the source and
+ * destination fields.<br>
+ * 
+ * Converters can't be inverted, the inverted pair uses default converter
+ * registered for the opposite types pair. Element by element mappings,
+ * wildcard paths and paths ending with an indexed getter can't be inverted.
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public final class MappingInverter {
+
+	private final ConverterRegistry registry;
+
+	/**
+	 * Constructs new {@code MappingInverter}
+	 * 
+	 * @param registry
+	 *            default converters registry
+	 */
+	public MappingInverter(final ConverterRegistry registry) {
+		this.registry = registry;
+	}
+
+	/**
+	 * Derives the export mapping from the {@code dest} bean back to the
+	 * {@code src} bean
+	 * 
+	 * @param mapping
+	 *            import mapping of the {@code src} bean into the {@code dest}
+	 *            bean
+	 * @param src
+	 *            import source bean class
+	 * @param dest
+	 *            import destination bean class
+	 * @param nulls
+	 *            handling of the {@code null} intermediates on export
+	 * @return export mapping
+	 * @throws IllegalMappingException
+	 *             when mapping can't be inverted
+	 */
+	public Mapping invertImport(final Mapping mapping, final Class<?> src,
+			final Class<?> dest, final NullHandling nulls) {
+		return invert(mapping, dest, src, true, nulls);
+	}
+
+	/**
+	 * Derives the import mapping from the {@code dest} bean back to the
+	 * {@code src} bean
+	 * 
+	 * @param mapping
+	 *            export mapping of the {@code src} bean into the {@code dest}
+	 *            bean
+	 * @param src
+	 *            export source bean class
+	 * @param dest
+	 *            export destination bean class
+	 * @param nulls
+	 *            handling of the {@code null} intermediates, on import
+	 *            {@link NullHandling#INSTANTIATE} skips the property
+	 * @return import mapping
+	 * @throws IllegalMappingException
+	 *             when mapping can't be inverted
+	 */
+	public Mapping invertExport(final Mapping mapping, final Class<?> src,
+			final Class<?> dest, final NullHandling nulls) {
+		return invert(mapping, src, dest, false, nulls == NullHandling.INSTANTIATE
+				? NullHandling.SKIP : nulls);
+	}
+
+	/**
+	 * @param owner
+	 *            class declaring the pairs methods
+	 * @param root
+	 *            root class of the pairs call stacks
+	 * @param export
+	 *            whether import is inverted into export
+	 */
+	private Mapping invert(final Mapping mapping, final Class<?> owner,
+			final Class<?> root, final boolean export, final NullHandling nulls) {
+		final Collection<CallPair> pairs = mapping.getMapping();
+		final List<CallPair> inverted = new ArrayList<CallPair>(pairs.size());
+		final Map<Method, TypeConverter> converters = new HashMap<Method, TypeConverter>();
+		final FastClass fastOwner = pairs.isEmpty() ? null : FastClasses
+				.of(owner);
+		final FastClass fastRoot = pairs.isEmpty() ? null : FastClasses
+				.of(root);
+		for (CallPair it : pairs) {
+			final Method method = it.getMethod().getJavaMethod();
+			if (null != it.getElements()
+					|| it.getConverter() instanceof WildcardConverter) {
+				throw new IllegalMappingException(method.getName()
+						+ " elements or wildcard mapping can't be inverted");
+			}
+			final Accessor<FastMethod>[] callstack = it.getCallstack();
+			final int last = callstack.length - 1;
+			if (callstack[last].getIndex() != Accessor.NO_INDEX) {
+				throw new IllegalMappingException(method.getName()
+						+ " indexed path can't be inverted");
+			}
+			final Method end = callstack[last].getMethod().getJavaMethod();
+			final Class<?> endOwner = 0 == last ? root : PathParser
+					.valueClass(javaAccessor(callstack[last - 1]));
+			final Method getter;
+			final Method setter;
+			final Method invertedMethod;
+			final Method invertedEnd;
+			if (export) {
+				setter = method;
+				getter = getter(owner, setter);
+				invertedMethod = getter;
+				invertedEnd = setter(endOwner, end, getter.getReturnType());
+			} else {
+				getter = method;
+				setter = setter(owner, getter, getter.getReturnType());
+				invertedMethod = setter;
+				invertedEnd = getter(endOwner, end);
+			}
+			final Class<?> sourceType = export ? getter.getReturnType()
+					: invertedEnd.getReturnType();
+			final Class<?> destType = export ? invertedEnd.getParameterTypes()[0]
+					: setter.getParameterTypes()[0];
+			final TypeConverter converter = invertConverter(method,
+					it.getConverter(), sourceType, destType);
+			@SuppressWarnings("unchecked")
+			final Accessor<FastMethod>[] invertedStack = new Accessor[callstack.length];
+			FastClass clazz = fastRoot;
+			for (int i = 0; i < last; i++) {
+				Accessor<FastMethod> accessor = callstack[i];
+				if (export && nulls == NullHandling.INSTANTIATE) {
+					final Method instantiated = ExportMappingScanner
+							.instantiable(javaAccessor(accessor)).getSetter();
+					accessor = new Accessor<FastMethod>(accessor.getMethod(),
+							accessor.getIndex(), clazz.getMethod(instantiated));
+				} else if (!export && null != accessor.getSetter()) {
+					accessor = new Accessor<FastMethod>(accessor.getMethod(),
+							accessor.getIndex());
+				}
+				invertedStack[i] = accessor;
+				clazz = FastClasses.of(PathParser
+						.valueClass(javaAccessor(accessor)));
+			}
+			invertedStack[last] = new Accessor<FastMethod>(
+					clazz.getMethod(invertedEnd), Accessor.NO_INDEX);
+			final FastMethod fastMethod = fastOwner.getMethod(invertedMethod);
+			inverted.add(new CallPair(fastMethod, invertedStack, converter,
+					null, nulls));
+			if (null != converter) {
+				converters.put(invertedMethod, converter);
+			}
+		}
+		final List<FieldPair> fields = new ArrayList<FieldPair>();
+		for (FieldPair it : mapping.getFieldMapping()) {
+			final Field source = it.getDestination();
+			final Field destination = it.getSource();
+			// just skip like scanner does, if field can't be written
+			if (Modifier.isFinal(destination.getModifiers())) {
+				continue;
+			}
+			TypeConverter converter = null;
+			if (!AbstractMappingScanner.isAssignable(source.getType(),
+					destination.getType())) {
+				converter = registry.find(source.getType(),
+						destination.getType());
+				if (null == converter) {
+					throw new IllegalMappingException("Field "
+							+ source.getName() + " of "
+							+ source.getType().getName()
+							+ " can't be assigned to "
+							+ destination.getType().getName());
+				}
+			}
+			fields.add(new FieldPair(source, destination, converter));
+		}
+		return new Mapping(inverted, converters, fields);
+	}
+
+	/**
+	 * Resolves converter of the inverted pair, it's the default converter of
+	 * the opposite types pair
+	 */
+	private TypeConverter invertConverter(final Method mapped,
+			final TypeConverter converter, final Class<?> sourceType,
+			final Class<?> destType) {
+		if (sourceType == destType) {
+			return null;
+		}
+		final TypeConverter result = registry.find(sourceType, destType);
+		if (null == result && null != converter) {
+			throw new IllegalMappingException("Converter of "
+					+ mapped.getName()
+					+ " can't be inverted, no default converter from "
+					+ sourceType.getName() + " to " + destType.getName());
+		}
+		return result;
+	}
+
+	private static Accessor<Method> javaAccessor(
+			final Accessor<FastMethod> accessor) {
+		return new Accessor<Method>(accessor.getMethod().getJavaMethod(),
+				accessor.getIndex());
+	}
+
+	private static Method getter(final Class<?> owner, final Method setter) {
+		final Method result = ClassIntrospection.of(owner).getPropertyGetter(
+				property(setter));
+		if (null == result) {
+			throw new IllegalMappingException("No getter of the "
+					+ setter.getName() + " property in " + owner.getName());
+		}
+		return result;
+	}
+
+	private static Method setter(final Class<?> owner, final Method getter,
+			final Class<?> type) {
+		final ClassIntrospection introspection = ClassIntrospection.of(owner);
+		final String name = "set" + property(getter);
+		Method result = introspection.getSetter(name, type);
+		if (null == result) {
+			final List<Method> setters = introspection.getSetters(name);
+			if (setters.isEmpty()) {
+				throw new IllegalMappingException("No setter of the "
+						+ getter.getName() + " property in " + owner.getName());
+			}
+			result = setters.get(0);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns capitalized property name of the getter or setter
+	 */
+	private static String property(final Method accessor) {
+		final String name = accessor.getName();
+		if (name.startsWith("is")) {
+			return name.substring(2);
+		}
+		if (name.startsWith("get") || name.startsWith("set")) {
+			return name.substring(3);
+		}
+		throw new IllegalMappingException(name
+				+ " is neither getter nor setter");
+	}
+}
@@ -0,0 +1,606 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.mapping.scanner;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.sf.cglib.reflect.FastClass;
+import net.sf.cglib.reflect.FastMethod;
+
+import org.apache.commons.lang.ClassUtils;
+import org.bushido.beans.convertor.ConverterChain;
+import org.bushido.beans.convertor.ConverterRegistry;
+import org.bushido.beans.convertor.CustomConverter;
+import org.bushido.beans.convertor.ElementsConverter;
+import org.bushido.beans.convertor.TypeConverter;
+import org.bushido.beans.convertor.WildcardConverter;
+import org.bushido.beans.mapping.Accessor;
+import org.bushido.beans.mapping.CallPair;
+import org.bushido.beans.mapping.Converter;
+import org.bushido.beans.mapping.FieldPair;
+import org.bushido.beans.mapping.Mapping;
+import org.bushido.beans.mapping.NullHandling;
+
+/**
+ * Store of the scanned mappings, which can be saved to the file and loaded on
+ * the next start. Mapping is stored as the plan of the mapped methods, call
+ * stacks, indexes and converter classes, so restoring it looks the methods up
+ * by their signatures, with no class introspection, annotation parsing or
+ * path parsing.<br>
+ * 
+ * Plan keeps the hash of the bytecode of all the classes it refers, including
+ * the super classes of the beans. Plan is dropped and the mapping is scanned
+ * again when any of these classes changes. Mappings with the element by
+ * element or wildcard path call pairs, and the mappings of the classes with no
+ * bytecode resource, are not stored.
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public final class MappingPlans {
+
+	/**
+	 * Plan file format version
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * Digest of the class with no readable bytecode
+	 */
+	private static final byte[] NO_DIGEST = new byte[0];
+
+	/**
+	 * Bytecode digests of the classes, stored with the class itself so the
+	 * unloaded classes and their class loaders are not retained
+	 */
+	private static final ClassValue<byte[]> DIGESTS = new ClassValue<byte[]>() {
+		@Override
+		protected byte[] computeValue(final Class<?> type) {
+			final byte[] result = readDigest(type);
+			return null == result ? NO_DIGEST : result;
+		}
+	};
+
+	private final ConverterRegistry registry;
+
+	private final ConcurrentMap<String, Plan> plans = new ConcurrentHashMap<String, Plan>();
+
+	/**
+	 * Constructs new empty {@code MappingPlans}
+	 * 
+	 * @param registry
+	 *            default converters registry, used to resolve the not
+	 *            annotated converters
+	 */
+	public MappingPlans(final ConverterRegistry registry) {
+		this.registry = registry;
+	}
+
+	/**
+	 * Loads plans saved with {@link #save(File)}. Plans recorded by this
+	 * instance are kept. File of the other format version is ignored.
+	 * 
+	 * @param file
+	 *            plans file
+	 * @throws IOException
+	 *             when file can't be read
+	 */
+	public void load(final File file) throws IOException {
+		final ObjectInputStream in = new ObjectInputStream(
+				new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if (in.readInt() != VERSION) {
+				return;
+			}
+			@SuppressWarnings("unchecked")
+			final Map<String, Plan> loaded = (Map<String, Plan>) in
+					.readObject();
+			for (Map.Entry<String, Plan> it : loaded.entrySet()) {
+				plans.putIfAbsent(it.getKey(), it.getValue());
+			}
+		} catch (ClassNotFoundException e) {
+			throw new IOException("Wrong plans file " + file, e);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Saves all the loaded and recorded plans
+	 * 
+	 * @param file
+	 *            plans file
+	 * @throws IOException
+	 *             when file can't be written
+	 */
+	public void save(final File file) throws IOException {
+		final ObjectOutputStream out = new ObjectOutputStream(
+				new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			out.writeInt(VERSION);
+			out.writeObject(new HashMap<String, Plan>(plans));
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Returns count of the loaded and recorded plans
+	 * 
+	 * @return plans count
+	 */
+	public int size() {
+		return plans.size();
+	}
+
+	/**
+	 * Removes all the loaded and recorded plans
+	 */
+	public void clear() {
+		plans.clear();
+	}
+
+	/**
+	 * Records the plan of the scanned mapping
+	 * 
+	 * @param key
+	 *            mapping key, unique for the source, destination and direction
+	 * @param src
+	 *            source bean class
+	 * @param dest
+	 *            destination bean class
+	 * @param export
+	 *            whether mapping is an export mapping
+	 * @param mapping
+	 *            scanned mapping
+	 * @return whether plan is recorded, mapping can't be stored otherwise
+	 */
+	public boolean record(final String key, final Class<?> src,
+			final Class<?> dest, final boolean export, final Mapping mapping) {
+		final ClassTable table = new ClassTable();
+		table.hierarchy(src);
+		table.hierarchy(dest);
+		final List<PairPlan> pairs = new ArrayList<PairPlan>(mapping
+				.getMapping().size());
+		for (CallPair it : mapping.getMapping()) {
+			if (null != it.getElements()
+					|| it.getConverter() instanceof WildcardConverter
+					|| it.getConverter() instanceof ElementsConverter) {
+				return false;
+			}
+			final Method method = it.getMethod().getJavaMethod();
+			final Accessor<FastMethod>[] callstack = it.getCallstack();
+			final AccessorPlan[] accessors = new AccessorPlan[callstack.length];
+			Class<?> receiver = export ? dest : src;
+			for (int i = 0; i < callstack.length; i++) {
+				final Accessor<FastMethod> accessor = callstack[i];
+				table.hierarchy(receiver);
+				final FastMethod setter = accessor.getSetter();
+				accessors[i] = new AccessorPlan(table.method(receiver,
+						accessor.getMethod().getJavaMethod()),
+						accessor.getIndex(), null == setter ? null
+								: table.method(receiver,
+										setter.getJavaMethod()));
+				receiver = PathParser.valueClass(new Accessor<Method>(accessor
+						.getMethod().getJavaMethod(), accessor.getIndex()));
+			}
+			int[] converters = null;
+			final Converter annotation = method.getAnnotation(Converter.class);
+			if (null != annotation) {
+				converters = new int[annotation.value().length];
+				for (int i = 0; i < converters.length; i++) {
+					converters[i] = table.index(annotation.value()[i]);
+				}
+			}
+			pairs.add(new PairPlan(table.method(export ? src : dest, method),
+					accessors, converters, it.getNulls()));
+		}
+		final List<FieldPlan> fields = new ArrayList<FieldPlan>(mapping
+				.getFieldMapping().size());
+		for (FieldPair it : mapping.getFieldMapping()) {
+			fields.add(new FieldPlan(table.field(it.getSource()), table
+					.field(it.getDestination()), null != it.getConverter()));
+		}
+		final Class<?>[] classes = table.classes();
+		final byte[] hash = hash(classes);
+		if (null == hash) {
+			return false;
+		}
+		plans.put(key, new Plan(table.names(), hash, export, pairs, fields));
+		return true;
+	}
+
+	/**
+	 * Restores mapping from the plan
+	 * 
+	 * @param key
+	 *            mapping key, unique for the source, destination and direction
+	 * @param src
+	 *            source bean class
+	 * @param dest
+	 *            destination bean class
+	 * @return restored mapping or {@code null} when there is no plan or it's
+	 *         classes were changed, so mapping should be scanned
+	 */
+	public Mapping restore(final String key, final Class<?> src,
+			final Class<?> dest) {
+		final Plan plan = plans.get(key);
+		if (null == plan) {
+			return null;
+		}
+		try {
+			final Class<?>[] classes = plan.resolve(src, dest);
+			if (null != classes && Arrays.equals(plan.hash, hash(classes))) {
+				return plan.restore(classes, registry);
+			}
+		} catch (ReflectiveOperationException e) {
+			// class or member was removed, scan it again
+		} catch (IllegalArgumentException e) {
+			// converters chain was changed, scan it again
+		}
+		plans.remove(key, plan);
+		return null;
+	}
+
+	/**
+	 * Hashes bytecode of the classes loaded by the class loaders, system
+	 * classes are not hashed
+	 * 
+	 * @return hash or {@code null} if class has no bytecode resource
+	 */
+	private static byte[] hash(final Class<?>[] classes) {
+		final MessageDigest digest = newDigest();
+		for (Class<?> it : classes) {
+			if (it.isPrimitive() || it.isArray() || null == it.getClassLoader()) {
+				continue;
+			}
+			final byte[] bytecode = digestOf(it);
+			if (null == bytecode) {
+				return null;
+			}
+			digest.update(bytecode);
+		}
+		return digest.digest();
+	}
+
+	private static byte[] digestOf(final Class<?> clazz) {
+		final byte[] result = DIGESTS.get(clazz);
+		return result == NO_DIGEST ? null : result;
+	}
+
+	private static byte[] readDigest(final Class<?> clazz) {
+		final InputStream in = clazz.getClassLoader().getResourceAsStream(
+				clazz.getName().replace('.', '/') + ".class");
+		if (null == in) {
+			return null;
+		}
+		final MessageDigest digest = newDigest();
+		final byte[] buffer = new byte[4096];
+		try {
+			try {
+				for (int read = in.read(buffer); read >= 0; read = in
+						.read(buffer)) {
+					digest.update(buffer, 0, read);
+				}
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			return null;
+		}
+		return digest.digest();
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Classes referred by the plan, the source and destination classes are
+	 * the first ones
+	 */
+	private static final class ClassTable {
+		private final Map<Class<?>, Integer> indexes = new LinkedHashMap<Class<?>, Integer>();
+
+		int index(final Class<?> clazz) {
+			Integer result = indexes.get(clazz);
+			if (null == result) {
+				result = Integer.valueOf(indexes.size());
+				indexes.put(clazz, result);
+			}
+			return result.intValue();
+		}
+
+		/**
+		 * Adds class and it's super classes, which declare inherited members
+		 */
+		void hierarchy(final Class<?> clazz) {
+			for (Class<?> it = clazz; null != it && it != Object.class; it = it
+					.getSuperclass()) {
+				index(it);
+			}
+		}
+
+		MethodPlan method(final Class<?> receiver, final Method method) {
+			final Class<?>[] types = method.getParameterTypes();
+			final int[] parameters = new int[types.length];
+			for (int i = 0; i < types.length; i++) {
+				parameters[i] = index(types[i]);
+			}
+			return new MethodPlan(index(receiver), method.getName(),
+					parameters);
+		}
+
+		FieldPlan.Member field(final Field field) {
+			index(field.getType());
+			return new FieldPlan.Member(index(field.getDeclaringClass()),
+					field.getName());
+		}
+
+		Class<?>[] classes() {
+			return indexes.keySet().toArray(new Class<?>[indexes.size()]);
+		}
+
+		String[] names() {
+			final String[] result = new String[indexes.size()];
+			int i = 0;
+			for (Class<?> it : indexes.keySet()) {
+				result[i++] = it.getName();
+			}
+			return result;
+		}
+	}
+
+	private static final class Plan implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final String[] classes;
+		private final byte[] hash;
+		private final boolean export;
+		private final List<PairPlan> pairs;
+		private final List<FieldPlan> fields;
+
+		Plan(final String[] classes, final byte[] hash, final boolean export,
+				final List<PairPlan> pairs, final List<FieldPlan> fields) {
+			this.classes = classes;
+			this.hash = hash;
+			this.export = export;
+			this.pairs = pairs;
+			this.fields = fields;
+		}
+
+		/**
+		 * Loads the plan classes with the beans class loaders
+		 * 
+		 * @return classes or {@code null} if plan is of the other beans
+		 */
+		Class<?>[] resolve(final Class<?> src, final Class<?> dest)
+				throws ClassNotFoundException {
+			final ClassLoader loader = null == dest.getClassLoader() ? src
+					.getClassLoader() : dest.getClassLoader();
+			final Class<?>[] result = new Class<?>[classes.length];
+			for (int i = 0; i < classes.length; i++) {
+				result[i] = ClassUtils.getClass(loader, classes[i], false);
+			}
+			return result[0] == src && Arrays.asList(result).contains(dest) ? result
+					: null;
+		}
+
+		Mapping restore(final Class<?>[] types,
+				final ConverterRegistry registry)
+				throws ReflectiveOperationException {
+			final List<CallPair> mapping = new ArrayList<CallPair>(
+					pairs.size());
+			final Map<Method, TypeConverter> converters = new HashMap<Method, TypeConverter>();
+			for (PairPlan it : pairs) {
+				final Method method = it.method.resolve(types);
+				@SuppressWarnings("unchecked")
+				final Accessor<FastMethod>[] callstack = new Accessor[it.callstack.length];
+				for (int i = 0; i < callstack.length; i++) {
+					final AccessorPlan accessor = it.callstack[i];
+					final FastClass receiver = FastClasses
+							.of(types[accessor.method.receiver]);
+					callstack[i] = new Accessor<FastMethod>(
+							receiver.getMethod(accessor.method.resolve(types)),
+							accessor.index, null == accessor.setter ? null
+									: receiver.getMethod(accessor.setter
+											.resolve(types)));
+				}
+				final Method end = callstack[callstack.length - 1].getMethod()
+						.getJavaMethod();
+				TypeConverter converter = null;
+				if (null != it.converters) {
+					converter = converter(types, it.converters, registry);
+				} else {
+					final Class<?> sourceType = export ? method.getReturnType()
+							: valueType(end,
+									callstack[callstack.length - 1].getIndex());
+					final Class<?> destType = export ? end.getParameterTypes()[0]
+							: method.getParameterTypes()[0];
+					if (sourceType != destType) {
+						converter = registry.find(sourceType, destType);
+					}
+				}
+				if (null != converter) {
+					converters.put(method, converter);
+				}
+				mapping.add(new CallPair(FastClasses.of(
+						types[it.method.receiver]).getMethod(method),
+						callstack, converter, null, it.nulls));
+			}
+			final List<FieldPair> fieldMapping = new ArrayList<FieldPair>(
+					fields.size());
+			for (FieldPlan it : fields) {
+				final Field source = it.source.resolve(types);
+				final Field destination = it.destination.resolve(types);
+				TypeConverter converter = null;
+				if (it.converted) {
+					converter = registry.find(source.getType(),
+							destination.getType());
+					if (null == converter) {
+						throw new NoSuchMethodException("No converter of "
+								+ source);
+					}
+				}
+				fieldMapping.add(new FieldPair(source, destination, converter));
+			}
+			return new Mapping(mapping, converters, fieldMapping);
+		}
+
+		private static Class<?> valueType(final Method getter, final int index) {
+			final Class<?> returnType = getter.getReturnType();
+			if (index < 0) {
+				return returnType;
+			}
+			return returnType.isArray() ? returnType.getComponentType()
+					: Object.class;
+		}
+
+		@SuppressWarnings("unchecked")
+		private static TypeConverter converter(final Class<?>[] types,
+				final int[] chain, final ConverterRegistry registry)
+				throws ReflectiveOperationException {
+			if (chain.length == 1) {
+				return registry
+						.instanceOf((Class<? extends TypeConverter>) types[chain[0]]);
+			}
+			final List<CustomConverter<?, ?>> converters = new ArrayList<CustomConverter<?, ?>>(
+					chain.length);
+			for (int it : chain) {
+				converters.add((CustomConverter<?, ?>) registry
+						.instanceOf((Class<? extends TypeConverter>) types[it]));
+			}
+			return ConverterChain.fuse(converters);
+		}
+	}
+
+	private static final class PairPlan implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final MethodPlan method;
+		private final AccessorPlan[] callstack;
+		/**
+		 * Annotated converters chain, or {@code null} when default converter
+		 * is resolved
+		 */
+		private final int[] converters;
+		private final NullHandling nulls;
+
+		PairPlan(final MethodPlan method, final AccessorPlan[] callstack,
+				final int[] converters, final NullHandling nulls) {
+			this.method = method;
+			this.callstack = callstack;
+			this.converters = converters;
+			this.nulls = nulls;
+		}
+	}
+
+	private static final class AccessorPlan implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final MethodPlan method;
+		private final int index;
+		private final MethodPlan setter;
+
+		AccessorPlan(final MethodPlan method, final int index,
+				final MethodPlan setter) {
+			this.method = method;
+			this.index = index;
+			this.setter = setter;
+		}
+	}
+
+	private static final class MethodPlan implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Class the method is looked up in and invoked on
+		 */
+		private final int receiver;
+		private final String name;
+		private final int[] parameters;
+
+		MethodPlan(final int receiver, final String name,
+				final int[] parameters) {
+			this.receiver = receiver;
+			this.name = name;
+			this.parameters = parameters;
+		}
+
+		Method resolve(final Class<?>[] types) throws NoSuchMethodException {
+			final Class<?>[] parameterTypes = new Class<?>[parameters.length];
+			for (int i = 0; i < parameters.length; i++) {
+				parameterTypes[i] = types[parameters[i]];
+			}
+			return types[receiver].getMethod(name, parameterTypes);
+		}
+	}
+
+	private static final class FieldPlan implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final Member source;
+		private final Member destination;
+		private final boolean converted;
+
+		FieldPlan(final Member source, final Member destination,
+				final boolean converted) {
+			this.source = source;
+			this.destination = destination;
+			this.converted = converted;
+		}
+
+		private static final class Member implements Serializable {
+			private static final long serialVersionUID = 1L;
+
+			private final int owner;
+			private final String name;
+
+			Member(final int owner, final String name) {
+				this.owner = owner;
+				this.name = name;
+			}
+
+			Field resolve(final Class<?>[] types) throws NoSuchFieldException {
+				return types[owner].getDeclaredField(name);
+			}
+		}
+	}
+}
@@ -14,6 +14,7 @@
  */
 package org.bushido.beans.mapping.scanner;
 
+import org.bushido.beans.convertor.ConverterRegistry;
 
 /**
  * Creates {@link MappingScanner} instances
@@ -35,6 +36,19 @@ public final class MappingScanerFactory {
 		return new ImportMappingScanner();
 	}
 
+	/**
+	 * Creates new import scanner resolving converters with the
+	 * {@code registry}
+	 * 
+	 * @param registry
+	 *            converters registry
+	 * @return new instance of import scanner
+	 */
+	public static MappingScanner createImportScanner(
+			final ConverterRegistry registry) {
+		return new ImportMappingScanner(registry);
+	}
+
 	/**
 	 * Create new export scanner
 	 * 
@@ -43,4 +57,17 @@ public final class MappingScanerFactory {
 	public static MappingScanner createExportScanner() {
 		return new ExportMappingScanner();
 	}
+
+	/**
+	 * Creates new export scanner resolving converters with the
+	 * {@code registry}
+	 * 
+	 * @param registry
+	 *            converters registry
+	 * @return new instance of export scanner
+	 */
+	public static MappingScanner createExportScanner(
+			final ConverterRegistry registry) {
+		return new ExportMappingScanner(registry);
+	}
 }
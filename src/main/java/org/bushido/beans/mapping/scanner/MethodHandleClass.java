@@ -0,0 +1,274 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.mapping.scanner;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.sf.cglib.core.Signature;
+import net.sf.cglib.reflect.FastClass;
+
+/**
+ * {@link FastClass} calling the public methods and constructors of the class
+ * through the {@link MethodHandle}s. Handles are bound lazily on the first
+ * call and adapted to the call arity, so getters and setters are invoked
+ * without spreading the arguments array. Handles are read from the arrays by
+ * the member index, so the JIT can't constant-fold and inline them.
+ * 
+ * @author Victor Gubin
+ * 
+ */
+final class MethodHandleClass extends FastClass {
+
+	private static final MethodType GETTER = MethodType.methodType(
+			Object.class, Object.class);
+	private static final MethodType SETTER = MethodType.methodType(
+			Object.class, Object.class, Object.class);
+	private static final MethodType SPREAD = MethodType.methodType(
+			Object.class, Object.class, Object[].class);
+	private static final MethodType FACTORY = MethodType
+			.methodType(Object.class);
+	private static final MethodType SPREAD_FACTORY = MethodType.methodType(
+			Object.class, Object[].class);
+
+	/**
+	 * Handler of the exceptions thrown by the called member
+	 */
+	private static final MethodHandle TARGET_FAILURE;
+
+	static {
+		try {
+			TARGET_FAILURE = MethodHandles.lookup().findStatic(
+					MethodHandleClass.class,
+					"targetFailure",
+					MethodType.methodType(Object.class, Throwable.class));
+		} catch (NoSuchMethodException e) {
+			throw new ExceptionInInitializerError(e);
+		} catch (IllegalAccessException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private final Method[] methods;
+	private final Constructor<?>[] constructors;
+	private final Map<String, Integer> methodIndex;
+	private final Map<String, Integer> constructorIndex;
+
+	/**
+	 * Parameters count by the member index, selects the invocation arity
+	 */
+	private final int[] methodArity;
+	private final int[] constructorArity;
+
+	/**
+	 * Adapted handles by the member index, bound on the first call
+	 */
+	private final MethodHandle[] methodHandles;
+	private final MethodHandle[] constructorHandles;
+
+	MethodHandleClass(final Class<?> type) {
+		super(type);
+		this.methods = type.getMethods();
+		this.constructors = type.getConstructors();
+		this.methodIndex = new HashMap<String, Integer>();
+		this.methodArity = new int[methods.length];
+		for (int i = 0; i < methods.length; i++) {
+			methodArity[i] = methods[i].getParameterTypes().length;
+			methodIndex.put(
+					getSignatureWithoutReturnType(methods[i].getName(),
+							methods[i].getParameterTypes()),
+					Integer.valueOf(i));
+		}
+		this.constructorIndex = new HashMap<String, Integer>();
+		this.constructorArity = new int[constructors.length];
+		for (int i = 0; i < constructors.length; i++) {
+			constructorArity[i] = constructors[i].getParameterTypes().length;
+			constructorIndex.put(
+					getSignatureWithoutReturnType("",
+							constructors[i].getParameterTypes()),
+					Integer.valueOf(i));
+		}
+		this.methodHandles = new MethodHandle[methods.length];
+		this.constructorHandles = new MethodHandle[constructors.length];
+	}
+
+	@Override
+	public int getIndex(final String name,
+			@SuppressWarnings("rawtypes") final Class[] parameterTypes) {
+		return indexOf(methodIndex,
+				getSignatureWithoutReturnType(name, parameterTypes));
+	}
+
+	@Override
+	public int getIndex(final Signature signature) {
+		final String descriptor = signature.getDescriptor();
+		return indexOf(methodIndex, signature.getName()
+				+ descriptor.substring(0, descriptor.indexOf(')') + 1));
+	}
+
+	@Override
+	public int getIndex(
+			@SuppressWarnings("rawtypes") final Class[] parameterTypes) {
+		return indexOf(constructorIndex,
+				getSignatureWithoutReturnType("", parameterTypes));
+	}
+
+	@Override
+	public int getMaxIndex() {
+		return methods.length - 1;
+	}
+
+	@Override
+	public Object invoke(final int index, final Object obj,
+			final Object[] args) throws InvocationTargetException {
+		MethodHandle handle = methodHandles[index];
+		if (null == handle) {
+			handle = bind(methods[index]);
+			methodHandles[index] = handle;
+		}
+		try {
+			switch (methodArity[index]) {
+			case 0:
+				return handle.invokeExact(obj);
+			case 1:
+				return handle.invokeExact(obj, args[0]);
+			default:
+				return handle.invokeExact(obj, args);
+			}
+		} catch (InvocationTargetException e) {
+			throw e;
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Override
+	public Object newInstance(final int index, final Object[] args)
+			throws InvocationTargetException {
+		MethodHandle handle = constructorHandles[index];
+		if (null == handle) {
+			handle = bind(constructors[index]);
+			constructorHandles[index] = handle;
+		}
+		try {
+			if (constructorArity[index] == 0) {
+				return handle.invokeExact();
+			}
+			return handle.invokeExact(args);
+		} catch (InvocationTargetException e) {
+			throw e;
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static int indexOf(final Map<String, Integer> index,
+			final String key) {
+		final Integer result = index.get(key);
+		return null == result ? -1 : result.intValue();
+	}
+
+	/**
+	 * Adapts the method handle to the arity specific invocation type, the
+	 * static method ignores the receiver
+	 */
+	private static MethodHandle bind(final Method method) {
+		MethodHandle result;
+		try {
+			result = MethodHandles.publicLookup().unreflect(method);
+		} catch (IllegalAccessException e) {
+			// public method of the non public class
+			method.setAccessible(true);
+			result = unreflect(method);
+		}
+		result = guarded(result);
+		if (Modifier.isStatic(method.getModifiers())) {
+			result = MethodHandles.dropArguments(result, 0, Object.class);
+		}
+		final int arity = method.getParameterTypes().length;
+		if (arity > 1) {
+			return result.asSpreader(Object[].class, arity).asType(SPREAD);
+		}
+		return result.asType(arity == 0 ? GETTER : SETTER);
+	}
+
+	/**
+	 * Wraps exceptions thrown by the member itself into the
+	 * {@link InvocationTargetException}, so the exceptions of the adapters,
+	 * i.e. {@link ClassCastException} of the mismatched argument, are thrown
+	 * as is
+	 */
+	private static MethodHandle guarded(final MethodHandle target) {
+		final MethodType type = target.type();
+		final MethodHandle handler = MethodHandles.dropArguments(
+				TARGET_FAILURE.asType(MethodType.methodType(
+						type.returnType(), Throwable.class)), 1, type
+						.parameterList());
+		return MethodHandles.catchException(target, Throwable.class, handler);
+	}
+
+	@SuppressWarnings("unused")
+	private static Object targetFailure(final Throwable e)
+			throws InvocationTargetException {
+		throw new InvocationTargetException(e);
+	}
+
+	private static MethodHandle bind(final Constructor<?> constructor) {
+		MethodHandle result;
+		try {
+			result = MethodHandles.publicLookup().unreflectConstructor(
+					constructor);
+		} catch (IllegalAccessException e) {
+			constructor.setAccessible(true);
+			try {
+				result = MethodHandles.lookup().unreflectConstructor(
+						constructor);
+			} catch (IllegalAccessException exc) {
+				throw new IllegalStateException(exc);
+			}
+		}
+		result = guarded(result);
+		final int arity = constructor.getParameterTypes().length;
+		if (arity > 0) {
+			return result.asSpreader(Object[].class, arity).asType(
+					SPREAD_FACTORY);
+		}
+		return result.asType(FACTORY);
+	}
+
+	private static MethodHandle unreflect(final Method method) {
+		try {
+			return MethodHandles.lookup().unreflect(method);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -15,6 +15,9 @@
 package org.bushido.beans.mapping.scanner;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -32,8 +35,9 @@ import org.bushido.beans.mapping.IllegalMappingException;
  */
 public class PathParser {
 
-	private static final Pattern INDEXABLE = Pattern.compile("^.+\\[\\d+\\]$");
+	private static final Pattern INDEXABLE = Pattern.compile("^.+\\[(\\d+|\\*)\\]$");
 	private static final Pattern NUMBER = Pattern.compile("\\d+");
+	private static final String WILDCARD = "[*]";
 
 	/**
 	 * Obtains cglib FastMethod call queue in sequence used for obtaining source
@@ -63,12 +67,15 @@ public class PathParser {
 				final AtomicReference<String> methodName = new AtomicReference<String>(names[i]);
 				final AtomicInteger index = new AtomicInteger(-1);
 				parseIndexCall(methodName, index);
-				final Method method = clazz.getMethod(methodName.get());
-				if(index.get() >= 0 && !(method.getReturnType().isArray() || method.getReturnType() == List.class) ) {
-					throw new IllegalMappingException("Can only map index from array of List");
-				}
+				final Method method = getter(clazz, methodName.get());
+				checkIndex(method, index.get());
 				result[i] = new Accessor<Method>(method, index.get());
-				final Class<?> returnType = method.getReturnType();
+				final Class<?> returnType = valueClass(result[i]);
+				if (null == returnType) {
+					throw new IllegalMappingException(path
+							+ " element type of " + method.getName()
+							+ " can't be resolved");
+				}
 				if (!returnType.isPrimitive()) {
 					clazz = returnType;
 				} else if (returnType.isPrimitive() && (i < names.length - 1)) {
@@ -79,26 +86,90 @@ public class PathParser {
 			final AtomicReference<String> methodName = new AtomicReference<String>(names[names.length - 1]);
 			final AtomicInteger index = new AtomicInteger(-1);
 			parseIndexCall(methodName, index);
-			result[names.length - 1] = new Accessor<Method>(clazz.getMethod(methodName.get()), index.get());
+			final Method last = getter(clazz, methodName.get());
+			checkIndex(last, index.get());
+			result[names.length - 1] = new Accessor<Method>(last, index.get());
 			return result;
 		} catch (NoSuchMethodError exc) {
 			throw new IllegalMappingException(path + " is an invalid mapping");
 		}
 	}
 
+	/**
+	 * Returns class of the value obtained with the accessor, i.e. method
+	 * return type, or array component type or {@code List} element type for
+	 * the indexed accessor
+	 * 
+	 * @param accessor
+	 *            path accessor
+	 * @return value class or {@code null} if element type can't be resolved
+	 */
+	public static Class<?> valueClass(final Accessor<Method> accessor) {
+		final Method method = accessor.getMethod();
+		final Class<?> returnType = method.getReturnType();
+		if (accessor.getIndex() == Accessor.NO_INDEX) {
+			return returnType;
+		}
+		if (returnType.isArray()) {
+			return returnType.getComponentType();
+		}
+		final Type type = method.getGenericReturnType();
+		if (type instanceof ParameterizedType) {
+			Type argument = ((ParameterizedType) type)
+					.getActualTypeArguments()[0];
+			if (argument instanceof WildcardType) {
+				argument = ((WildcardType) argument).getUpperBounds()[0];
+			}
+			if (argument instanceof Class) {
+				return (Class<?>) argument;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Checks that indexed segment returns an array or {@code List}, and
+	 * wildcard segment returns an array or {@code Iterable}
+	 */
+	private static void checkIndex(final Method method, final int index) {
+		final Class<?> type = method.getReturnType();
+		if (index == Accessor.ALL) {
+			if (!(type.isArray() || Iterable.class.isAssignableFrom(type))) {
+				throw new IllegalMappingException(
+						"Can only map wildcard index from array or Iterable");
+			}
+		} else if (index >= 0 && !(type.isArray() || type == List.class)) {
+			throw new IllegalMappingException(
+					"Can only map index from array of List");
+		}
+	}
+
+	private static Method getter(final Class<?> clazz, final String name)
+			throws NoSuchMethodException {
+		final Method result = ClassIntrospection.of(clazz).getGetter(name);
+		if (null == result) {
+			throw new NoSuchMethodException(clazz.getName() + "." + name
+					+ "()");
+		}
+		return result;
+	}
+
 	private static void parseIndexCall(final AtomicReference<String> name,
 			final AtomicInteger index) {
 		String methodName = name.get();
 		final Matcher indexableMatch = INDEXABLE.matcher(methodName);
 		boolean result = indexableMatch.matches();
 		if (result) {
-			methodName = methodName.replaceAll("\\[\\d+\\]", "");
+			methodName = methodName.replaceAll("\\[(\\d+|\\*)\\]", "");
 			index.set(readIndex(name.get()));
 		}
 		name.set(methodName);
 	}
 
 	private static int readIndex(final String name) {
+		if (name.endsWith(WILDCARD)) {
+			return Accessor.ALL;
+		}
 		final Matcher matcher = NUMBER.matcher(name);
 		if (matcher.find()) {
 			return Integer.parseInt(matcher.group());
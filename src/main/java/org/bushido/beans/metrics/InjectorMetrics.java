@@ -0,0 +1,229 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+/**
+ * Runtime metrics of a single injector: {@code inject} timings, failures and
+ * timings of the converters applied by the injector. Metrics are thread safe
+ * and lock free.
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public final class InjectorMetrics implements InjectorMetricsMXBean {
+
+	/**
+	 * JMX domain of the injector metrics
+	 */
+	public static final String DOMAIN = "org.bushido.beans";
+
+	private final String source;
+	private final String destination;
+	private final String direction;
+	private final Timer injections = new Timer();
+	private final AtomicLong failures = new AtomicLong();
+	private final ConcurrentMap<String, Timer> converters = new ConcurrentHashMap<String, Timer>();
+
+	/**
+	 * Constructs new empty {@code InjectorMetrics}
+	 * 
+	 * @param source
+	 *            source bean class
+	 * @param destination
+	 *            destination bean class
+	 * @param direction
+	 *            injection direction name
+	 */
+	public InjectorMetrics(final Class<?> source, final Class<?> destination,
+			final String direction) {
+		this.source = source.getName();
+		this.destination = destination.getName();
+		this.direction = direction;
+	}
+
+	/**
+	 * Returns timer of the {@code inject} calls
+	 * 
+	 * @return injections timer
+	 */
+	public Timer injections() {
+		return injections;
+	}
+
+	/**
+	 * Counts failed {@code inject} call
+	 */
+	public void failed() {
+		failures.incrementAndGet();
+	}
+
+	/**
+	 * Returns timer of the converter class, converters of the same class
+	 * share the timer
+	 * 
+	 * @param converter
+	 *            converter class name
+	 * @return converter timer
+	 */
+	public Timer converter(final String converter) {
+		Timer result = converters.get(converter);
+		if (null == result) {
+			result = new Timer();
+			final Timer existing = converters.putIfAbsent(converter, result);
+			if (null != existing) {
+				result = existing;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns JMX name of the metrics
+	 * 
+	 * @return object name
+	 */
+	public ObjectName getObjectName() {
+		try {
+			return new ObjectName(DOMAIN + ":type=Injector,direction="
+					+ direction + ",source=" + ObjectName.quote(source)
+					+ ",destination=" + ObjectName.quote(destination));
+		} catch (MalformedObjectNameException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Registers metrics in the platform MBean server, replacing metrics of
+	 * the previous injector with the same name
+	 */
+	public void register() {
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		final ObjectName name = getObjectName();
+		try {
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+			server.registerMBean(this, name);
+		} catch (InstanceNotFoundException e) {
+			// unregistered concurrently
+			register();
+		} catch (InstanceAlreadyExistsException e) {
+			// registered concurrently
+			register();
+		} catch (JMException e) {
+			throw new IllegalStateException("Can't register " + name, e);
+		}
+	}
+
+	/**
+	 * Unregisters metrics from the platform MBean server
+	 */
+	public void unregister() {
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		final ObjectName name = getObjectName();
+		try {
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		} catch (InstanceNotFoundException e) {
+			// unregistered concurrently
+		} catch (JMException e) {
+			throw new IllegalStateException("Can't unregister " + name, e);
+		}
+	}
+
+	@Override
+	public String getSource() {
+		return source;
+	}
+
+	@Override
+	public String getDestination() {
+		return destination;
+	}
+
+	@Override
+	public String getDirection() {
+		return direction;
+	}
+
+	@Override
+	public long getInvocations() {
+		return injections.getCount();
+	}
+
+	@Override
+	public long getFailures() {
+		return failures.get();
+	}
+
+	@Override
+	public long getTotalNanos() {
+		return injections.getTotalNanos();
+	}
+
+	@Override
+	public long getMeanNanos() {
+		return injections.getMeanNanos();
+	}
+
+	@Override
+	public long getP50Nanos() {
+		return injections.getPercentileNanos(50d);
+	}
+
+	@Override
+	public long getP90Nanos() {
+		return injections.getPercentileNanos(90d);
+	}
+
+	@Override
+	public long getP99Nanos() {
+		return injections.getPercentileNanos(99d);
+	}
+
+	@Override
+	public Map<String, Long> getConverterNanos() {
+		final Map<String, Long> result = new TreeMap<String, Long>();
+		for (Map.Entry<String, Timer> it : converters.entrySet()) {
+			result.put(it.getKey(), it.getValue().getTotalNanos());
+		}
+		return result;
+	}
+
+	@Override
+	public Map<String, Long> getConverterInvocations() {
+		final Map<String, Long> result = new TreeMap<String, Long>();
+		for (Map.Entry<String, Timer> it : converters.entrySet()) {
+			result.put(it.getKey(), it.getValue().getCount());
+		}
+		return result;
+	}
+
+}
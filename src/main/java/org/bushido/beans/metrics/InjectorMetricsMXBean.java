@@ -0,0 +1,73 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of the injector metrics, registered in the platform
+ * MBean server as
+ * {@code org.bushido.beans:type=Injector,direction=...,source=...,destination=...}
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public interface InjectorMetricsMXBean {
+
+	public String getSource();
+
+	public String getDestination();
+
+	public String getDirection();
+
+	/**
+	 * Returns count of the succeeded {@code inject} calls
+	 * 
+	 * @return invocations count
+	 */
+	public long getInvocations();
+
+	/**
+	 * Returns count of the {@code inject} calls failed with an exception
+	 * 
+	 * @return failures count
+	 */
+	public long getFailures();
+
+	public long getTotalNanos();
+
+	public long getMeanNanos();
+
+	public long getP50Nanos();
+
+	public long getP90Nanos();
+
+	public long getP99Nanos();
+
+	/**
+	 * Returns total conversion time per converter class
+	 * 
+	 * @return converter class name to nanoseconds
+	 */
+	public Map<String, Long> getConverterNanos();
+
+	/**
+	 * Returns conversions count per converter class
+	 * 
+	 * @return converter class name to conversions count
+	 */
+	public Map<String, Long> getConverterInvocations();
+
+}
@@ -0,0 +1,54 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.metrics;
+
+import org.bushido.beans.convertor.CustomConverter;
+
+/**
+ * Measures conversion time of the wrapped converter
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public final class MeteredConverter implements
+		CustomConverter<Object, Object> {
+
+	private final CustomConverter<Object, Object> converter;
+	private final Timer timer;
+
+	/**
+	 * Constructs new {@code MeteredConverter}
+	 * 
+	 * @param converter
+	 *            measured converter, primitive converters should be boxed
+	 * @param timer
+	 *            timer of the converter
+	 */
+	public MeteredConverter(final CustomConverter<Object, Object> converter,
+			final Timer timer) {
+		this.converter = converter;
+		this.timer = timer;
+	}
+
+	@Override
+	public Object convert(final Object src) {
+		final long start = System.nanoTime();
+		try {
+			return converter.convert(src);
+		} finally {
+			timer.record(System.nanoTime() - start);
+		}
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free timing histogram. Durations are counted in the power of two
+ * nanoseconds buckets, so percentiles are reported with the bucket upper
+ * bound precision.
+ * 
+ * @author Victor Gubin
+ * 
+ */
+public final class Timer {
+
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong total = new AtomicLong();
+	private final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE);
+
+	/**
+	 * Records single measured duration
+	 * 
+	 * @param nanos
+	 *            duration in nanoseconds
+	 */
+	public void record(final long nanos) {
+		final long value = Math.max(0L, nanos);
+		count.incrementAndGet();
+		total.addAndGet(value);
+		buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(value)
+				- (value == 0L ? 0 : 1));
+	}
+
+	/**
+	 * Returns count of the recorded durations
+	 * 
+	 * @return durations count
+	 */
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * Returns sum of the recorded durations
+	 * 
+	 * @return total nanoseconds
+	 */
+	public long getTotalNanos() {
+		return total.get();
+	}
+
+	/**
+	 * Returns average recorded duration
+	 * 
+	 * @return mean nanoseconds or {@code 0} if nothing is recorded
+	 */
+	public long getMeanNanos() {
+		final long recorded = count.get();
+		return recorded == 0L ? 0L : total.get() / recorded;
+	}
+
+	/**
+	 * Returns upper bound of the bucket holding the percentile
+	 * 
+	 * @param percentile
+	 *            percentile in {@code (0, 100]} range, i.e. {@code 99}
+	 * @return percentile nanoseconds or {@code 0} if nothing is recorded
+	 */
+	public long getPercentileNanos(final double percentile) {
+		if (percentile <= 0d || percentile > 100d) {
+			throw new IllegalArgumentException("Percentile " + percentile
+					+ " is out of (0, 100] range");
+		}
+		long recorded = 0L;
+		final long[] counts = new long[buckets.length()];
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = buckets.get(i);
+			recorded += counts[i];
+		}
+		final long rank = (long) Math.ceil(recorded * percentile / 100d);
+		long seen = 0L;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank && seen > 0L) {
+				return i == Long.SIZE - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+			}
+		}
+		return 0L;
+	}
+}
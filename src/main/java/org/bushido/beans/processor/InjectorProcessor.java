@@ -0,0 +1,894 @@
+/*
+ *  This library is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this library.  If not, see <http://www.gnu.org/licenses/>. 
+ */
+package org.bushido.beans.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic.Kind;
+
+import org.bushido.beans.Direction;
+import org.bushido.beans.GeneratedInjectors;
+import org.bushido.beans.convertor.CustomConverter;
+import org.bushido.beans.mapping.Access;
+import org.bushido.beans.mapping.Converter;
+import org.bushido.beans.mapping.ExportFlow;
+import org.bushido.beans.mapping.ExportSource;
+import org.bushido.beans.mapping.IllegalMappingException;
+import org.bushido.beans.mapping.ImportDestination;
+import org.bushido.beans.mapping.NullHandling;
+import org.bushido.beans.mapping.Path;
+import org.bushido.beans.mapping.Transient;
+
+/**
+ * Generates plain Java {@link org.bushido.beans.Injector} implementations at
+ * compile time for the classes annotated with {@link ImportDestination} or
+ * {@link ExportSource} declaring their paired classes. Mapping rules are the
+ * same as the runtime mapping scanners ones, invalid paths are reported as
+ * compilation errors.<br>
+ * 
+ * When the mapping can't be expressed with the plain Java, i.e. types are not
+ * accessible from the annotated class package or values can only be
+ * converted with a registered default converter, injector is not generated
+ * and {@link org.bushido.beans.InjectorFactory} scans the mapping at runtime.
+ * 
+ * @author Victor Gubin
+ * 
+ */
+@SupportedAnnotationTypes({ "org.bushido.beans.mapping.ImportDestination",
+		"org.bushido.beans.mapping.ExportSource",
+		"org.bushido.beans.mapping.ExportFlow",
+		"org.bushido.beans.mapping.Path" })
+public class InjectorProcessor extends AbstractProcessor {
+
+	private static final Pattern INDEXABLE = Pattern.compile("^(.+)\\[(\\d+|\\*)\\]$");
+
+	private final Set<String> generated = new HashSet<String>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(final Set<? extends TypeElement> annotations,
+			final RoundEnvironment roundEnv) {
+		for (Element it : roundEnv
+				.getElementsAnnotatedWith(ImportDestination.class)) {
+			for (TypeMirror src : typeValues(it, ImportDestination.class,
+					"sources")) {
+				generate((TypeElement) it, src, Direction.IMPORT);
+			}
+		}
+		for (Element it : roundEnv.getElementsAnnotatedWith(ExportSource.class)) {
+			for (TypeMirror dest : typeValues(it, ExportSource.class,
+					"destinations")) {
+				generate((TypeElement) it, dest, Direction.EXPORT);
+			}
+		}
+		return false;
+	}
+
+	private void generate(final TypeElement annotated, final TypeMirror other,
+			final Direction direction) {
+		final Elements elements = processingEnv.getElementUtils();
+		final String name = GeneratedInjectors.className(elements
+				.getBinaryName(annotated).toString(),
+				elements.getBinaryName((TypeElement) types().asElement(other))
+						.toString(), direction);
+		if (!generated.add(name)) {
+			return;
+		}
+		final PackageElement pkg = elements.getPackageOf(annotated);
+		final TypeMirror self = types().erasure(annotated.asType());
+		final TypeMirror paired = types().erasure(other);
+		final InjectorSource source;
+		try {
+			if (direction == Direction.IMPORT) {
+				source = new InjectorSource(pkg, paired, self);
+				importMapping(annotated, source);
+			} else {
+				source = new InjectorSource(pkg, self, paired);
+				exportMapping(annotated, source);
+			}
+		} catch (IllegalMappingException e) {
+			processingEnv.getMessager().printMessage(Kind.ERROR,
+					e.getMessage(), annotated);
+			return;
+		} catch (UnsupportedMappingException e) {
+			processingEnv.getMessager().printMessage(
+					Kind.NOTE,
+					"Injector " + name + " is not generated, " + e.getMessage()
+							+ ". Mapping will be scanned at runtime",
+					annotated);
+			return;
+		}
+		try {
+			final Writer writer = processingEnv.getFiler()
+					.createSourceFile(name, annotated).openWriter();
+			try {
+				writer.write(source.toJava(name.substring(name
+						.lastIndexOf('.') + 1)));
+			} finally {
+				writer.close();
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Kind.ERROR,
+					"Can't write " + name + ": " + e.getMessage(), annotated);
+		}
+	}
+
+	/**
+	 * Null-safe paths are left to the runtime generated injectors
+	 */
+	private static void unsupportedNulls(final NullHandling nulls)
+			throws UnsupportedMappingException {
+		if (nulls != NullHandling.FAIL) {
+			throw new UnsupportedMappingException(nulls
+					+ " null handling is not supported by generated sources");
+		}
+	}
+
+	/**
+	 * Field access is left to the runtime generated injectors, which can
+	 * fall back to the reflection for the private fields
+	 */
+	private static void unsupportedAccess(final Access access)
+			throws UnsupportedMappingException {
+		if (access != Access.PROPERTY) {
+			throw new UnsupportedMappingException(access
+					+ " access is not supported by generated sources");
+		}
+	}
+
+	private void importMapping(final TypeElement annotated,
+			final InjectorSource source) throws UnsupportedMappingException {
+		final ImportDestination destination = annotated
+				.getAnnotation(ImportDestination.class);
+		final boolean compliant = destination.compliant();
+		unsupportedNulls(destination.nulls());
+		unsupportedAccess(destination.access());
+		for (ExecutableElement it : publicMethods(source.dest)) {
+			final Path path = it.getAnnotation(Path.class);
+			if (null != path) {
+				if (it.getParameters().size() != 1) {
+					throw new IllegalMappingException(it.getSimpleName()
+							+ " shoud have one parrameter");
+				}
+				if (null == path.value() || path.value().length() == 0) {
+					throw new IllegalMappingException(
+							"Wrong mapping configuration of "
+									+ it.getSimpleName());
+				}
+				final Value value = source.path("src", source.src,
+						path.value(), true);
+				source.set("dest", source.dest, it, value,
+						converterOf(it, source));
+			} else if (compliant && isSetter(it)) {
+				// ignore Transient setters
+				if (null != it.getAnnotation(Transient.class)) {
+					continue;
+				}
+				final String property = it.getSimpleName().toString()
+						.substring(3);
+				ExecutableElement getter = getter(source.src, "get" + property);
+				if (null == getter) {
+					getter = getter(source.src, "is" + property);
+				}
+				// just skip if method is not complaint
+				if (null == getter) {
+					continue;
+				}
+				source.set("dest", source.dest, it,
+						source.call("src", source.src, getter),
+						converterOf(it, source));
+			}
+		}
+	}
+
+	private void exportMapping(final TypeElement annotated,
+			final InjectorSource source) throws UnsupportedMappingException {
+		final ExportSource exportSource = annotated
+				.getAnnotation(ExportSource.class);
+		final boolean compliant = exportSource.compliant();
+		unsupportedNulls(exportSource.nulls());
+		unsupportedAccess(exportSource.access());
+		for (ExecutableElement it : publicMethods(source.src)) {
+			final ExportFlow flow = it.getAnnotation(ExportFlow.class);
+			if (null != flow) {
+				if (!it.getParameters().isEmpty()
+						|| it.getReturnType().getKind() == TypeKind.VOID) {
+					throw new IllegalMappingException(it.getSimpleName()
+							+ " should return a value");
+				}
+				final Value value = source.call("src", source.src, it);
+				final ConverterCall converter = converterOf(it, source);
+				final String path = flow.path().value();
+				final String name = flow.value().value();
+				if (path.length() == 0) {
+					final TypeMirror type = null == converter ? value.type
+							: converter.chainResult();
+					source.set("dest", source.dest,
+							simpleSetter(source.dest, name, type), value,
+							converter);
+				} else {
+					final Value nested = source.path("dest", source.dest,
+							path, false);
+					final ExecutableElement setter = setter(nested.type, name,
+							value.type);
+					if (null == setter) {
+						throw new UnsupportedMappingException(
+								"no setter " + name + " accepting "
+										+ value.type);
+					}
+					source.set(nested.expression, nested.type, setter, value,
+							converter);
+				}
+			} else if (compliant) {
+				// ignore Transient getters
+				if (null != it.getAnnotation(Transient.class)) {
+					continue;
+				}
+				final String name = it.getSimpleName().toString();
+				String property;
+				if (name.startsWith("is")) {
+					property = name.substring(2);
+				} else if (name.startsWith("get")) {
+					property = name.substring(3);
+				} else {
+					continue;
+				}
+				if (!it.getParameters().isEmpty()
+						|| it.getReturnType().getKind() == TypeKind.VOID) {
+					continue;
+				}
+				final ExecutableElement setter = firstSetter(source.dest, "set"
+						+ property);
+				// just skip if method is not compliant
+				if (null == setter) {
+					continue;
+				}
+				source.set("dest", source.dest, setter,
+						source.call("src", source.src, it),
+						converterOf(it, source));
+			}
+		}
+	}
+
+	private ExecutableElement simpleSetter(final TypeMirror owner,
+			final String name, final TypeMirror type)
+			throws UnsupportedMappingException {
+		ExecutableElement result = setter(owner, name, type);
+		if (null == result) {
+			// handle auto boxing
+			for (ExecutableElement it : publicMethods(owner)) {
+				if (it.getSimpleName().contentEquals(name)
+						&& it.getParameters().size() == 1
+						&& it.getParameters().get(0).asType().getKind()
+								.isPrimitive()) {
+					result = it;
+				}
+			}
+		}
+		if (null == result) {
+			throw new UnsupportedMappingException("no setter " + name
+					+ " accepting " + type);
+		}
+		return result;
+	}
+
+	private ExecutableElement setter(final TypeMirror owner,
+			final String name, final TypeMirror type) {
+		for (ExecutableElement it : publicMethods(owner)) {
+			if (it.getSimpleName().contentEquals(name)
+					&& it.getParameters().size() == 1
+					&& types().isSameType(
+							types().erasure(parameterOf(owner, it)),
+							types().erasure(type))) {
+				return it;
+			}
+		}
+		return null;
+	}
+
+	private ExecutableElement firstSetter(final TypeMirror owner,
+			final String name) {
+		for (ExecutableElement it : publicMethods(owner)) {
+			if (it.getSimpleName().contentEquals(name)
+					&& it.getParameters().size() == 1) {
+				return it;
+			}
+		}
+		return null;
+	}
+
+	private ExecutableElement getter(final TypeMirror owner, final String name) {
+		for (ExecutableElement it : publicMethods(owner)) {
+			if (it.getSimpleName().contentEquals(name)
+					&& it.getParameters().isEmpty()
+					&& it.getReturnType().getKind() != TypeKind.VOID) {
+				return it;
+			}
+		}
+		return null;
+	}
+
+	private static boolean isSetter(final ExecutableElement method) {
+		return method.getSimpleName().toString().startsWith("set")
+				&& method.getParameters().size() == 1;
+	}
+
+	private List<ExecutableElement> publicMethods(final TypeMirror owner) {
+		if (owner.getKind() != TypeKind.DECLARED) {
+			return Collections.emptyList();
+		}
+		final List<ExecutableElement> result = new ArrayList<ExecutableElement>();
+		final TypeElement element = (TypeElement) types().asElement(owner);
+		for (ExecutableElement it : ElementFilter.methodsIn(processingEnv
+				.getElementUtils().getAllMembers(element))) {
+			if (it.getModifiers().contains(Modifier.PUBLIC)
+					&& !it.getModifiers().contains(Modifier.STATIC)
+					&& !((TypeElement) it.getEnclosingElement())
+							.getQualifiedName().contentEquals(
+									Object.class.getName())) {
+				result.add(it);
+			}
+		}
+		return result;
+	}
+
+	private ConverterCall converterOf(final ExecutableElement method,
+			final InjectorSource source) throws UnsupportedMappingException {
+		if (null != method
+				.getAnnotation(org.bushido.beans.mapping.Elements.class)) {
+			throw new UnsupportedMappingException(
+					"elements mapping of the " + method.getSimpleName());
+		}
+		final List<TypeMirror> value = typeValues(method, Converter.class,
+				"value");
+		ConverterCall result = null;
+		for (int i = value.size() - 1; i >= 0; i--) {
+			final DeclaredType type = (DeclaredType) value.get(i);
+			if (value.size() > 1
+					&& !types().isAssignable(
+							types().erasure(type),
+							types().erasure(
+									processingEnv.getElementUtils()
+											.getTypeElement(
+													CustomConverter.class
+															.getName())
+											.asType()))) {
+				throw new IllegalMappingException(type
+						+ " should implement CustomConverter to be chained");
+			}
+			final ConverterCall call = converterOf(type, source, result);
+			if (null != result
+					&& !types().isAssignable(call.result, result.parameter)) {
+				throw new IllegalMappingException(type + " result "
+						+ call.result + " can't be converted by "
+						+ value.get(i + 1));
+			}
+			result = call;
+		}
+		return result;
+	}
+
+	/**
+	 * @param next
+	 *            converter applied to the result of this one, if any
+	 */
+	private ConverterCall converterOf(final DeclaredType type,
+			final InjectorSource source, final ConverterCall next)
+			throws UnsupportedMappingException {
+		final TypeElement element = (TypeElement) type.asElement();
+		if (element.getModifiers().contains(Modifier.ABSTRACT)
+				|| !source.isAccessible(type) || !hasDefaultConstructor(element)) {
+			throw new UnsupportedMappingException("converter " + type
+					+ " can't be instantiated");
+		}
+		TypeElement clazz = element;
+		while (null != clazz) {
+			for (ExecutableElement it : ElementFilter.methodsIn(clazz
+					.getEnclosedElements())) {
+				if (it.getSimpleName().contentEquals("convert")
+						&& it.getParameters().size() == 1
+						&& it.getModifiers().contains(Modifier.PUBLIC)
+						&& !it.getModifiers().contains(Modifier.ABSTRACT)) {
+					final ExecutableType convert = (ExecutableType) types()
+							.asMemberOf(type, it);
+					return new ConverterCall(source.converter(type),
+							normalize(convert.getParameterTypes().get(0)),
+							normalize(convert.getReturnType()), next);
+				}
+			}
+			final TypeMirror superclass = clazz.getSuperclass();
+			clazz = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) types()
+					.asElement(superclass) : null;
+		}
+		throw new UnsupportedMappingException("converter " + type
+				+ " has no convert method");
+	}
+
+	private static boolean hasDefaultConstructor(final TypeElement element) {
+		final List<ExecutableElement> constructors = ElementFilter
+				.constructorsIn(element.getEnclosedElements());
+		for (ExecutableElement it : constructors) {
+			if (it.getParameters().isEmpty()
+					&& it.getModifiers().contains(Modifier.PUBLIC)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private List<TypeMirror> typeValues(final Element element,
+			final Class<?> annotation, final String attribute) {
+		final List<TypeMirror> result = new ArrayList<TypeMirror>();
+		for (AnnotationMirror it : element.getAnnotationMirrors()) {
+			if (!((TypeElement) it.getAnnotationType().asElement())
+					.getQualifiedName().contentEquals(annotation.getName())) {
+				continue;
+			}
+			for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : it
+					.getElementValues().entrySet()) {
+				if (!entry.getKey().getSimpleName().contentEquals(attribute)) {
+					continue;
+				}
+				final Object value = entry.getValue().getValue();
+				if (value instanceof TypeMirror) {
+					result.add((TypeMirror) value);
+				} else if (value instanceof List) {
+					for (Object type : (List<?>) value) {
+						result.add((TypeMirror) ((AnnotationValue) type)
+								.getValue());
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	private ExecutableType memberOf(final TypeMirror owner,
+			final ExecutableElement method) {
+		return (ExecutableType) types().asMemberOf((DeclaredType) owner,
+				method);
+	}
+
+	private TypeMirror parameterOf(final TypeMirror owner,
+			final ExecutableElement method) {
+		return normalize(memberOf(owner, method).getParameterTypes().get(0));
+	}
+
+	private TypeMirror normalize(final TypeMirror type) {
+		if (type.getKind() == TypeKind.WILDCARD) {
+			final TypeMirror bound = ((WildcardType) type).getExtendsBound();
+			return null == bound ? objectType() : normalize(bound);
+		}
+		if (type.getKind() == TypeKind.TYPEVAR) {
+			return types().erasure(type);
+		}
+		return type;
+	}
+
+	private TypeMirror objectType() {
+		return processingEnv.getElementUtils()
+				.getTypeElement(Object.class.getName()).asType();
+	}
+
+	private TypeElement listElement() {
+		return processingEnv.getElementUtils().getTypeElement(
+				List.class.getName());
+	}
+
+	private Types types() {
+		return processingEnv.getTypeUtils();
+	}
+
+	/**
+	 * Value expression of the generated code with the type it has for the
+	 * java compiler
+	 */
+	private static final class Value {
+		private final String expression;
+		private final TypeMirror type;
+
+		Value(final String expression, final TypeMirror type) {
+			this.expression = expression;
+			this.type = type;
+		}
+	}
+
+	/**
+	 * Converter call, or the head of the converters chain
+	 */
+	private static final class ConverterCall {
+		private final String field;
+		private final TypeMirror parameter;
+		private final TypeMirror result;
+		private final ConverterCall next;
+
+		ConverterCall(final String field, final TypeMirror parameter,
+				final TypeMirror result, final ConverterCall next) {
+			this.field = field;
+			this.parameter = parameter;
+			this.result = result;
+			this.next = next;
+		}
+
+		/**
+		 * Returns result type of the whole chain
+		 */
+		TypeMirror chainResult() {
+			return null == next ? result : next.chainResult();
+		}
+	}
+
+	private static final class UnsupportedMappingException extends Exception {
+		private static final long serialVersionUID = 1L;
+
+		UnsupportedMappingException(final String message) {
+			super(message);
+		}
+	}
+
+	/**
+	 * Builds the generated injector source. Nested instances are kept in the
+	 * local variables, so each nesting path is resolved once per
+	 * {@code inject} call.
+	 */
+	private final class InjectorSource {
+		private final PackageElement pkg;
+		private final TypeMirror src;
+		private final TypeMirror dest;
+		private final Map<String, Value> nested = new HashMap<String, Value>();
+		private final Map<String, String> converters = new HashMap<String, String>();
+		private final StringBuilder fields = new StringBuilder();
+		private final StringBuilder body = new StringBuilder();
+
+		InjectorSource(final PackageElement pkg, final TypeMirror src,
+				final TypeMirror dest) throws UnsupportedMappingException {
+			this.pkg = pkg;
+			this.src = src;
+			this.dest = dest;
+			checkAccessible(src);
+			checkAccessible(dest);
+		}
+
+		/**
+		 * Resolves the dot separated getters path with the
+		 * {@link org.bushido.beans.mapping.scanner.PathParser} rules
+		 */
+		Value path(final String root, final TypeMirror rootType,
+				final String path, final boolean value)
+				throws UnsupportedMappingException {
+			final String[] names = path.split("\\.");
+			if (names.length == 0) {
+				throw new IllegalMappingException("Path " + path
+						+ " has invalid format");
+			}
+			Value result = new Value(root, rootType);
+			String key = root;
+			for (int i = 0; i < names.length; i++) {
+				final boolean last = i == names.length - 1;
+				String name = names[i];
+				int index = -1;
+				final Matcher matcher = INDEXABLE.matcher(name);
+				if (matcher.matches()) {
+					if ("*".equals(matcher.group(2))) {
+						throw new UnsupportedMappingException(
+								"wildcard index path " + path);
+					}
+					name = matcher.group(1);
+					index = Integer.parseInt(matcher.group(2));
+				}
+				final ExecutableElement getter = getter(result.type, name);
+				if (null == getter) {
+					throw new IllegalMappingException("Path is invalid, "
+							+ result.type + " has no " + name + " method");
+				}
+				Value next = call(result.expression, result.type, getter);
+				if (index >= 0) {
+					next = index(next, index, last);
+				}
+				if (last && value) {
+					return next;
+				}
+				if (next.type.getKind().isPrimitive()) {
+					throw new IllegalMappingException(path
+							+ " is an invalid mapping");
+				}
+				key = key + '.' + names[i];
+				result = local(key, next);
+			}
+			return result;
+		}
+
+		Value call(final String receiver, final TypeMirror owner,
+				final ExecutableElement getter) {
+			return new Value(receiver + '.' + getter.getSimpleName() + "()",
+					normalize(memberOf(owner, getter).getReturnType()));
+		}
+
+		private Value index(final Value value, final int index,
+				final boolean last) {
+			if (value.type.getKind() == TypeKind.ARRAY) {
+				return new Value(value.expression + '[' + index + ']',
+						normalize(((ArrayType) value.type).getComponentType()));
+			}
+			final TypeMirror list = types().erasure(listElement().asType());
+			final TypeMirror type = types().erasure(value.type);
+			if (last ? types().isAssignable(type, list) : types().isSameType(
+					type, list)) {
+				final ExecutableElement get = listGet();
+				return new Value(value.expression + ".get(" + index + ')',
+						normalize(memberOf(value.type, get).getReturnType()));
+			}
+			throw new IllegalMappingException(
+					"Can only map index from array of List");
+		}
+
+		private ExecutableElement listGet() {
+			for (ExecutableElement it : ElementFilter.methodsIn(listElement()
+					.getEnclosedElements())) {
+				if (it.getSimpleName().contentEquals("get")
+						&& it.getParameters().size() == 1
+						&& it.getParameters().get(0).asType().getKind() == TypeKind.INT) {
+					return it;
+				}
+			}
+			throw new IllegalStateException("java.util.List has no get method");
+		}
+
+		private Value local(final String key, final Value value)
+				throws UnsupportedMappingException {
+			Value result = nested.get(key);
+			if (null == result) {
+				final TypeMirror type = types().erasure(value.type);
+				checkAccessible(type);
+				final String name = "nested" + nested.size();
+				body.append("\t\tfinal ").append(type).append(' ').append(name)
+						.append(" = ").append(value.expression).append(";\n");
+				result = new Value(name, type);
+				nested.put(key, result);
+			}
+			return result;
+		}
+
+		String converter(final DeclaredType type) {
+			final String key = types().erasure(type).toString();
+			String result = converters.get(key);
+			if (null == result) {
+				result = "CONVERTER_" + converters.size();
+				fields.append("\tprivate static final ").append(key)
+						.append(' ').append(result).append(" = new ")
+						.append(key).append("();\n");
+				converters.put(key, result);
+			}
+			return result;
+		}
+
+		void set(final String receiver, final TypeMirror owner,
+				final ExecutableElement setter, final Value value,
+				final ConverterCall converter)
+				throws UnsupportedMappingException {
+			final TypeMirror parameter = parameterOf(owner, setter);
+			String expression;
+			if (null == converter) {
+				expression = adapt(value, parameter);
+			} else {
+				Value converted = value;
+				for (ConverterCall it = converter; null != it; it = it.next) {
+					converted = new Value(it.field + ".convert("
+							+ adapt(converted, it.parameter) + ')', it.result);
+				}
+				expression = adapt(converted, parameter);
+			}
+			body.append("\t\t").append(receiver).append('.')
+					.append(setter.getSimpleName()).append('(')
+					.append(expression).append(");\n");
+		}
+
+		/**
+		 * Adapts value to the type with the same conversions as runtime
+		 * generated injectors do: widening, boxing, numeric casts and
+		 * reference casts
+		 */
+		private String adapt(final Value value, final TypeMirror type)
+				throws UnsupportedMappingException {
+			final Types types = types();
+			if (types.isAssignable(value.type, type)) {
+				return value.expression;
+			}
+			final TypeMirror from = unboxed(value.type);
+			final TypeMirror to = unboxed(type);
+			if (isNumeric(from) && isNumeric(to)) {
+				String expression = value.expression;
+				if (!value.type.getKind().isPrimitive()) {
+					expression = "((" + from + ") " + expression + ')';
+				}
+				expression = "((" + to + ") " + expression + ')';
+				if (!type.getKind().isPrimitive()) {
+					expression = type + ".valueOf(" + expression + ')';
+				}
+				return expression;
+			}
+			if (!value.type.getKind().isPrimitive()) {
+				final TypeMirror target = type.getKind().isPrimitive() ? types
+						.boxedClass((PrimitiveType) type).asType() : types
+						.erasure(type);
+				if (isCastable(types.erasure(value.type), target)) {
+					checkAccessible(target);
+					return "((" + target + ") " + value.expression + ')';
+				}
+			}
+			throw new UnsupportedMappingException(value.type
+					+ " can't be converted to " + type);
+		}
+
+		private boolean isCastable(final TypeMirror from, final TypeMirror to) {
+			if (types().isAssignable(to, from)) {
+				return true;
+			}
+			if (from.getKind() != TypeKind.DECLARED
+					|| to.getKind() != TypeKind.DECLARED) {
+				return false;
+			}
+			final Element source = types().asElement(from);
+			final Element target = types().asElement(to);
+			return (source.getKind().isInterface() || target.getKind()
+					.isInterface())
+					&& !source.getModifiers().contains(Modifier.FINAL)
+					&& !target.getModifiers().contains(Modifier.FINAL);
+		}
+
+		private TypeMirror unboxed(final TypeMirror type) {
+			if (type.getKind() == TypeKind.DECLARED) {
+				try {
+					return types().unboxedType(type);
+				} catch (IllegalArgumentException e) {
+					return type;
+				}
+			}
+			return type;
+		}
+
+		private boolean isNumeric(final TypeMirror type) {
+			return type.getKind().isPrimitive()
+					&& type.getKind() != TypeKind.BOOLEAN;
+		}
+
+		private void checkAccessible(final TypeMirror type)
+				throws UnsupportedMappingException {
+			if (!isAccessible(type)) {
+				throw new UnsupportedMappingException(type
+						+ " is not accessible from " + pkg);
+			}
+		}
+
+		boolean isAccessible(final TypeMirror type) {
+			if (type.getKind() == TypeKind.ARRAY) {
+				return isAccessible(((ArrayType) type).getComponentType());
+			}
+			if (type.getKind() != TypeKind.DECLARED) {
+				return true;
+			}
+			Element element = types().asElement(type);
+			while (null != element
+					&& (element.getKind().isClass() || element.getKind()
+							.isInterface())) {
+				final Set<Modifier> modifiers = element.getModifiers();
+				if (modifiers.contains(Modifier.PRIVATE)) {
+					return false;
+				}
+				if (!modifiers.contains(Modifier.PUBLIC)
+						&& !processingEnv.getElementUtils()
+								.getPackageOf(element).equals(pkg)) {
+					return false;
+				}
+				element = element.getEnclosingElement();
+			}
+			return null == element || element.getKind() == ElementKind.PACKAGE;
+		}
+
+		String toJava(final String simpleName) {
+			final StringBuilder result = new StringBuilder();
+			if (!pkg.isUnnamed()) {
+				result.append("package ").append(pkg.getQualifiedName())
+						.append(";\n\n");
+			}
+			result.append("/**\n * Generated by ")
+					.append(InjectorProcessor.class.getName())
+					.append(", do not edit\n */\n");
+			result.append("@SuppressWarnings({ \"unchecked\", \"rawtypes\" })\n");
+			result.append("public final class ").append(simpleName)
+					.append(" extends org.bushido.beans.AbstractInjector<")
+					.append(src).append(", ").append(dest).append("> {\n\n");
+			result.append(fields);
+			if (fields.length() > 0) {
+				result.append('\n');
+			}
+			result.append("\t@Override\n\tpublic void inject(final ")
+					.append(src).append(" src, final ").append(dest)
+					.append(" dest) {\n");
+			result.append(body);
+			result.append("\t}\n");
+			if (isConstructible()) {
+				result.append("\n\t@Override\n\tprotected ").append(dest)
+						.append(" newDestination() {\n\t\treturn new ")
+						.append(dest).append("();\n\t}\n");
+			}
+			result.append("}\n");
+			return result.toString();
+		}
+
+		/**
+		 * Checks destination is a concrete class with the public default
+		 * constructor
+		 */
+		private boolean isConstructible() {
+			if (dest.getKind() != TypeKind.DECLARED) {
+				return false;
+			}
+			final Element element = types().asElement(dest);
+			if (element.getKind() != ElementKind.CLASS
+					|| element.getModifiers().contains(Modifier.ABSTRACT)) {
+				return false;
+			}
+			if (element.getEnclosingElement().getKind() != ElementKind.PACKAGE
+					&& !element.getModifiers().contains(Modifier.STATIC)) {
+				return false;
+			}
+			for (ExecutableElement it : ElementFilter
+					.constructorsIn(element.getEnclosedElements())) {
+				if (it.getParameters().isEmpty()
+						&& it.getModifiers().contains(Modifier.PUBLIC)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package org.bushido.beans;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.bushido.beans.InjectorFactoryTestCase.Address;
+import org.bushido.beans.InjectorFactoryTestCase.Customer;
+import org.bushido.beans.InjectorFactoryTestCase.CustomerView;
+import org.bushido.beans.InjectorFactoryTestCase.Destination;
+import org.bushido.beans.InjectorFactoryTestCase.Source;
+import org.bushido.beans.InjectorFactoryTestCase.StringToInt;
+import org.bushido.beans.mapping.Converter;
+import org.bushido.beans.mapping.IllegalMappingException;
+import org.bushido.beans.mapping.ImportDestination;
+import org.bushido.beans.mapping.Path;
+import org.bushido.beans.mapping.scanner.FastClasses;
+import org.junit.After;
+import org.junit.Test;
+
+public class BidirectionalInjectorTestCase {
+
+	public static class Counter {
+		private String count;
+
+		public String getCount() {
+			return count;
+		}
+
+		public void setCount(String count) {
+			this.count = count;
+		}
+	}
+
+	@ImportDestination
+	public static class ParsedCount {
+		private int count;
+
+		public int getCount() {
+			return count;
+		}
+
+		@Path("getCount")
+		@Converter(StringToInt.class)
+		public void setCount(int count) {
+			this.count = count;
+		}
+	}
+
+	@After
+	public void restoreFactory() {
+		InjectorFactory.reset();
+	}
+
+	@Test
+	public void shouldCreateBidirectional() throws Exception {
+		final InjectorFactory factory = InjectorFactory.newFactory();
+		final BidirectionalInjector<Customer, CustomerView> injector = factory
+				.createBidirectional(Customer.class, CustomerView.class);
+		final Customer customer = new Customer();
+		customer.setAddress(new Address());
+		customer.getAddress().setCity("Minsk");
+		customer.setAge(42);
+		final CustomerView view = injector.getImporter().map(customer);
+		assertEquals("City is not imported", "Minsk", view.getCity());
+		assertEquals("Age is not imported", 42, view.getAge());
+		view.setCity("Vitebsk");
+		view.setAge(43);
+		final Customer exported = injector.getExporter().map(view);
+		assertEquals("Null address is not instantiated", "Vitebsk", exported
+				.getAddress().getCity());
+		assertEquals("Age is not exported", 43, exported.getAge());
+		assertSame("Importer is not shared", injector.getImporter(),
+				factory.createImporter(Customer.class, CustomerView.class));
+		assertSame("Exporter is not shared", injector.getExporter(),
+				factory.createExporter(CustomerView.class, Customer.class));
+	}
+
+	@Test
+	public void shouldDeriveBidirectionalAfterDrop() throws Exception {
+		final InjectorFactory factory = InjectorFactory.newFactory();
+		factory.createBidirectional(Customer.class, CustomerView.class);
+		// drops compiled injectors
+		factory.setAccessorBackend(FastClasses.getBackend());
+		final CustomerView view = new CustomerView();
+		view.setAge(42);
+		assertEquals("Derived exporter is not compiled again", 42, factory
+				.createExporter(CustomerView.class, Customer.class).map(view)
+				.getAge());
+	}
+
+	@Test
+	public void shouldCreateBidirectionalFromExport() throws Exception {
+		final BidirectionalInjector<Destination, Source> injector = InjectorFactory
+				.newFactory().createBidirectional(Destination.class,
+						Source.class);
+		final Destination dest = new Destination();
+		dest.setName("imported");
+		assertEquals("Derived import is not injected", "imported", injector
+				.getImporter().map(dest).getName());
+		final Source src = new Source();
+		src.setName("exported");
+		assertEquals("Export is not injected", "exported", injector
+				.getExporter().map(src).getName());
+	}
+
+	@Test(expected = IllegalMappingException.class)
+	public void shouldNotInvertConverter() throws Exception {
+		InjectorFactory.newFactory().createBidirectional(Counter.class,
+				ParsedCount.class);
+	}
+}
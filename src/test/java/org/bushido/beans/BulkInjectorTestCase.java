@@ -0,0 +1,111 @@
+package org.bushido.beans;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.bushido.beans.InjectorFactoryTestCase.Destination;
+import org.bushido.beans.InjectorFactoryTestCase.Source;
+import org.bushido.beans.mapping.scanner.MappingScanerFactory;
+import org.junit.Test;
+
+public class BulkInjectorTestCase {
+
+	@Test
+	public void shouldInjectAll() throws Exception {
+		final BulkInjector<Source, Destination> importer = InjectorFactory
+				.newFactory().createImporter(Source.class, Destination.class);
+		final List<Source> src = new ArrayList<Source>();
+		final List<Destination> dest = new ArrayList<Destination>();
+		for (int i = 0; i < 10000; i++) {
+			final Source source = new Source();
+			source.setName(String.valueOf(i));
+			src.add(source);
+			dest.add(new Destination());
+		}
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			importer.injectAll(src, dest, pool);
+		} finally {
+			pool.shutdown();
+		}
+		for (int i = 0; i < src.size(); i++) {
+			assertEquals("Bean is not injected", src.get(i).getName(), dest
+					.get(i).getName());
+		}
+		final List<Destination> linked = new LinkedList<Destination>();
+		for (int i = 0; i < src.size(); i++) {
+			linked.add(new Destination());
+		}
+		importer.injectAll(src, linked);
+		assertEquals("Bean is not injected", src.get(src.size() - 1)
+				.getName(), ((LinkedList<Destination>) linked).getLast()
+				.getName());
+	}
+
+	@Test
+	public void shouldMapToNewInstance() throws Exception {
+		final BulkInjector<Source, Destination> importer = InjectorFactory
+				.newFactory().createImporter(Source.class, Destination.class);
+		final Source src = new Source();
+		src.setName("mapped");
+		final Destination first = importer.map(src);
+		assertEquals("New bean is not injected", "mapped", first.getName());
+		final BeanPool<Destination> pool = new BeanPool<Destination>(1);
+		assertEquals("Pool should accept released bean", true,
+				pool.release(first));
+		assertEquals("Bounded pool should drop bean", false,
+				pool.release(new Destination()));
+		src.setName("pooled");
+		assertSame("Pooled bean is not reused", first, importer.map(src, pool));
+		assertEquals("Pooled bean is not injected", "pooled", first.getName());
+		assertNotSame("Empty pool should create bean", first,
+				importer.map(src, pool));
+	}
+
+	@Test
+	public void shouldMapWithReflectionInjector() throws Exception {
+		final Importer<Source, Destination> importer = new Importer<Source, Destination>(
+				MappingScanerFactory.createImportScanner().scan(Source.class,
+						Destination.class));
+		importer.bindDestination(Destination.class);
+		final Source src = new Source();
+		src.setName("reflected");
+		assertEquals("New bean is not injected", "reflected", importer
+				.map(src).getName());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldCheckBatchSize() throws Exception {
+		InjectorFactory.newFactory()
+				.createImporter(Source.class, Destination.class)
+				.injectAll(Arrays.asList(new Source()),
+						new ArrayList<Destination>());
+	}
+
+	@Test
+	public void shouldCheckCollectionsSizeFirst() throws Exception {
+		final Source src = new Source();
+		src.setName("name");
+		final Destination dest = new Destination();
+		try {
+			InjectorFactory
+					.newFactory()
+					.createImporter(Source.class, Destination.class)
+					.injectAll((Iterable<Source>) Arrays.asList(src, src),
+							Collections.singleton(dest));
+			fail("Size mismatch is not detected");
+		} catch (IllegalArgumentException e) {
+			assertNull("Bean is injected before size check", dest.getName());
+		}
+	}
+}
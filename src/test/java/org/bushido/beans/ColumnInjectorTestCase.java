@@ -0,0 +1,139 @@
+package org.bushido.beans;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.bushido.beans.InjectorFactoryTestCase.Customer;
+import org.bushido.beans.InjectorFactoryTestCase.CustomerView;
+import org.bushido.beans.InjectorFactoryTestCase.Destination;
+import org.bushido.beans.InjectorFactoryTestCase.Source;
+import org.bushido.beans.mapping.ImportDestination;
+import org.junit.Test;
+
+public class ColumnInjectorTestCase {
+
+	public static class Tick {
+		private String symbol;
+		private int price;
+
+		public String getSymbol() {
+			return symbol;
+		}
+
+		public void setSymbol(String symbol) {
+			this.symbol = symbol;
+		}
+
+		public int getPrice() {
+			return price;
+		}
+
+		public void setPrice(int price) {
+			this.price = price;
+		}
+	}
+
+	@ImportDestination(compliant = true)
+	public static class TickView {
+		private String symbol;
+		private long price;
+		private int updates;
+
+		public String getSymbol() {
+			return symbol;
+		}
+
+		public void setSymbol(String symbol) {
+			this.symbol = symbol;
+			updates++;
+		}
+
+		public long getPrice() {
+			return price;
+		}
+
+		public void setPrice(long price) {
+			this.price = price;
+			updates++;
+		}
+
+		public int updates() {
+			return updates;
+		}
+	}
+
+	@Test
+	public void shouldGatherAndScatterColumns() throws Exception {
+		final ColumnInjector<Tick, TickView> injector = InjectorFactory
+				.newFactory().createColumnImporter(Tick.class, TickView.class);
+		final List<Tick> ticks = new ArrayList<Tick>();
+		for (int i = 0; i < 3; i++) {
+			final Tick tick = new Tick();
+			tick.setSymbol("S" + i);
+			tick.setPrice(i * 10);
+			ticks.add(tick);
+		}
+		final Columns columns = injector.gather(ticks);
+		assertEquals(3, columns.getSize());
+		assertEquals(new HashSet<String>(Arrays.asList("symbol", "price")),
+				new HashSet<String>(columns.getNames()));
+		assertArrayEquals(new long[] { 0L, 10L, 20L },
+				columns.get("price", long[].class));
+		assertArrayEquals(new String[] { "S0", "S1", "S2" },
+				columns.get("symbol", String[].class));
+		columns.get("price", long[].class)[1] = 15L;
+		final List<TickView> views = Arrays.asList(new TickView(),
+				new TickView(), new TickView());
+		injector.scatter(columns, views);
+		assertEquals("S2", views.get(2).getSymbol());
+		assertEquals(15L, views.get(1).getPrice());
+	}
+
+	@Test
+	public void shouldSkipMissingColumnValues() throws Exception {
+		final ColumnInjector<Customer, CustomerView> injector = InjectorFactory
+				.newFactory().createColumnImporter(Customer.class,
+						CustomerView.class);
+		final Customer homeless = new Customer();
+		homeless.setAge(42);
+		final Columns columns = injector.gather(Arrays.asList(homeless));
+		assertTrue(columns.isMissing("city", 0));
+		assertFalse(columns.isMissing("age", 0));
+		final CustomerView view = new CustomerView();
+		view.setCity("Unknown");
+		injector.scatter(columns, Arrays.asList(view));
+		assertEquals("Unknown", view.getCity());
+		assertEquals(42, view.getAge());
+	}
+
+	@Test
+	public void shouldExportColumns() throws Exception {
+		final ColumnInjector<Source, Destination> injector = InjectorFactory
+				.newFactory().createColumnExporter(Source.class,
+						Destination.class);
+		final Source source = new Source();
+		source.setName("name");
+		final Columns columns = injector.newColumns(1);
+		injector.gather(Arrays.asList(source), columns);
+		final Destination destination = new Destination();
+		injector.scatter(columns, new LinkedList<Destination>(Arrays
+				.asList(destination)));
+		assertEquals("name", destination.getName());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldCheckColumnsSize() throws Exception {
+		final ColumnInjector<Tick, TickView> injector = InjectorFactory
+				.newFactory().createColumnImporter(Tick.class, TickView.class);
+		injector.scatter(injector.newColumns(2),
+				Arrays.asList(new TickView()));
+	}
+}
@@ -0,0 +1,48 @@
+package org.bushido.beans;
+
+import static org.junit.Assert.assertEquals;
+
+import org.bushido.beans.ColumnInjectorTestCase.Tick;
+import org.bushido.beans.ColumnInjectorTestCase.TickView;
+import org.bushido.beans.mapping.IllegalMappingException;
+import org.bushido.beans.mapping.ImportDestination;
+import org.junit.Test;
+
+public class DeltaInjectorTestCase {
+
+	@ImportDestination
+	public static class EmptyView {
+	}
+
+	@Test(expected = IllegalMappingException.class)
+	public void shouldRejectEmptyDeltaMapping() throws Exception {
+		InjectorFactory.newFactory().createDeltaImporter(Tick.class,
+				EmptyView.class);
+	}
+
+	@Test
+	public void shouldInjectChanges() throws Exception {
+		final DeltaInjector<Tick, TickView> delta = InjectorFactory
+				.newFactory().createDeltaImporter(Tick.class, TickView.class);
+		final Tick tick = new Tick();
+		tick.setSymbol(new String("ACME"));
+		tick.setPrice(10);
+		final TickView view = new TickView();
+		final long all = delta.injectChanges(tick, view);
+		assertEquals("All properties should be injected first", 2,
+				Long.bitCount(all));
+		assertEquals("Setters were not called", 2, view.updates());
+		tick.setSymbol(new String("ACME"));
+		assertEquals("Equal values should not be injected", 0L,
+				delta.injectChanges(tick, view));
+		tick.setPrice(11);
+		final long changed = delta.injectChanges(tick, view);
+		assertEquals("Only price should be injected", 1,
+				Long.bitCount(changed));
+		assertEquals("Unchanged setter was called", 3, view.updates());
+		assertEquals("Price was not injected", 11L, view.getPrice());
+		delta.reset();
+		assertEquals("Reset snapshot should inject all", all,
+				delta.injectChanges(tick, view));
+	}
+}
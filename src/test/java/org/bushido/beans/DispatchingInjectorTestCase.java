@@ -0,0 +1,98 @@
+package org.bushido.beans;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bushido.beans.mapping.ImportDestination;
+import org.junit.Test;
+
+public class DispatchingInjectorTestCase {
+
+	public static class Payment {
+		public int getAmount() {
+			return 10;
+		}
+	}
+
+	public static class CardPayment extends Payment {
+		public String getCard() {
+			return "4111";
+		}
+	}
+
+	public static class Voucher {
+		public int getAmount() {
+			return 5;
+		}
+	}
+
+	@ImportDestination(compliant = true)
+	public static class PaymentView {
+		private int amount;
+		private String card;
+
+		public int getAmount() {
+			return amount;
+		}
+
+		public void setAmount(int amount) {
+			this.amount = amount;
+		}
+
+		public String getCard() {
+			return card;
+		}
+
+		public void setCard(String card) {
+			this.card = card;
+		}
+	}
+
+	@Test
+	public void shouldDispatchBySourceClass() throws Exception {
+		final BulkInjector<Object, PaymentView> injector = InjectorFactory
+				.newFactory().createDispatchingImporter(Object.class,
+						PaymentView.class);
+		final PaymentView card = injector.map(new CardPayment());
+		assertEquals(10, card.getAmount());
+		assertEquals("4111", card.getCard());
+		final PaymentView voucher = injector.map(new Voucher());
+		assertEquals(5, voucher.getAmount());
+		assertNull(voucher.getCard());
+		final PaymentView payment = injector.map(new Payment());
+		assertEquals(10, payment.getAmount());
+		assertNull(payment.getCard());
+	}
+
+	@Test
+	public void shouldDispatchMoreClassesThanCached() throws Exception {
+		final BulkInjector<Payment, PaymentView> injector = InjectorFactory
+				.newFactory().createDispatchingImporter(Payment.class,
+						PaymentView.class);
+		final List<Payment> payments = new ArrayList<Payment>();
+		for (int i = 0; i <= DispatchingInjector.CACHE_SIZE; i++) {
+			final int amount = i;
+			payments.add(new Payment() {
+				@Override
+				public int getAmount() {
+					return amount;
+				}
+			});
+		}
+		payments.add(new CardPayment());
+		final List<PaymentView> views = new ArrayList<PaymentView>();
+		for (int i = 0; i < payments.size(); i++) {
+			views.add(new PaymentView());
+		}
+		for (int round = 0; round < 2; round++) {
+			injector.injectAll(payments, views);
+		}
+		for (int i = 0; i <= DispatchingInjector.CACHE_SIZE; i++) {
+			assertEquals(i, views.get(i).getAmount());
+		}
+		assertEquals("4111", views.get(views.size() - 1).getCard());
+	}
+}
@@ -0,0 +1,227 @@
+package org.bushido.beans;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bushido.beans.mapping.Elements;
+import org.bushido.beans.mapping.ExportFlow;
+import org.bushido.beans.mapping.ExportSource;
+import org.bushido.beans.mapping.ImportDestination;
+import org.bushido.beans.mapping.NullHandling;
+import org.bushido.beans.mapping.Path;
+import org.bushido.beans.mapping.Setter;
+import org.junit.Test;
+
+public class ElementsTestCase {
+
+	public static class Line {
+		private final int amount;
+
+		public Line(int amount) {
+			this.amount = amount;
+		}
+
+		public int getAmount() {
+			return amount;
+		}
+	}
+
+	@ImportDestination(compliant = true)
+	public static class LineDestination {
+		private int amount;
+
+		public int getAmount() {
+			return amount;
+		}
+
+		public void setAmount(int amount) {
+			this.amount = amount;
+		}
+	}
+
+	@ExportSource
+	public static class Order {
+		private final int[] codes = { 1, 2, 3 };
+
+		public List<Line> getLines() {
+			return Arrays.asList(new Line(1), new Line(2));
+		}
+
+		public Line[] getLineArray() {
+			return new Line[] { new Line(3), null };
+		}
+
+		@ExportFlow(@Setter("setCodeList"))
+		@Elements(Integer.class)
+		public int[] getCodes() {
+			return codes;
+		}
+	}
+
+	@ImportDestination
+	public static class OrderDestination {
+		private List<LineDestination> lines;
+		private LineDestination[] lineArray;
+		private int[] codes;
+		private List<Integer> codeList;
+
+		public List<LineDestination> getLines() {
+			return lines;
+		}
+
+		@Path("getLines")
+		@Elements(LineDestination.class)
+		public void setLines(List<LineDestination> lines) {
+			this.lines = lines;
+		}
+
+		public LineDestination[] getLineArray() {
+			return lineArray;
+		}
+
+		@Path("getLineArray")
+		@Elements(LineDestination.class)
+		public void setLineArray(LineDestination[] lineArray) {
+			this.lineArray = lineArray;
+		}
+
+		public int[] getCodes() {
+			return codes;
+		}
+
+		@Path("getCodes")
+		@Elements(int.class)
+		public void setCodes(int[] codes) {
+			this.codes = codes;
+		}
+
+		public List<Integer> getCodeList() {
+			return codeList;
+		}
+
+		public void setCodeList(List<Integer> codeList) {
+			this.codeList = codeList;
+		}
+	}
+
+	public static class Node {
+		private final String name;
+		private final List<Node> children;
+
+		public Node(final String name, final Node... children) {
+			this.name = name;
+			this.children = Arrays.asList(children);
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public List<Node> getChildren() {
+			return children;
+		}
+	}
+
+	@ImportDestination
+	public static class NodeView {
+		private String name;
+		private List<NodeView> children;
+
+		public String getName() {
+			return name;
+		}
+
+		@Path("getName")
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public List<NodeView> getChildren() {
+			return children;
+		}
+
+		@Path("getChildren")
+		@Elements(NodeView.class)
+		public void setChildren(List<NodeView> children) {
+			this.children = children;
+		}
+	}
+
+	public static class Shipment {
+		public Order getOrder() {
+			return null;
+		}
+	}
+
+	@ImportDestination(nulls = NullHandling.SKIP)
+	public static class ShipmentDestination {
+		private List<LineDestination> lines;
+
+		public List<LineDestination> getLines() {
+			return lines;
+		}
+
+		@Path("getOrder.getLines")
+		@Elements(LineDestination.class)
+		public void setLines(List<LineDestination> lines) {
+			this.lines = lines;
+		}
+	}
+
+	@Test
+	public void shouldMapElements() throws Exception {
+		final Order order = new Order();
+		final OrderDestination dest = new OrderDestination();
+		InjectorFactory.newFactory()
+				.createImporter(Order.class, OrderDestination.class)
+				.inject(order, dest);
+		assertEquals("List elements are not mapped", 2, dest.getLines()
+				.size());
+		assertEquals("List element is not injected", 2, dest.getLines()
+				.get(1).getAmount());
+		assertEquals("Array element is not injected", 3,
+				dest.getLineArray()[0].getAmount());
+		assertNull("Null element is not kept", dest.getLineArray()[1]);
+		assertNotSame("Primitive array is not copied", order.getCodes(),
+				dest.getCodes());
+		assertArrayEquals("Primitive array is not copied", order.getCodes(),
+				dest.getCodes());
+		InjectorFactory.newFactory()
+				.createExporter(Order.class, OrderDestination.class)
+				.inject(order, dest);
+		assertEquals("Primitive array is not exported", Arrays.asList(1, 2, 3),
+				dest.getCodeList());
+	}
+
+	@Test
+	public void shouldMapRecursiveElements() throws Exception {
+		final NodeView root = InjectorFactory
+				.newFactory()
+				.createImporter(Node.class, NodeView.class)
+				.map(new Node("root", new Node("left"), new Node("right",
+						new Node("leaf"))));
+		assertEquals("root", root.getName());
+		assertEquals("Children are not mapped", 2, root.getChildren().size());
+		assertEquals("left", root.getChildren().get(0).getName());
+		assertEquals("Grandchildren are not mapped", "leaf", root
+				.getChildren().get(1).getChildren().get(0).getName());
+	}
+
+	@Test
+	public void shouldSkipNullElementsPath() throws Exception {
+		final ShipmentDestination dest = new ShipmentDestination();
+		final List<LineDestination> lines = new ArrayList<LineDestination>();
+		dest.setLines(lines);
+		InjectorFactory.newFactory()
+				.createImporter(Shipment.class, ShipmentDestination.class)
+				.inject(new Shipment(), dest);
+		assertSame("Skipped elements are injected", lines, dest.getLines());
+	}
+}
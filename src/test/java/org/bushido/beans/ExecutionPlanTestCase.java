@@ -0,0 +1,125 @@
+package org.bushido.beans;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.bushido.beans.mapping.ExecutionPlan;
+import org.bushido.beans.mapping.ImportDestination;
+import org.bushido.beans.mapping.Mapping;
+import org.bushido.beans.mapping.Path;
+import org.bushido.beans.mapping.scanner.MappingScanerFactory;
+import org.junit.Test;
+
+public class ExecutionPlanTestCase {
+
+	public static class Level2 {
+		public String getFirst() {
+			return "first";
+		}
+
+		public String getSecond() {
+			return "second";
+		}
+	}
+
+	public static class Level1 {
+		private final Level2 level2 = new Level2();
+		private int calls;
+
+		public Level2 getLevel2() {
+			calls++;
+			return level2;
+		}
+
+		public String getThird() {
+			return "third";
+		}
+	}
+
+	public static class Root {
+		private final Level1 level1 = new Level1();
+		private int calls;
+
+		public Level1 getLevel1() {
+			calls++;
+			return level1;
+		}
+
+		public String getFlat() {
+			return "flat";
+		}
+	}
+
+	@ImportDestination
+	public static class Flat {
+		private String first;
+		private String second;
+		private String third;
+		private String flat;
+
+		@Path("getLevel1.getLevel2.getFirst")
+		public void setFirst(String first) {
+			this.first = first;
+		}
+
+		@Path("getLevel1.getLevel2.getSecond")
+		public void setSecond(String second) {
+			this.second = second;
+		}
+
+		@Path("getLevel1.getThird")
+		public void setThird(String third) {
+			this.third = third;
+		}
+
+		@Path("getFlat")
+		public void setFlat(String flat) {
+			this.flat = flat;
+		}
+	}
+
+	private static Mapping scan() {
+		return MappingScanerFactory.createImportScanner().scan(Root.class,
+				Flat.class);
+	}
+
+	private static void assertOnce(final Injector<Root, Flat> importer) {
+		final Root src = new Root();
+		final Flat dest = new Flat();
+		importer.inject(src, dest);
+		assertEquals("Level1 should be obtained once", 1, src.calls);
+		assertEquals("Level2 should be obtained once", 1, src.level1.calls);
+		assertEquals("first", dest.first);
+		assertEquals("second", dest.second);
+		assertEquals("third", dest.third);
+		assertEquals("flat", dest.flat);
+	}
+
+	@Test
+	public void shouldShareNestedPrefix() throws Exception {
+		final ExecutionPlan plan = scan().getPlan();
+		assertEquals("Distinct intermediates", 2, plan.getNodeCount());
+		assertEquals("Level1 is the root child", ExecutionPlan.ROOT,
+				plan.getParent(0));
+		assertEquals("Level2 is the level1 child", 0, plan.getParent(1));
+		assertArrayEquals(new int[] { 0 },
+				plan.getChildren(ExecutionPlan.ROOT));
+		assertArrayEquals(new int[] { 1 }, plan.getChildren(0));
+		assertEquals("Each pair is executed once", 4, plan.getOrder().length);
+		assertEquals("Level2 pairs", 2, plan.getLeaves(1).length);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void shouldObtainIntermediateOnce() throws Exception {
+		final Mapping mapping = scan();
+		final Injector<Root, Flat> generated = (Injector<Root, Flat>) InjectorGenerator
+				.generate(new ClassPair(Root.class, Flat.class,
+						Direction.IMPORT), mapping);
+		assertNotNull("Importer was not generated", generated);
+		assertOnce(generated);
+		assertOnce(new Importer<Root, Flat>(mapping));
+	}
+
+}
@@ -7,6 +7,7 @@ import org.bushido.beans.mapping.ExportFlow;
 import org.bushido.beans.mapping.ExportSource;
 import org.bushido.beans.mapping.Path;
 import org.bushido.beans.mapping.Setter;
+import org.bushido.beans.mapping.scanner.MappingScanerFactory;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
@@ -121,4 +122,17 @@ public class ExporterTestCase {
 		assertEquals("Wrong conveter logic", 117.0e+5f, destBean.getFloatField());
 	}
 
+	@Test
+	public void shouldResolveNestedPerCall() throws Exception {
+		final Injector<SrcBean, DestBean> exporter = new Exporter<SrcBean, DestBean>(
+				MappingScanerFactory.createExportScanner().scan(SrcBean.class,
+						DestBean.class));
+		final SrcBean srcBean = new SrcBean();
+		exporter.inject(srcBean, new DestBean());
+		final DestBean destBean = new DestBean();
+		exporter.inject(srcBean, destBean);
+		assertEquals("Stale nested instance used", srcBean.getString(),
+				destBean.getLevel1().getLevel2().getNestingString());
+	}
+
 }
@@ -0,0 +1,131 @@
+package org.bushido.beans;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.bushido.beans.convertor.ConverterRegistry;
+import org.bushido.beans.convertor.CustomConverter;
+import org.bushido.beans.mapping.Access;
+import org.bushido.beans.mapping.ExportSource;
+import org.bushido.beans.mapping.IllegalMappingException;
+import org.bushido.beans.mapping.ImportDestination;
+import org.bushido.beans.mapping.Mapping;
+import org.bushido.beans.mapping.Transient;
+import org.bushido.beans.mapping.scanner.MappingScanerFactory;
+import org.junit.Test;
+
+public class FieldAccessTestCase {
+
+	public static class Record {
+		private String name;
+		private int count;
+		private String secret;
+
+		public Record(String name, int count, String secret) {
+			this.name = name;
+			this.count = count;
+			this.secret = secret;
+		}
+	}
+
+	@ImportDestination(access = Access.FIELD)
+	public static class PrivateDest {
+		private String name;
+		private long count;
+		@Transient
+		private String secret;
+		private final String fixed = "fixed";
+	}
+
+	@ExportSource(access = Access.FIELD)
+	public static class PackageSource {
+		String name = "exported";
+		int count = 7;
+	}
+
+	public static class PackageDest {
+		String name;
+		Integer count;
+	}
+
+	@ImportDestination(access = Access.FIELD)
+	public static class StringCountDest {
+		String name;
+		String count;
+	}
+
+	@ImportDestination(access = Access.FIELD)
+	public static class WrongDest {
+		StringBuilder name;
+	}
+
+	public static class IntToString implements CustomConverter<Integer, String> {
+		@Override
+		public String convert(Integer src) {
+			return "#" + src;
+		}
+	}
+
+	@Test(expected = IllegalMappingException.class)
+	public void shouldRejectDeltaFieldInjection() throws Exception {
+		InjectorFactory.newFactory().createDeltaImporter(Record.class,
+				PrivateDest.class);
+	}
+
+	@Test
+	public void shouldInjectPrivateFields() throws Exception {
+		final Injector<Record, PrivateDest> importer = InjectorFactory
+				.newFactory().createImporter(Record.class, PrivateDest.class);
+		assertTrue("Private fields need reflection injector",
+				importer instanceof FieldInjector);
+		final PrivateDest dest = new PrivateDest();
+		importer.inject(new Record("record", 42, "hidden"), dest);
+		assertEquals("Field is not injected", "record", dest.name);
+		assertEquals("Primitive widening failed", 42L, dest.count);
+		assertNull("Transient field is injected", dest.secret);
+		assertEquals("Final field is injected", "fixed", dest.fixed);
+	}
+
+	@Test
+	public void shouldGenerateFieldExporter() throws Exception {
+		final BulkInjector<PackageSource, PackageDest> exporter = InjectorFactory
+				.newFactory().createExporter(PackageSource.class,
+						PackageDest.class);
+		assertTrue("Package fields should be accessed by generated code",
+				!(exporter instanceof FieldInjector));
+		final PackageDest dest = exporter.map(new PackageSource());
+		assertEquals("Field is not exported", "exported", dest.name);
+		assertEquals("Autoboxing failed", Integer.valueOf(7), dest.count);
+	}
+
+	@Test
+	public void shouldConvertFields() throws Exception {
+		final ConverterRegistry registry = new ConverterRegistry();
+		registry.register(Integer.TYPE, String.class, new IntToString());
+		final Mapping mapping = MappingScanerFactory.createImportScanner(
+				registry).scan(PackageSource.class, StringCountDest.class);
+		@SuppressWarnings("unchecked")
+		final Injector<PackageSource, StringCountDest> importer = (Injector<PackageSource, StringCountDest>) InjectorGenerator
+				.generate(new ClassPair(PackageSource.class,
+						StringCountDest.class, Direction.IMPORT), mapping);
+		assertNotNull("Importer was not generated", importer);
+		final StringCountDest dest = new StringCountDest();
+		importer.inject(new PackageSource(), dest);
+		assertEquals("Field is not injected", "exported", dest.name);
+		assertEquals("Default converter is not applied", "#7", dest.count);
+		final StringCountDest reflected = new StringCountDest();
+		new FieldInjector<PackageSource, StringCountDest>(mapping).inject(
+				new PackageSource(), reflected);
+		assertEquals("Default converter is not applied", "#7",
+				reflected.count);
+	}
+
+	@Test(expected = IllegalMappingException.class)
+	public void shouldRejectIncompatibleFields() throws Exception {
+		MappingScanerFactory.createImportScanner().scan(PackageSource.class,
+				WrongDest.class);
+	}
+
+}
@@ -5,6 +5,7 @@ import static org.junit.Assert.assertEquals;
 import org.bushido.beans.mapping.Converter;
 import org.bushido.beans.mapping.ImportDestination;
 import org.bushido.beans.mapping.Path;
+import org.bushido.beans.mapping.scanner.MappingScanerFactory;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
@@ -111,6 +112,43 @@ public class ImporterTestCase {
 		}
 	}
 
+	public static class Holder {
+		private final Holder nested;
+		private final String value;
+
+		public Holder(final String value) {
+			this.nested = new Holder(value, null);
+			this.value = value;
+		}
+
+		private Holder(final String value, final Holder nested) {
+			this.nested = nested;
+			this.value = value;
+		}
+
+		public Holder getNested() {
+			return nested;
+		}
+
+		public String getValue() {
+			return value;
+		}
+	}
+
+	@ImportDestination
+	public static class HolderDest {
+		private String nestedValue;
+
+		public String getNestedValue() {
+			return nestedValue;
+		}
+
+		@Path("getNested.getValue")
+		public void setNestedValue(String nestedValue) {
+			this.nestedValue = nestedValue;
+		}
+	}
+
 	private static Injector<SrcBean, DestBean> IMPORTER;
 
 	@BeforeClass
@@ -134,4 +172,17 @@ public class ImporterTestCase {
 				Float.valueOf(destBean.getFloatFiled()));
 	}
 
+	@Test
+	public void shouldResolveNestedPerCall() throws Exception {
+		final Injector<Holder, HolderDest> importer = new Importer<Holder, HolderDest>(
+				MappingScanerFactory.createImportScanner().scan(Holder.class,
+						HolderDest.class));
+		final HolderDest dest = new HolderDest();
+		importer.inject(new Holder("first"), dest);
+		assertEquals("Nested value mistmach", "first", dest.getNestedValue());
+		importer.inject(new Holder("second"), dest);
+		assertEquals("Stale nested instance used", "second",
+				dest.getNestedValue());
+	}
+
 }
@@ -0,0 +1,303 @@
+package org.bushido.beans;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import org.bushido.beans.convertor.ConverterRegistry;
+import org.bushido.beans.convertor.CustomConverter;
+import org.bushido.beans.mapping.ExportFlow;
+import org.bushido.beans.mapping.ExportSource;
+import org.bushido.beans.mapping.IllegalMappingException;
+import org.bushido.beans.mapping.ImportDestination;
+import org.bushido.beans.mapping.NullHandling;
+import org.bushido.beans.mapping.Path;
+import org.bushido.beans.mapping.Setter;
+import org.bushido.beans.mapping.scanner.AccessorBackend;
+import org.bushido.beans.mapping.scanner.MappingPlans;
+import org.junit.After;
+import org.junit.Test;
+
+public class InjectorFactoryTestCase {
+
+	@ExportSource
+	public static class Source {
+		private String name;
+
+		@ExportFlow(@Setter("setName"))
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+	@ImportDestination(compliant = true)
+	public static class Destination {
+		private String name;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+	public static class CountSource {
+		public String getCount() {
+			return "42";
+		}
+	}
+
+	@ImportDestination(compliant = true)
+	public static class CountDestination {
+		private int count;
+
+		public int getCount() {
+			return count;
+		}
+
+		public void setCount(int count) {
+			this.count = count;
+		}
+	}
+
+	public static class StringToInt implements
+			CustomConverter<String, Integer> {
+		@Override
+		public Integer convert(String src) {
+			return Integer.valueOf(src);
+		}
+	}
+
+	public static class Address {
+		private String city;
+
+		public String getCity() {
+			return city;
+		}
+
+		public void setCity(String city) {
+			this.city = city;
+		}
+	}
+
+	public static class Customer {
+		private Address address;
+		private int age;
+
+		public Address getAddress() {
+			return address;
+		}
+
+		public void setAddress(Address address) {
+			this.address = address;
+		}
+
+		public int getAge() {
+			return age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+	}
+
+	@ImportDestination(nulls = NullHandling.INSTANTIATE)
+	public static class CustomerView {
+		private String city;
+		private int age;
+
+		public String getCity() {
+			return city;
+		}
+
+		@Path("getAddress.getCity")
+		public void setCity(String city) {
+			this.city = city;
+		}
+
+		public int getAge() {
+			return age;
+		}
+
+		@Path("getAge")
+		public void setAge(int age) {
+			this.age = age;
+		}
+	}
+
+	@After
+	public void restoreFactory() {
+		InjectorFactory.reset();
+	}
+
+	@Test
+	public void shouldUseRegisteredConverter() throws Exception {
+		final InjectorFactory factory = InjectorFactory.newFactory();
+		factory.register(String.class, int.class, new StringToInt());
+		final CountDestination dest = new CountDestination();
+		factory.createImporter(CountSource.class, CountDestination.class)
+				.inject(new CountSource(), dest);
+		assertEquals("Registered converter is not used", 42, dest.getCount());
+	}
+
+	@Test
+	public void shouldExposeMetrics() throws Exception {
+		final InjectorFactory factory = InjectorFactory.newFactory();
+		factory.register(String.class, int.class, new StringToInt());
+		factory.setMetricsEnabled(true);
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = null;
+		try {
+			final Injector<CountSource, CountDestination> importer = factory
+					.createImporter(CountSource.class, CountDestination.class);
+			importer.inject(new CountSource(), new CountDestination());
+			try {
+				importer.inject(null, new CountDestination());
+			} catch (RuntimeException e) {
+				// counted failure
+			}
+			name = ((MeteredInjector<?, ?>) importer).getMetrics()
+					.getObjectName();
+			assertEquals("Invocations are not counted", 1L,
+					server.getAttribute(name, "Invocations"));
+			assertEquals("Failures are not counted", 1L,
+					server.getAttribute(name, "Failures"));
+			final TabularData converters = (TabularData) server.getAttribute(
+					name, "ConverterInvocations");
+			assertEquals("Converter is not measured", 1L, converters.get(
+					new Object[] { StringToInt.class.getName() }).get(
+					"value"));
+		} finally {
+			factory.setMetricsEnabled(false);
+		}
+		assertFalse("Disabled metrics should be unregistered",
+				server.isRegistered(name));
+		final Injector<CountSource, CountDestination> plain = factory
+				.createImporter(CountSource.class, CountDestination.class);
+		assertFalse("Disabled metrics should not wrap injector",
+				plain instanceof MeteredInjector);
+	}
+
+	@Test
+	public void shouldReturnCompiledInjector() throws Exception {
+		final Injector<Source, Destination> importer = InjectorFactory
+				.newFactory().createImporter(Source.class, Destination.class);
+		assertSame("Importer compiled twice", importer, InjectorFactory
+				.newFactory().createImporter(Source.class, Destination.class));
+		final Injector<Source, Destination> exporter = InjectorFactory
+				.newFactory().createExporter(Source.class, Destination.class);
+		assertNotSame("Direction is ignored", importer, exporter);
+	}
+
+	@Test
+	public void shouldPrewarm() throws Exception {
+		final InjectorFactory factory = InjectorFactory.newFactory();
+		factory.prewarm(Arrays.asList(new ClassPair(Source.class,
+				Destination.class, Direction.EXPORT)));
+		assertSame("Prewarmed injector is not used",
+				factory.createExporter(Source.class, Destination.class),
+				factory.createExporter(Source.class, Destination.class));
+	}
+
+	@Test
+	public void shouldCreateAll() throws Exception {
+		final InjectorFactory factory = InjectorFactory.newFactory();
+		final ClassPair imported = new ClassPair(Source.class,
+				Destination.class, Direction.IMPORT);
+		final ClassPair exported = new ClassPair(Source.class,
+				Destination.class, Direction.EXPORT);
+		final ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			final Map<ClassPair, BulkInjector<?, ?>> injectors = factory
+					.createAll(Arrays.asList(imported, exported, imported),
+							pool);
+			assertEquals(Arrays.asList(imported, exported),
+					new ArrayList<ClassPair>(injectors.keySet()));
+			assertSame("Registry injector is not returned",
+					factory.createImporter(Source.class, Destination.class),
+					injectors.get(imported));
+			assertSame("Registry injector is not returned",
+					factory.createExporter(Source.class, Destination.class),
+					injectors.get(exported));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test(expected = IllegalMappingException.class)
+	public void shouldFailCreateAll() throws Exception {
+		InjectorFactory.newFactory().createAll(
+				Arrays.asList(new ClassPair(Source.class, Destination.class,
+						Direction.IMPORT), new ClassPair(Destination.class,
+						Source.class, Direction.IMPORT)));
+	}
+
+	@Test
+	public void shouldInjectWithMethodHandleBackend() throws Exception {
+		final InjectorFactory factory = InjectorFactory.newFactory();
+		factory.setAccessorBackend(AccessorBackend.METHOD_HANDLE);
+		final Customer customer = new Customer();
+		customer.setAge(42);
+		final CustomerView view = new CustomerView();
+		factory.createDeltaImporter(Customer.class, CustomerView.class)
+				.injectChanges(customer, view);
+		assertEquals(42, view.getAge());
+		final Columns columns = factory.createColumnImporter(Customer.class,
+				CustomerView.class).gather(Arrays.asList(customer));
+		assertArrayEquals(new int[] { 42 }, columns.get("age", int[].class));
+	}
+
+	@Test
+	public void shouldSaveAndLoadPlans() throws Exception {
+		final InjectorFactory factory = InjectorFactory.newFactory();
+		factory.createImporter(Customer.class, CustomerView.class);
+		final File file = File.createTempFile("plans", ".bin");
+		try {
+			factory.savePlans(file);
+			assertTrue("Plans are not saved", file.length() > 0);
+			final MappingPlans saved = new MappingPlans(
+					new ConverterRegistry());
+			saved.load(file);
+			assertNotNull("Saved plan is not restored", saved.restore(
+					new ClassPair(Customer.class, CustomerView.class,
+							Direction.IMPORT).toString(), Customer.class,
+					CustomerView.class));
+			factory.loadPlans(file);
+			final Customer customer = new Customer();
+			customer.setAge(42);
+			factory.register(String.class, StringBuilder.class,
+					new CustomConverter<String, StringBuilder>() {
+						@Override
+						public StringBuilder convert(String src) {
+							return new StringBuilder(src);
+						}
+					});
+			assertEquals("Planned mapping is not restored", 42, factory
+					.createImporter(Customer.class, CustomerView.class)
+					.map(customer).getAge());
+		} finally {
+			file.delete();
+		}
+	}
+}
@@ -0,0 +1,236 @@
+package org.bushido.beans;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.bushido.beans.convertor.IntToLongConverter;
+import org.bushido.beans.mapping.Converter;
+import org.bushido.beans.mapping.ExportFlow;
+import org.bushido.beans.mapping.ExportSource;
+import org.bushido.beans.mapping.IllegalMappingException;
+import org.bushido.beans.mapping.ImportDestination;
+import org.bushido.beans.mapping.Mapping;
+import org.bushido.beans.mapping.Path;
+import org.bushido.beans.mapping.Setter;
+import org.bushido.beans.mapping.scanner.MappingScanerFactory;
+import org.junit.Test;
+
+public class InjectorGeneratorTestCase {
+
+	public static class Nested {
+		private final List<String> list = Arrays.asList("first", "second");
+		private final long[] longs = { 1L, 2L, 3L };
+		private String string;
+
+		public List<String> getList() {
+			return list;
+		}
+
+		public long[] getLongs() {
+			return longs;
+		}
+
+		public String getString() {
+			return string;
+		}
+
+		public void setString(String string) {
+			this.string = string;
+		}
+	}
+
+	public static class ToMillis implements IntToLongConverter {
+		@Override
+		public long convert(int src) {
+			return src * 1000L;
+		}
+	}
+
+	public static class SrcBean {
+		private final Nested nested = new Nested();
+
+		public int getInteger() {
+			return 42;
+		}
+
+		public Nested getNested() {
+			return nested;
+		}
+
+		public String getFloatString() {
+			return "1.5";
+		}
+	}
+
+	@ImportDestination
+	public static class DestBean {
+		private long widened;
+		private Integer boxed;
+		private String listItem;
+		private long arrayItem;
+		private float converted;
+		private long millis;
+
+		public long getWidened() {
+			return widened;
+		}
+
+		@Path("getInteger")
+		public void setWidened(long widened) {
+			this.widened = widened;
+		}
+
+		public Integer getBoxed() {
+			return boxed;
+		}
+
+		@Path("getInteger")
+		public void setBoxed(Integer boxed) {
+			this.boxed = boxed;
+		}
+
+		public String getListItem() {
+			return listItem;
+		}
+
+		@Path("getNested.getList[1]")
+		public void setListItem(String listItem) {
+			this.listItem = listItem;
+		}
+
+		public long getArrayItem() {
+			return arrayItem;
+		}
+
+		@Path("getNested.getLongs[2]")
+		public void setArrayItem(long arrayItem) {
+			this.arrayItem = arrayItem;
+		}
+
+		public float getConverted() {
+			return converted;
+		}
+
+		public long getMillis() {
+			return millis;
+		}
+
+		@Path("getInteger")
+		@Converter(ToMillis.class)
+		public void setMillis(long millis) {
+			this.millis = millis;
+		}
+
+		@Path("getFloatString")
+		@Converter(StringToFloatConvertor.class)
+		public void setConverted(float converted) {
+			this.converted = converted;
+		}
+	}
+
+	public static class CharBean {
+		public char getLetter() {
+			return 'a';
+		}
+	}
+
+	@ImportDestination
+	public static class CharMillis {
+		@Path("getLetter")
+		@Converter(ToMillis.class)
+		public void setMillis(long millis) {
+		}
+	}
+
+	@ImportDestination
+	public static class NarrowMillis {
+		@Path("getInteger")
+		@Converter(ToMillis.class)
+		public void setMillis(int millis) {
+		}
+	}
+
+	@ExportSource
+	public static class ExportBean {
+		@ExportFlow(path = @Path("getNested"), value = @Setter("setString"))
+		public String getValue() {
+			return "exported";
+		}
+	}
+
+	public static class ExportDest {
+		private final Nested nested = new Nested();
+
+		public Nested getNested() {
+			return nested;
+		}
+	}
+
+	@Test
+	public void shouldGenerateImporter() throws Exception {
+		final Mapping mapping = MappingScanerFactory.createImportScanner()
+				.scan(SrcBean.class, DestBean.class);
+		@SuppressWarnings("unchecked")
+		final Injector<SrcBean, DestBean> importer = (Injector<SrcBean, DestBean>) InjectorGenerator
+				.generate(new ClassPair(SrcBean.class, DestBean.class,
+						Direction.IMPORT), mapping);
+		assertNotNull("Importer was not generated", importer);
+		assertFalse("Reflection importer returned",
+				importer instanceof Importer);
+		final SrcBean src = new SrcBean();
+		final DestBean dest = new DestBean();
+		importer.inject(src, dest);
+		assertEquals("Primitive widening failed", 42L, dest.getWidened());
+		assertEquals("Autoboxing failed", Integer.valueOf(42), dest.getBoxed());
+		assertEquals("List index failed", "second", dest.getListItem());
+		assertEquals("Array index failed", 3L, dest.getArrayItem());
+		assertEquals("Converter failed", 1.5f, dest.getConverted(), 0f);
+		assertEquals("Primitive converter failed", 42000L, dest.getMillis());
+	}
+
+	@Test
+	public void shouldBoxPrimitiveConverter() throws Exception {
+		final Importer<SrcBean, DestBean> importer = new Importer<SrcBean, DestBean>(
+				MappingScanerFactory.createImportScanner().scan(SrcBean.class,
+						DestBean.class));
+		final DestBean dest = new DestBean();
+		importer.inject(new SrcBean(), dest);
+		assertEquals("Primitive converter failed", 42000L, dest.getMillis());
+	}
+
+	@Test(expected = IllegalMappingException.class)
+	public void shouldRejectCharPrimitiveConverter() throws Exception {
+		MappingScanerFactory.createImportScanner().scan(CharBean.class,
+				CharMillis.class);
+	}
+
+	@Test(expected = IllegalMappingException.class)
+	public void shouldRejectNarrowedPrimitiveConverter() throws Exception {
+		MappingScanerFactory.createImportScanner().scan(SrcBean.class,
+				NarrowMillis.class);
+	}
+
+	@Test
+	public void shouldGenerateExporter() throws Exception {
+		final Mapping mapping = MappingScanerFactory.createExportScanner()
+				.scan(ExportBean.class, ExportDest.class);
+		@SuppressWarnings("unchecked")
+		final Injector<ExportBean, ExportDest> exporter = (Injector<ExportBean, ExportDest>) InjectorGenerator
+				.generate(new ClassPair(ExportBean.class, ExportDest.class,
+						Direction.EXPORT), mapping);
+		assertNotNull("Exporter was not generated", exporter);
+		final ExportDest dest = new ExportDest();
+		exporter.inject(new ExportBean(), dest);
+		assertEquals("Nested export failed", "exported", dest.getNested()
+				.getString());
+		assertTrue("Generated class should be in the bean package", exporter
+				.getClass().getName()
+				.startsWith(ExportBean.class.getName()));
+	}
+
+}
@@ -0,0 +1,191 @@
+package org.bushido.beans;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.bushido.beans.mapping.ExportFlow;
+import org.bushido.beans.mapping.ExportSource;
+import org.bushido.beans.mapping.ImportDestination;
+import org.bushido.beans.mapping.Mapping;
+import org.bushido.beans.mapping.NullHandling;
+import org.bushido.beans.mapping.Path;
+import org.bushido.beans.mapping.Setter;
+import org.bushido.beans.mapping.scanner.MappingScanerFactory;
+import org.junit.Test;
+
+public class NullHandlingTestCase {
+
+	public static class Inner {
+		private String string;
+
+		public String getString() {
+			return string;
+		}
+
+		public void setString(String string) {
+			this.string = string;
+		}
+
+		public long getLength() {
+			return null == string ? 0L : string.length();
+		}
+	}
+
+	public static class Holder {
+		private Inner inner;
+
+		public Inner getInner() {
+			return inner;
+		}
+
+		public void setInner(Inner inner) {
+			this.inner = inner;
+		}
+	}
+
+	@ImportDestination(nulls = NullHandling.SKIP)
+	public static class SkipDest {
+		private String value = "kept";
+
+		public String getValue() {
+			return value;
+		}
+
+		@Path("getInner.getString")
+		public void setValue(String value) {
+			this.value = value;
+		}
+	}
+
+	@ImportDestination(nulls = NullHandling.SKIP)
+	public static class FluentSkipDest {
+		private String value = "kept";
+		private long length = -1L;
+
+		public String getValue() {
+			return value;
+		}
+
+		@Path("getInner.getString")
+		public FluentSkipDest setValue(String value) {
+			this.value = value;
+			return this;
+		}
+
+		public long getLength() {
+			return length;
+		}
+
+		@Path("getInner.getLength")
+		public long setLength(long length) {
+			final long previous = this.length;
+			this.length = length;
+			return previous;
+		}
+	}
+
+	@ExportSource(nulls = NullHandling.SKIP)
+	public static class SkipExport {
+		@ExportFlow(path = @Path("getInner"), value = @Setter("setString"))
+		public String getValue() {
+			return "exported";
+		}
+	}
+
+	@ExportSource(nulls = NullHandling.INSTANTIATE)
+	public static class InstantiateExport {
+		@ExportFlow(path = @Path("getInner"), value = @Setter("setString"))
+		public String getValue() {
+			return "exported";
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <S, D> Injector<S, D> generate(final Class<S> src,
+			final Class<D> dest, final Direction direction) {
+		final Mapping mapping = direction == Direction.IMPORT ? MappingScanerFactory
+				.createImportScanner().scan(src, dest) : MappingScanerFactory
+				.createExportScanner().scan(src, dest);
+		final Injector<S, D> injector = (Injector<S, D>) InjectorGenerator
+				.generate(new ClassPair(src, dest, direction), mapping);
+		assertNotNull("Injector was not generated", injector);
+		assertFalse("Reflection injector returned",
+				injector instanceof Importer || injector instanceof Exporter);
+		return injector;
+	}
+
+	private static void assertSkipImport(
+			final Injector<Holder, SkipDest> importer) throws Exception {
+		final SkipDest dest = new SkipDest();
+		importer.inject(new Holder(), dest);
+		assertEquals("Null path was not skipped", "kept", dest.getValue());
+		final Holder src = new Holder();
+		src.setInner(new Inner());
+		src.getInner().setString("imported");
+		importer.inject(src, dest);
+		assertEquals("Present path was not imported", "imported",
+				dest.getValue());
+	}
+
+	private static void assertInstantiateExport(
+			final Injector<InstantiateExport, Holder> exporter)
+			throws Exception {
+		final Holder dest = new Holder();
+		exporter.inject(new InstantiateExport(), dest);
+		assertNotNull("Nested instance was not created", dest.getInner());
+		assertEquals("Export into created instance failed", "exported", dest
+				.getInner().getString());
+		final Inner inner = dest.getInner();
+		exporter.inject(new InstantiateExport(), dest);
+		assertEquals("Existing instance was replaced", inner, dest.getInner());
+	}
+
+	@Test
+	public void shouldSkipNullImport() throws Exception {
+		assertSkipImport(generate(Holder.class, SkipDest.class,
+				Direction.IMPORT));
+		assertSkipImport(new Importer<Holder, SkipDest>(MappingScanerFactory
+				.createImportScanner().scan(Holder.class, SkipDest.class)));
+	}
+
+	@Test
+	public void shouldSkipNullFluentImport() throws Exception {
+		final Injector<Holder, FluentSkipDest> importer = generate(
+				Holder.class, FluentSkipDest.class, Direction.IMPORT);
+		final FluentSkipDest dest = new FluentSkipDest();
+		importer.inject(new Holder(), dest);
+		assertEquals("Null path was not skipped", "kept", dest.getValue());
+		assertEquals("Null path was not skipped", -1L, dest.getLength());
+		final Holder src = new Holder();
+		src.setInner(new Inner());
+		src.getInner().setString("fluent");
+		importer.inject(src, dest);
+		assertEquals("Fluent setter was not called", "fluent",
+				dest.getValue());
+		assertEquals("Fluent setter was not called", 6L, dest.getLength());
+	}
+
+	@Test
+	public void shouldSkipNullExport() throws Exception {
+		final Holder dest = new Holder();
+		generate(SkipExport.class, Holder.class, Direction.EXPORT).inject(
+				new SkipExport(), dest);
+		assertNull("Nested instance was created", dest.getInner());
+		new Exporter<SkipExport, Holder>(MappingScanerFactory
+				.createExportScanner().scan(SkipExport.class, Holder.class))
+				.inject(new SkipExport(), dest);
+		assertNull("Nested instance was created", dest.getInner());
+	}
+
+	@Test
+	public void shouldInstantiateNullExport() throws Exception {
+		assertInstantiateExport(generate(InstantiateExport.class,
+				Holder.class, Direction.EXPORT));
+		assertInstantiateExport(new Exporter<InstantiateExport, Holder>(
+				MappingScanerFactory.createExportScanner().scan(
+						InstantiateExport.class, Holder.class)));
+	}
+
+}
@@ -0,0 +1,257 @@
+package org.bushido.beans;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.bushido.beans.mapping.IllegalMappingException;
+import org.bushido.beans.mapping.ImportDestination;
+import org.bushido.beans.mapping.Path;
+import org.junit.Test;
+
+public class RecordCodecTestCase {
+
+	public static enum Side {
+		BUY, SELL
+	}
+
+	@ImportDestination(compliant = true)
+	public static class Trade {
+		private long id;
+		private double price;
+		private int quantity;
+		private boolean settled;
+		private char currency;
+		private short venue;
+		private byte flags;
+		private float fee;
+		private String symbol;
+		private byte[] payload;
+		private Long parent;
+		private Side side;
+
+		public long getId() {
+			return id;
+		}
+
+		public void setId(long id) {
+			this.id = id;
+		}
+
+		public double getPrice() {
+			return price;
+		}
+
+		public void setPrice(double price) {
+			this.price = price;
+		}
+
+		public int getQuantity() {
+			return quantity;
+		}
+
+		public void setQuantity(int quantity) {
+			this.quantity = quantity;
+		}
+
+		public boolean getSettled() {
+			return settled;
+		}
+
+		public void setSettled(boolean settled) {
+			this.settled = settled;
+		}
+
+		public char getCurrency() {
+			return currency;
+		}
+
+		public void setCurrency(char currency) {
+			this.currency = currency;
+		}
+
+		public short getVenue() {
+			return venue;
+		}
+
+		public void setVenue(short venue) {
+			this.venue = venue;
+		}
+
+		public byte getFlags() {
+			return flags;
+		}
+
+		public void setFlags(byte flags) {
+			this.flags = flags;
+		}
+
+		public float getFee() {
+			return fee;
+		}
+
+		public void setFee(float fee) {
+			this.fee = fee;
+		}
+
+		public String getSymbol() {
+			return symbol;
+		}
+
+		public void setSymbol(String symbol) {
+			this.symbol = symbol;
+		}
+
+		public byte[] getPayload() {
+			return payload;
+		}
+
+		public void setPayload(byte[] payload) {
+			this.payload = payload;
+		}
+
+		public Long getParent() {
+			return parent;
+		}
+
+		public void setParent(Long parent) {
+			this.parent = parent;
+		}
+
+		public Side getSide() {
+			return side;
+		}
+
+		public void setSide(Side side) {
+			this.side = side;
+		}
+	}
+
+	@ImportDestination
+	public static class NestedTrade {
+		private final Trade trade = new Trade();
+		private long id;
+
+		public Trade getTrade() {
+			return trade;
+		}
+
+		public long getId() {
+			return id;
+		}
+
+		@Path("getTrade.getId")
+		public void setId(long id) {
+			this.id = id;
+		}
+	}
+
+	private static Trade trade(final long id) {
+		final Trade result = new Trade();
+		result.setId(id);
+		result.setPrice(42.5D);
+		result.setQuantity(100);
+		result.setSettled(true);
+		result.setCurrency('$');
+		result.setVenue((short) 7);
+		result.setFlags((byte) 3);
+		result.setFee(0.25F);
+		result.setSymbol("\u20ac-\ud83d\ude00-" + id);
+		result.setPayload(new byte[] { 1, 2, 3 });
+		result.setParent(Long.valueOf(id - 1));
+		result.setSide(Side.SELL);
+		return result;
+	}
+
+	private static void assertTrade(final Trade expected, final Trade actual) {
+		assertEquals(expected.getId(), actual.getId());
+		assertEquals(expected.getPrice(), actual.getPrice(), 0D);
+		assertEquals(expected.getQuantity(), actual.getQuantity());
+		assertEquals(expected.getSettled(), actual.getSettled());
+		assertEquals(expected.getCurrency(), actual.getCurrency());
+		assertEquals(expected.getVenue(), actual.getVenue());
+		assertEquals(expected.getFlags(), actual.getFlags());
+		assertEquals(expected.getFee(), actual.getFee(), 0F);
+		assertEquals(expected.getSymbol(), actual.getSymbol());
+		assertArrayEquals(expected.getPayload(), actual.getPayload());
+		assertEquals(expected.getParent(), actual.getParent());
+		assertEquals(expected.getSide(), actual.getSide());
+	}
+
+	@Test
+	public void shouldRoundTripHeapBuffer() throws Exception {
+		final RecordCodec<Trade> codec = InjectorFactory.newFactory()
+				.createCodec(Trade.class);
+		final ByteBuffer buffer = ByteBuffer.allocate(1024);
+		final int first = codec.write(trade(1), buffer);
+		final int second = codec.write(trade(2), buffer);
+		assertTrue(first > codec.getFixedSize());
+		assertEquals(first + second, buffer.position());
+		buffer.flip();
+		assertTrade(trade(1), codec.read(buffer));
+		assertTrade(trade(2), codec.read(buffer));
+		assertEquals(0, buffer.remaining());
+	}
+
+	@Test
+	public void shouldRoundTripDirectBuffer() throws Exception {
+		final RecordCodec<Trade> codec = InjectorFactory.newFactory()
+				.createCodec(Trade.class);
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(1024).order(
+				ByteOrder.LITTLE_ENDIAN);
+		codec.write(trade(3), buffer);
+		buffer.flip();
+		final Trade read = new Trade();
+		codec.read(buffer, read);
+		assertTrade(trade(3), read);
+	}
+
+	@Test
+	public void shouldWriteNulls() throws Exception {
+		final RecordCodec<Trade> codec = InjectorFactory.newFactory()
+				.createCodec(Trade.class);
+		final ByteBuffer buffer = ByteBuffer.allocate(codec.getFixedSize());
+		assertEquals(codec.getFixedSize(), codec.write(new Trade(), buffer));
+		buffer.flip();
+		final Trade read = codec.read(buffer);
+		assertNull(read.getSymbol());
+		assertNull(read.getPayload());
+		assertNull(read.getParent());
+		assertNull(read.getSide());
+	}
+
+	@Test
+	public void shouldNotMovePositionOnOverflow() throws Exception {
+		final RecordCodec<Trade> codec = InjectorFactory.newFactory()
+				.createCodec(Trade.class);
+		final ByteBuffer buffer = ByteBuffer.allocate(codec.getFixedSize() + 4);
+		buffer.position(2);
+		try {
+			codec.write(trade(4), buffer);
+		} catch (BufferOverflowException e) {
+			assertEquals(2, buffer.position());
+			return;
+		}
+		throw new AssertionError("Record doesn't fit the buffer");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldCheckSchema() throws Exception {
+		final RecordCodec<Trade> codec = InjectorFactory.newFactory()
+				.createCodec(Trade.class);
+		final ByteBuffer buffer = ByteBuffer.allocate(1024);
+		buffer.putInt(0, codec.getSchema() + 1);
+		codec.read(buffer);
+	}
+
+	@Test(expected = IllegalMappingException.class)
+	public void shouldRejectNestedProperty() throws Exception {
+		InjectorFactory.newFactory().createCodec(NestedTrade.class);
+	}
+
+}
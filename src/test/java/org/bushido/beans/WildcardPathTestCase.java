@@ -0,0 +1,147 @@
+package org.bushido.beans;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.bushido.beans.ElementsTestCase.Order;
+import org.bushido.beans.mapping.Aggregate;
+import org.bushido.beans.mapping.Aggregation;
+import org.bushido.beans.mapping.IllegalMappingException;
+import org.bushido.beans.mapping.ImportDestination;
+import org.bushido.beans.mapping.Path;
+import org.junit.Test;
+
+public class WildcardPathTestCase {
+
+	public static class Report {
+		public List<Order> getOrders() {
+			return Arrays.asList(new Order(), null, new Order());
+		}
+	}
+
+	@ImportDestination
+	public static class ReportDestination {
+		private List<Integer> amounts;
+		private int[] amountArray;
+		private long arrayTotal;
+		private int max;
+
+		public List<Integer> getAmounts() {
+			return amounts;
+		}
+
+		@Path("getOrders[*].getLines[*].getAmount")
+		public void setAmounts(List<Integer> amounts) {
+			this.amounts = amounts;
+		}
+
+		public int[] getAmountArray() {
+			return amountArray;
+		}
+
+		@Path("getOrders[*].getLines[*].getAmount")
+		public void setAmountArray(int[] amountArray) {
+			this.amountArray = amountArray;
+		}
+
+		public long getArrayTotal() {
+			return arrayTotal;
+		}
+
+		@Path("getOrders[*].getLineArray[*].getAmount")
+		@Aggregate(Aggregation.SUM)
+		public void setArrayTotal(long arrayTotal) {
+			this.arrayTotal = arrayTotal;
+		}
+
+		public int getMax() {
+			return max;
+		}
+
+		@Path("getOrders[*].getLines[*].getAmount")
+		@Aggregate(Aggregation.MAX)
+		public void setMax(int max) {
+			this.max = max;
+		}
+	}
+
+	@ImportDestination
+	public static class LineCount {
+		private long count;
+
+		public long getCount() {
+			return count;
+		}
+
+		@Path("getOrders[*].getLines[*]")
+		@Aggregate(Aggregation.COUNT)
+		public void setCount(long count) {
+			this.count = count;
+		}
+	}
+
+	@ImportDestination
+	public static class LineSum {
+		@Path("getOrders[*].getLines[*]")
+		@Aggregate(Aggregation.SUM)
+		public void setSum(long sum) {
+		}
+	}
+
+	@ImportDestination
+	public static class AmountNames {
+		@Path("getOrders[*].getLines[*].getAmount")
+		public void setNames(String[] names) {
+		}
+	}
+
+	@ImportDestination
+	public static class AmountDigits {
+		@Path("getOrders[*].getLines[*].getAmount[*]")
+		public void setDigits(List<Integer> digits) {
+		}
+	}
+
+	@Test
+	public void shouldCountWildcardPath() throws Exception {
+		assertEquals("Wildcard values are not counted", 4L, InjectorFactory
+				.newFactory().createImporter(Report.class, LineCount.class)
+				.map(new Report()).getCount());
+	}
+
+	@Test(expected = IllegalMappingException.class)
+	public void shouldRejectNonNumericAggregate() throws Exception {
+		InjectorFactory.newFactory().createImporter(Report.class,
+				LineSum.class);
+	}
+
+	@Test(expected = IllegalMappingException.class)
+	public void shouldRejectWildcardArrayComponent() throws Exception {
+		InjectorFactory.newFactory().createImporter(Report.class,
+				AmountNames.class);
+	}
+
+	@Test(expected = IllegalMappingException.class)
+	public void shouldRejectLastWildcardOfScalar() throws Exception {
+		InjectorFactory.newFactory().createImporter(Report.class,
+				AmountDigits.class);
+	}
+
+	@Test
+	public void shouldStreamWildcardPath() throws Exception {
+		final ReportDestination dest = new ReportDestination();
+		InjectorFactory.newFactory()
+				.createImporter(Report.class, ReportDestination.class)
+				.inject(new Report(), dest);
+		assertEquals("Wildcard values are not collected",
+				Arrays.asList(1, 2, 1, 2), dest.getAmounts());
+		assertArrayEquals("Wildcard values are not collected", new int[] {
+				1, 2, 1, 2 }, dest.getAmountArray());
+		assertEquals("Wildcard values are not summed", 6L,
+				dest.getArrayTotal());
+		assertEquals("Wildcard maximum is wrong", 2, dest.getMax());
+	}
+}
@@ -0,0 +1,136 @@
+package org.bushido.beans.convertor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.bushido.beans.BulkInjector;
+import org.bushido.beans.InjectorFactory;
+import org.bushido.beans.mapping.Converter;
+import org.bushido.beans.mapping.IllegalMappingException;
+import org.bushido.beans.mapping.ImportDestination;
+import org.bushido.beans.mapping.Path;
+import org.junit.Test;
+
+public class ConverterChainTestCase {
+
+	public static class Trim implements CustomConverter<String, String> {
+		@Override
+		public String convert(String src) {
+			return src.trim();
+		}
+	}
+
+	public static class ToDecimal implements
+			CustomConverter<String, BigDecimal> {
+		@Override
+		public BigDecimal convert(String src) {
+			return new BigDecimal(src);
+		}
+	}
+
+	public static class ToLong implements CustomConverter<BigDecimal, Long> {
+		@Override
+		public Long convert(BigDecimal src) {
+			return Long.valueOf(src.longValueExact());
+		}
+	}
+
+	public static class Source {
+		public String getAmount() {
+			return " 42.00 ";
+		}
+	}
+
+	@ImportDestination
+	public static class Destination {
+		private long amount;
+
+		public long getAmount() {
+			return amount;
+		}
+
+		@Path("getAmount")
+		@Converter({ Trim.class, ToDecimal.class, ToLong.class })
+		public void setAmount(long amount) {
+			this.amount = amount;
+		}
+	}
+
+	@ImportDestination
+	public static class Mismatch {
+		@Path("getAmount")
+		@Converter({ Trim.class, ToLong.class })
+		public void setAmount(long amount) {
+		}
+	}
+
+	public static class Count {
+		public Integer getAmount() {
+			return Integer.valueOf(42);
+		}
+	}
+
+	@ImportDestination
+	public static class CountDestination {
+		@Path("getAmount")
+		@Converter({ ToDecimal.class, ToLong.class })
+		public void setAmount(long amount) {
+		}
+	}
+
+	@ImportDestination
+	public static class DecimalDestination {
+		@Path("getAmount")
+		@Converter({ Trim.class, ToDecimal.class })
+		public void setAmount(long amount) {
+		}
+	}
+
+	@Test
+	public void shouldFuseChain() throws Exception {
+		final CustomConverter<Object, Object> fused = ConverterChain
+				.fuse(Arrays.asList(new Trim(), new ToDecimal(), new ToLong()));
+		assertTrue("Chain of public converters should be generated", fused
+				.getClass().getName().startsWith(Trim.class.getName()));
+		assertEquals("Chain is not applied in order", Long.valueOf(42L),
+				fused.convert(" 42.00 "));
+		assertEquals("Single converter chain failed", "42",
+				ConverterChain.fuse(Collections.singletonList(new Trim()))
+						.convert(" 42 "));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldCheckChainTypes() throws Exception {
+		ConverterChain.fuse(Arrays.asList(new ToDecimal(), new Trim()));
+	}
+
+	@Test
+	public void shouldInjectWithChain() throws Exception {
+		final BulkInjector<Source, Destination> importer = InjectorFactory
+				.newFactory().createImporter(Source.class, Destination.class);
+		assertEquals("Chain is not applied by the injector", 42L, importer
+				.map(new Source()).getAmount());
+	}
+
+	@Test(expected = IllegalMappingException.class)
+	public void shouldRejectMismatchedChain() throws Exception {
+		InjectorFactory.newFactory().createImporter(Source.class,
+				Mismatch.class);
+	}
+
+	@Test(expected = IllegalMappingException.class)
+	public void shouldRejectMismatchedChainSource() throws Exception {
+		InjectorFactory.newFactory().createImporter(Count.class,
+				CountDestination.class);
+	}
+
+	@Test(expected = IllegalMappingException.class)
+	public void shouldRejectMismatchedChainResult() throws Exception {
+		InjectorFactory.newFactory().createImporter(Source.class,
+				DecimalDestination.class);
+	}
+}
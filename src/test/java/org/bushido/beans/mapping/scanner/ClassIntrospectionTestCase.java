@@ -0,0 +1,65 @@
+package org.bushido.beans.mapping.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class ClassIntrospectionTestCase {
+
+	public static class Base {
+		public Object getValue() {
+			return null;
+		}
+	}
+
+	public static class Bean extends Base {
+		@Override
+		public String getValue() {
+			return "value";
+		}
+
+		public boolean isActive() {
+			return true;
+		}
+
+		public void setActive(boolean active) {
+		}
+
+		public void setValue(String value) {
+		}
+
+		public void setValue(Integer value) {
+		}
+
+		public void getNothing() {
+		}
+	}
+
+	@Test
+	public void shouldCacheIntrospection() throws Exception {
+		assertSame("Introspection is not cached",
+				ClassIntrospection.of(Bean.class),
+				ClassIntrospection.of(Bean.class));
+	}
+
+	@Test
+	public void shouldIndexAccessors() throws Exception {
+		final ClassIntrospection introspection = ClassIntrospection
+				.of(Bean.class);
+		assertEquals("Covariant getter is not preferred", String.class,
+				introspection.getGetter("getValue").getReturnType());
+		assertEquals("Boolean getter is not found", "isActive", introspection
+				.getPropertyGetter("Active").getName());
+		assertNull("Void getter is found",
+				introspection.getPropertyGetter("Nothing"));
+		assertEquals("Setter is not found by type", Integer.class,
+				introspection.getSetter("setValue", Integer.class)
+						.getParameterTypes()[0]);
+		assertEquals("Overloaded setters are not indexed", 2, introspection
+				.getSetters("setValue").size());
+		assertEquals("Property setter is not found", "setActive",
+				introspection.getPropertySetter("Active").getName());
+	}
+}
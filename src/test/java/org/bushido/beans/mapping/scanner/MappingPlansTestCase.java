@@ -0,0 +1,170 @@
+package org.bushido.beans.mapping.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bushido.beans.StringToFloatConvertor;
+import org.bushido.beans.convertor.ConverterRegistry;
+import org.bushido.beans.mapping.Converter;
+import org.bushido.beans.mapping.ExportFlow;
+import org.bushido.beans.mapping.ExportSource;
+import org.bushido.beans.mapping.ImportDestination;
+import org.bushido.beans.mapping.Mapping;
+import org.bushido.beans.mapping.NullHandling;
+import org.bushido.beans.mapping.Path;
+import org.bushido.beans.mapping.Setter;
+import org.junit.Test;
+
+public class MappingPlansTestCase {
+
+	public static class Nested {
+		private String value;
+		private final List<String> items = new ArrayList<String>();
+
+		public String getValue() {
+			return value;
+		}
+
+		public void setValue(String value) {
+			this.value = value;
+		}
+
+		public List<String> getItems() {
+			return items;
+		}
+	}
+
+	public static class Source {
+		private Nested nested;
+
+		public String getName() {
+			return "name";
+		}
+
+		public String getAmount() {
+			return "1.5";
+		}
+
+		public Nested getNested() {
+			return nested;
+		}
+
+		public void setNested(Nested nested) {
+			this.nested = nested;
+		}
+	}
+
+	@ImportDestination(compliant = true)
+	public static class Destination {
+		private String name;
+		private float amount;
+		private String value;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		@Path("getAmount")
+		@Converter(StringToFloatConvertor.class)
+		public void setAmount(float amount) {
+			this.amount = amount;
+		}
+
+		public float getAmount() {
+			return amount;
+		}
+
+		public String getValue() {
+			return value;
+		}
+
+		@Path("getNested.getValue")
+		public void setValue(String value) {
+			this.value = value;
+		}
+	}
+
+	@ExportSource(nulls = NullHandling.INSTANTIATE)
+	public static class Exported {
+		@ExportFlow(path = @Path("getNested"), value = @Setter("setValue"))
+		public String getValue() {
+			return "exported";
+		}
+	}
+
+	@ImportDestination
+	public static class Wildcard {
+		@Path("getNested.getItems[*]")
+		public void setItems(List<String> items) {
+		}
+	}
+
+	@Test
+	public void shouldRestoreSavedPlans() throws Exception {
+		final ConverterRegistry registry = new ConverterRegistry();
+		final Mapping imported = new ImportMappingScanner(registry).scan(
+				Source.class, Destination.class);
+		final Mapping exported = new ExportMappingScanner(registry).scan(
+				Exported.class, Source.class);
+		final MappingPlans plans = new MappingPlans(registry);
+		assertTrue("Import plan is not recorded", plans.record("import",
+				Source.class, Destination.class, false, imported));
+		assertTrue("Export plan is not recorded", plans.record("export",
+				Exported.class, Source.class, true, exported));
+		final File file = File.createTempFile("plans", ".bin");
+		try {
+			plans.save(file);
+			final MappingPlans loaded = new MappingPlans(registry);
+			loaded.load(file);
+			assertEquals("Plans are not loaded", 2, loaded.size());
+			assertEquals("Import mapping is not restored",
+					new ArrayList<Object>(imported.getMapping()),
+					new ArrayList<Object>(loaded.restore("import",
+							Source.class, Destination.class).getMapping()));
+			assertEquals("Converters are not restored",
+					imported.getConverterMapping(),
+					loaded.restore("import", Source.class, Destination.class)
+							.getConverterMapping());
+			final Mapping restored = loaded.restore("export", Exported.class,
+					Source.class);
+			assertNotNull("Export mapping is not restored", restored);
+			assertNotNull("Instantiating setter is not restored", restored
+					.getMapping().iterator().next().getCallstack()[0]
+					.getSetter());
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void shouldDropPlanOfOtherClasses() throws Exception {
+		final ConverterRegistry registry = new ConverterRegistry();
+		final MappingPlans plans = new MappingPlans(registry);
+		plans.record("import", Source.class, Destination.class, false,
+				new ImportMappingScanner(registry).scan(Source.class,
+						Destination.class));
+		assertNull("Plan of the other classes is restored",
+				plans.restore("import", Nested.class, Destination.class));
+		assertEquals("Invalid plan is not dropped", 0, plans.size());
+	}
+
+	@Test
+	public void shouldNotRecordWildcard() throws Exception {
+		final ConverterRegistry registry = new ConverterRegistry();
+		assertFalse("Wildcard mapping is recorded", new MappingPlans(registry)
+				.record("wildcard", Source.class, Wildcard.class, false,
+						new ImportMappingScanner(registry).scan(Source.class,
+								Wildcard.class)));
+	}
+}
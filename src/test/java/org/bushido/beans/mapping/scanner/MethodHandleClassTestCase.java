@@ -0,0 +1,119 @@
+package org.bushido.beans.mapping.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+
+import net.sf.cglib.reflect.FastClass;
+import net.sf.cglib.reflect.FastMethod;
+
+import org.junit.Test;
+
+public class MethodHandleClassTestCase {
+
+	private static class Bean {
+		private long value;
+		private String name;
+
+		public Bean() {
+		}
+
+		public Bean(String name, long value) {
+			this.name = name;
+			this.value = value;
+		}
+
+		public long getValue() {
+			return value;
+		}
+
+		public void setValue(long value) {
+			this.value = value;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void rename(String first, String last) {
+			this.name = first + " " + last;
+		}
+
+		public void fail() {
+			throw new UnsupportedOperationException("fail");
+		}
+
+		public static String describe(String name) {
+			return "bean " + name;
+		}
+	}
+
+	@Test
+	public void shouldInvokeAccessors() throws Exception {
+		final FastClass clazz = new MethodHandleClass(Bean.class);
+		final Bean bean = new Bean();
+		final FastMethod setter = clazz.getMethod(Bean.class.getMethod(
+				"setValue", Long.TYPE));
+		assertNull(setter.invoke(bean, new Object[] { Long.valueOf(42L) }));
+		final FastMethod getter = clazz.getMethod(Bean.class
+				.getMethod("getValue"));
+		assertEquals(Long.valueOf(42L), getter.invoke(bean, null));
+		clazz.getMethod("rename", new Class[] { String.class, String.class })
+				.invoke(bean, new Object[] { "John", "Doe" });
+		assertEquals("John Doe", bean.getName());
+		assertEquals("bean x", clazz.getMethod("describe",
+				new Class[] { String.class }).invoke(null,
+				new Object[] { "x" }));
+	}
+
+	@Test
+	public void shouldCreateInstances() throws Exception {
+		final FastClass clazz = new MethodHandleClass(Bean.class);
+		assertSame(Bean.class, clazz.newInstance().getClass());
+		final Bean bean = (Bean) clazz.newInstance(new Class[] {
+				String.class, Long.TYPE }, new Object[] { "name",
+				Long.valueOf(1L) });
+		assertEquals("name", bean.getName());
+		assertEquals(1L, bean.getValue());
+	}
+
+	@Test
+	public void shouldWrapThrownException() throws Exception {
+		final FastClass clazz = new MethodHandleClass(Bean.class);
+		try {
+			clazz.getMethod("fail", new Class[0]).invoke(new Bean(), null);
+		} catch (InvocationTargetException e) {
+			assertTrue(e.getCause() instanceof UnsupportedOperationException);
+			return;
+		}
+		throw new AssertionError("Exception is not thrown");
+	}
+
+	@Test(expected = ClassCastException.class)
+	public void shouldNotWrapArgumentMismatch() throws Exception {
+		final FastClass clazz = new MethodHandleClass(Bean.class);
+		clazz.getMethod("rename", new Class[] { String.class, String.class })
+				.invoke(new Bean(), new Object[] { "John", Long.valueOf(1L) });
+	}
+
+	@Test
+	public void shouldFallBackToCglibBackend() throws Exception {
+		System.setProperty(AccessorBackend.PROPERTY, "unknown");
+		try {
+			assertSame(AccessorBackend.CGLIB, AccessorBackend.configured());
+		} finally {
+			System.clearProperty(AccessorBackend.PROPERTY);
+		}
+	}
+
+	@Test
+	public void shouldNotFindMissingMethod() throws Exception {
+		final FastClass clazz = new MethodHandleClass(Bean.class);
+		assertEquals(-1, clazz.getIndex("missing", new Class[0]));
+		assertEquals(-1, clazz.getIndex(new Class[] { Integer.class }));
+	}
+
+}
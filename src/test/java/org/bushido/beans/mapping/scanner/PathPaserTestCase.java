@@ -1,6 +1,7 @@
 package org.bushido.beans.mapping.scanner;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.lang.reflect.Method;
 
@@ -81,6 +82,15 @@ public class PathPaserTestCase {
 		assertEquals("Wrong value obtaned", Integer.MAX_VALUE, res);
 	}
 	
+	@Test
+	public void solveWildcard() throws Exception {
+		final Accessor<Method> callQueue[] = PathParser.parseMethodsPath(
+				Level0.class, "getLevel1.getStrArr[*]");
+		assertTrue("Wildcard is not parsed", callQueue[1].isWildcard());
+		assertEquals("Wildcard element type is not resolved", String.class,
+				PathParser.valueClass(callQueue[1]));
+	}
+
 	@Test
 	public void solveIndexed() throws Exception {
 		final String path = "getLevel1.getStrArr[0]";
@@ -0,0 +1,33 @@
+package org.bushido.beans.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class TimerTestCase {
+
+	@Test
+	public void shouldReportPercentileBuckets() throws Exception {
+		final Timer timer = new Timer();
+		assertEquals("Empty timer percentile", 0L,
+				timer.getPercentileNanos(99d));
+		for (int i = 0; i < 99; i++) {
+			timer.record(100L);
+		}
+		timer.record(5000L);
+		assertEquals("Count", 100L, timer.getCount());
+		assertEquals("Total", 99L * 100L + 5000L, timer.getTotalNanos());
+		assertEquals("Mean", (99L * 100L + 5000L) / 100L,
+				timer.getMeanNanos());
+		assertEquals("Median bucket upper bound", 127L,
+				timer.getPercentileNanos(50d));
+		assertEquals("Tail bucket upper bound", 8191L,
+				timer.getPercentileNanos(100d));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectWrongPercentile() throws Exception {
+		new Timer().getPercentileNanos(0d);
+	}
+
+}
@@ -0,0 +1,227 @@
+package org.bushido.beans.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.bushido.beans.BulkInjector;
+import org.bushido.beans.Direction;
+import org.bushido.beans.GeneratedInjectors;
+import org.bushido.beans.Injector;
+import org.bushido.beans.InjectorFactory;
+import org.bushido.beans.StringToFloatConvertor;
+import org.bushido.beans.convertor.ConverterChainTestCase.ToDecimal;
+import org.bushido.beans.convertor.ConverterChainTestCase.ToLong;
+import org.bushido.beans.convertor.ConverterChainTestCase.Trim;
+import org.bushido.beans.mapping.Converter;
+import org.bushido.beans.mapping.ExportFlow;
+import org.bushido.beans.mapping.ExportSource;
+import org.bushido.beans.mapping.ImportDestination;
+import org.bushido.beans.mapping.Path;
+import org.bushido.beans.mapping.Setter;
+import org.junit.Test;
+
+public class InjectorProcessorTestCase {
+
+	public static class Nested {
+		private final List<String> list = Arrays.asList("first", "second");
+		private final long[] longs = { 1L, 2L, 3L };
+		private String string;
+
+		public List<String> getList() {
+			return list;
+		}
+
+		public long[] getLongs() {
+			return longs;
+		}
+
+		public String getString() {
+			return string;
+		}
+
+		public void setString(String string) {
+			this.string = string;
+		}
+	}
+
+	public static class Source {
+		private final Nested nested = new Nested();
+
+		public String getName() {
+			return "name";
+		}
+
+		public int getInteger() {
+			return 42;
+		}
+
+		public Nested getNested() {
+			return nested;
+		}
+
+		public String getFloatString() {
+			return "1.5";
+		}
+
+		public String getDecimalString() {
+			return " 2.00 ";
+		}
+	}
+
+	@ImportDestination(compliant = true, sources = Source.class)
+	public static class Destination {
+		private String name;
+		private long widened;
+		private String listItem;
+		private long arrayItem;
+		private float converted;
+		private long chained;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public long getWidened() {
+			return widened;
+		}
+
+		@Path("getInteger")
+		public void setWidened(long widened) {
+			this.widened = widened;
+		}
+
+		public String getListItem() {
+			return listItem;
+		}
+
+		@Path("getNested.getList[1]")
+		public void setListItem(String listItem) {
+			this.listItem = listItem;
+		}
+
+		public long getArrayItem() {
+			return arrayItem;
+		}
+
+		@Path("getNested.getLongs[2]")
+		public void setArrayItem(long arrayItem) {
+			this.arrayItem = arrayItem;
+		}
+
+		public float getConverted() {
+			return converted;
+		}
+
+		@Path("getFloatString")
+		@Converter(StringToFloatConvertor.class)
+		public void setConverted(float converted) {
+			this.converted = converted;
+		}
+
+		public long getChained() {
+			return chained;
+		}
+
+		@Path("getDecimalString")
+		@Converter({ Trim.class, ToDecimal.class, ToLong.class })
+		public void setChained(long chained) {
+			this.chained = chained;
+		}
+	}
+
+	@ExportSource(compliant = true, destinations = ExportDestination.class)
+	public static class ExportBean {
+		public String getName() {
+			return "name";
+		}
+
+		@ExportFlow(path = @Path("getNested"), value = @Setter("setString"))
+		public String getValue() {
+			return "exported";
+		}
+	}
+
+	public static class ExportDestination {
+		private final Nested nested = new Nested();
+		private String name;
+
+		public Nested getNested() {
+			return nested;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+	@ImportDestination(compliant = true, sources = Source.class)
+	private static class Hidden {
+		private String name;
+
+		@SuppressWarnings("unused")
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+	@Test
+	public void shouldUseGeneratedImporter() throws Exception {
+		final BulkInjector<Source, Destination> importer = InjectorFactory
+				.newFactory().createImporter(Source.class, Destination.class);
+		assertEquals("Generated importer is not used",
+				GeneratedInjectors.className(Destination.class.getName(),
+						Source.class.getName(), Direction.IMPORT), importer
+						.getClass().getName());
+		final Destination dest = new Destination();
+		importer.inject(new Source(), dest);
+		assertEquals("Compliant mapping failed", "name", dest.getName());
+		assertEquals("Primitive widening failed", 42L, dest.getWidened());
+		assertEquals("List index failed", "second", dest.getListItem());
+		assertEquals("Array index failed", 3L, dest.getArrayItem());
+		assertEquals("Converter failed", 1.5f, dest.getConverted(), 0f);
+		assertEquals("Converters chain failed", 2L, dest.getChained());
+		assertEquals("Generated constructor call failed", "name", importer
+				.map(new Source()).getName());
+	}
+
+	@Test
+	public void shouldUseGeneratedExporter() throws Exception {
+		final Injector<ExportBean, ExportDestination> exporter = InjectorFactory
+				.newFactory().createExporter(ExportBean.class,
+						ExportDestination.class);
+		assertEquals("Generated exporter is not used",
+				GeneratedInjectors.className(ExportBean.class.getName(),
+						ExportDestination.class.getName(), Direction.EXPORT),
+				exporter.getClass().getName());
+		final ExportDestination dest = new ExportDestination();
+		exporter.inject(new ExportBean(), dest);
+		assertEquals("Compliant mapping failed", "name", dest.getName());
+		assertEquals("Nested export failed", "exported", dest.getNested()
+				.getString());
+	}
+
+	@Test
+	public void shouldScanInaccessibleMapping() throws Exception {
+		final Injector<Source, Hidden> importer = InjectorFactory.newFactory()
+				.createImporter(Source.class, Hidden.class);
+		assertFalse("Private bean injector should not be generated", importer
+				.getClass()
+				.getName()
+				.equals(GeneratedInjectors.className(Hidden.class.getName(),
+						Source.class.getName(), Direction.IMPORT)));
+		final Hidden dest = new Hidden();
+		importer.inject(new Source(), dest);
+		assertEquals("Runtime mapping failed", "name", dest.name);
+	}
+}
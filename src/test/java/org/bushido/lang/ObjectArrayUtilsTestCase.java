@@ -48,7 +48,6 @@ public class ObjectArrayUtilsTestCase {
 			}
 			i += (arr.length / 4);
 		}
-		Compiler.compileClass(ObjectArrayUtils.class);
 		ObjectArrayUtils.compact(arr);
 		assertEquals("Not compacted", (arr.length / 2),
 				findNotNullSequence(0, arr));